@@ -16,6 +16,9 @@ db.createUser({
 });
 
 // Crear colecciones principales con índices
+// La aplicación crea al arrancar los índices declarados con @CompoundIndex en los modelos
+// (app.mongo.indexes.ensure-on-startup); /actuator/queryadvisor muestra las consultas que
+// siguen sin índice adecuado y el índice sugerido para cada una.
 db.createCollection("fare");
 db.createCollection("routes");
 db.createCollection("schedules");
@@ -26,18 +29,24 @@ db.fare.createIndex({ "organizationId": 1 });
 db.fare.createIndex({ "fareCode": 1 }, { unique: true });
 db.fare.createIndex({ "status": 1 });
 db.fare.createIndex({ "createdAt": -1 });
+db.fare.createIndex({ "status": 1, "_id": 1 }, { name: "status_id_idx" });
+db.fare.createIndex({ "organizationId": 1, "status": 1 }, { name: "org_status_idx" });
 
 // Índices para routes
 db.routes.createIndex({ "organizationId": 1 });
 db.routes.createIndex({ "routeCode": 1 }, { unique: true });
 db.routes.createIndex({ "status": 1 });
 db.routes.createIndex({ "responsibleUserId": 1 });
+db.routes.createIndex({ "status": 1, "_id": 1 }, { name: "status_id_idx" });
+db.routes.createIndex({ "organizationId": 1, "status": 1 }, { name: "org_status_idx" });
 
 // Índices para schedules
 db.schedules.createIndex({ "organizationId": 1 });
 db.schedules.createIndex({ "scheduleCode": 1 }, { unique: true });
 db.schedules.createIndex({ "zoneId": 1 });
 db.schedules.createIndex({ "status": 1 });
+db.schedules.createIndex({ "status": 1, "_id": 1 }, { name: "status_id_idx" });
+db.schedules.createIndex({ "organizationId": 1, "status": 1 }, { name: "org_status_idx" });
 
 // Índices para programs
 db.programs.createIndex({ "organizationId": 1 });
@@ -46,6 +55,17 @@ db.programs.createIndex({ "scheduleId": 1 });
 db.programs.createIndex({ "routeId": 1 });
 db.programs.createIndex({ "status": 1 });
 db.programs.createIndex({ "programDate": -1 });
+db.programs.createIndex({ "status": 1, "_id": 1 }, { name: "status_id_idx" });
+db.programs.createIndex({ "organizationId": 1, "status": 1 }, { name: "org_status_idx" });
+db.programs.createIndex({ "organizationId": 1, "programDate": 1 }, { name: "org_programDate_idx" });
+db.programs.createIndex({ "organizationId": 1, "zoneId": 1, "programDate": 1 }, { name: "org_zone_programDate_idx" });
+db.programs.createIndex({ "organizationId": 1, "routeId": 1, "programDate": 1 }, { name: "org_route_programDate_idx" });
+db.programs.createIndex({ "organizationId": 1, "responsibleUserId": 1, "programDate": 1 }, { name: "org_responsible_programDate_idx" });
+db.programs.createIndex({ "generationKey": 1 }, { name: "generation_key_idx", unique: true, sparse: true });
+
+// Índices para program_daily_rollups (resúmenes por organización, zona y día)
+db.program_daily_rollups.createIndex({ "organizationId": 1, "day": 1 }, { name: "org_day_idx" });
+db.program_daily_rollups.createIndex({ "organizationId": 1, "zoneId": 1, "day": 1 }, { name: "org_zone_day_idx" });
 
 // Datos de ejemplo para testing
 db.fare.insertMany([
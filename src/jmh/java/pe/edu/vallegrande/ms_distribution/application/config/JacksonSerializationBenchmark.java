@@ -0,0 +1,94 @@
+package pe.edu.vallegrande.ms_distribution.application.config;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import pe.edu.vallegrande.ms_distribution.domain.models.Fare;
+import pe.edu.vallegrande.ms_distribution.infrastructure.dto.ResponseDto;
+import pe.edu.vallegrande.ms_distribution.infrastructure.dto.response.DistributionProgramResponse;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serialización de las respuestas de listado con el ObjectMapper de JacksonConfig
+ * (incluye InstantSerializer para los createdAt)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JacksonSerializationBenchmark {
+
+    @Param({"10", "500"})
+    public int size;
+
+    private ObjectMapper objectMapper;
+    private ResponseDto<List<DistributionProgramResponse>> programs;
+    private ResponseDto<List<Fare>> fares;
+
+    @Setup
+    public void setUp() {
+        JacksonConfig config = new JacksonConfig();
+        objectMapper = config.objectMapper(config.jackson2ObjectMapperBuilder());
+
+        Instant createdAt = Instant.parse("2025-03-01T12:00:00Z");
+        List<DistributionProgramResponse> programList = new ArrayList<>(size);
+        List<Fare> fareList = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            programList.add(DistributionProgramResponse.builder()
+                    .id("program-" + i)
+                    .organizationId("6896b2ecf3e398570ffd99d3")
+                    .programCode(String.format("PROG%03d", i))
+                    .scheduleId("schedule-1")
+                    .routeId("route-1")
+                    .zoneId("zone-" + (i % 8))
+                    .streetId("street-" + i)
+                    .programDate("2025-03-14")
+                    .plannedStartTime("06:00")
+                    .plannedEndTime("10:00")
+                    .status("PLANNED")
+                    .responsibleUserId("user-" + (i % 5))
+                    .createdAt(createdAt.toString())
+                    .version(1L)
+                    .build());
+            fareList.add(Fare.builder()
+                    .id("fare-" + i)
+                    .organizationId("6896b2ecf3e398570ffd99d3")
+                    .fareCode(String.format("TAR%03d", i))
+                    .fareName("Tarifa " + i)
+                    .fareType("MENSUAL")
+                    .fareAmount(new BigDecimal("20.50"))
+                    .status("ACTIVE")
+                    .createdAt(createdAt)
+                    .build());
+        }
+        programs = new ResponseDto<>(true, programList);
+        fares = new ResponseDto<>(true, fareList);
+    }
+
+    @Benchmark
+    public byte[] programList() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(programs);
+    }
+
+    @Benchmark
+    public byte[] fareList() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(fares);
+    }
+}
@@ -0,0 +1,108 @@
+package pe.edu.vallegrande.ms_distribution.application.services.impl;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import pe.edu.vallegrande.ms_distribution.domain.models.DistributionProgram;
+import pe.edu.vallegrande.ms_distribution.domain.models.DistributionRoute;
+import pe.edu.vallegrande.ms_distribution.infrastructure.dto.request.DistributionRouteCreateRequest;
+import pe.edu.vallegrande.ms_distribution.infrastructure.dto.response.DistributionProgramResponse;
+import pe.edu.vallegrande.ms_distribution.infrastructure.dto.response.DistributionProgramSummaryResponse;
+import pe.edu.vallegrande.ms_distribution.infrastructure.dto.response.DistributionRouteResponse;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Conversión entidad -> respuesta de programas y rutas, y el mapeo de zonas de
+ * DistributionRouteServiceImpl.save
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MappingBenchmark {
+
+    private static final int ZONES = 8;
+
+    // Los mappers no usan las dependencias del servicio
+    private final DistributionProgramServiceImpl programService =
+            new DistributionProgramServiceImpl(null, null, null, null, null);
+
+    private DistributionProgram program;
+    private DistributionRoute route;
+    private List<DistributionRouteCreateRequest.ZoneEntry> zoneEntries;
+
+    @Setup
+    public void setUp() {
+        program = DistributionProgram.builder()
+                .id("6896b2ecf3e398570ffd99d4")
+                .organizationId("6896b2ecf3e398570ffd99d3")
+                .programCode("PROG1024")
+                .scheduleId("6896b2ecf3e398570ffd99e1")
+                .routeId("6896b2ecf3e398570ffd99e2")
+                .zoneId("6896b2ecf3e398570ffd99e3")
+                .streetId("6896b2ecf3e398570ffd99e4")
+                .programDate(LocalDate.of(2025, 3, 14))
+                .plannedStartTime("06:00")
+                .plannedEndTime("10:00")
+                .actualStartTime("06:12")
+                .status("IN_PROGRESS")
+                .responsibleUserId("6896b2ecf3e398570ffd99e5")
+                .observations("Presión baja en el sector alto")
+                .createdAt(Instant.parse("2025-03-01T12:00:00Z"))
+                .version(3L)
+                .build();
+
+        zoneEntries = new ArrayList<>();
+        List<DistributionRoute.ZoneOrder> zones = new ArrayList<>();
+        for (int i = 0; i < ZONES; i++) {
+            zoneEntries.add(DistributionRouteCreateRequest.ZoneEntry.builder()
+                    .zoneId("zone-" + i).order(i + 1).estimatedDuration(2).build());
+            zones.add(DistributionRoute.ZoneOrder.builder().zoneId("zone-" + i).order(i + 1).estimatedDuration(2).build());
+        }
+        route = DistributionRoute.builder()
+                .id("6896b2ecf3e398570ffd99e2")
+                .organizationId("6896b2ecf3e398570ffd99d3")
+                .routeCode("RUT012")
+                .routeName("Ruta Centro")
+                .zones(zones)
+                .totalEstimatedDuration(16)
+                .responsibleUserId("6896b2ecf3e398570ffd99e5")
+                .status("ACTIVE")
+                .createdAt(Instant.parse("2025-03-01T12:00:00Z"))
+                .build();
+    }
+
+    @Benchmark
+    public DistributionProgramResponse programToResponse() {
+        return programService.toResponse(program);
+    }
+
+    @Benchmark
+    public DistributionProgramSummaryResponse programToSummary() {
+        return programService.toSummary(program);
+    }
+
+    @Benchmark
+    public List<DistributionRoute.ZoneOrder> routeZoneOrders() {
+        return DistributionRouteServiceImpl.toZoneOrders(zoneEntries);
+    }
+
+    @Benchmark
+    public DistributionRouteResponse routeToResponse() {
+        return DistributionRouteServiceImpl.toResponse(route);
+    }
+}
@@ -0,0 +1,47 @@
+package pe.edu.vallegrande.ms_distribution.domain.enums;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Formato y lectura de los códigos correlativos (PROG001, RUT1024, ...)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CodeSequenceBenchmark {
+
+    @Param({"7", "1024"})
+    public long number;
+
+    private String code;
+
+    @Setup
+    public void setUp() {
+        code = CodeSequence.PROGRAM.format(number);
+    }
+
+    @Benchmark
+    public String format() {
+        return CodeSequence.PROGRAM.format(number);
+    }
+
+    @Benchmark
+    public long parse() {
+        return CodeSequence.PROGRAM.parse(code);
+    }
+}
@@ -0,0 +1,109 @@
+package pe.edu.vallegrande.ms_distribution.infrastructure.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.SpanKind;
+import io.opentelemetry.api.trace.Tracer;
+import io.opentelemetry.context.Context;
+import io.opentelemetry.sdk.trace.ReadWriteSpan;
+import io.opentelemetry.sdk.trace.ReadableSpan;
+import io.opentelemetry.sdk.trace.SdkTracerProvider;
+import io.opentelemetry.sdk.trace.SpanProcessor;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Costo del muestreo adaptativo por petición: una raíz SERVER con 8 spans hijos (servicio y
+ * comandos de MongoDB) con los atributos que deja el puente de Micrometer. passthrough entrega
+ * cada span al procesador de exportación sin decidir nada; adaptive pasa por
+ * AdaptiveSamplingSpanProcessor con los valores de application.yml (casi todo se descarta).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AdaptiveSamplingSpanProcessorBenchmark {
+
+    private static final int CHILDREN = 8;
+
+    @Param({"passthrough", "adaptive"})
+    public String processor;
+
+    private SdkTracerProvider tracerProvider;
+    private Tracer tracer;
+
+    @Setup
+    public void setUp() {
+        // Sustituye al BatchSpanProcessor: sólo se mide lo que ocurre antes de encolar
+        SpanProcessor exporting = new SpanProcessor() {
+            @Override
+            public void onStart(Context parentContext, ReadWriteSpan span) {
+            }
+
+            @Override
+            public boolean isStartRequired() {
+                return false;
+            }
+
+            @Override
+            public void onEnd(ReadableSpan span) {
+            }
+
+            @Override
+            public boolean isEndRequired() {
+                return true;
+            }
+        };
+        SpanProcessor spanProcessor = processor.equals("adaptive")
+                ? new AdaptiveSamplingSpanProcessor(exporting, Duration.ofMillis(500), 0.01,
+                        10_000, Duration.ofMinutes(2), new SimpleMeterRegistry())
+                : exporting;
+        tracerProvider = SdkTracerProvider.builder().addSpanProcessor(spanProcessor).build();
+        tracer = tracerProvider.get("benchmark");
+    }
+
+    @TearDown
+    public void tearDown() {
+        tracerProvider.close();
+    }
+
+    @Benchmark
+    public Span request() {
+        Span root = tracer.spanBuilder("http get /api/admin/programs").setSpanKind(SpanKind.SERVER)
+                .setAttribute("method", "GET")
+                .setAttribute("uri", "/api/admin/programs")
+                .setAttribute("status", "200")
+                .setAttribute("outcome", "SUCCESS")
+                .setAttribute("exception", "none")
+                .startSpan();
+        Context parent = Context.root().with(root);
+        for (int i = 0; i < CHILDREN; i++) {
+            Span child = tracer.spanBuilder(i % 2 == 0 ? "app.service" : "programs.find")
+                    .setParent(parent)
+                    .setAttribute("service", "DistributionProgramService")
+                    .setAttribute("method", "getAll")
+                    .setAttribute("outcome", "success")
+                    .setAttribute("error", "none")
+                    .setAttribute("organization", "org-3")
+                    .startSpan();
+            child.end();
+        }
+        root.end();
+        return root;
+    }
+}
@@ -0,0 +1,126 @@
+package pe.edu.vallegrande.ms_distribution.infrastructure.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.core.ResolvableType;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.json.Jackson2JsonDecoder;
+import pe.edu.vallegrande.ms_distribution.application.config.JacksonConfig;
+import pe.edu.vallegrande.ms_distribution.infrastructure.dto.external.AdminUserResponse;
+import pe.edu.vallegrande.ms_distribution.infrastructure.dto.external.MsUsersApiResponse;
+import reactor.core.publisher.Flux;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Decodificación de la lista de administradores de MS-USERS tal como llega de la red:
+ * el cuerpo partido en buffers de 8 KB y cada elemento convertido a AdminUserResponse.
+ * Compara el decodificador en streaming con el sobre tipado y con el mapa genérico más
+ * convertValue por elemento; la asignación por operación sale de gc.alloc.rate.norm.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MsUsersDecoderBenchmark {
+
+    private static final int CHUNK_SIZE = 8192;
+    private static final ResolvableType TYPED_ENVELOPE =
+            ResolvableType.forClassWithGenerics(MsUsersApiResponse.class, AdminUserResponse.class);
+    private static final ResolvableType RAW_ENVELOPE = ResolvableType.forClass(MsUsersApiResponse.class);
+
+    @Param({"20", "200"})
+    public int admins;
+
+    private final DefaultDataBufferFactory bufferFactory = DefaultDataBufferFactory.sharedInstance;
+
+    private ObjectMapper objectMapper;
+    private Jackson2JsonDecoder jsonDecoder;
+    private MsUsersResponseDecoder decoder;
+    private List<byte[]> chunks;
+
+    @Setup
+    public void setUp() {
+        JacksonConfig config = new JacksonConfig();
+        objectMapper = config.objectMapper(config.jackson2ObjectMapperBuilder());
+        jsonDecoder = new Jackson2JsonDecoder(objectMapper);
+        decoder = new MsUsersResponseDecoder(objectMapper);
+
+        byte[] body = adminsBody(admins).getBytes(StandardCharsets.UTF_8);
+        chunks = new ArrayList<>();
+        for (int offset = 0; offset < body.length; offset += CHUNK_SIZE) {
+            chunks.add(Arrays.copyOfRange(body, offset, Math.min(body.length, offset + CHUNK_SIZE)));
+        }
+    }
+
+    @Benchmark
+    public List<AdminUserResponse> decodeAdmins() {
+        return decoder.decodeData(body(), AdminUserResponse.class).collectList().block();
+    }
+
+    @Benchmark
+    @SuppressWarnings("unchecked")
+    public MsUsersApiResponse<AdminUserResponse> typedEnvelope() {
+        return (MsUsersApiResponse<AdminUserResponse>) jsonDecoder
+                .decodeToMono(body(), TYPED_ENVELOPE, MediaType.APPLICATION_JSON, Map.of())
+                .block();
+    }
+
+    /**
+     * Forma anterior: sobre sin tipo (data como mapas) y convertValue de cada elemento
+     */
+    @Benchmark
+    @SuppressWarnings("unchecked")
+    public List<AdminUserResponse> mapConversion() {
+        MsUsersApiResponse<Object> response = (MsUsersApiResponse<Object>) jsonDecoder
+                .decodeToMono(body(), RAW_ENVELOPE, MediaType.APPLICATION_JSON, Map.of())
+                .block();
+        List<AdminUserResponse> result = new ArrayList<>(response.getData().size());
+        for (Object element : response.getData()) {
+            result.add(objectMapper.convertValue(element, AdminUserResponse.class));
+        }
+        return result;
+    }
+
+    private Flux<DataBuffer> body() {
+        // Los buffers se consumen al leerlos: se envuelven de nuevo en cada invocación
+        return Flux.fromIterable(chunks).map(bufferFactory::wrap);
+    }
+
+    private static String adminsBody(int count) {
+        StringBuilder body = new StringBuilder("{\"success\": true, \"message\": \"ok\", \"data\": [");
+        for (int i = 0; i < count; i++) {
+            if (i > 0) {
+                body.append(',');
+            }
+            body.append("""
+                    {"id": "admin-%1$d", "userCode": "USR%1$03d", "firstName": "Nombre", "lastName": "Apellido",
+                     "documentType": "DNI", "documentNumber": "7000%1$04d", "email": "admin%1$d@jass.pe",
+                     "phone": "999000111", "address": "Av. Principal 123", "roles": ["ADMIN", "USER"],
+                     "status": "ACTIVE", "createdAt": "2025-01-01T00:00:00Z", "updatedAt": "2025-01-01T00:00:00Z",
+                     "organization": {"organizationId": "org-1", "organizationCode": "ORG001", "organizationName": "JASS"},
+                     "zone": {"zoneId": "z-1", "zoneCode": "ZN001", "zoneName": "Centro", "status": "ACTIVE"}}"""
+                    .formatted(i));
+        }
+        return body.append("]}").toString();
+    }
+}
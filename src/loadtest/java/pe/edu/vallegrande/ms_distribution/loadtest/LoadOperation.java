@@ -0,0 +1,31 @@
+package pe.edu.vallegrande.ms_distribution.loadtest;
+
+/**
+ * Operaciones de la mezcla de carga; la ruta es la plantilla con la que se agrupan las
+ * latencias en el reporte
+ */
+enum LoadOperation {
+    CREATE_PROGRAM("create", "POST /api/admin/programs"),
+    CHANGE_STATUS("status", "PATCH /api/admin/programs/{id}"),
+    LIST_PAGE("page", "GET /api/admin/programs/page"),
+    LIST_RANGE("range", "GET /api/admin/programs/organization/{organizationId}/range"),
+    ADMIN_CHECK("admin", "GET /api/organizations/{organizationId}/admins/{userId}/authorized");
+
+    final String key;
+    final String route;
+
+    LoadOperation(String key, String route) {
+        this.key = key;
+        this.route = route;
+    }
+
+    static LoadOperation fromKey(String key) {
+        for (LoadOperation operation : values()) {
+            if (operation.key.equals(key)) {
+                return operation;
+            }
+        }
+        throw new IllegalArgumentException("Operación desconocida en loadtest.mix: " + key
+                + " (admite create, status, page, range, admin)");
+    }
+}
@@ -0,0 +1,96 @@
+package pe.edu.vallegrande.ms_distribution.loadtest;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Latencias por operación en histogramas HDR (microsegundos, 3 dígitos significativos)
+ * y errores; una instancia por fase para que el calentamiento no entre en el reporte
+ */
+final class LoadStats {
+
+    private final Map<LoadOperation, ConcurrentHistogram> latencies = new EnumMap<>(LoadOperation.class);
+    private final Map<LoadOperation, AtomicLong> errors = new EnumMap<>(LoadOperation.class);
+
+    LoadStats() {
+        for (LoadOperation operation : LoadOperation.values()) {
+            latencies.put(operation, new ConcurrentHistogram(3));
+            errors.put(operation, new AtomicLong());
+        }
+    }
+
+    void recordSuccess(LoadOperation operation, long elapsedNanos) {
+        latencies.get(operation).recordValue(Math.max(1, elapsedNanos / 1_000));
+    }
+
+    void recordError(LoadOperation operation) {
+        errors.get(operation).incrementAndGet();
+    }
+
+    long totalRequests() {
+        long total = 0;
+        for (LoadOperation operation : LoadOperation.values()) {
+            total += latencies.get(operation).getTotalCount() + errors.get(operation).get();
+        }
+        return total;
+    }
+
+    long totalErrors() {
+        return errors.values().stream().mapToLong(AtomicLong::get).sum();
+    }
+
+    /**
+     * Resultado por operación y total, en la forma en que se escribe el JSON
+     */
+    Map<String, Object> summary(double elapsedSeconds) {
+        Map<String, Object> endpoints = new LinkedHashMap<>();
+        Histogram all = new Histogram(3);
+        for (LoadOperation operation : LoadOperation.values()) {
+            Histogram histogram = latencies.get(operation).copy();
+            long failed = errors.get(operation).get();
+            if (histogram.getTotalCount() + failed == 0) {
+                continue;
+            }
+            all.add(histogram);
+            endpoints.put(operation.key, entry(operation.route, histogram, failed, elapsedSeconds));
+        }
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("total", entry("*", all, totalErrors(), elapsedSeconds));
+        summary.put("endpoints", endpoints);
+        return summary;
+    }
+
+    private static Map<String, Object> entry(String route, Histogram histogram, long failed, double elapsedSeconds) {
+        long requests = histogram.getTotalCount() + failed;
+        Map<String, Object> latency = new LinkedHashMap<>();
+        latency.put("mean", millis(histogram.getMean()));
+        latency.put("p50", millis(histogram.getValueAtPercentile(50)));
+        latency.put("p90", millis(histogram.getValueAtPercentile(90)));
+        latency.put("p99", millis(histogram.getValueAtPercentile(99)));
+        latency.put("p999", millis(histogram.getValueAtPercentile(99.9)));
+        latency.put("max", millis(histogram.getMaxValue()));
+
+        Map<String, Object> entry = new LinkedHashMap<>();
+        entry.put("route", route);
+        entry.put("requests", requests);
+        entry.put("errors", failed);
+        entry.put("errorRate", requests == 0 ? 0.0 : round((double) failed / requests, 4));
+        entry.put("throughputPerSecond", round(requests / elapsedSeconds, 2));
+        entry.put("latencyMillis", latency);
+        return entry;
+    }
+
+    private static double millis(double micros) {
+        return round(micros / 1_000.0, 3);
+    }
+
+    private static double round(double value, int decimals) {
+        double scale = Math.pow(10, decimals);
+        return Math.round(value * scale) / scale;
+    }
+}
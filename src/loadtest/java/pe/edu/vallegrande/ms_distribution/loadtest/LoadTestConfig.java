@@ -0,0 +1,82 @@
+package pe.edu.vallegrande.ms_distribution.loadtest;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Parámetros de la prueba de carga, leídos de propiedades de sistema (-Dloadtest.*)
+ */
+final class LoadTestConfig {
+
+    final Duration duration;
+    final Duration warmup;
+    final int concurrency;
+    final int organizations;
+    final int seedPrograms;
+    final Duration usersLatency;
+    final Duration usersCacheTtl;
+    final String mongoUri;              // null: se levanta un mongod embebido
+    final String output;
+    final double maxErrorRate;
+    final Map<LoadOperation, Integer> mix;
+
+    private LoadTestConfig(Duration duration, Duration warmup, int concurrency, int organizations, int seedPrograms,
+                           Duration usersLatency, Duration usersCacheTtl, String mongoUri, String output,
+                           double maxErrorRate, Map<LoadOperation, Integer> mix) {
+        this.duration = duration;
+        this.warmup = warmup;
+        this.concurrency = concurrency;
+        this.organizations = organizations;
+        this.seedPrograms = seedPrograms;
+        this.usersLatency = usersLatency;
+        this.usersCacheTtl = usersCacheTtl;
+        this.mongoUri = mongoUri;
+        this.output = output;
+        this.maxErrorRate = maxErrorRate;
+        this.mix = mix;
+    }
+
+    static LoadTestConfig fromSystemProperties() {
+        String mongoUri = System.getProperty("loadtest.mongo-uri");
+        return new LoadTestConfig(
+                Duration.parse(property("duration", "PT60S")),
+                Duration.parse(property("warmup", "PT15S")),
+                Integer.parseInt(property("concurrency", "32")),
+                Integer.parseInt(property("organizations", "20")),
+                Integer.parseInt(property("seed-programs", "500")),
+                Duration.parse(property("users-latency", "PT0.05S")),
+                Duration.parse(property("users-cache-ttl", "PT30S")),
+                mongoUri == null || mongoUri.isBlank() ? null : mongoUri,
+                property("output", "target/loadtest-result.json"),
+                Double.parseDouble(property("max-error-rate", "0.01")),
+                parseMix(property("mix", "create:15,status:15,page:20,range:30,admin:20")));
+    }
+
+    /**
+     * "create:15,status:15,..." -> peso por operación; las omitidas no se ejecutan
+     */
+    static Map<LoadOperation, Integer> parseMix(String value) {
+        Map<LoadOperation, Integer> mix = new EnumMap<>(LoadOperation.class);
+        for (String entry : value.split(",")) {
+            String[] parts = entry.trim().split(":");
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("Entrada de loadtest.mix inválida: " + entry);
+            }
+            int weight = Integer.parseInt(parts[1].trim());
+            if (weight > 0) {
+                mix.put(LoadOperation.fromKey(parts[0].trim().toLowerCase(Locale.ROOT)), weight);
+            }
+        }
+        if (mix.isEmpty()) {
+            throw new IllegalArgumentException("loadtest.mix no tiene operaciones con peso positivo");
+        }
+        return mix;
+    }
+
+    private static String property(String name, String defaultValue) {
+        String value = System.getProperty("loadtest." + name);
+        return value == null || value.isBlank() ? defaultValue : value;
+    }
+}
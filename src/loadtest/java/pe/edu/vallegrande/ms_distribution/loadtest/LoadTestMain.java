@@ -0,0 +1,181 @@
+package pe.edu.vallegrande.ms_distribution.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import de.flapdoodle.embed.mongo.commands.ServerAddress;
+import de.flapdoodle.embed.mongo.distribution.Version;
+import de.flapdoodle.embed.mongo.transitions.Mongod;
+import de.flapdoodle.embed.mongo.transitions.RunningMongodProcess;
+import de.flapdoodle.reverse.TransitionWalker;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import pe.edu.vallegrande.ms_distribution.msWaterDistributionApplication;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.io.File;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Prueba de carga de extremo a extremo: levanta el microservicio contra un mongod local
+ * (embebido, o el de -Dloadtest.mongo-uri) y un MS-USERS simulado con latencia
+ * configurable, ejecuta la mezcla de operaciones con N usuarios concurrentes en lazo
+ * cerrado y escribe throughput y percentiles por endpoint en JSON.
+ * <p>
+ * El generador y el servicio comparten la JVM: los números sirven para comparar versiones
+ * en la misma máquina, no como capacidad absoluta.
+ */
+public final class LoadTestMain {
+
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(30);
+
+    private LoadTestMain() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        LoadTestConfig config = LoadTestConfig.fromSystemProperties();
+
+        TransitionWalker.ReachedState<RunningMongodProcess> mongod = null;
+        String mongoUri = config.mongoUri;
+        if (mongoUri == null) {
+            mongod = Mongod.instance().start(Version.Main.V7_0);
+            ServerAddress address = mongod.current().getServerAddress();
+            mongoUri = "mongodb://" + address.getHost() + ":" + address.getPort() + "/loadtest";
+        }
+
+        try (MsUsersStub users = new MsUsersStub(config.usersLatency)) {
+            users.start();
+            ConfigurableApplicationContext app = new SpringApplicationBuilder(msWaterDistributionApplication.class)
+                    .run(appArguments(config, mongoUri, users.baseUrl()));
+            try {
+                int port = ((WebServerApplicationContext) app).getWebServer().getPort();
+                LoadWorkload workload = new LoadWorkload("http://localhost:" + port, config.concurrency, config.organizations);
+
+                System.out.printf("Carga inicial: %d programas%n", workload.seed(config.seedPrograms).block());
+                System.out.printf("Calentamiento: %s con %d usuarios%n", config.warmup, config.concurrency);
+                drive(workload, config, config.warmup, new LoadStats());
+
+                System.out.printf("Medición: %s con %d usuarios%n", config.duration, config.concurrency);
+                LoadStats stats = new LoadStats();
+                long adminRequestsBefore = users.adminRequests();
+                long started = System.nanoTime();
+                drive(workload, config, config.duration, stats);
+                double elapsedSeconds = (System.nanoTime() - started) / 1e9;
+
+                Map<String, Object> report = report(config, stats, elapsedSeconds, users.adminRequests() - adminRequestsBefore);
+                File output = new File(config.output);
+                if (output.getParentFile() != null) {
+                    output.getParentFile().mkdirs();
+                }
+                new ObjectMapper().writerWithDefaultPrettyPrinter().writeValue(output, report);
+                print(stats.summary(elapsedSeconds));
+                System.out.printf("Reporte: %s%n", output.getAbsolutePath());
+
+                double errorRate = stats.totalRequests() == 0 ? 1.0 : (double) stats.totalErrors() / stats.totalRequests();
+                if (errorRate > config.maxErrorRate) {
+                    throw new IllegalStateException(String.format("Tasa de error %.4f supera el máximo %.4f",
+                            errorRate, config.maxErrorRate));
+                }
+            } finally {
+                app.close();
+            }
+        } finally {
+            if (mongod != null) {
+                mongod.close();
+            }
+        }
+    }
+
+    /**
+     * Lazo cerrado: cada usuario virtual envía la siguiente petición al recibir la respuesta
+     */
+    private static void drive(LoadWorkload workload, LoadTestConfig config, Duration duration, LoadStats stats) {
+        long deadline = System.nanoTime() + duration.toNanos();
+        int totalWeight = config.mix.values().stream().mapToInt(Integer::intValue).sum();
+
+        Flux.range(0, config.concurrency)
+                .flatMap(user -> Mono.defer(() -> {
+                                    LoadOperation operation = pick(config, totalWeight);
+                                    long start = System.nanoTime();
+                                    return workload.execute(operation)
+                                            .timeout(REQUEST_TIMEOUT)
+                                            .doOnSuccess(response -> stats.recordSuccess(operation, System.nanoTime() - start))
+                                            .onErrorResume(e -> {
+                                                stats.recordError(operation);
+                                                return Mono.empty();
+                                            })
+                                            .then();
+                                })
+                                .repeat(() -> System.nanoTime() < deadline),
+                        config.concurrency)
+                .blockLast();
+    }
+
+    private static LoadOperation pick(LoadTestConfig config, int totalWeight) {
+        int ticket = ThreadLocalRandom.current().nextInt(totalWeight);
+        for (Map.Entry<LoadOperation, Integer> entry : config.mix.entrySet()) {
+            ticket -= entry.getValue();
+            if (ticket < 0) {
+                return entry.getKey();
+            }
+        }
+        throw new IllegalStateException("Mezcla sin operaciones");
+    }
+
+    private static String[] appArguments(LoadTestConfig config, String mongoUri, String usersBaseUrl) {
+        return new String[]{
+                "--spring.data.mongodb.uri=" + mongoUri,
+                "--server.port=0",
+                "--spring.main.banner-mode=off",
+                "--logging.level.root=WARN",
+                "--logging.level.pe.edu.vallegrande=WARN",
+                "--external.apis.ms-users.base-url=" + usersBaseUrl,
+                "--external.apis.ms-users.cache.ttl=" + config.usersCacheTtl,
+                "--external.apis.ms-users.cache.refresh-after=" + config.usersCacheTtl.dividedBy(2)
+        };
+    }
+
+    private static Map<String, Object> report(LoadTestConfig config, LoadStats stats, double elapsedSeconds,
+                                              long adminRequests) {
+        Map<String, Object> settings = new LinkedHashMap<>();
+        settings.put("duration", config.duration.toString());
+        settings.put("warmup", config.warmup.toString());
+        settings.put("concurrency", config.concurrency);
+        settings.put("organizations", config.organizations);
+        settings.put("seedPrograms", config.seedPrograms);
+        settings.put("usersLatency", config.usersLatency.toString());
+        settings.put("usersCacheTtl", config.usersCacheTtl.toString());
+        settings.put("mongo", config.mongoUri == null ? "embedded" : "external");
+        Map<String, Integer> mix = new LinkedHashMap<>();
+        config.mix.forEach((operation, weight) -> mix.put(operation.key, weight));
+        settings.put("mix", mix);
+
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("finishedAt", Instant.now().toString());
+        report.put("config", settings);
+        report.put("elapsedSeconds", Math.round(elapsedSeconds * 1000) / 1000.0);
+        report.putAll(stats.summary(elapsedSeconds));
+        report.put("msUsersAdminRequests", adminRequests);
+        return report;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static void print(Map<String, Object> summary) {
+        System.out.printf("%-8s %10s %8s %10s %9s %9s %9s %9s%n",
+                "op", "requests", "errors", "req/s", "p50 ms", "p99 ms", "p999 ms", "max ms");
+        Map<String, Object> rows = new LinkedHashMap<>((Map<String, Object>) summary.get("endpoints"));
+        rows.put("total", summary.get("total"));
+        rows.forEach((name, value) -> {
+            Map<String, Object> row = (Map<String, Object>) value;
+            Map<String, Object> latency = (Map<String, Object>) row.get("latencyMillis");
+            System.out.printf("%-8s %10d %8d %10.1f %9.2f %9.2f %9.2f %9.2f%n", name,
+                    (Long) row.get("requests"), (Long) row.get("errors"), (Double) row.get("throughputPerSecond"),
+                    (Double) latency.get("p50"), (Double) latency.get("p99"), (Double) latency.get("p999"),
+                    (Double) latency.get("max"));
+        });
+    }
+}
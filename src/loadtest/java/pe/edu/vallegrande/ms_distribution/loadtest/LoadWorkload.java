@@ -0,0 +1,143 @@
+package pe.edu.vallegrande.ms_distribution.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Peticiones de cada operación de la mezcla. Los programas creados (en la carga inicial y
+ * durante la prueba) alimentan los cambios de estado.
+ */
+final class LoadWorkload {
+
+    private static final int KNOWN_PROGRAMS = 10_000;
+    private static final int ZONES = 8;
+    private static final int SEED_BATCH = 100;
+    private static final String[] STATUSES = {"PLANNED", "IN_PROGRESS", "COMPLETED"};
+    private static final MediaType MERGE_PATCH = MediaType.parseMediaType("application/merge-patch+json");
+
+    private final WebClient client;
+    private final List<String> organizations;
+    private final LocalDate today = LocalDate.now();
+
+    // Anillo de ids conocidos: las escrituras reemplazan los más antiguos
+    private final AtomicReferenceArray<String> programIds = new AtomicReferenceArray<>(KNOWN_PROGRAMS);
+    private final AtomicLong programCount = new AtomicLong();
+
+    LoadWorkload(String baseUrl, int concurrency, int organizationCount) {
+        ConnectionProvider connections = ConnectionProvider.builder("loadtest")
+                .maxConnections(Math.max(concurrency, 1) * 2)
+                .pendingAcquireMaxCount(-1)
+                .build();
+        this.client = WebClient.builder()
+                .baseUrl(baseUrl)
+                .clientConnector(new ReactorClientHttpConnector(HttpClient.create(connections)))
+                .build();
+        this.organizations = new ArrayList<>(organizationCount);
+        for (int i = 0; i < organizationCount; i++) {
+            organizations.add(String.format("%024x", 0x6896b2ecL * 1000 + i));
+        }
+    }
+
+    /**
+     * Carga inicial por lotes para que las lecturas y los cambios de estado tengan datos
+     */
+    Mono<Long> seed(int programs) {
+        int batches = (programs + SEED_BATCH - 1) / SEED_BATCH;
+        return Flux.range(0, batches)
+                .concatMap(batch -> {
+                    int size = Math.min(SEED_BATCH, programs - batch * SEED_BATCH);
+                    List<Map<String, Object>> requests = new ArrayList<>(size);
+                    for (int i = 0; i < size; i++) {
+                        requests.add(newProgram(ThreadLocalRandom.current()));
+                    }
+                    return client.post().uri("/api/admin/programs/batch")
+                            .bodyValue(requests)
+                            .retrieve()
+                            .bodyToMono(JsonNode.class);
+                })
+                .doOnNext(response -> response.path("data").path("items")
+                        .forEach(item -> remember(item.path("id").asText(null))))
+                .then(Mono.fromSupplier(programCount::get));
+    }
+
+    Mono<?> execute(LoadOperation operation) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        return switch (operation) {
+            case CREATE_PROGRAM -> client.post().uri("/api/admin/programs")
+                    .bodyValue(newProgram(random))
+                    .retrieve()
+                    .bodyToMono(JsonNode.class)
+                    .doOnNext(response -> remember(response.path("data").path("id").asText(null)));
+            case CHANGE_STATUS -> {
+                String id = randomProgram(random);
+                yield id == null
+                        ? Mono.error(new IllegalStateException("No hay programas creados"))
+                        : client.patch().uri("/api/admin/programs/{id}", id)
+                                .contentType(MERGE_PATCH)
+                                .bodyValue(Map.of("status", STATUSES[random.nextInt(STATUSES.length)]))
+                                .retrieve()
+                                .toBodilessEntity();
+            }
+            case LIST_PAGE -> client.get().uri("/api/admin/programs/page?limit={limit}", 50)
+                    .retrieve()
+                    .toBodilessEntity();
+            case LIST_RANGE -> client.get().uri(builder -> builder
+                            .path("/api/admin/programs/organization/{organizationId}/range")
+                            .queryParam("from", today.minusDays(7))
+                            .queryParam("to", today.plusDays(7))
+                            .build(randomOrganization(random)))
+                    .accept(MediaType.APPLICATION_JSON)
+                    .retrieve()
+                    .toBodilessEntity();
+            // Algunos usuarios no son administradores: también se mide la respuesta negativa
+            case ADMIN_CHECK -> client.get().uri("/api/organizations/{organizationId}/admins/{userId}/authorized",
+                            randomOrganization(random), "admin-" + random.nextInt(MsUsersStub.ADMINS_PER_ORGANIZATION + 2))
+                    .retrieve()
+                    .toBodilessEntity();
+        };
+    }
+
+    private Map<String, Object> newProgram(ThreadLocalRandom random) {
+        int startHour = 5 + random.nextInt(12);
+        return Map.of(
+                "organizationId", randomOrganization(random),
+                "scheduleId", "schedule-" + random.nextInt(4),
+                "routeId", "route-" + random.nextInt(4),
+                "zoneId", "zone-" + random.nextInt(ZONES),
+                "streetId", "street-" + random.nextInt(50),
+                "programDate", today.plusDays(random.nextInt(-14, 15)).toString(),
+                "plannedStartTime", String.format("%02d:00", startHour),
+                "plannedEndTime", String.format("%02d:00", startHour + 4),
+                "status", "PLANNED",
+                "responsibleUserId", "admin-" + random.nextInt(MsUsersStub.ADMINS_PER_ORGANIZATION));
+    }
+
+    private void remember(String id) {
+        if (id != null && !id.isEmpty()) {
+            programIds.set((int) (programCount.getAndIncrement() % KNOWN_PROGRAMS), id);
+        }
+    }
+
+    private String randomProgram(ThreadLocalRandom random) {
+        long known = Math.min(programCount.get(), KNOWN_PROGRAMS);
+        return known == 0 ? null : programIds.get(random.nextInt((int) known));
+    }
+
+    private String randomOrganization(ThreadLocalRandom random) {
+        return organizations.get(random.nextInt(organizations.size()));
+    }
+}
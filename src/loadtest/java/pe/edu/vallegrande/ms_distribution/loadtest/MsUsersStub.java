@@ -0,0 +1,79 @@
+package pe.edu.vallegrande.ms_distribution.loadtest;
+
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * MS-USERS simulado: responde la lista de administradores de cualquier organización con
+ * la latencia configurada, para medir el servicio sin depender del entorno remoto
+ */
+final class MsUsersStub implements AutoCloseable {
+
+    static final int ADMINS_PER_ORGANIZATION = 5;
+
+    private static final Pattern ADMINS_PATH = Pattern.compile("^/internal/organizations/([^/?]+)/admins$");
+
+    private final MockWebServer server = new MockWebServer();
+    private final AtomicLong adminRequests = new AtomicLong();
+
+    MsUsersStub(Duration latency) {
+        server.setDispatcher(new Dispatcher() {
+            @Override
+            public MockResponse dispatch(RecordedRequest request) {
+                String path = request.getPath() == null ? "" : request.getPath();
+                Matcher admins = ADMINS_PATH.matcher(path);
+                if (!admins.matches()) {
+                    return new MockResponse().setResponseCode(404);
+                }
+                adminRequests.incrementAndGet();
+                return new MockResponse()
+                        .setHeader("Content-Type", "application/json")
+                        .setHeadersDelay(latency.toMillis(), TimeUnit.MILLISECONDS)
+                        .setBody(adminsBody(admins.group(1)));
+            }
+        });
+    }
+
+    void start() throws IOException {
+        server.start();
+    }
+
+    String baseUrl() {
+        String url = server.url("/").toString();
+        return url.substring(0, url.length() - 1);
+    }
+
+    long adminRequests() {
+        return adminRequests.get();
+    }
+
+    @Override
+    public void close() throws IOException {
+        server.shutdown();
+    }
+
+    private static String adminsBody(String organizationId) {
+        StringBuilder body = new StringBuilder("{\"success\": true, \"message\": \"ok\", \"data\": [");
+        for (int i = 0; i < ADMINS_PER_ORGANIZATION; i++) {
+            if (i > 0) {
+                body.append(',');
+            }
+            body.append("""
+                    {"id": "admin-%1$d", "userCode": "USR%1$03d", "firstName": "Nombre", "lastName": "Apellido",
+                     "documentType": "DNI", "documentNumber": "7000%1$04d", "email": "admin%1$d@jass.pe",
+                     "roles": ["ADMIN"], "status": "ACTIVE",
+                     "organization": {"organizationId": "%2$s", "organizationCode": "ORG001", "organizationName": "JASS"}}"""
+                    .formatted(i, organizationId));
+        }
+        return body.append("]}").toString();
+    }
+}
@@ -4,6 +4,8 @@ import lombok.Data;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.context.annotation.Configuration;
 
+import java.time.Duration;
+
 /**
  * Propiedades de configuración para APIs externas
  */
@@ -20,6 +22,9 @@ public class ExternalApiProperties {
         private Endpoints endpoints = new Endpoints();
         private Auth auth = new Auth();
         private Timeout timeout = new Timeout();
+        private Pool pool = new Pool();
+        private Cache cache = new Cache();
+        private Hedging hedging = new Hedging();
 
         @Data
         public static class Endpoints {
@@ -43,5 +48,34 @@ public class ExternalApiProperties {
             private int connection = 10000;
             private int read = 15000;
         }
+
+        @Data
+        public static class Pool {
+            private int maxConnections = 100;
+            private int pendingAcquireMaxCount = 500;
+            private Duration pendingAcquireTimeout = Duration.ofSeconds(5);
+            private Duration maxIdleTime = Duration.ofSeconds(30);
+            private Duration maxLifeTime = Duration.ofMinutes(5);
+            private Duration evictInBackground = Duration.ofSeconds(60);
+            private boolean keepAlive = true;
+            private boolean http2 = false;
+            private boolean compress = true;
+            private boolean metrics = true;
+        }
+
+        @Data
+        public static class Cache {
+            private Duration ttl = Duration.ofMinutes(5);
+            private Duration refreshAfter = Duration.ofMinutes(1);
+            private long maxSize = 1000;
+            private Duration staleTtl = Duration.ofHours(24);
+        }
+
+        @Data
+        public static class Hedging {
+            private boolean enabled = false;
+            private Duration minDelay = Duration.ofMillis(50);
+            private Duration maxDelay = Duration.ofSeconds(2);
+        }
     }
 }
\ No newline at end of file
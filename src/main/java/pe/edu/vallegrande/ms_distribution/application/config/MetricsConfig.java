@@ -0,0 +1,73 @@
+package pe.edu.vallegrande.ms_distribution.application.config;
+
+import io.micrometer.observation.ObservationRegistry;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.aop.support.DefaultPointcutAdvisor;
+import org.springframework.aop.support.StaticMethodMatcherPointcut;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.ClassUtils;
+import pe.edu.vallegrande.ms_distribution.application.services.DistributionProgramService;
+import pe.edu.vallegrande.ms_distribution.infrastructure.service.OrganizationTags;
+import pe.edu.vallegrande.ms_distribution.infrastructure.service.ServiceObservationInterceptor;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+
+/**
+ * Instrumenta con {@link ServiceObservationInterceptor} (timer y span) los métodos de las
+ * interfaces de application/services en sus implementaciones. Se usa proxy de clase para que los
+ * métodos propios de las implementaciones (@EventListener, jobs) sigan disponibles.
+ * La latencia de los comandos de MongoDB la publica el listener de Spring Boot
+ * (mongodb.driver.commands, por comando y colección); su histograma se activa en application.yml.
+ */
+@Configuration
+public class MetricsConfig {
+
+    private static final String SERVICES_PACKAGE = ClassUtils.getPackageName(DistributionProgramService.class);
+
+    @Bean
+    static BeanPostProcessor serviceObservationPostProcessor(ObjectProvider<ObservationRegistry> observationRegistry,
+                                                         ObjectProvider<OrganizationTags> organizationTags) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                Class<?> type = ClassUtils.getUserClass(bean);
+                if (!type.getPackageName().equals(SERVICES_PACKAGE + ".impl") || serviceInterfaces(type).length == 0) {
+                    return bean;
+                }
+                ProxyFactory proxyFactory = new ProxyFactory(bean);
+                proxyFactory.setProxyTargetClass(true);
+                proxyFactory.addAdvisor(new DefaultPointcutAdvisor(new ServiceMethodPointcut(),
+                        new ServiceObservationInterceptor(observationRegistry.getObject(), organizationTags.getObject())));
+                return proxyFactory.getProxy(type.getClassLoader());
+            }
+        };
+    }
+
+    private static Class<?>[] serviceInterfaces(Class<?> type) {
+        return ClassUtils.getAllInterfacesForClassAsSet(type).stream()
+                .filter(candidate -> candidate.getPackageName().equals(SERVICES_PACKAGE))
+                .toArray(Class<?>[]::new);
+    }
+
+    /**
+     * Sólo los métodos declarados en la interfaz del servicio
+     */
+    private static class ServiceMethodPointcut extends StaticMethodMatcherPointcut {
+        @Override
+        public boolean matches(Method method, Class<?> targetClass) {
+            if (!Modifier.isPublic(method.getModifiers())) {
+                return false;
+            }
+            for (Class<?> service : serviceInterfaces(targetClass)) {
+                if (ClassUtils.hasMethod(service, method.getName(), method.getParameterTypes())) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package pe.edu.vallegrande.ms_distribution.application.config;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.mongo.MongoClientSettingsBuilderCustomizer;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.index.MongoPersistentEntityIndexResolver;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+import pe.edu.vallegrande.ms_distribution.domain.models.DistributionProgram;
+import pe.edu.vallegrande.ms_distribution.domain.models.DistributionRoute;
+import pe.edu.vallegrande.ms_distribution.domain.models.DistributionSchedule;
+import pe.edu.vallegrande.ms_distribution.domain.models.Fare;
+import pe.edu.vallegrande.ms_distribution.domain.models.ProgramDailyRollup;
+import pe.edu.vallegrande.ms_distribution.domain.models.ProgramEvent;
+import pe.edu.vallegrande.ms_distribution.infrastructure.service.SlowQueryDetector;
+import reactor.core.publisher.Flux;
+
+import java.util.List;
+
+/**
+ * Crea al arrancar los índices compuestos declarados con @CompoundIndex en los modelos
+ * (p. ej. {organizationId, status}). Un fallo al crear un índice sólo se registra en log;
+ * con app.mongo.indexes.ensure-on-startup=false se omite (índices gestionados fuera).
+ * <p>
+ * Registra también el detector de consultas lentas en el cliente de MongoDB.
+ */
+@Slf4j
+@Configuration
+@RequiredArgsConstructor
+public class MongoIndexConfig {
+
+    private static final List<Class<?>> INDEXED_MODELS = List.of(
+            DistributionProgram.class,
+            DistributionRoute.class,
+            DistributionSchedule.class,
+            Fare.class,
+            ProgramEvent.class,
+            ProgramDailyRollup.class);
+
+    private final ReactiveMongoTemplate mongoTemplate;
+    private final MongoMappingContext mappingContext;
+
+    @Value("${app.mongo.indexes.ensure-on-startup:true}")
+    private boolean ensureOnStartup;
+
+    /**
+     * Estático: el cliente de MongoDB se crea antes que esta configuración, que depende de él
+     */
+    @Bean
+    @ConditionalOnProperty(name = "app.mongo.query-advisor.enabled", havingValue = "true", matchIfMissing = true)
+    public static MongoClientSettingsBuilderCustomizer slowQueryDetectorCustomizer(SlowQueryDetector slowQueryDetector) {
+        return settings -> settings.addCommandListener(slowQueryDetector);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void ensureIndexes() {
+        if (!ensureOnStartup) {
+            log.info("Creación de índices al arrancar desactivada");
+            return;
+        }
+        MongoPersistentEntityIndexResolver resolver = new MongoPersistentEntityIndexResolver(mappingContext);
+
+        Flux.fromIterable(INDEXED_MODELS)
+                .flatMap(model -> Flux.fromIterable(resolver.resolveIndexFor(model))
+                        .flatMap(index -> mongoTemplate.indexOps(model).ensureIndex(index))
+                        .doOnNext(name -> log.info("Índice asegurado en {}: {}", model.getSimpleName(), name))
+                        .onErrorResume(e -> {
+                            log.warn("No se pudieron crear los índices de {}: {}", model.getSimpleName(), e.getMessage());
+                            return Flux.empty();
+                        }))
+                .subscribe();
+    }
+}
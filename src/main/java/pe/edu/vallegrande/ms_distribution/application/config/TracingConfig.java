@@ -0,0 +1,69 @@
+package pe.edu.vallegrande.ms_distribution.application.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.observation.ObservationRegistry;
+import io.opentelemetry.sdk.trace.SpanProcessor;
+import io.opentelemetry.sdk.trace.export.BatchSpanProcessor;
+import io.opentelemetry.sdk.trace.samplers.Sampler;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.autoconfigure.tracing.SpanProcessors;
+import org.springframework.boot.autoconfigure.mongo.MongoClientSettingsBuilderCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.mongodb.observability.ContextProviderFactory;
+import org.springframework.data.mongodb.observability.MongoObservationCommandListener;
+import pe.edu.vallegrande.ms_distribution.infrastructure.service.AdaptiveSamplingSpanProcessor;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Trazas con OpenTelemetry: spans de las peticiones entrantes, de los servicios de
+ * aplicación, de cada comando de MongoDB y de las llamadas a MS-USERS (con traceparent).
+ * Todos los spans se registran en memoria y {@link AdaptiveSamplingSpanProcessor} decide
+ * al final de cada petición qué trazas se exportan por OTLP (management.otlp.tracing.endpoint).
+ */
+@Configuration
+public class TracingConfig {
+
+    @Value("${app.tracing.sampling.slow-threshold:PT0.5S}")
+    private Duration slowThreshold;
+
+    @Value("${app.tracing.sampling.fast-ratio:0.01}")
+    private double fastRatio;
+
+    @Value("${app.tracing.sampling.max-pending-traces:10000}")
+    private int maxPendingTraces;
+
+    @Value("${app.tracing.sampling.max-trace-duration:PT1M}")
+    private Duration maxTraceDuration;
+
+    /**
+     * Registrar siempre: descartar al inicio impediría conservar después los errores y las lentas
+     */
+    @Bean
+    public Sampler otelSampler() {
+        return Sampler.alwaysOn();
+    }
+
+    @Bean
+    public SpanProcessors spanProcessors(ObjectProvider<BatchSpanProcessor> exportingProcessor,
+                                         MeterRegistry meterRegistry) {
+        List<SpanProcessor> processors = new ArrayList<>();
+        exportingProcessor.ifAvailable(batch -> processors.add(new AdaptiveSamplingSpanProcessor(
+                batch, slowThreshold, fastRatio, maxPendingTraces, maxTraceDuration, meterRegistry)));
+        return SpanProcessors.of(processors);
+    }
+
+    /**
+     * Un span por comando de MongoDB, hijo de la observación que viaja en el contexto de Reactor
+     */
+    @Bean
+    public MongoClientSettingsBuilderCustomizer mongoObservationCustomizer(ObservationRegistry observationRegistry) {
+        return settings -> settings
+                .contextProvider(ContextProviderFactory.create(observationRegistry))
+                .addCommandListener(new MongoObservationCommandListener(observationRegistry));
+    }
+}
@@ -1,25 +1,38 @@
 package pe.edu.vallegrande.ms_distribution.application.config;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.observation.ObservationRegistry;
 import io.netty.channel.ChannelOption;
 import io.netty.handler.timeout.ReadTimeoutHandler;
 import io.netty.handler.timeout.WriteTimeoutHandler;
+import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.client.reactive.ReactorClientHttpConnector;
 import org.springframework.web.reactive.function.client.WebClient;
+import reactor.netty.http.HttpProtocol;
 import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
 
 import java.time.Duration;
 import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
 
 /**
  * Configuración para WebClient usado para consumir APIs internas
  */
 @Configuration
+@RequiredArgsConstructor
 public class WebClientConfig {
 
+    // Colapsa los identificadores de la URI para que las métricas no creen una serie por organización/usuario
+    private static final Pattern URI_ID_SEGMENT = Pattern.compile("/(organizations|users)/[^/?]+");
+
+    private final ExternalApiProperties externalApiProperties;
+
+    // Observación por petición: span de cliente y cabeceras traceparent hacia MS-USERS
+    private final ObservationRegistry observationRegistry;
+
     @Value("${external.apis.ms-users.base-url:https://lab.vallegrande.edu.pe/jass/ms-users}")
     private String msUsersBaseUrl;
 
@@ -29,9 +42,23 @@ public class WebClientConfig {
     @Value("${external.apis.ms-users.timeout.read:10000}")
     private int readTimeout;
 
+    /**
+     * Pool dedicado para MS-USERS; con metrics habilitado Reactor Netty publica
+     * conexiones activas, ociosas, pendientes y el tiempo de adquisición (reactor.netty.connection.provider.*)
+     */
+    @Bean(destroyMethod = "dispose")
+    public ConnectionProvider msUsersConnectionProvider() {
+        return connectionProvider("ms-users");
+    }
+
+    @Bean(destroyMethod = "dispose")
+    public ConnectionProvider defaultConnectionProvider() {
+        return connectionProvider("default");
+    }
+
     @Bean(name = "msUsersWebClient")
-    public WebClient msUsersWebClient() {
-        HttpClient httpClient = HttpClient.create()
+    public WebClient msUsersWebClient(ConnectionProvider msUsersConnectionProvider) {
+        HttpClient httpClient = tuned(HttpClient.create(msUsersConnectionProvider))
                 .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, connectionTimeout)
                 .responseTimeout(Duration.ofMillis(readTimeout))
                 .doOnConnected(conn -> 
@@ -41,13 +68,40 @@ public class WebClientConfig {
         return WebClient.builder()
                 .baseUrl(msUsersBaseUrl)
                 .clientConnector(new ReactorClientHttpConnector(httpClient))
+                .observationRegistry(observationRegistry)
                 .defaultHeader("Content-Type", "application/json")
                 .defaultHeader("Accept", "application/json")
                 .build();
     }
 
     @Bean(name = "defaultWebClient")
-    public WebClient defaultWebClient() {
-        return WebClient.builder().build();
+    public WebClient defaultWebClient(ConnectionProvider defaultConnectionProvider) {
+        return WebClient.builder()
+                .clientConnector(new ReactorClientHttpConnector(tuned(HttpClient.create(defaultConnectionProvider))))
+                .observationRegistry(observationRegistry)
+                .build();
+    }
+
+    private ConnectionProvider connectionProvider(String name) {
+        ExternalApiProperties.MsUsers.Pool pool = externalApiProperties.getMsUsers().getPool();
+        return ConnectionProvider.builder(name)
+                .maxConnections(pool.getMaxConnections())
+                .pendingAcquireMaxCount(pool.getPendingAcquireMaxCount())
+                .pendingAcquireTimeout(pool.getPendingAcquireTimeout())
+                .maxIdleTime(pool.getMaxIdleTime())
+                .maxLifeTime(pool.getMaxLifeTime())
+                .evictInBackground(pool.getEvictInBackground())
+                .metrics(pool.isMetrics())
+                .build();
+    }
+
+    private HttpClient tuned(HttpClient httpClient) {
+        ExternalApiProperties.MsUsers.Pool pool = externalApiProperties.getMsUsers().getPool();
+        HttpClient client = httpClient
+                .keepAlive(pool.isKeepAlive())
+                .compress(pool.isCompress())
+                .metrics(pool.isMetrics(), uri -> URI_ID_SEGMENT.matcher(uri).replaceAll("/$1/{id}"));
+        // HTTP/2 se negocia vía ALPN; HTTP/1.1 queda como alternativa si el upstream no lo soporta
+        return pool.isHttp2() ? client.protocol(HttpProtocol.H2, HttpProtocol.HTTP11) : client;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,16 @@
+package pe.edu.vallegrande.ms_distribution.application.services;
+
+import pe.edu.vallegrande.ms_distribution.infrastructure.dto.request.ProgramAnalyticsQuery;
+import pe.edu.vallegrande.ms_distribution.infrastructure.dto.response.CompletionStatsResponse;
+import pe.edu.vallegrande.ms_distribution.infrastructure.dto.response.DailyStatsResponse;
+import pe.edu.vallegrande.ms_distribution.infrastructure.dto.response.DurationStatsResponse;
+import pe.edu.vallegrande.ms_distribution.infrastructure.dto.response.OnTimeStatsResponse;
+import reactor.core.publisher.Flux;
+
+public interface DistributionAnalyticsService {
+
+    Flux<CompletionStatsResponse> completion(ProgramAnalyticsQuery query);
+    Flux<DurationStatsResponse> durations(ProgramAnalyticsQuery query);
+    Flux<OnTimeStatsResponse> onTime(ProgramAnalyticsQuery query, int toleranceMinutes);
+    Flux<DailyStatsResponse> daily(ProgramAnalyticsQuery query, String zoneId);
+}
@@ -1,20 +1,38 @@
 package pe.edu.vallegrande.ms_distribution.application.services;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import pe.edu.vallegrande.ms_distribution.infrastructure.dto.CursorPage;
+import pe.edu.vallegrande.ms_distribution.infrastructure.dto.request.DistributionProgramBatchUpdateRequest;
 import pe.edu.vallegrande.ms_distribution.infrastructure.dto.request.DistributionProgramCreateRequest;
+import pe.edu.vallegrande.ms_distribution.infrastructure.dto.request.DistributionProgramRangeQuery;
+import pe.edu.vallegrande.ms_distribution.infrastructure.dto.response.BatchOperationResponse;
 import pe.edu.vallegrande.ms_distribution.infrastructure.dto.response.DistributionProgramResponse;
+import pe.edu.vallegrande.ms_distribution.infrastructure.dto.response.DistributionProgramSummaryResponse;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.util.List;
+
 public interface DistributionProgramService {
 
     Flux<DistributionProgramResponse> getAll();
+    Mono<CursorPage<DistributionProgramResponse>> getPage(String after, String status, Integer limit);
+    Flux<DistributionProgramResponse> getAllByOrganization(String organizationId, String status);
+    Flux<DistributionProgramResponse> getAllByOrganizationAndDate(String organizationId, String programDate);
+    Flux<DistributionProgramSummaryResponse> getByDateRange(DistributionProgramRangeQuery filter);
     Mono<DistributionProgramResponse> getById(String id);
     Mono<DistributionProgramResponse> save(DistributionProgramCreateRequest request);
-    Mono<DistributionProgramResponse> update(String id, DistributionProgramCreateRequest request);
-    Mono<Void> delete(String id);
-    Mono<DistributionProgramResponse> activate(String id);
-    Mono<DistributionProgramResponse> desactivate(String id);
+    Mono<DistributionProgramResponse> update(String id, DistributionProgramCreateRequest request, Long expectedVersion);
+    Mono<DistributionProgramResponse> patch(String id, JsonNode patch, Long expectedVersion);
+    Mono<Void> delete(String id, Long expectedVersion);
+    Mono<DistributionProgramResponse> activate(String id, Long expectedVersion);
+    Mono<DistributionProgramResponse> desactivate(String id, Long expectedVersion);
 
     // Cambios de estado
-    Mono<DistributionProgramResponse> changeStatus(String id, String status);
+    Mono<DistributionProgramResponse> changeStatus(String id, String status, Long expectedVersion);
+
+    // Operaciones por lotes
+    Mono<BatchOperationResponse> saveAll(List<DistributionProgramCreateRequest> requests);
+    Mono<BatchOperationResponse> updateAll(List<DistributionProgramBatchUpdateRequest> requests);
+    Mono<BatchOperationResponse> changeStatusAll(List<String> ids, String status);
 }
@@ -1,6 +1,7 @@
 package pe.edu.vallegrande.ms_distribution.application.services;
 
 import pe.edu.vallegrande.ms_distribution.domain.models.DistributionRoute;
+import pe.edu.vallegrande.ms_distribution.infrastructure.dto.CursorPage;
 import pe.edu.vallegrande.ms_distribution.infrastructure.dto.request.DistributionRouteCreateRequest;
 import pe.edu.vallegrande.ms_distribution.infrastructure.dto.response.DistributionRouteResponse;
 import reactor.core.publisher.Flux;
@@ -11,10 +12,12 @@ public interface DistributionRouteService {
     Flux<DistributionRoute> getAll();
     Flux<DistributionRoute> getAllActive();
     Flux<DistributionRoute> getAllInactive();
+    Mono<CursorPage<DistributionRoute>> getPage(String after, String status, Integer limit);
+    Flux<DistributionRoute> getAllByOrganization(String organizationId, String status);
     Mono<DistributionRoute> getById(String id);
     Mono<DistributionRouteResponse> save(DistributionRouteCreateRequest request);
-    Mono<DistributionRoute> update(String id, DistributionRoute route);
-    Mono<Void> delete(String id);
-    Mono<DistributionRoute> activate(String id);
-    Mono<DistributionRoute> deactivate(String id);
+    Mono<DistributionRoute> update(String id, DistributionRoute route, Long expectedVersion);
+    Mono<Void> delete(String id, Long expectedVersion);
+    Mono<DistributionRoute> activate(String id, Long expectedVersion);
+    Mono<DistributionRoute> deactivate(String id, Long expectedVersion);
 }
@@ -1,6 +1,7 @@
 package pe.edu.vallegrande.ms_distribution.application.services;
 
 import pe.edu.vallegrande.ms_distribution.domain.models.DistributionSchedule;
+import pe.edu.vallegrande.ms_distribution.infrastructure.dto.CursorPage;
 import pe.edu.vallegrande.ms_distribution.infrastructure.dto.request.DistributionScheduleCreateRequest;
 import pe.edu.vallegrande.ms_distribution.infrastructure.dto.response.DistributionScheduleResponse;
 import reactor.core.publisher.Flux;
@@ -11,10 +12,12 @@ public interface DistributionScheduleService {
     Flux<DistributionSchedule> getAll();
     Flux<DistributionSchedule> getAllActive();
     Flux<DistributionSchedule> getAllInactive();
+    Mono<CursorPage<DistributionSchedule>> getPage(String after, String status, Integer limit);
+    Flux<DistributionSchedule> getAllByOrganization(String organizationId, String status);
     Mono<DistributionSchedule> getById(String id);
     Mono<DistributionScheduleResponse> save(DistributionScheduleCreateRequest request);
-    Mono<DistributionSchedule> update(String id, DistributionSchedule schedule);
-    Mono<Void> delete(String id);
-    Mono<DistributionSchedule> activate(String id);
-    Mono<DistributionSchedule> deactivate(String id);
+    Mono<DistributionSchedule> update(String id, DistributionSchedule schedule, Long expectedVersion);
+    Mono<Void> delete(String id, Long expectedVersion);
+    Mono<DistributionSchedule> activate(String id, Long expectedVersion);
+    Mono<DistributionSchedule> deactivate(String id, Long expectedVersion);
 }
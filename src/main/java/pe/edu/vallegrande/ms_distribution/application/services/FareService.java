@@ -1,6 +1,7 @@
 package pe.edu.vallegrande.ms_distribution.application.services;
 
 import pe.edu.vallegrande.ms_distribution.domain.models.Fare;
+import pe.edu.vallegrande.ms_distribution.infrastructure.dto.CursorPage;
 import pe.edu.vallegrande.ms_distribution.infrastructure.dto.request.FareCreateRequest;
 import pe.edu.vallegrande.ms_distribution.infrastructure.dto.response.FareResponse;
 import reactor.core.publisher.Flux;
@@ -11,10 +12,12 @@ public interface FareService {
     Flux<Fare> getAllF();
     Flux<Fare> getAllActiveF();
     Flux<Fare> getAllInactiveF();
+    Mono<CursorPage<Fare>> getPageF(String after, String status, Integer limit);
+    Flux<Fare> getAllByOrganizationF(String organizationId, String status);
     Mono<Fare> getByIdFMono(String id);
     Mono<FareResponse> saveF(FareCreateRequest fareRequest);
-    Mono<Fare> updateF(String id, Fare fare);
-    Mono<Void> deleteF(String id);
-    Mono<Fare> activateF(String id);
-    Mono<Fare> deactivateF(String id);
+    Mono<Fare> updateF(String id, Fare fare, Long expectedVersion);
+    Mono<Void> deleteF(String id, Long expectedVersion);
+    Mono<Fare> activateF(String id, Long expectedVersion);
+    Mono<Fare> deactivateF(String id, Long expectedVersion);
 }
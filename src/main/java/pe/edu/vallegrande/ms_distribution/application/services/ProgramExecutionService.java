@@ -0,0 +1,12 @@
+package pe.edu.vallegrande.ms_distribution.application.services;
+
+import pe.edu.vallegrande.ms_distribution.infrastructure.dto.request.ProgramEventRequest;
+import pe.edu.vallegrande.ms_distribution.infrastructure.dto.response.ProgramEventResponse;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+public interface ProgramExecutionService {
+
+    Mono<ProgramEventResponse> recordEvent(String programId, ProgramEventRequest request);
+    Flux<ProgramEventResponse> getEvents(String programId);
+}
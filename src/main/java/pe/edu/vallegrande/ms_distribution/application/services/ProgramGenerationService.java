@@ -0,0 +1,10 @@
+package pe.edu.vallegrande.ms_distribution.application.services;
+
+import pe.edu.vallegrande.ms_distribution.infrastructure.dto.request.ProgramGenerationRequest;
+import pe.edu.vallegrande.ms_distribution.infrastructure.dto.response.ProgramGenerationResponse;
+import reactor.core.publisher.Mono;
+
+public interface ProgramGenerationService {
+
+    Mono<ProgramGenerationResponse> generate(ProgramGenerationRequest request);
+}
@@ -0,0 +1,12 @@
+package pe.edu.vallegrande.ms_distribution.application.services;
+
+import pe.edu.vallegrande.ms_distribution.domain.models.DistributionProgram;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDate;
+
+public interface ProgramRollupService {
+
+    void markDirty(DistributionProgram program);
+    Mono<Long> rebuild(String organizationId, LocalDate from, LocalDate to);
+}
@@ -0,0 +1,291 @@
+package pe.edu.vallegrande.ms_distribution.application.services.impl;
+
+import lombok.RequiredArgsConstructor;
+import org.bson.Document;
+import pe.edu.vallegrande.ms_distribution.application.services.DistributionAnalyticsService;
+import pe.edu.vallegrande.ms_distribution.domain.enums.ProgramStatus;
+import pe.edu.vallegrande.ms_distribution.domain.models.DistributionProgram;
+import pe.edu.vallegrande.ms_distribution.domain.models.DistributionRoute;
+import pe.edu.vallegrande.ms_distribution.domain.models.DistributionSchedule;
+import pe.edu.vallegrande.ms_distribution.domain.models.ProgramDailyRollup;
+import pe.edu.vallegrande.ms_distribution.infrastructure.dto.request.ProgramAnalyticsQuery;
+import pe.edu.vallegrande.ms_distribution.infrastructure.dto.response.CompletionStatsResponse;
+import pe.edu.vallegrande.ms_distribution.infrastructure.dto.response.DailyStatsResponse;
+import pe.edu.vallegrande.ms_distribution.infrastructure.dto.response.DurationStatsResponse;
+import pe.edu.vallegrande.ms_distribution.infrastructure.dto.response.OnTimeStatsResponse;
+import pe.edu.vallegrande.ms_distribution.infrastructure.exception.CustomException;
+
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationOperation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Service;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static pe.edu.vallegrande.ms_distribution.application.services.impl.ProgramAggregations.countStatus;
+import static pe.edu.vallegrande.ms_distribution.application.services.impl.ProgramAggregations.minutesStage;
+import static pe.edu.vallegrande.ms_distribution.application.services.impl.ProgramAggregations.present;
+import static pe.edu.vallegrande.ms_distribution.application.services.impl.ProgramAggregations.stage;
+import static pe.edu.vallegrande.ms_distribution.application.services.impl.ProgramAggregations.startDelay;
+
+/**
+ * Estadísticas de distribución calculadas en MongoDB con el pipeline de agregación:
+ * a la JVM solo llega un documento por grupo, nunca los programas.
+ */
+@Service
+@RequiredArgsConstructor
+public class DistributionAnalyticsServiceImpl implements DistributionAnalyticsService {
+
+    private static final int MAX_RANGE_DAYS = 366;
+    private static final int MINUTES_PER_DAY = 24 * 60;
+
+    private final ReactiveMongoTemplate mongoTemplate;
+    private final DateTimeFormatter dateFormatter = DateTimeFormatter.ofPattern("yyyy-MM-dd");
+
+    @Override
+    public Flux<CompletionStatsResponse> completion(ProgramAnalyticsQuery query) {
+        return Mono.fromCallable(() -> {
+                    GroupBy groupBy = GroupBy.parse(query.getGroupBy(), GroupBy.ZONE);
+                    List<AggregationOperation> stages = new ArrayList<>();
+                    stages.add(match(query, null));
+                    stages.add(stage("$group", new Document("_id", groupBy.expression)
+                            .append("total", new Document("$sum", 1))
+                            .append("planned", countStatus(ProgramStatus.PLANNED.name()))
+                            .append("inProgress", countStatus(ProgramStatus.IN_PROGRESS.name()))
+                            .append("completed", countStatus(ProgramStatus.COMPLETED.name()))
+                            .append("cancelled", countStatus(ProgramStatus.CANCELLED.name()))));
+                    stages.addAll(label(groupBy));
+                    stages.add(stage("$project", keyAndLabel()
+                            .append("total", 1).append("planned", 1).append("inProgress", 1)
+                            .append("completed", 1).append("cancelled", 1)
+                            .append("completionRate", percentage("$completed", "$total"))));
+                    stages.add(stage("$sort", new Document("key", 1)));
+                    return stages;
+                })
+                .flatMapMany(stages -> aggregate(stages, CompletionStatsResponse.class));
+    }
+
+    @Override
+    public Flux<DurationStatsResponse> durations(ProgramAnalyticsQuery query) {
+        return Mono.fromCallable(() -> {
+                    GroupBy groupBy = GroupBy.parse(query.getGroupBy(), GroupBy.ZONE);
+                    List<AggregationOperation> stages = new ArrayList<>();
+                    stages.add(match(query, Criteria.where("actualStartTime").exists(true)));
+                    stages.add(minutesStage());
+                    stages.add(stage("$addFields", new Document()
+                            .append("startDelay", startDelay())
+                            .append("plannedDuration", duration("$plannedStart", "$plannedEnd"))
+                            .append("actualDuration", duration("$actualStart", "$actualEnd"))));
+                    stages.add(stage("$group", new Document("_id", groupBy.expression)
+                            .append("measured", new Document("$sum", present("$startDelay")))
+                            .append("avgStartDelay", new Document("$avg", "$startDelay"))
+                            .append("maxStartDelay", new Document("$max", "$startDelay"))
+                            .append("avgPlannedDuration", new Document("$avg", "$plannedDuration"))
+                            .append("avgActualDuration", new Document("$avg", "$actualDuration"))
+                            .append("avgDurationDelta", new Document("$avg",
+                                    new Document("$subtract", List.of("$actualDuration", "$plannedDuration"))))));
+                    stages.addAll(label(groupBy));
+                    stages.add(stage("$project", keyAndLabel()
+                            .append("measured", 1)
+                            .append("avgStartDelay", round("$avgStartDelay"))
+                            .append("maxStartDelay", 1)
+                            .append("avgPlannedDuration", round("$avgPlannedDuration"))
+                            .append("avgActualDuration", round("$avgActualDuration"))
+                            .append("avgDurationDelta", round("$avgDurationDelta"))));
+                    stages.add(stage("$sort", new Document("key", 1)));
+                    return stages;
+                })
+                .flatMapMany(stages -> aggregate(stages, DurationStatsResponse.class));
+    }
+
+    @Override
+    public Flux<OnTimeStatsResponse> onTime(ProgramAnalyticsQuery query, int toleranceMinutes) {
+        return Mono.fromCallable(() -> {
+                    if (toleranceMinutes < 0) {
+                        throw CustomException.badRequest("Invalid tolerance", "toleranceMinutes must not be negative");
+                    }
+                    GroupBy groupBy = GroupBy.parse(query.getGroupBy(), GroupBy.USER);
+                    Document delay = startDelay();
+                    List<AggregationOperation> stages = new ArrayList<>();
+                    stages.add(match(query, Criteria.where("actualStartTime").exists(true)));
+                    stages.add(minutesStage());
+                    stages.add(stage("$group", new Document("_id", groupBy.expression)
+                            .append("started", new Document("$sum", present(delay)))
+                            .append("onTime", new Document("$sum", new Document("$cond", List.of(
+                                    new Document("$and", List.of(
+                                            new Document("$ne", Arrays.asList(delay, null)),
+                                            new Document("$lte", List.of(delay, toleranceMinutes)))),
+                                    1, 0))))));
+                    stages.addAll(label(groupBy));
+                    stages.add(stage("$project", keyAndLabel()
+                            .append("started", 1)
+                            .append("onTime", 1)
+                            .append("onTimeRate", percentage("$onTime", "$started"))));
+                    stages.add(stage("$sort", new Document("key", 1)));
+                    return stages;
+                })
+                .flatMapMany(stages -> aggregate(stages, OnTimeStatsResponse.class));
+    }
+
+    @Override
+    public Flux<DailyStatsResponse> daily(ProgramAnalyticsQuery query, String zoneId) {
+        return Mono.fromCallable(() -> {
+                    Criteria criteria = range(query, "day");
+                    if (zoneId != null && !zoneId.isBlank()) {
+                        criteria.and("zoneId").is(zoneId);
+                    }
+                    return Query.query(criteria).with(Sort.by("day", "zoneId"));
+                })
+                .flatMapMany(rollups -> mongoTemplate.find(rollups, ProgramDailyRollup.class))
+                .map(this::toDaily);
+    }
+
+    private <T> Flux<T> aggregate(List<AggregationOperation> stages, Class<T> type) {
+        // Typed: el $match inicial se mapea con el conversor de la entidad (LocalDate -> Date)
+        return mongoTemplate.aggregate(Aggregation.newAggregation(DistributionProgram.class, stages), type);
+    }
+
+    /**
+     * Filtro por organización y rango de fechas; usa org_programDate_idx
+     */
+    private AggregationOperation match(ProgramAnalyticsQuery query, Criteria extra) {
+        Criteria criteria = range(query, "programDate");
+        return Aggregation.match(extra == null ? criteria : new Criteria().andOperator(criteria, extra));
+    }
+
+    private Criteria range(ProgramAnalyticsQuery query, String dateField) {
+        if (query.getOrganizationId() == null || query.getOrganizationId().isBlank()) {
+            throw CustomException.badRequest("Invalid range", "organizationId is required");
+        }
+        LocalDate from = parseDate("from", query.getFrom());
+        LocalDate to = parseDate("to", query.getTo());
+        if (to.isBefore(from)) {
+            throw CustomException.badRequest("Invalid range", "'to' must not be before 'from'");
+        }
+        if (ChronoUnit.DAYS.between(from, to) >= MAX_RANGE_DAYS) {
+            throw CustomException.badRequest("Invalid range", "The range cannot exceed " + MAX_RANGE_DAYS + " days");
+        }
+        return Criteria.where("organizationId").is(query.getOrganizationId())
+                .and(dateField).gte(from).lte(to);
+    }
+
+    private LocalDate parseDate(String field, String value) {
+        if (value == null || value.isBlank()) {
+            throw CustomException.badRequest("Invalid range", "'" + field + "' is required (yyyy-MM-dd)");
+        }
+        try {
+            return LocalDate.parse(value, dateFormatter);
+        } catch (DateTimeParseException e) {
+            throw CustomException.badRequest("Invalid range", "'" + field + "' must use the yyyy-MM-dd format: " + value);
+        }
+    }
+
+    /**
+     * Duración en minutos; si termina después de medianoche se suma un día
+     */
+    private static Document duration(String start, String end) {
+        Document diff = new Document("$subtract", List.of(end, start));
+        return new Document("$cond", Arrays.asList(
+                new Document("$lt", List.of(diff, 0)),
+                new Document("$add", List.of(diff, MINUTES_PER_DAY)),
+                diff));
+    }
+
+    private DailyStatsResponse toDaily(ProgramDailyRollup rollup) {
+        return DailyStatsResponse.builder()
+                .day(rollup.getDay().format(dateFormatter))
+                .zoneId(rollup.getZoneId())
+                .total(rollup.getTotal())
+                .planned(rollup.getPlanned())
+                .inProgress(rollup.getInProgress())
+                .completed(rollup.getCompleted())
+                .cancelled(rollup.getCancelled())
+                .completionRate(rollup.getTotal() > 0 ? twoDecimals(100.0 * rollup.getCompleted() / rollup.getTotal()) : null)
+                .measured(rollup.getStartDelaySamples())
+                .avgStartDelay(rollup.getStartDelaySamples() > 0
+                        ? twoDecimals((double) rollup.getStartDelayMinutes() / rollup.getStartDelaySamples()) : null)
+                .build();
+    }
+
+    private static double twoDecimals(double value) {
+        return Math.round(value * 100) / 100.0;
+    }
+
+    private static Document percentage(String part, String total) {
+        return new Document("$cond", Arrays.asList(
+                new Document("$gt", List.of(total, 0)),
+                new Document("$round", List.of(new Document("$multiply", List.of(
+                        new Document("$divide", List.of(part, total)), 100)), 2)),
+                null));
+    }
+
+    private static Document round(String field) {
+        return new Document("$round", List.of(field, 2));
+    }
+
+    private static Document keyAndLabel() {
+        return new Document("_id", 0)
+                .append("key", "$_id")
+                .append("label", new Document("$arrayElemAt", List.of("$ref.name", 0)));
+    }
+
+    /**
+     * Nombre de la ruta u horario de cada grupo; el $lookup se hace después del $group,
+     * una vez por grupo y no por programa
+     */
+    private List<AggregationOperation> label(GroupBy groupBy) {
+        if (groupBy.reference == null) {
+            return List.of();
+        }
+        Document toObjectId = new Document("$convert", new Document("input", "$$refId")
+                .append("to", "objectId").append("onError", null).append("onNull", null));
+        return List.of(stage("$lookup", new Document("from", mongoTemplate.getCollectionName(groupBy.reference))
+                .append("let", new Document("refId", "$_id"))
+                .append("pipeline", List.of(
+                        new Document("$match", new Document("$expr", new Document("$eq", List.of("$_id", toObjectId)))),
+                        new Document("$project", new Document("_id", 0).append("name", "$" + groupBy.nameField))))
+                .append("as", "ref")));
+    }
+
+    private enum GroupBy {
+        ZONE("$zoneId", null, null),
+        ROUTE("$routeId", DistributionRoute.class, "routeName"),
+        SCHEDULE("$scheduleId", DistributionSchedule.class, "scheduleName"),
+        DAY(new Document("$dateToString", new Document("format", "%Y-%m-%d").append("date", "$programDate")), null, null),
+        USER("$responsibleUserId", null, null);
+
+        private final Object expression;
+        private final Class<?> reference;
+        private final String nameField;
+
+        GroupBy(Object expression, Class<?> reference, String nameField) {
+            this.expression = expression;
+            this.reference = reference;
+            this.nameField = nameField;
+        }
+
+        static GroupBy parse(String value, GroupBy defaultValue) {
+            if (value == null || value.isBlank()) {
+                return defaultValue;
+            }
+            try {
+                return valueOf(value.trim().toUpperCase());
+            } catch (IllegalArgumentException e) {
+                throw CustomException.badRequest("Invalid groupBy",
+                        "groupBy must be one of zone, route, schedule, day, user but was: " + value);
+            }
+        }
+    }
+}
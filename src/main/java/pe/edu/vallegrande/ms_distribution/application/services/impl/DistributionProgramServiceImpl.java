@@ -1,14 +1,36 @@
 package pe.edu.vallegrande.ms_distribution.application.services.impl;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.mongodb.MongoBulkWriteException;
+import com.mongodb.bulk.BulkWriteError;
 import lombok.RequiredArgsConstructor;
+import org.bson.types.ObjectId;
 import pe.edu.vallegrande.ms_distribution.application.services.DistributionProgramService;
-import pe.edu.vallegrande.ms_distribution.domain.enums.Constants;
+import pe.edu.vallegrande.ms_distribution.application.services.ProgramRollupService;
+import pe.edu.vallegrande.ms_distribution.domain.enums.CodeSequence;
+import pe.edu.vallegrande.ms_distribution.domain.enums.ProgramStatus;
 import pe.edu.vallegrande.ms_distribution.domain.models.DistributionProgram;
+import pe.edu.vallegrande.ms_distribution.infrastructure.dto.CursorPage;
+import pe.edu.vallegrande.ms_distribution.infrastructure.dto.ErrorMessage;
+import pe.edu.vallegrande.ms_distribution.infrastructure.dto.request.DistributionProgramBatchUpdateRequest;
 import pe.edu.vallegrande.ms_distribution.infrastructure.dto.request.DistributionProgramCreateRequest;
+import pe.edu.vallegrande.ms_distribution.infrastructure.dto.request.DistributionProgramRangeQuery;
+import pe.edu.vallegrande.ms_distribution.infrastructure.dto.response.BatchOperationResponse;
 import pe.edu.vallegrande.ms_distribution.infrastructure.dto.response.DistributionProgramResponse;
+import pe.edu.vallegrande.ms_distribution.infrastructure.dto.response.DistributionProgramSummaryResponse;
 import pe.edu.vallegrande.ms_distribution.infrastructure.exception.CustomException;
 import pe.edu.vallegrande.ms_distribution.infrastructure.repository.DistributionProgramRepository;
+import pe.edu.vallegrande.ms_distribution.infrastructure.service.AtomicDocumentService;
+import pe.edu.vallegrande.ms_distribution.infrastructure.service.CodeSequenceService;
 
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations.BulkMode;
+import org.springframework.data.mongodb.core.ReactiveBulkOperations;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 
@@ -17,14 +39,44 @@ import reactor.core.publisher.Mono;
 
 import java.time.Instant;
 import java.time.LocalDate;
+import java.time.LocalTime;
 import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 public class DistributionProgramServiceImpl implements DistributionProgramService {
 
     private final DistributionProgramRepository programRepository;
+    private final CodeSequenceService codeSequenceService;
+    private final ReactiveMongoTemplate mongoTemplate;
+    private final AtomicDocumentService atomicDocumentService;
+    private final ProgramRollupService rollupService;
     private final DateTimeFormatter dateFormatter = DateTimeFormatter.ofPattern("yyyy-MM-dd");
+    private final DateTimeFormatter timeFormatter = DateTimeFormatter.ofPattern("HH:mm");
+
+    // Campos que admite JSON Merge Patch; identidad, fecha y código no se modifican por esta vía
+    private static final Set<String> PATCHABLE_FIELDS = Set.of(
+            "zoneId", "streetId", "plannedStartTime", "plannedEndTime", "actualStartTime",
+            "actualEndTime", "status", "observations", "responsibleUserId");
+    private static final Set<String> TIME_FIELDS = Set.of(
+            "plannedStartTime", "plannedEndTime", "actualStartTime", "actualEndTime");
+
+    // Rango máximo de una consulta por fechas (un trimestre)
+    private static final int MAX_RANGE_DAYS = 93;
+
+    // Elementos por lote en las operaciones batch; más allá conviene partir la petición
+    static final int MAX_BATCH_SIZE = 500;
 
     @Override
     public Flux<DistributionProgramResponse> getAll() {
@@ -32,6 +84,35 @@ public class DistributionProgramServiceImpl implements DistributionProgramServic
                 .map(this::toResponse);
     }
 
+    @Override
+    public Mono<CursorPage<DistributionProgramResponse>> getPage(String after, String status, Integer limit) {
+        return CursorPage.fetch(after, limit, DistributionProgramResponse::getId,
+                (lastId, fetch) -> programRepository.findPage(status, lastId, fetch).map(this::toResponse));
+    }
+
+    @Override
+    public Flux<DistributionProgramResponse> getAllByOrganization(String organizationId, String status) {
+        Flux<DistributionProgram> source = (status == null || status.isBlank())
+                ? programRepository.findAllByOrganizationId(organizationId)
+                : programRepository.findAllByOrganizationIdAndStatus(organizationId, status);
+        return source
+                .map(this::toResponse);
+    }
+
+    @Override
+    public Flux<DistributionProgramResponse> getAllByOrganizationAndDate(String organizationId, String programDate) {
+        return Flux.defer(() -> programRepository.findAllByOrganizationIdAndProgramDate(organizationId,
+                        parseDate("Invalid date", "programDate", programDate)))
+                .map(this::toResponse);
+    }
+
+    @Override
+    public Flux<DistributionProgramSummaryResponse> getByDateRange(DistributionProgramRangeQuery filter) {
+        return Mono.fromCallable(() -> toRangeQuery(filter))
+                .flatMapMany(query -> mongoTemplate.find(query, DistributionProgram.class))
+                .map(this::toSummary);
+    }
+
     @Override
     public Mono<DistributionProgramResponse> getById(String id) {
         return programRepository.findById(id)
@@ -42,101 +123,430 @@ public class DistributionProgramServiceImpl implements DistributionProgramServic
 
     @Override
     public Mono<DistributionProgramResponse> save(DistributionProgramCreateRequest request) {
-        return generateNextProgramCode()
-                .flatMap(generatedCode -> {
-                    DistributionProgram program = DistributionProgram.builder()
-                            .programCode(generatedCode)
-                            .scheduleId(request.getScheduleId())
-                            .routeId(request.getRouteId())
-                            .zoneId(request.getZoneId())
-                            .organizationId(request.getOrganizationId())
-                            .streetId(request.getStreetId())
-                            .programDate(LocalDate.parse(request.getProgramDate(), dateFormatter))
-                            .plannedStartTime(request.getPlannedStartTime())
-                            .plannedEndTime(request.getPlannedEndTime())
-                            .actualStartTime(request.getActualStartTime())
-                            .actualEndTime(request.getActualEndTime())
-                            .status(request.getStatus())
-                            .responsibleUserId(request.getResponsibleUserId())
-                            .observations(request.getObservations())
-                            .createdAt(Instant.now())
-                            .build();
-
-                    return programRepository.save(program)
-                            .map(this::toResponse);
+        // Se valida antes de reservar el código para no consumirlo con una petición inválida
+        return Mono.fromCallable(() -> toEntity(request, null))
+                .flatMap(program -> codeSequenceService.nextCode(CodeSequence.PROGRAM)
+                        .flatMap(generatedCode -> {
+                            program.setProgramCode(generatedCode);
+                            return programRepository.save(program);
+                        }))
+                .doOnNext(rollupService::markDirty)
+                .map(this::toResponse);
+    }
+
+    @Override
+    public Mono<DistributionProgramResponse> update(String id, DistributionProgramCreateRequest request, Long expectedVersion) {
+        return Mono.fromCallable(() -> toUpdate(request))
+                .flatMap(update -> updateFromRead(id, update, expectedVersion))
+                .map(this::toResponse);
+    }
+
+    @Override
+    public Mono<DistributionProgramResponse> patch(String id, JsonNode patch, Long expectedVersion) {
+        return Mono.fromCallable(() -> toMergeUpdate(patch))
+                .flatMap(update -> {
+                    if (update.getUpdateObject().isEmpty()) {
+                        return getById(id);
+                    }
+                    if (!update.modifies("zoneId")) {
+                        return atomicDocumentService.update(DistributionProgram.class, id, expectedVersion, update, "Program")
+                                .doOnNext(rollupService::markDirty)
+                                .map(this::toResponse);
+                    }
+                    return updateFromRead(id, update, expectedVersion).map(this::toResponse);
                 });
     }
 
-    private static final String PROGRAM_PREFIX = "PROG";
+    /**
+     * Escritura que puede cambiar la zona (PUT o patch de zoneId): se condiciona a la versión
+     * leída, así el documento leído es el estado previo y se recalculan el día de origen y el de destino
+     */
+    private Mono<DistributionProgram> updateFromRead(String id, Update update, Long expectedVersion) {
+        return programRepository.findById(id)
+                .switchIfEmpty(Mono.error(() -> CustomException.notFound("Program", id)))
+                .flatMap(existing -> atomicDocumentService.update(DistributionProgram.class, id,
+                                AtomicDocumentService.expectedVersion(expectedVersion, existing.getVersion()),
+                                update, "Program")
+                        .doOnNext(saved -> {
+                            rollupService.markDirty(existing);
+                            rollupService.markDirty(saved);
+                        }));
+    }
+
+    @Override
+    public Mono<BatchOperationResponse> saveAll(List<DistributionProgramCreateRequest> requests) {
+        CustomException invalidBatch = batchError(requests);
+        if (invalidBatch != null) {
+            return Mono.error(invalidBatch);
+        }
+        BatchOperationResponse.ItemResult[] results = new BatchOperationResponse.ItemResult[requests.size()];
+        List<DistributionProgram> programs = new ArrayList<>();
+        List<Integer> positions = new ArrayList<>();
+
+        // Validación previa: los elementos inválidos no consumen código ni llegan a Mongo
+        for (int i = 0; i < requests.size(); i++) {
+            try {
+                programs.add(toEntity(requests.get(i), null));
+                positions.add(i);
+            } catch (RuntimeException e) {
+                results[i] = BatchOperationResponse.ItemResult.failed(i, null,
+                        new ErrorMessage(HttpStatus.BAD_REQUEST.value(), "Invalid program", e.getMessage()));
+            }
+        }
+
+        if (programs.isEmpty()) {
+            return Mono.just(BatchOperationResponse.of(Arrays.asList(results)));
+        }
 
-    private Mono<String> generateNextProgramCode() {
-        return programRepository.findTopByOrderByProgramCodeDesc()
-                .map(last -> {
-                    String lastCode = last.getProgramCode(); // Ej: "PROG001"
-                    int number = 0;
-                    try {
-                        number = Integer.parseInt(lastCode.replace(PROGRAM_PREFIX, ""));
-                    } catch (NumberFormatException e) {
-                        // Ignorar si no es numérico
+        // Un solo $inc reserva el bloque de códigos para todo el lote
+        return codeSequenceService.nextCodes(CodeSequence.PROGRAM, programs.size())
+                .collectList()
+                .flatMap(codes -> {
+                    for (int j = 0; j < programs.size(); j++) {
+                        programs.get(j).setId(new ObjectId().toHexString());
+                        programs.get(j).setProgramCode(codes.get(j));
                     }
-                    return String.format(PROGRAM_PREFIX + "%03d", number + 1);
+                    return executeBulk(mongoTemplate.bulkOps(BulkMode.UNORDERED, DistributionProgram.class)
+                            .insert(programs));
                 })
-                .defaultIfEmpty(PROGRAM_PREFIX + "001");
+                .map(failures -> {
+                    for (int j = 0; j < programs.size(); j++) {
+                        int index = positions.get(j);
+                        DistributionProgram program = programs.get(j);
+                        ErrorMessage error = failures.get(j);
+                        if (error == null) {
+                            rollupService.markDirty(program);
+                        }
+                        results[index] = error == null
+                                ? BatchOperationResponse.ItemResult.ok(index, program.getId(), program.getProgramCode())
+                                : BatchOperationResponse.ItemResult.failed(index, null, error);
+                    }
+                    return BatchOperationResponse.of(Arrays.asList(results));
+                });
     }
 
     @Override
-    public Mono<DistributionProgramResponse> update(String id, DistributionProgramCreateRequest request) {
-        return programRepository.findById(id)
-                .switchIfEmpty(Mono.error(new CustomException(
-                        HttpStatus.NOT_FOUND.value(), "Not found", "Program with ID " + id + " not found")))
+    public Mono<BatchOperationResponse> updateAll(List<DistributionProgramBatchUpdateRequest> requests) {
+        CustomException invalidBatch = batchError(requests);
+        if (invalidBatch != null) {
+            return Mono.error(invalidBatch);
+        }
+        List<String> ids = requests.stream().map(DistributionProgramBatchUpdateRequest::getId)
+                .filter(Objects::nonNull).toList();
+
+        return findExisting(ids)
                 .flatMap(existing -> {
-                    existing.setOrganizationId(request.getOrganizationId());
-                    existing.setZoneId(request.getZoneId());
-                    existing.setStreetId(request.getStreetId());
-                    existing.setPlannedStartTime(request.getPlannedStartTime());
-                    existing.setPlannedEndTime(request.getPlannedEndTime());
-                    existing.setActualStartTime(request.getActualStartTime());
-                    existing.setActualEndTime(request.getActualEndTime());
-                    existing.setStatus(request.getStatus());
-                    existing.setObservations(request.getObservations());
-                    existing.setResponsibleUserId(request.getResponsibleUserId());
-                    return programRepository.save(existing);
-                })
-                .map(this::toResponse);
+                    BatchOperationResponse.ItemResult[] results = new BatchOperationResponse.ItemResult[requests.size()];
+                    List<Integer> positions = new ArrayList<>();
+                    ReactiveBulkOperations bulk = mongoTemplate.bulkOps(BulkMode.UNORDERED, DistributionProgram.class);
+
+                    for (int i = 0; i < requests.size(); i++) {
+                        DistributionProgramBatchUpdateRequest item = requests.get(i);
+                        if (item.getId() == null || item.getProgram() == null) {
+                            results[i] = BatchOperationResponse.ItemResult.failed(i, item.getId(),
+                                    new ErrorMessage(HttpStatus.BAD_REQUEST.value(), "Invalid item", "id and program are required"));
+                            continue;
+                        }
+                        if (!existing.containsKey(item.getId())) {
+                            results[i] = BatchOperationResponse.ItemResult.failed(i, item.getId(), notFound(item.getId()));
+                            continue;
+                        }
+                        Update update;
+                        try {
+                            update = toUpdate(item.getProgram());
+                        } catch (CustomException e) {
+                            results[i] = BatchOperationResponse.ItemResult.failed(i, item.getId(), e.getErrorMessage());
+                            continue;
+                        }
+                        bulk.updateOne(Query.query(Criteria.where("_id").is(item.getId())),
+                                update.inc(AtomicDocumentService.VERSION, 1));
+                        positions.add(i);
+                    }
+
+                    if (positions.isEmpty()) {
+                        return Mono.just(BatchOperationResponse.of(Arrays.asList(results)));
+                    }
+                    return executeBulk(bulk).map(failures -> {
+                        for (int j = 0; j < positions.size(); j++) {
+                            int index = positions.get(j);
+                            String id = requests.get(index).getId();
+                            ErrorMessage error = failures.get(j);
+                            if (error == null) {
+                                // Día de origen y, si cambió la zona, el de destino
+                                DistributionProgram previous = existing.get(id);
+                                DistributionProgramCreateRequest program = requests.get(index).getProgram();
+                                rollupService.markDirty(previous);
+                                rollupService.markDirty(DistributionProgram.builder()
+                                        .organizationId(program.getOrganizationId())
+                                        .zoneId(program.getZoneId())
+                                        .programDate(previous.getProgramDate())
+                                        .build());
+                            }
+                            results[index] = error == null
+                                    ? BatchOperationResponse.ItemResult.ok(index, id, null)
+                                    : BatchOperationResponse.ItemResult.failed(index, id, error);
+                        }
+                        return BatchOperationResponse.of(Arrays.asList(results));
+                    });
+                });
     }
 
     @Override
-    public Mono<Void> delete(String id) {
-        return programRepository.findById(id)
-                .switchIfEmpty(Mono.error(new CustomException(
-                        HttpStatus.NOT_FOUND.value(), "Not found", "Program with ID " + id + " not found")))
-                .flatMap(programRepository::delete);
+    public Mono<BatchOperationResponse> changeStatusAll(List<String> ids, String status) {
+        CustomException invalidBatch = batchError(ids);
+        if (invalidBatch != null) {
+            return Mono.error(invalidBatch);
+        }
+        if (!ProgramStatus.isValid(status)) {
+            return Mono.error(invalidStatus(status));
+        }
+        // Una consulta para saber qué ids existen y un único updateMulti para todos ellos
+        return findExisting(ids)
+                .flatMap(existing -> mongoTemplate.updateMulti(
+                                Query.query(Criteria.where("_id").in(existing.keySet())),
+                                Update.update("status", status).inc(AtomicDocumentService.VERSION, 1),
+                                DistributionProgram.class)
+                        .thenReturn(existing))
+                .map(existing -> {
+                    existing.values().forEach(rollupService::markDirty);
+                    List<BatchOperationResponse.ItemResult> results = new ArrayList<>(ids.size());
+                    for (int i = 0; i < ids.size(); i++) {
+                        String id = ids.get(i);
+                        results.add(existing.containsKey(id)
+                                ? BatchOperationResponse.ItemResult.ok(i, id, null)
+                                : BatchOperationResponse.ItemResult.failed(i, id, notFound(id)));
+                    }
+                    return BatchOperationResponse.of(results);
+                });
+    }
+
+    /**
+     * Mismo criterio para todos los lotes: vacío o por encima de MAX_BATCH_SIZE es un 400
+     */
+    private static CustomException batchError(List<?> items) {
+        if (items == null || items.isEmpty()) {
+            return CustomException.badRequest("Invalid batch", "At least one item is required");
+        }
+        if (items.size() > MAX_BATCH_SIZE) {
+            return CustomException.badRequest("Invalid batch",
+                    "A batch accepts at most " + MAX_BATCH_SIZE + " items, received " + items.size());
+        }
+        return null;
+    }
+
+    private static String requireStatus(String status) {
+        if (!ProgramStatus.isValid(status)) {
+            throw invalidStatus(status);
+        }
+        return status;
+    }
+
+    private static CustomException invalidStatus(String status) {
+        return CustomException.badRequest("Invalid status",
+                "status must be one of " + Arrays.toString(ProgramStatus.values()) + ", received " + status);
+    }
+
+    /**
+     * Programas existentes por id, solo con los campos que identifican su resumen diario
+     */
+    private Mono<Map<String, DistributionProgram>> findExisting(List<String> ids) {
+        Query query = Query.query(Criteria.where("_id").in(ids));
+        query.fields().include("_id", "organizationId", "zoneId", "programDate");
+        return mongoTemplate.find(query, DistributionProgram.class)
+                .collectMap(DistributionProgram::getId);
+    }
+
+    /**
+     * Ejecuta un bulk no ordenado y devuelve, por posición de operación, el error
+     * de escritura correspondiente (o null si la operación se aplicó).
+     */
+    private Mono<Map<Integer, ErrorMessage>> executeBulk(ReactiveBulkOperations bulk) {
+        return bulk.execute()
+                .map(result -> Collections.<Integer, ErrorMessage>emptyMap())
+                .onErrorResume(BulkOperationException.class, e -> Mono.just(toErrorMap(e.getErrors())))
+                .onErrorResume(MongoBulkWriteException.class, e -> Mono.just(toErrorMap(e.getWriteErrors())));
+    }
+
+    private Map<Integer, ErrorMessage> toErrorMap(List<BulkWriteError> errors) {
+        return errors.stream().collect(Collectors.toMap(BulkWriteError::getIndex,
+                error -> new ErrorMessage(HttpStatus.CONFLICT.value(), "Write failed", error.getMessage()),
+                (first, second) -> first));
+    }
+
+    private ErrorMessage notFound(String id) {
+        return new ErrorMessage(HttpStatus.NOT_FOUND.value(), "Not found", "Program with ID " + id + " not found");
     }
 
     @Override
-    public Mono<DistributionProgramResponse> activate(String id) {
-        return changeStatus(id, Constants.ACTIVE.name());
+    public Mono<Void> delete(String id, Long expectedVersion) {
+        return atomicDocumentService.delete(DistributionProgram.class, id, expectedVersion, "Program")
+                .doOnNext(rollupService::markDirty)
+                .then();
     }
 
     @Override
-    public Mono<DistributionProgramResponse> desactivate(String id) {
-        return changeStatus(id, Constants.INACTIVE.name());
+    public Mono<DistributionProgramResponse> activate(String id, Long expectedVersion) {
+        // Un programa reactivado vuelve a planificarse
+        return changeStatus(id, ProgramStatus.PLANNED.name(), expectedVersion);
     }
 
     @Override
-    public Mono<DistributionProgramResponse> changeStatus(String id, String status) {
-        return programRepository.findById(id)
-                .switchIfEmpty(Mono.error(new CustomException(
-                        HttpStatus.NOT_FOUND.value(), "Not found", "Program with ID " + id + " not found")))
-                .flatMap(program -> {
-                    program.setStatus(status);
-                    return programRepository.save(program);
-                })
+    public Mono<DistributionProgramResponse> desactivate(String id, Long expectedVersion) {
+        return changeStatus(id, ProgramStatus.CANCELLED.name(), expectedVersion);
+    }
+
+    @Override
+    public Mono<DistributionProgramResponse> changeStatus(String id, String status, Long expectedVersion) {
+        return Mono.fromCallable(() -> requireStatus(status))
+                .flatMap(valid -> atomicDocumentService.changeStatus(DistributionProgram.class, id, expectedVersion, valid, "Program"))
+                .doOnNext(rollupService::markDirty)
                 .map(this::toResponse);
     }
 
+    private DistributionProgram toEntity(DistributionProgramCreateRequest request, String programCode) {
+        return DistributionProgram.builder()
+                .programCode(programCode)
+                .scheduleId(request.getScheduleId())
+                .routeId(request.getRouteId())
+                .zoneId(request.getZoneId())
+                .organizationId(request.getOrganizationId())
+                .streetId(request.getStreetId())
+                .programDate(LocalDate.parse(request.getProgramDate(), dateFormatter))
+                .plannedStartTime(request.getPlannedStartTime())
+                .plannedEndTime(request.getPlannedEndTime())
+                .actualStartTime(request.getActualStartTime())
+                .actualEndTime(request.getActualEndTime())
+                .status(request.getStatus() == null ? ProgramStatus.PLANNED.name() : requireStatus(request.getStatus()))
+                .responsibleUserId(request.getResponsibleUserId())
+                .observations(request.getObservations())
+                .createdAt(Instant.now())
+                .build();
+    }
+
+    /**
+     * Igualdades sobre organización (y zona, ruta o responsable) más el rango de fechas, en el
+     * orden de los índices org_*_programDate_idx; solo se leen los campos del resumen
+     */
+    private Query toRangeQuery(DistributionProgramRangeQuery filter) {
+        if (filter.getOrganizationId() == null || filter.getOrganizationId().isBlank()) {
+            throw CustomException.badRequest("Invalid range", "organizationId is required");
+        }
+        LocalDate from = parseDate("Invalid range", "from", filter.getFrom());
+        LocalDate to = filter.getTo() == null || filter.getTo().isBlank() ? from : parseDate("Invalid range", "to", filter.getTo());
+        if (to.isBefore(from)) {
+            throw CustomException.badRequest("Invalid range", "'to' must not be before 'from'");
+        }
+        if (ChronoUnit.DAYS.between(from, to) >= MAX_RANGE_DAYS) {
+            throw CustomException.badRequest("Invalid range", "The range cannot exceed " + MAX_RANGE_DAYS + " days");
+        }
+
+        Criteria criteria = Criteria.where("organizationId").is(filter.getOrganizationId());
+        addEquality(criteria, "zoneId", filter.getZoneId());
+        addEquality(criteria, "routeId", filter.getRouteId());
+        addEquality(criteria, "responsibleUserId", filter.getResponsibleUserId());
+        addEquality(criteria, "status", filter.getStatus());
+        criteria.and("programDate").gte(from).lte(to);
+
+        Query query = Query.query(criteria)
+                .with(Sort.by("programDate", "plannedStartTime"));
+        query.fields().include("programCode", "programDate", "zoneId", "routeId", "plannedStartTime",
+                "plannedEndTime", "actualStartTime", "actualEndTime", "status", "responsibleUserId",
+                AtomicDocumentService.VERSION);
+        return query;
+    }
+
+    private static void addEquality(Criteria criteria, String field, String value) {
+        if (value != null && !value.isBlank()) {
+            criteria.and(field).is(value);
+        }
+    }
+
+    private LocalDate parseDate(String error, String field, String value) {
+        if (value == null || value.isBlank()) {
+            throw CustomException.badRequest(error, "'" + field + "' is required (yyyy-MM-dd)");
+        }
+        try {
+            return LocalDate.parse(value, dateFormatter);
+        } catch (DateTimeParseException e) {
+            throw CustomException.badRequest(error, "'" + field + "' must use the yyyy-MM-dd format: " + value);
+        }
+    }
+
+    /**
+     * Traduce un JSON Merge Patch (RFC 7396) a $set/$unset de los campos enviados;
+     * un valor null elimina el campo
+     */
+    private Update toMergeUpdate(JsonNode patch) {
+        if (patch == null || !patch.isObject()) {
+            throw CustomException.badRequest("Invalid patch", "The merge patch must be a JSON object");
+        }
+        Update update = new Update();
+        Iterator<Map.Entry<String, JsonNode>> fields = patch.fields();
+        while (fields.hasNext()) {
+            Map.Entry<String, JsonNode> field = fields.next();
+            String name = field.getKey();
+            JsonNode value = field.getValue();
+            if (!PATCHABLE_FIELDS.contains(name)) {
+                throw CustomException.badRequest("Invalid patch", "Field '" + name + "' cannot be patched");
+            }
+            if (value.isNull()) {
+                if ("status".equals(name)) {
+                    throw CustomException.badRequest("Invalid patch", "Field 'status' cannot be removed");
+                }
+                update.unset(name);
+            } else if (!value.isTextual()) {
+                throw CustomException.badRequest("Invalid patch", "Field '" + name + "' must be a string");
+            } else if ("status".equals(name)) {
+                update.set(name, requireStatus(value.asText()));
+            } else {
+                update.set(name, TIME_FIELDS.contains(name) ? normalizeTime(name, value.asText()) : value.asText());
+            }
+        }
+        return update;
+    }
+
+    private String normalizeTime(String field, String value) {
+        try {
+            return LocalTime.parse(value, timeFormatter).format(timeFormatter);
+        } catch (DateTimeParseException e) {
+            throw CustomException.badRequest("Invalid patch", "Field '" + field + "' must use the HH:mm format: " + value);
+        }
+    }
+
+    // Campos que reemplaza un PUT, individual o por lotes
+    private Update toUpdate(DistributionProgramCreateRequest request) {
+        return new Update()
+                .set("organizationId", request.getOrganizationId())
+                .set("zoneId", request.getZoneId())
+                .set("streetId", request.getStreetId())
+                .set("plannedStartTime", request.getPlannedStartTime())
+                .set("plannedEndTime", request.getPlannedEndTime())
+                .set("actualStartTime", request.getActualStartTime())
+                .set("actualEndTime", request.getActualEndTime())
+                .set("status", requireStatus(request.getStatus()))
+                .set("observations", request.getObservations())
+                .set("responsibleUserId", request.getResponsibleUserId());
+    }
+
+    DistributionProgramSummaryResponse toSummary(DistributionProgram program) {
+        return DistributionProgramSummaryResponse.builder()
+                .id(program.getId())
+                .programCode(program.getProgramCode())
+                .programDate(program.getProgramDate() != null ? program.getProgramDate().format(dateFormatter) : null)
+                .zoneId(program.getZoneId())
+                .routeId(program.getRouteId())
+                .plannedStartTime(program.getPlannedStartTime())
+                .plannedEndTime(program.getPlannedEndTime())
+                .actualStartTime(program.getActualStartTime())
+                .actualEndTime(program.getActualEndTime())
+                .status(program.getStatus())
+                .responsibleUserId(program.getResponsibleUserId())
+                .version(program.getVersion())
+                .build();
+    }
+
     // Mapeo de entidad a DTO
-    private DistributionProgramResponse toResponse(DistributionProgram program) {
+    DistributionProgramResponse toResponse(DistributionProgram program) {
         return DistributionProgramResponse.builder()
                 .id(program.getId())
                 .organizationId(program.getOrganizationId())
@@ -154,6 +564,7 @@ public class DistributionProgramServiceImpl implements DistributionProgramServic
                 .responsibleUserId(program.getResponsibleUserId())
                 .observations(program.getObservations())
                 .createdAt(program.getCreatedAt() != null ? program.getCreatedAt().toString() : null)
+                .version(program.getVersion())
                 .build();
     }
 }
@@ -3,14 +3,20 @@ import java.util.List;
 import java.util.stream.Collectors;
 import lombok.extern.slf4j.Slf4j;
 import pe.edu.vallegrande.ms_distribution.application.services.DistributionRouteService;
+import pe.edu.vallegrande.ms_distribution.domain.enums.CodeSequence;
 import pe.edu.vallegrande.ms_distribution.domain.enums.Constants;
 import pe.edu.vallegrande.ms_distribution.domain.models.DistributionRoute;
+import pe.edu.vallegrande.ms_distribution.infrastructure.dto.CursorPage;
 import pe.edu.vallegrande.ms_distribution.infrastructure.dto.request.DistributionRouteCreateRequest;
 import pe.edu.vallegrande.ms_distribution.infrastructure.dto.response.DistributionRouteResponse;
 import pe.edu.vallegrande.ms_distribution.infrastructure.exception.CustomException;
 import pe.edu.vallegrande.ms_distribution.infrastructure.repository.DistributionRouteRepository;
+import pe.edu.vallegrande.ms_distribution.infrastructure.service.AtomicDocumentService;
+import pe.edu.vallegrande.ms_distribution.infrastructure.service.CodeSequenceService;
+import pe.edu.vallegrande.ms_distribution.infrastructure.service.ResponseBodyCache;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 
@@ -26,6 +32,15 @@ public class DistributionRouteServiceImpl implements DistributionRouteService {
     @Autowired
     private DistributionRouteRepository routeRepository;
 
+    @Autowired
+    private CodeSequenceService codeSequenceService;
+
+    @Autowired
+    private ResponseBodyCache responseCache;
+
+    @Autowired
+    private AtomicDocumentService atomicDocumentService;
+
     @Override
     public Flux<DistributionRoute> getAll() {
         return routeRepository.findAll();
@@ -41,6 +56,19 @@ public class DistributionRouteServiceImpl implements DistributionRouteService {
         return routeRepository.findAllByStatus(Constants.INACTIVE.name());
     }
 
+    @Override
+    public Mono<CursorPage<DistributionRoute>> getPage(String after, String status, Integer limit) {
+        return CursorPage.fetch(after, limit, DistributionRoute::getId,
+                (lastId, fetch) -> routeRepository.findPage(status, lastId, fetch));
+    }
+
+    @Override
+    public Flux<DistributionRoute> getAllByOrganization(String organizationId, String status) {
+        return (status == null || status.isBlank())
+                ? routeRepository.findAllByOrganizationId(organizationId)
+                : routeRepository.findAllByOrganizationIdAndStatus(organizationId, status);
+    }
+
     @Override
     public Mono<DistributionRoute> getById(String id) {
         return routeRepository.findById(id)
@@ -50,23 +78,13 @@ public class DistributionRouteServiceImpl implements DistributionRouteService {
 
  @Override
 public Mono<DistributionRouteResponse> save(DistributionRouteCreateRequest request) {
-    return generateNextRouteCode()
+    return codeSequenceService.nextCode(CodeSequence.ROUTE)
         .flatMap(generatedCode -> {
-
-            // 👇 Convertimos ZoneEntry a ZoneOrder
-            List<DistributionRoute.ZoneOrder> zoneOrders = request.getZones().stream()
-                    .map(entry -> DistributionRoute.ZoneOrder.builder()
-                            .zoneId(entry.getZoneId())
-                            .order(entry.getOrder())
-                            .estimatedDuration(entry.getEstimatedDuration())
-                            .build())
-                    .collect(Collectors.toList());
-
             DistributionRoute route = DistributionRoute.builder()
                     .organizationId(request.getOrganizationId())
                     .routeCode(generatedCode) // ← Usamos el código generado
                     .routeName(request.getRouteName())
-                    .zones(zoneOrders)
+                    .zones(toZoneOrders(request.getZones()))
                     .totalEstimatedDuration(request.getTotalEstimatedDuration())
                     .responsibleUserId(request.getResponsibleUserId())
                     .status(Constants.ACTIVE.name())
@@ -74,78 +92,78 @@ public Mono<DistributionRouteResponse> save(DistributionRouteCreateRequest reque
                     .build();
 
             return routeRepository.save(route)
-                    .map(saved -> DistributionRouteResponse.builder()
-                            .id(saved.getId())
-                            .organizationId(saved.getOrganizationId())
-                            .routeCode(saved.getRouteCode())
-                            .routeName(saved.getRouteName())
-                            .zones(
-                                    saved.getZones().stream()
-                                            .map(z -> DistributionRouteResponse.ZoneDetail.builder()
-                                                    .zoneId(z.getZoneId())
-                                                    .order(z.getOrder())
-                                                    .estimatedDuration(z.getEstimatedDuration())
-                                                    .build())
-                                            .collect(Collectors.toList())
-                            )
-                            .totalEstimatedDuration(saved.getTotalEstimatedDuration())
-                            .responsibleUserId(saved.getResponsibleUserId())
-                            .status(saved.getStatus())
-                            .createdAt(saved.getCreatedAt())
-                            .build());
+                    .map(DistributionRouteServiceImpl::toResponse)
+                    .doOnSuccess(saved -> responseCache.invalidate(ResponseBodyCache.ROUTES));
         });
 }
 
-private Mono<String> generateNextRouteCode() {
-    return routeRepository.findTopByOrderByRouteCodeDesc()
-            .map(last -> {
-                String lastCode = last.getRouteCode(); // Ej: "RUT005"
-                int number = Integer.parseInt(lastCode.replace("RUT", ""));
-                return String.format("RUT%03d", number + 1);
-            })
-            .defaultIfEmpty("RUT001");
-}
-
 
     @Override
-    public Mono<DistributionRoute> update(String id, DistributionRoute route) {
+    public Mono<DistributionRoute> update(String id, DistributionRoute route, Long expectedVersion) {
         return routeRepository.findById(id)
                 .switchIfEmpty(Mono.error(new CustomException(
                         HttpStatus.NOT_FOUND.value(), "Route not found", "Cannot update non-existent route with id " + id)))
-                .flatMap(existing -> {
-                    existing.setRouteName(route.getRouteName());
-                    existing.setZones(route.getZones());
-                    existing.setTotalEstimatedDuration(route.getTotalEstimatedDuration());
-                    existing.setResponsibleUserId(route.getResponsibleUserId());
-                    return routeRepository.save(existing);
-                });
+                .flatMap(existing -> atomicDocumentService.update(DistributionRoute.class, id,
+                        AtomicDocumentService.expectedVersion(expectedVersion, existing.getVersion()),
+                        new Update()
+                                .set("routeName", route.getRouteName())
+                                .set("zones", route.getZones())
+                                .set("totalEstimatedDuration", route.getTotalEstimatedDuration())
+                                .set("responsibleUserId", route.getResponsibleUserId()),
+                        "Route"))
+                .doOnSuccess(saved -> responseCache.invalidate(ResponseBodyCache.ROUTES));
     }
 
     @Override
-    public Mono<Void> delete(String id) {
-        return routeRepository.findById(id)
-                .switchIfEmpty(Mono.error(new CustomException(
-                        HttpStatus.NOT_FOUND.value(), "Route not found", "Cannot delete non-existent route with id " + id)))
-                .flatMap(routeRepository::delete);
+    public Mono<Void> delete(String id, Long expectedVersion) {
+        return atomicDocumentService.delete(DistributionRoute.class, id, expectedVersion, "Route")
+                .doOnSuccess(deleted -> responseCache.invalidate(ResponseBodyCache.ROUTES))
+                .then();
     }
 
     @Override
-    public Mono<DistributionRoute> activate(String id) {
-        return changeStatus(id, Constants.ACTIVE.name());
+    public Mono<DistributionRoute> activate(String id, Long expectedVersion) {
+        return changeStatus(id, Constants.ACTIVE.name(), expectedVersion);
     }
 
     @Override
-    public Mono<DistributionRoute> deactivate(String id) {
-        return changeStatus(id, Constants.INACTIVE.name());
+    public Mono<DistributionRoute> deactivate(String id, Long expectedVersion) {
+        return changeStatus(id, Constants.INACTIVE.name(), expectedVersion);
     }
 
-    private Mono<DistributionRoute> changeStatus(String id, String status) {
-        return routeRepository.findById(id)
-                .switchIfEmpty(Mono.error(new CustomException(
-                        HttpStatus.NOT_FOUND.value(), "Route not found", "Cannot change status of non-existent route with id " + id)))
-                .flatMap(route -> {
-                    route.setStatus(status);
-                    return routeRepository.save(route);
-                });
+    private Mono<DistributionRoute> changeStatus(String id, String status, Long expectedVersion) {
+        return atomicDocumentService.changeStatus(DistributionRoute.class, id, expectedVersion, status, "Route")
+                .doOnSuccess(saved -> responseCache.invalidate(ResponseBodyCache.ROUTES));
+    }
+
+    // Convertimos ZoneEntry a ZoneOrder
+    static List<DistributionRoute.ZoneOrder> toZoneOrders(List<DistributionRouteCreateRequest.ZoneEntry> zones) {
+        return zones.stream()
+                .map(entry -> DistributionRoute.ZoneOrder.builder()
+                        .zoneId(entry.getZoneId())
+                        .order(entry.getOrder())
+                        .estimatedDuration(entry.getEstimatedDuration())
+                        .build())
+                .collect(Collectors.toList());
+    }
+
+    static DistributionRouteResponse toResponse(DistributionRoute saved) {
+        return DistributionRouteResponse.builder()
+                .id(saved.getId())
+                .organizationId(saved.getOrganizationId())
+                .routeCode(saved.getRouteCode())
+                .routeName(saved.getRouteName())
+                .zones(saved.getZones().stream()
+                        .map(z -> DistributionRouteResponse.ZoneDetail.builder()
+                                .zoneId(z.getZoneId())
+                                .order(z.getOrder())
+                                .estimatedDuration(z.getEstimatedDuration())
+                                .build())
+                        .collect(Collectors.toList()))
+                .totalEstimatedDuration(saved.getTotalEstimatedDuration())
+                .responsibleUserId(saved.getResponsibleUserId())
+                .status(saved.getStatus())
+                .createdAt(saved.getCreatedAt())
+                .build();
     }
 }
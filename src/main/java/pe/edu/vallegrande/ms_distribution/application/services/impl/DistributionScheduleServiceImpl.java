@@ -2,14 +2,20 @@ package pe.edu.vallegrande.ms_distribution.application.services.impl;
 
 import lombok.extern.slf4j.Slf4j;
 import pe.edu.vallegrande.ms_distribution.application.services.DistributionScheduleService;
+import pe.edu.vallegrande.ms_distribution.domain.enums.CodeSequence;
 import pe.edu.vallegrande.ms_distribution.domain.enums.Constants;
 import pe.edu.vallegrande.ms_distribution.domain.models.DistributionSchedule;
+import pe.edu.vallegrande.ms_distribution.infrastructure.dto.CursorPage;
 import pe.edu.vallegrande.ms_distribution.infrastructure.dto.request.DistributionScheduleCreateRequest;
 import pe.edu.vallegrande.ms_distribution.infrastructure.dto.response.DistributionScheduleResponse;
 import pe.edu.vallegrande.ms_distribution.infrastructure.exception.CustomException;
 import pe.edu.vallegrande.ms_distribution.infrastructure.repository.DistributionScheduleRepository;
+import pe.edu.vallegrande.ms_distribution.infrastructure.service.AtomicDocumentService;
+import pe.edu.vallegrande.ms_distribution.infrastructure.service.CodeSequenceService;
+import pe.edu.vallegrande.ms_distribution.infrastructure.service.ResponseBodyCache;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 
@@ -25,6 +31,15 @@ public class DistributionScheduleServiceImpl implements DistributionScheduleServ
     @Autowired
     private DistributionScheduleRepository repository;
 
+    @Autowired
+    private CodeSequenceService codeSequenceService;
+
+    @Autowired
+    private ResponseBodyCache responseCache;
+
+    @Autowired
+    private AtomicDocumentService atomicDocumentService;
+
     @Override
     public Flux<DistributionSchedule> getAll() {
         return repository.findAll();
@@ -40,6 +55,19 @@ public class DistributionScheduleServiceImpl implements DistributionScheduleServ
         return repository.findAllByStatus(Constants.INACTIVE.name());
     }
 
+    @Override
+    public Mono<CursorPage<DistributionSchedule>> getPage(String after, String status, Integer limit) {
+        return CursorPage.fetch(after, limit, DistributionSchedule::getId,
+                (lastId, fetch) -> repository.findPage(status, lastId, fetch));
+    }
+
+    @Override
+    public Flux<DistributionSchedule> getAllByOrganization(String organizationId, String status) {
+        return (status == null || status.isBlank())
+                ? repository.findAllByOrganizationId(organizationId)
+                : repository.findAllByOrganizationIdAndStatus(organizationId, status);
+    }
+
     @Override
     public Mono<DistributionSchedule> getById(String id) {
         return repository.findById(id)
@@ -51,111 +79,78 @@ public class DistributionScheduleServiceImpl implements DistributionScheduleServ
 
 @Override
 public Mono<DistributionScheduleResponse> save(DistributionScheduleCreateRequest request) {
-    return generateNextScheduleCode() // ← usamos el generador
-        .flatMap(generatedCode ->
-            repository.existsByScheduleCode(generatedCode)
-                .flatMap(exists -> {
-                    if (exists) {
-                        return Mono.error(new CustomException(
-                                HttpStatus.BAD_REQUEST.value(),
-                                "Schedule code already exists",
-                                "Schedule code " + generatedCode + " already exists"));
-                    }
-
-                    DistributionSchedule schedule = DistributionSchedule.builder()
-                            .organizationId(request.getOrganizationId())
-                            .scheduleCode(generatedCode) // ← usamos el código generado
-                            .zoneId(request.getZoneId())
-                            .scheduleName(request.getScheduleName())
-                            .daysOfWeek(request.getDaysOfWeek())
-                            .startTime(request.getStartTime())
-                            .endTime(request.getEndTime())
-                            .durationHours(request.getDurationHours())
-                            .status(Constants.ACTIVE.name())
-                            .createdAt(Instant.now())
-                            .build();
-
-                    return repository.save(schedule)
-                            .map(saved -> DistributionScheduleResponse.builder()
-                                    .id(saved.getId())
-                                    .organizationId(saved.getOrganizationId())
-                                    .scheduleCode(saved.getScheduleCode())
-                                    .scheduleName(saved.getScheduleName())
-                                    .zoneId(saved.getZoneId())
-                                    .daysOfWeek(saved.getDaysOfWeek())
-                                    .startTime(saved.getStartTime())
-                                    .endTime(saved.getEndTime())
-                                    .durationHours(saved.getDurationHours())
-                                    .status(saved.getStatus())
-                                    .createdAt(saved.getCreatedAt())
-                                    .build());
-                })
-        );
-}
-
-
-    private static final String SCHEDULE_PREFIX = "HOR";
-
-private Mono<String> generateNextScheduleCode() {
-    return repository.findTopByOrderByScheduleCodeDesc()
-            .map(last -> {
-                String lastCode = last.getScheduleCode(); // ej. HOR007
-                int number = 0;
-                try {
-                    number = Integer.parseInt(lastCode.replace(SCHEDULE_PREFIX, ""));
-                } catch (NumberFormatException ignored) {}
-                return String.format(SCHEDULE_PREFIX + "%03d", number + 1);
-            })
-            .defaultIfEmpty(SCHEDULE_PREFIX + "001");
+    return codeSequenceService.nextCode(CodeSequence.SCHEDULE) // ← código reservado atómicamente
+        .flatMap(generatedCode -> {
+            DistributionSchedule schedule = DistributionSchedule.builder()
+                    .organizationId(request.getOrganizationId())
+                    .scheduleCode(generatedCode) // ← usamos el código generado
+                    .zoneId(request.getZoneId())
+                    .scheduleName(request.getScheduleName())
+                    .daysOfWeek(request.getDaysOfWeek())
+                    .startTime(request.getStartTime())
+                    .endTime(request.getEndTime())
+                    .durationHours(request.getDurationHours())
+                    .status(Constants.ACTIVE.name())
+                    .createdAt(Instant.now())
+                    .build();
+
+            return repository.save(schedule)
+                    .map(saved -> DistributionScheduleResponse.builder()
+                            .id(saved.getId())
+                            .organizationId(saved.getOrganizationId())
+                            .scheduleCode(saved.getScheduleCode())
+                            .scheduleName(saved.getScheduleName())
+                            .zoneId(saved.getZoneId())
+                            .daysOfWeek(saved.getDaysOfWeek())
+                            .startTime(saved.getStartTime())
+                            .endTime(saved.getEndTime())
+                            .durationHours(saved.getDurationHours())
+                            .status(saved.getStatus())
+                            .createdAt(saved.getCreatedAt())
+                            .build())
+                    .doOnSuccess(saved -> responseCache.invalidate(ResponseBodyCache.SCHEDULES));
+        });
 }
 
 
     @Override
-    public Mono<DistributionSchedule> update(String id, DistributionSchedule schedule) {
+    public Mono<DistributionSchedule> update(String id, DistributionSchedule schedule, Long expectedVersion) {
         return repository.findById(id)
                 .switchIfEmpty(Mono.error(new CustomException(
                         HttpStatus.NOT_FOUND.value(),
                         "Schedule not found",
                         "No schedule found with id " + id)))
-                .flatMap(existing -> {
-                    existing.setScheduleName(schedule.getScheduleName());
-                    existing.setDaysOfWeek(schedule.getDaysOfWeek());
-                    existing.setStartTime(schedule.getStartTime());
-                    existing.setEndTime(schedule.getEndTime());
-                    existing.setDurationHours(schedule.getDurationHours());
-                    return repository.save(existing);
-                });
+                .flatMap(existing -> atomicDocumentService.update(DistributionSchedule.class, id,
+                        AtomicDocumentService.expectedVersion(expectedVersion, existing.getVersion()),
+                        new Update()
+                                .set("scheduleName", schedule.getScheduleName())
+                                .set("daysOfWeek", schedule.getDaysOfWeek())
+                                .set("startTime", schedule.getStartTime())
+                                .set("endTime", schedule.getEndTime())
+                                .set("durationHours", schedule.getDurationHours()),
+                        "Schedule"))
+                .doOnSuccess(saved -> responseCache.invalidate(ResponseBodyCache.SCHEDULES));
     }
 
     @Override
-    public Mono<Void> delete(String id) {
-        return repository.findById(id)
-                .switchIfEmpty(Mono.error(new CustomException(
-                        HttpStatus.NOT_FOUND.value(),
-                        "Schedule not found",
-                        "Cannot delete schedule with id " + id)))
-                .flatMap(repository::delete);
+    public Mono<Void> delete(String id, Long expectedVersion) {
+        return atomicDocumentService.delete(DistributionSchedule.class, id, expectedVersion, "Schedule")
+                .doOnSuccess(deleted -> responseCache.invalidate(ResponseBodyCache.SCHEDULES))
+                .then();
     }
 
     @Override
-    public Mono<DistributionSchedule> activate(String id) {
-        return changeStatus(id, Constants.ACTIVE.name());
+    public Mono<DistributionSchedule> activate(String id, Long expectedVersion) {
+        return changeStatus(id, Constants.ACTIVE.name(), expectedVersion);
     }
 
     @Override
-    public Mono<DistributionSchedule> deactivate(String id) {
-        return changeStatus(id, Constants.INACTIVE.name());
+    public Mono<DistributionSchedule> deactivate(String id, Long expectedVersion) {
+        return changeStatus(id, Constants.INACTIVE.name(), expectedVersion);
     }
 
-    private Mono<DistributionSchedule> changeStatus(String id, String status) {
-        return repository.findById(id)
-                .switchIfEmpty(Mono.error(new CustomException(
-                        HttpStatus.NOT_FOUND.value(),
-                        "Schedule not found",
-                        "Cannot change status of schedule with id " + id)))
-                .flatMap(schedule -> {
-                    schedule.setStatus(status);
-                    return repository.save(schedule);
-                });
+    private Mono<DistributionSchedule> changeStatus(String id, String status, Long expectedVersion) {
+        return atomicDocumentService.changeStatus(DistributionSchedule.class, id, expectedVersion, status, "Schedule")
+                .doOnSuccess(saved -> responseCache.invalidate(ResponseBodyCache.SCHEDULES));
     }
 }
@@ -2,14 +2,20 @@ package pe.edu.vallegrande.ms_distribution.application.services.impl;
 
 import lombok.extern.slf4j.Slf4j;
 import pe.edu.vallegrande.ms_distribution.application.services.FareService;
+import pe.edu.vallegrande.ms_distribution.domain.enums.CodeSequence;
 import pe.edu.vallegrande.ms_distribution.domain.enums.Constants;
 import pe.edu.vallegrande.ms_distribution.domain.models.Fare;
+import pe.edu.vallegrande.ms_distribution.infrastructure.dto.CursorPage;
 import pe.edu.vallegrande.ms_distribution.infrastructure.dto.request.FareCreateRequest;
 import pe.edu.vallegrande.ms_distribution.infrastructure.dto.response.FareResponse;
 import pe.edu.vallegrande.ms_distribution.infrastructure.exception.CustomException;
 import pe.edu.vallegrande.ms_distribution.infrastructure.repository.FareRepository;
+import pe.edu.vallegrande.ms_distribution.infrastructure.service.AtomicDocumentService;
+import pe.edu.vallegrande.ms_distribution.infrastructure.service.CodeSequenceService;
+import pe.edu.vallegrande.ms_distribution.infrastructure.service.FareReadModel;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 
@@ -25,25 +31,45 @@ public class FareServiceImpl implements FareService {
     @Autowired
     private FareRepository fareRepository;
 
+    @Autowired
+    private CodeSequenceService codeSequenceService;
+
+    // Lecturas servidas desde memoria; toda escritura invalida la instantánea
+    @Autowired
+    private FareReadModel fareReadModel;
+
+    @Autowired
+    private AtomicDocumentService atomicDocumentService;
+
     @Override
     public Flux<Fare> getAllF() {
-        return fareRepository.findAll()
-                .doOnNext(fare -> System.out.println("Fare retrieved: " + fare));
+        return fareReadModel.getAll();
     }
 
     @Override
     public Flux<Fare> getAllActiveF() {
-        return fareRepository.findAllByStatus(Constants.ACTIVE.name());
+        return fareReadModel.getAllByStatus(Constants.ACTIVE.name());
     }
 
     @Override
     public Flux<Fare> getAllInactiveF() {
-        return fareRepository.findAllByStatus(Constants.INACTIVE.name());
+        return fareReadModel.getAllByStatus(Constants.INACTIVE.name());
+    }
+
+    @Override
+    public Mono<CursorPage<Fare>> getPageF(String after, String status, Integer limit) {
+        return CursorPage.fetch(after, limit, Fare::getId,
+                (lastId, fetch) -> fareRepository.findPage(status, lastId, fetch));
+    }
+
+    @Override
+    public Flux<Fare> getAllByOrganizationF(String organizationId, String status) {
+        return fareReadModel.getAllByOrganization(organizationId, status);
     }
 
     @Override
     public Mono<Fare> getByIdFMono(String id) {
-        return fareRepository.findById(id)
+        return fareReadModel.getById(id)
                 .switchIfEmpty(Mono.error(new CustomException(
                         HttpStatus.NOT_FOUND.value(),
                         "Fare not found",
@@ -52,109 +78,72 @@ public class FareServiceImpl implements FareService {
 
     @Override
     public Mono<FareResponse> saveF(FareCreateRequest request) {
-        return generateNextFareCode() // ← Aquí lo usamos
-                .flatMap(generatedCode -> fareRepository.existsByFareCode(generatedCode)
-                        .flatMap(exists -> {
-                            if (exists) {
-                                return Mono.error(new CustomException(
-                                        HttpStatus.BAD_REQUEST.value(),
-                                        "Fare code already exists",
-                                        "The fare code " + generatedCode + " is already registered"));
-                            }
-
-                            Fare fare = Fare.builder()
-                                    .organizationId(request.getOrganizationId())
-                                    .fareCode(generatedCode) // ← Se usa el código generado
-                                    .fareName(request.getFareName())
-                                    .fareType(request.getFareType())
-                                    .fareAmount(request.getFareAmount())
-                                    .status(Constants.ACTIVE.name())
-                                    .createdAt(Instant.now())
-                                    .build();
-
-                            return fareRepository.save(fare)
-                                    .map(savedFare -> FareResponse.builder()
-                                            .id(savedFare.getId())
-                                            .organizationId(savedFare.getOrganizationId())
-                                            .fareCode(savedFare.getFareCode())
-                                            .fareName(savedFare.getFareName())
-                                            .fareType(savedFare.getFareType())
-                                            .fareAmount(savedFare.getFareAmount())
-                                            .status(savedFare.getStatus())
-                                            .createdAt(savedFare.getCreatedAt())
-                                            .build());
-                        }));
-    }
+        return codeSequenceService.nextCode(CodeSequence.FARE) // ← código reservado atómicamente
+                .flatMap(generatedCode -> {
+                    Fare fare = Fare.builder()
+                            .organizationId(request.getOrganizationId())
+                            .fareCode(generatedCode) // ← Se usa el código generado
+                            .fareName(request.getFareName())
+                            .fareType(request.getFareType())
+                            .fareAmount(request.getFareAmount())
+                            .status(Constants.ACTIVE.name())
+                            .createdAt(Instant.now())
+                            .build();
 
-    private static final String FARE_PREFIX = "TAR";
-
-    private Mono<String> generateNextFareCode() {
-        return fareRepository.findTopByOrderByFareCodeDesc()
-                .map(last -> {
-                    String lastCode = last.getFareCode(); // ej. "TAR003"
-                    int number = 0;
-                    try {
-                        number = Integer.parseInt(lastCode.replace(FARE_PREFIX, ""));
-                    } catch (NumberFormatException e) {
-                        // Si el código no sigue el patrón, asumimos 0
-                    }
-                    return String.format(FARE_PREFIX + "%03d", number + 1);
-                })
-                .defaultIfEmpty(FARE_PREFIX + "001");
+                    return fareRepository.save(fare)
+                            .map(savedFare -> FareResponse.builder()
+                                    .id(savedFare.getId())
+                                    .organizationId(savedFare.getOrganizationId())
+                                    .fareCode(savedFare.getFareCode())
+                                    .fareName(savedFare.getFareName())
+                                    .fareType(savedFare.getFareType())
+                                    .fareAmount(savedFare.getFareAmount())
+                                    .status(savedFare.getStatus())
+                                    .createdAt(savedFare.getCreatedAt())
+                                    .build())
+                            .doOnSuccess(saved -> fareReadModel.invalidate());
+                });
     }
 
     @Override
-    public Mono<Fare> updateF(String id, Fare fare) {
+    public Mono<Fare> updateF(String id, Fare fare, Long expectedVersion) {
         return fareRepository.findById(id)
                 .switchIfEmpty(Mono.error(new CustomException(
                         HttpStatus.NOT_FOUND.value(),
                         "Fare not found",
                         "Cannot update non-existent fare with id " + id)))
-                .flatMap(existingFare -> {
-                    existingFare.setOrganizationId(fare.getOrganizationId());
-                    existingFare.setFareName(fare.getFareName());
-                    existingFare.setFareType(fare.getFareType());
-                    existingFare.setFareAmount(fare.getFareAmount());
-                    return fareRepository.save(existingFare);
-                });
+                .flatMap(existingFare -> atomicDocumentService.update(Fare.class, id,
+                        AtomicDocumentService.expectedVersion(expectedVersion, existingFare.getVersion()),
+                        new Update()
+                                .set("organizationId", fare.getOrganizationId())
+                                .set("fareName", fare.getFareName())
+                                .set("fareType", fare.getFareType())
+                                .set("fareAmount", fare.getFareAmount()),
+                        "Fare"))
+                .doOnSuccess(saved -> fareReadModel.invalidate());
     }
 
     @Override
-    public Mono<Void> deleteF(String id) {
-        return fareRepository.findById(id)
-                .switchIfEmpty(Mono.error(new CustomException(
-                        HttpStatus.NOT_FOUND.value(),
-                        "Fare not found",
-                        "Cannot delete non-existent fare with id " + id)))
-                .flatMap(fareRepository::delete);
+    public Mono<Void> deleteF(String id, Long expectedVersion) {
+        return atomicDocumentService.delete(Fare.class, id, expectedVersion, "Fare")
+                .doOnSuccess(deleted -> fareReadModel.invalidate())
+                .then();
     }
 
     @Override
-    public Mono<Fare> activateF(String id) {
-        return changeStatus(id, Constants.ACTIVE.name());
+    public Mono<Fare> activateF(String id, Long expectedVersion) {
+        return changeStatus(id, Constants.ACTIVE.name(), expectedVersion);
     }
 
     @Override
-    public Mono<Fare> deactivateF(String id) {
-        return fareRepository.findById(id)
-                .switchIfEmpty(Mono.error(CustomException.notFound("Fare", id)))
-                .flatMap(fare -> {
-                    fare.setStatus(Constants.INACTIVE.name());
-                    return fareRepository.save(fare);
-                });
+    public Mono<Fare> deactivateF(String id, Long expectedVersion) {
+        return changeStatus(id, Constants.INACTIVE.name(), expectedVersion);
     }
 
-    private Mono<Fare> changeStatus(String id, String status) {
-        return fareRepository.findById(id)
-                .switchIfEmpty(Mono.error(CustomException.notFound("Fare", id)))
-                .flatMap(fare -> {
-                    System.out.println("➡️ Estado actual: " + fare.getStatus());
-                    fare.setStatus(status);
-                    System.out.println("🔁 Estado nuevo: " + fare.getStatus());
-                    return fareRepository.save(fare)
-                            .doOnNext(saved -> System.out.println("✅ Guardado: " + saved.getStatus()));
-                })
-                .doOnError(e -> System.err.println("❌ Error al cambiar estado: " + e.getMessage()));
+    private Mono<Fare> changeStatus(String id, String status, Long expectedVersion) {
+        return atomicDocumentService.changeStatus(Fare.class, id, expectedVersion, status, "Fare")
+                .doOnSuccess(saved -> fareReadModel.invalidate())
+                .doOnError(e -> log.error("Error al cambiar estado de tarifa {}: {}", id, e.getMessage()));
     }
 
 }
\ No newline at end of file
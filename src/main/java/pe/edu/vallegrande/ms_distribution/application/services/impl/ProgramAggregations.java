@@ -0,0 +1,54 @@
+package pe.edu.vallegrande.ms_distribution.application.services.impl;
+
+import org.bson.Document;
+import org.springframework.data.mongodb.core.aggregation.AggregationOperation;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Expresiones de agregación sobre programas compartidas por las estadísticas y los
+ * resúmenes diarios
+ */
+final class ProgramAggregations {
+
+    private ProgramAggregations() {
+    }
+
+    static AggregationOperation stage(String operator, Document body) {
+        return context -> new Document(operator, body);
+    }
+
+    /**
+     * Convierte las horas "HH:mm" en minutos desde medianoche; un valor ausente o mal
+     * formado queda en null y los acumuladores ($avg, $max, $sum) lo ignoran
+     */
+    static AggregationOperation minutesStage() {
+        return stage("$addFields", new Document()
+                .append("plannedStart", minutes("$plannedStartTime"))
+                .append("plannedEnd", minutes("$plannedEndTime"))
+                .append("actualStart", minutes("$actualStartTime"))
+                .append("actualEnd", minutes("$actualEndTime")));
+    }
+
+    static Document minutes(String field) {
+        Document valid = new Document("$regexMatch", new Document("input", new Document("$ifNull", List.of(field, "")))
+                .append("regex", "^([01][0-9]|2[0-3]):[0-5][0-9]$"));
+        Document value = new Document("$add", List.of(
+                new Document("$multiply", List.of(new Document("$toInt", new Document("$substrBytes", List.of(field, 0, 2))), 60)),
+                new Document("$toInt", new Document("$substrBytes", List.of(field, 3, 2)))));
+        return new Document("$cond", Arrays.asList(valid, value, null));
+    }
+
+    static Document startDelay() {
+        return new Document("$subtract", List.of("$actualStart", "$plannedStart"));
+    }
+
+    static Document countStatus(String status) {
+        return new Document("$sum", new Document("$cond", List.of(new Document("$eq", List.of("$status", status)), 1, 0)));
+    }
+
+    static Document present(Object expression) {
+        return new Document("$cond", List.of(new Document("$ne", Arrays.asList(expression, null)), 1, 0));
+    }
+}
@@ -0,0 +1,170 @@
+package pe.edu.vallegrande.ms_distribution.application.services.impl;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import pe.edu.vallegrande.ms_distribution.application.services.ProgramExecutionService;
+import pe.edu.vallegrande.ms_distribution.application.services.ProgramRollupService;
+import pe.edu.vallegrande.ms_distribution.domain.enums.ProgramEventType;
+import pe.edu.vallegrande.ms_distribution.domain.models.DistributionProgram;
+import pe.edu.vallegrande.ms_distribution.domain.models.ProgramEvent;
+import pe.edu.vallegrande.ms_distribution.infrastructure.dto.request.ProgramEventRequest;
+import pe.edu.vallegrande.ms_distribution.infrastructure.dto.response.ProgramEventResponse;
+import pe.edu.vallegrande.ms_distribution.infrastructure.exception.CustomException;
+import pe.edu.vallegrande.ms_distribution.infrastructure.repository.ProgramEventRepository;
+import pe.edu.vallegrande.ms_distribution.infrastructure.service.AtomicDocumentService;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Instant;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+
+/**
+ * Registro de la ejecución de programas desde la app de las cuadrillas. Cada evento es
+ * un findAndModify con $set de estado y hora real (o una lectura proyectada si el evento
+ * no cambia el programa) más la inserción de la entrada en program_events. El programa
+ * guarda los últimos clientEventId aplicados para que dos reintentos simultáneos del
+ * mismo evento no incrementen dos veces la versión.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ProgramExecutionServiceImpl implements ProgramExecutionService {
+
+    private static final String APPLIED_EVENT_IDS = "appliedEventIds";
+    // Basta con cubrir los reintentos que pueden estar en vuelo a la vez
+    private static final int APPLIED_EVENTS_KEPT = 20;
+
+    private final ReactiveMongoTemplate mongoTemplate;
+    private final ProgramEventRepository eventRepository;
+    private final ProgramRollupService rollupService;
+
+    @Value("${app.programs.time-zone:America/Lima}")
+    private ZoneId timeZone;
+
+    private final DateTimeFormatter timeFormatter = DateTimeFormatter.ofPattern("HH:mm");
+
+    @Override
+    public Mono<ProgramEventResponse> recordEvent(String programId, ProgramEventRequest request) {
+        return Mono.defer(() -> {
+            ProgramEventType type = parseType(request.getType());
+            String time = resolveTime(request.getTime());
+            String clientEventId = request.getClientEventId() == null || request.getClientEventId().isBlank()
+                    ? null : request.getClientEventId();
+
+            // Un reintento del mismo evento devuelve el registro original sin volver a aplicarlo
+            Mono<ProgramEvent> previous = clientEventId == null
+                    ? Mono.empty()
+                    : eventRepository.findFirstByProgramIdAndClientEventId(programId, clientEventId);
+
+            return previous
+                    .switchIfEmpty(Mono.defer(() -> apply(programId, type, time, clientEventId, request)))
+                    .map(this::toResponse);
+        });
+    }
+
+    @Override
+    public Flux<ProgramEventResponse> getEvents(String programId) {
+        return eventRepository.findAllByProgramIdOrderByIdAsc(programId)
+                .map(this::toResponse);
+    }
+
+    private Mono<ProgramEvent> apply(String programId, ProgramEventType type, String time,
+                                     String clientEventId, ProgramEventRequest request) {
+        Mono<DistributionProgram> current = Mono.defer(() ->
+                mongoTemplate.findOne(projected(Criteria.where("_id").is(programId)), DistributionProgram.class));
+        Mono<DistributionProgram> program = type.getProgramStatus() == null
+                ? current
+                // Con clientEventId, sólo se modifica si ese evento no figura entre los aplicados
+                : mongoTemplate.findAndModify(projected(clientEventId == null
+                                ? Criteria.where("_id").is(programId)
+                                : Criteria.where("_id").is(programId).and(APPLIED_EVENT_IDS).ne(clientEventId)),
+                        applied(clientEventId, new Update()
+                                .set("status", type.getProgramStatus().name())
+                                .set(type.getTimeField(), time)
+                                .inc(AtomicDocumentService.VERSION, 1)),
+                        FindAndModifyOptions.options().returnNew(true),
+                        DistributionProgram.class)
+                .doOnNext(rollupService::markDirty)
+                // Un reintento simultáneo ya aplicó el evento: se registra con el estado resultante
+                .switchIfEmpty(clientEventId == null ? Mono.empty() : current);
+
+        return program
+                .switchIfEmpty(Mono.error(CustomException.notFound("Program", programId)))
+                .flatMap(state -> eventRepository.insert(ProgramEvent.builder()
+                        .programId(programId)
+                        .organizationId(state.getOrganizationId())
+                        .zoneId(state.getZoneId())
+                        .type(type.name())
+                        .time(time)
+                        .note(request.getNote())
+                        .userId(request.getUserId())
+                        .clientEventId(clientEventId)
+                        .status(state.getStatus())
+                        .version(state.getVersion())
+                        .occurredAt(Instant.now())
+                        .build()))
+                // Dos reintentos simultáneos: el índice único deja pasar solo uno
+                .onErrorResume(DuplicateKeyException.class,
+                        e -> eventRepository.findFirstByProgramIdAndClientEventId(programId, clientEventId))
+                .doOnNext(event -> log.debug("Evento {} en programa {} ({})", event.getType(), programId, event.getStatus()));
+    }
+
+    private static Query projected(Criteria criteria) {
+        Query query = Query.query(criteria);
+        query.fields().include("organizationId", "zoneId", "programDate", "status", AtomicDocumentService.VERSION);
+        return query;
+    }
+
+    private Update applied(String clientEventId, Update update) {
+        if (clientEventId != null) {
+            update.push(APPLIED_EVENT_IDS).slice(-APPLIED_EVENTS_KEPT).each(clientEventId);
+        }
+        return update;
+    }
+
+    private ProgramEventType parseType(String type) {
+        try {
+            return ProgramEventType.valueOf(type == null ? "" : type.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw CustomException.badRequest("Invalid event type",
+                    "Event type must be one of START, FINISH, INCIDENT but was: " + type);
+        }
+    }
+
+    private String resolveTime(String time) {
+        if (time == null || time.isBlank()) {
+            return LocalTime.now(timeZone).format(timeFormatter);
+        }
+        try {
+            return LocalTime.parse(time.trim(), timeFormatter).format(timeFormatter);
+        } catch (DateTimeParseException e) {
+            throw CustomException.badRequest("Invalid time", "Event time must use the HH:mm format: " + time);
+        }
+    }
+
+    private ProgramEventResponse toResponse(ProgramEvent event) {
+        return ProgramEventResponse.builder()
+                .id(event.getId())
+                .programId(event.getProgramId())
+                .type(event.getType())
+                .time(event.getTime())
+                .note(event.getNote())
+                .status(event.getStatus())
+                .version(event.getVersion())
+                .occurredAt(event.getOccurredAt() != null ? event.getOccurredAt().toString() : null)
+                .build();
+    }
+}
@@ -0,0 +1,330 @@
+package pe.edu.vallegrande.ms_distribution.application.services.impl;
+
+import com.mongodb.MongoBulkWriteException;
+import com.mongodb.WriteError;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import pe.edu.vallegrande.ms_distribution.application.services.ProgramGenerationService;
+import pe.edu.vallegrande.ms_distribution.application.services.ProgramRollupService;
+import pe.edu.vallegrande.ms_distribution.domain.enums.CodeSequence;
+import pe.edu.vallegrande.ms_distribution.domain.enums.Constants;
+import pe.edu.vallegrande.ms_distribution.domain.enums.ProgramStatus;
+import pe.edu.vallegrande.ms_distribution.domain.models.DistributionProgram;
+import pe.edu.vallegrande.ms_distribution.domain.models.DistributionRoute;
+import pe.edu.vallegrande.ms_distribution.domain.models.DistributionSchedule;
+import pe.edu.vallegrande.ms_distribution.infrastructure.dto.request.ProgramGenerationRequest;
+import pe.edu.vallegrande.ms_distribution.infrastructure.dto.response.ProgramGenerationResponse;
+import pe.edu.vallegrande.ms_distribution.infrastructure.exception.CustomException;
+import pe.edu.vallegrande.ms_distribution.infrastructure.repository.DistributionRouteRepository;
+import pe.edu.vallegrande.ms_distribution.infrastructure.repository.DistributionScheduleRepository;
+import pe.edu.vallegrande.ms_distribution.infrastructure.service.CodeSequenceService;
+
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations.BulkMode;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Service;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.text.Normalizer;
+import java.time.DayOfWeek;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Motor de generación de programas: expande los horarios y rutas activos sobre un rango
+ * de fechas. Cada programa generado lleva una generationKey única, por lo que volver a
+ * ejecutar el mismo rango no crea duplicados.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ProgramGenerationServiceImpl implements ProgramGenerationService {
+
+    private static final int BATCH_SIZE = 1000;
+    private static final int ORGANIZATION_CONCURRENCY = 8;
+    private static final int MAX_RANGE_DAYS = 366;
+    private static final int DUPLICATE_KEY = 11000;
+    private static final int MINUTES_PER_DAY = 24 * 60;
+
+    private static final Map<String, DayOfWeek> SPANISH_DAYS = Map.of(
+            "LUNES", DayOfWeek.MONDAY,
+            "MARTES", DayOfWeek.TUESDAY,
+            "MIERCOLES", DayOfWeek.WEDNESDAY,
+            "JUEVES", DayOfWeek.THURSDAY,
+            "VIERNES", DayOfWeek.FRIDAY,
+            "SABADO", DayOfWeek.SATURDAY,
+            "DOMINGO", DayOfWeek.SUNDAY);
+
+    private final DistributionScheduleRepository scheduleRepository;
+    private final DistributionRouteRepository routeRepository;
+    private final CodeSequenceService codeSequenceService;
+    private final ReactiveMongoTemplate mongoTemplate;
+    private final ProgramRollupService rollupService;
+    private final MeterRegistry meterRegistry;
+
+    private final DateTimeFormatter dateFormatter = DateTimeFormatter.ofPattern("yyyy-MM-dd");
+    private final DateTimeFormatter timeFormatter = DateTimeFormatter.ofPattern("HH:mm");
+
+    @Override
+    public Mono<ProgramGenerationResponse> generate(ProgramGenerationRequest request) {
+        LocalDate from;
+        LocalDate to;
+        try {
+            from = LocalDate.parse(request.getFromDate(), dateFormatter);
+            to = LocalDate.parse(request.getToDate(), dateFormatter);
+        } catch (DateTimeParseException | NullPointerException e) {
+            return Mono.error(CustomException.badRequest("Invalid date range", "fromDate and toDate must use yyyy-MM-dd"));
+        }
+        if (to.isBefore(from) || ChronoUnit.DAYS.between(from, to) >= MAX_RANGE_DAYS) {
+            return Mono.error(CustomException.badRequest("Invalid date range",
+                    "toDate must be on or after fromDate and the range cannot exceed " + MAX_RANGE_DAYS + " days"));
+        }
+
+        String organizationId = request.getOrganizationId();
+        String active = Constants.ACTIVE.name();
+        Flux<DistributionSchedule> schedules = organizationId == null
+                ? scheduleRepository.findAllByStatus(active)
+                : scheduleRepository.findAllByOrganizationIdAndStatus(organizationId, active);
+        Flux<DistributionRoute> routes = organizationId == null
+                ? routeRepository.findAllByStatus(active)
+                : routeRepository.findAllByOrganizationIdAndStatus(organizationId, active);
+
+        long started = System.currentTimeMillis();
+
+        return Mono.zip(
+                        schedules.filter(s -> s.getOrganizationId() != null).collectMultimap(DistributionSchedule::getOrganizationId),
+                        routes.filter(r -> r.getOrganizationId() != null).collectMultimap(DistributionRoute::getOrganizationId))
+                .flatMap(tuple -> Flux.fromIterable(tuple.getT1().entrySet())
+                        .flatMap(entry -> generateForOrganization(entry.getKey(), entry.getValue(),
+                                tuple.getT2().getOrDefault(entry.getKey(), List.of()), from, to), ORGANIZATION_CONCURRENCY)
+                        .collectList())
+                .map(results -> {
+                    int candidates = results.stream().mapToInt(r -> r[0]).sum();
+                    int created = results.stream().mapToInt(r -> r[1]).sum();
+                    int outOfWindow = results.stream().mapToInt(r -> r[2]).sum();
+                    return ProgramGenerationResponse.builder()
+                            .fromDate(from.format(dateFormatter))
+                            .toDate(to.format(dateFormatter))
+                            .organizations(results.size())
+                            .candidates(candidates)
+                            .created(created)
+                            .skipped(candidates - created)
+                            .outOfWindow(outOfWindow)
+                            .elapsedMillis(System.currentTimeMillis() - started)
+                            .build();
+                })
+                .doOnNext(result -> log.info("Generación de programas {} a {}: {} creados, {} omitidos, {} fuera de horario en {} ms",
+                        result.getFromDate(), result.getToDate(), result.getCreated(), result.getSkipped(),
+                        result.getOutOfWindow(), result.getElapsedMillis()));
+    }
+
+    /**
+     * Genera los programas de una organización. Devuelve {candidatos, creados, fuera de horario}.
+     */
+    private Mono<int[]> generateForOrganization(String organizationId,
+                                                Collection<DistributionSchedule> schedules,
+                                                Collection<DistributionRoute> routes,
+                                                LocalDate from, LocalDate to) {
+        return Mono.fromCallable(() -> expand(organizationId, schedules, routes, from, to))
+                .subscribeOn(Schedulers.parallel())
+                .flatMap(expansion -> {
+                    List<DistributionProgram> candidates = expansion.programs();
+                    if (candidates.isEmpty()) {
+                        return Mono.just(new int[]{0, 0, expansion.outOfWindow()});
+                    }
+                    return findExistingKeys(organizationId, from, to)
+                            .flatMap(existing -> Flux.fromIterable(candidates)
+                                    .filter(program -> !existing.contains(program.getGenerationKey()))
+                                    .buffer(BATCH_SIZE)
+                                    .concatMap(this::insertBatch)
+                                    .reduce(0, Integer::sum))
+                            .map(created -> new int[]{candidates.size(), created, expansion.outOfWindow()});
+                });
+    }
+
+    /**
+     * Programas calculados y cantidad de tramos descartados por quedar fuera del horario
+     */
+    private record Expansion(List<DistributionProgram> programs, int outOfWindow) {
+    }
+
+    private Expansion expand(String organizationId,
+                                             Collection<DistributionSchedule> schedules,
+                                             Collection<DistributionRoute> routes,
+                                             LocalDate from, LocalDate to) {
+        List<DistributionProgram> programs = new ArrayList<>();
+        int outOfWindow = 0;
+        Instant now = Instant.now();
+
+        for (DistributionSchedule schedule : schedules) {
+            Set<DayOfWeek> days = parseDays(schedule.getDaysOfWeek());
+            LocalTime scheduleStart = parseTime(schedule.getStartTime());
+            if (days.isEmpty() || scheduleStart == null || schedule.getZoneId() == null) {
+                continue;
+            }
+            LocalTime scheduleEnd = parseTime(schedule.getEndTime());
+            int windowEnd = scheduleEnd != null ? minutesOf(scheduleEnd) : MINUTES_PER_DAY - 1;
+
+            for (DistributionRoute route : routes) {
+                int[] slot = zoneSlot(route, schedule.getZoneId());
+                if (slot == null) {
+                    continue;
+                }
+                // En minutos desde medianoche: LocalTime.plusHours daría la vuelta al día
+                int startMinute = minutesOf(scheduleStart) + slot[0] * 60;
+                int endMinute = startMinute + slot[1] * 60;
+                boolean fits = endMinute < MINUTES_PER_DAY && endMinute <= windowEnd;
+                String plannedStart = fits ? LocalTime.ofSecondOfDay(startMinute * 60L).format(timeFormatter) : null;
+                String plannedEnd = fits ? LocalTime.ofSecondOfDay(endMinute * 60L).format(timeFormatter) : null;
+
+                for (LocalDate date = from; !date.isAfter(to); date = date.plusDays(1)) {
+                    if (!days.contains(date.getDayOfWeek())) {
+                        continue;
+                    }
+                    if (!fits) {
+                        outOfWindow++;
+                        continue;
+                    }
+                    programs.add(DistributionProgram.builder()
+                            .organizationId(organizationId)
+                            .scheduleId(schedule.getId())
+                            .routeId(route.getId())
+                            .zoneId(schedule.getZoneId())
+                            .programDate(date)
+                            .plannedStartTime(plannedStart)
+                            .plannedEndTime(plannedEnd)
+                            .status(ProgramStatus.PLANNED.name())
+                            .responsibleUserId(route.getResponsibleUserId())
+                            .createdAt(now)
+                            .generationKey(schedule.getId() + "|" + route.getId() + "|" + schedule.getZoneId() + "|" + date)
+                            .build());
+                }
+            }
+        }
+        return new Expansion(programs, outOfWindow);
+    }
+
+    private static int minutesOf(LocalTime time) {
+        return time.getHour() * 60 + time.getMinute();
+    }
+
+    /**
+     * Posición de la zona dentro de la ruta: {horas acumuladas antes de la zona, duración de la zona}.
+     * Devuelve null si la ruta no pasa por la zona.
+     */
+    private int[] zoneSlot(DistributionRoute route, String zoneId) {
+        if (route.getZones() == null) {
+            return null;
+        }
+        int offset = 0;
+        List<DistributionRoute.ZoneOrder> ordered = route.getZones().stream()
+                .sorted(Comparator.comparingInt(DistributionRoute.ZoneOrder::getOrder))
+                .toList();
+        for (DistributionRoute.ZoneOrder zone : ordered) {
+            if (zoneId.equals(zone.getZoneId())) {
+                return new int[]{offset, zone.getEstimatedDuration()};
+            }
+            offset += zone.getEstimatedDuration();
+        }
+        return null;
+    }
+
+    private Mono<Set<String>> findExistingKeys(String organizationId, LocalDate from, LocalDate to) {
+        Query query = Query.query(Criteria.where("organizationId").is(organizationId)
+                .and("programDate").gte(from).lte(to)
+                .and("generationKey").exists(true));
+        query.fields().include("generationKey").exclude("_id");
+
+        return mongoTemplate.find(query, Document.class, mongoTemplate.getCollectionName(DistributionProgram.class))
+                .map(doc -> doc.getString("generationKey"))
+                .collect(Collectors.toSet());
+    }
+
+    /**
+     * Inserta un lote con un bloque de códigos reservado en una sola operación.
+     * Los duplicados por ejecuciones concurrentes los rechaza el índice único y se cuentan como omitidos;
+     * cualquier otro error de escritura se propaga.
+     */
+    private Mono<Integer> insertBatch(List<DistributionProgram> batch) {
+        return codeSequenceService.nextCodes(CodeSequence.PROGRAM, batch.size())
+                .collectList()
+                .flatMap(codes -> {
+                    for (int i = 0; i < batch.size(); i++) {
+                        batch.get(i).setId(new ObjectId().toHexString());
+                        batch.get(i).setProgramCode(codes.get(i));
+                    }
+                    return mongoTemplate.bulkOps(BulkMode.UNORDERED, DistributionProgram.class)
+                            .insert(batch)
+                            .execute();
+                })
+                .map(result -> result.getInsertedCount())
+                .onErrorResume(BulkOperationException.class,
+                        e -> onlyDuplicates(e.getErrors()) ? Mono.just(e.getResult().getInsertedCount()) : Mono.error(e))
+                .onErrorResume(MongoBulkWriteException.class,
+                        e -> onlyDuplicates(e.getWriteErrors()) ? Mono.just(e.getWriteResult().getInsertedCount()) : Mono.error(e))
+                .doOnNext(created -> {
+                    if (created < batch.size()) {
+                        meterRegistry.counter("programs.generation.collisions").increment(batch.size() - created);
+                    }
+                })
+                // Los omitidos por duplicado también se marcan: recalcular su día no cambia nada
+                .doOnNext(created -> batch.forEach(rollupService::markDirty));
+    }
+
+    private static boolean onlyDuplicates(List<? extends WriteError> errors) {
+        return !errors.isEmpty() && errors.stream().allMatch(error -> error.getCode() == DUPLICATE_KEY);
+    }
+
+    private Set<DayOfWeek> parseDays(List<String> daysOfWeek) {
+        Set<DayOfWeek> days = EnumSet.noneOf(DayOfWeek.class);
+        if (daysOfWeek == null) {
+            return days;
+        }
+        for (String day : daysOfWeek) {
+            if (day == null) {
+                continue;
+            }
+            String normalized = Normalizer.normalize(day.trim().toUpperCase(), Normalizer.Form.NFD)
+                    .replaceAll("\\p{M}", "");
+            DayOfWeek spanish = SPANISH_DAYS.get(normalized);
+            if (spanish != null) {
+                days.add(spanish);
+                continue;
+            }
+            try {
+                days.add(DayOfWeek.valueOf(normalized));
+            } catch (IllegalArgumentException e) {
+                log.warn("Día de la semana no reconocido en horario: {}", day);
+            }
+        }
+        return days;
+    }
+
+    private LocalTime parseTime(String time) {
+        try {
+            return time != null ? LocalTime.parse(time, timeFormatter) : null;
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,261 @@
+package pe.edu.vallegrande.ms_distribution.application.services.impl;
+
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import pe.edu.vallegrande.ms_distribution.application.services.ProgramRollupService;
+import pe.edu.vallegrande.ms_distribution.domain.enums.ProgramStatus;
+import pe.edu.vallegrande.ms_distribution.domain.models.DistributionProgram;
+import pe.edu.vallegrande.ms_distribution.domain.models.ProgramDailyRollup;
+import pe.edu.vallegrande.ms_distribution.infrastructure.exception.CustomException;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationOperation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import reactor.core.Disposable;
+import reactor.core.Disposables;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static pe.edu.vallegrande.ms_distribution.application.services.impl.ProgramAggregations.countStatus;
+import static pe.edu.vallegrande.ms_distribution.application.services.impl.ProgramAggregations.minutesStage;
+import static pe.edu.vallegrande.ms_distribution.application.services.impl.ProgramAggregations.present;
+import static pe.edu.vallegrande.ms_distribution.application.services.impl.ProgramAggregations.stage;
+import static pe.edu.vallegrande.ms_distribution.application.services.impl.ProgramAggregations.startDelay;
+
+/**
+ * Mantiene program_daily_rollups. Cada escritura de programas marca su día/zona como
+ * pendiente y un ciclo corto recalcula solo esos días desde los programas (con el índice
+ * org_zone_programDate_idx), agrupando varias escrituras del mismo día en un solo cálculo.
+ * Un job periódico reconstruye la ventana reciente de cada organización para corregir
+ * lo que no se marcó (escrituras fuera del servicio, fallos).
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ProgramRollupServiceImpl implements ProgramRollupService {
+
+    private static final int REFRESH_CONCURRENCY = 4;
+    private static final int MAX_REBUILD_DAYS = 366;
+
+    private final ReactiveMongoTemplate mongoTemplate;
+
+    @Value("${app.programs.rollups.flush-interval:PT2S}")
+    private Duration flushInterval;
+
+    @Value("${app.programs.rollups.rebuild-interval:PT1H}")
+    private Duration rebuildInterval;
+
+    @Value("${app.programs.rollups.rebuild-initial-delay:PT10M}")
+    private Duration rebuildInitialDelay;
+
+    @Value("${app.programs.rollups.rebuild-days:35}")
+    private int rebuildDays;
+
+    @Value("${app.programs.time-zone:America/Lima}")
+    private ZoneId timeZone;
+
+    private final Set<Bucket> dirty = ConcurrentHashMap.newKeySet();
+
+    private volatile Disposable jobs;
+
+    @Override
+    public void markDirty(DistributionProgram program) {
+        if (program != null && program.getOrganizationId() != null && program.getProgramDate() != null) {
+            dirty.add(new Bucket(program.getOrganizationId(), program.getZoneId(), program.getProgramDate()));
+        }
+    }
+
+    @Override
+    public Mono<Long> rebuild(String organizationId, LocalDate from, LocalDate to) {
+        return Mono.defer(() -> {
+            if (to.isBefore(from)) {
+                return Mono.error(CustomException.badRequest("Invalid range", "'to' must not be before 'from'"));
+            }
+            if (ChronoUnit.DAYS.between(from, to) >= MAX_REBUILD_DAYS) {
+                return Mono.error(CustomException.badRequest("Invalid range",
+                        "The range cannot exceed " + MAX_REBUILD_DAYS + " days"));
+            }
+            Instant started = Instant.now();
+            Criteria programs = Criteria.where("organizationId").is(organizationId)
+                    .and("programDate").gte(from).lte(to);
+            return aggregate(programs)
+                    .flatMap(rollup -> saveUnlessRefreshed(rollup, started), REFRESH_CONCURRENCY)
+                    .collectList()
+                    // Días o zonas que ya no tienen programas; los que un flush recalculó durante
+                    // la reconstrucción son más nuevos que el inicio y no se tocan
+                    .flatMap(ids -> mongoTemplate.remove(Query.query(Criteria.where("organizationId").is(organizationId)
+                                            .and("day").gte(from).lte(to)
+                                            .and("_id").nin(ids)
+                                            .and("updatedAt").lt(started)),
+                                    ProgramDailyRollup.class)
+                            .thenReturn((long) ids.size()));
+        });
+    }
+
+    /**
+     * Escritura de la reconstrucción: solo reemplaza resúmenes anteriores a su inicio. Si un flush
+     * recalculó el día mientras tanto el filtro no coincide, el upsert choca con el _id existente
+     * y se conserva el resultado del flush, que es más nuevo
+     */
+    private Mono<String> saveUnlessRefreshed(ProgramDailyRollup rollup, Instant started) {
+        Query query = Query.query(Criteria.where("_id").is(rollup.getId())
+                .orOperator(Criteria.where("updatedAt").lt(started), Criteria.where("updatedAt").exists(false)));
+        Update update = new Update()
+                .set("organizationId", rollup.getOrganizationId())
+                .set("zoneId", rollup.getZoneId())
+                .set("day", rollup.getDay())
+                .set("total", rollup.getTotal())
+                .set("planned", rollup.getPlanned())
+                .set("inProgress", rollup.getInProgress())
+                .set("completed", rollup.getCompleted())
+                .set("cancelled", rollup.getCancelled())
+                .set("startDelayMinutes", rollup.getStartDelayMinutes())
+                .set("startDelaySamples", rollup.getStartDelaySamples())
+                .set("updatedAt", rollup.getUpdatedAt());
+        return mongoTemplate.upsert(query, update, ProgramDailyRollup.class)
+                .onErrorResume(DuplicateKeyException.class, e -> Mono.empty())
+                .thenReturn(rollup.getId());
+    }
+
+    /**
+     * Recalcula los días pendientes; si uno falla vuelve a quedar pendiente para el siguiente ciclo
+     */
+    Mono<Void> flush() {
+        if (dirty.isEmpty()) {
+            return Mono.empty();
+        }
+        // Se retiran antes de leer: una escritura posterior vuelve a marcar su día
+        List<Bucket> pending = new ArrayList<>(dirty);
+        pending.forEach(dirty::remove);
+        return Flux.fromIterable(pending)
+                .flatMap(bucket -> refresh(bucket).onErrorResume(e -> {
+                    log.warn("No se pudo recalcular el resumen {}: {}", bucket, e.getMessage());
+                    dirty.add(bucket);
+                    return Mono.empty();
+                }), REFRESH_CONCURRENCY)
+                .then();
+    }
+
+    Mono<Void> refresh(Bucket bucket) {
+        Criteria programs = Criteria.where("organizationId").is(bucket.organizationId())
+                .and("zoneId").is(bucket.zoneId())
+                .and("programDate").is(bucket.day());
+        String id = ProgramDailyRollup.key(bucket.organizationId(), bucket.zoneId(), bucket.day());
+        return aggregate(programs)
+                .next()
+                .flatMap(mongoTemplate::save)
+                .switchIfEmpty(Mono.defer(() -> mongoTemplate
+                        .remove(Query.query(Criteria.where("_id").is(id)), ProgramDailyRollup.class)
+                        .then(Mono.empty())))
+                .then();
+    }
+
+    /**
+     * Un documento por organización, zona y día de los programas que cumplen el criterio
+     */
+    private Flux<ProgramDailyRollup> aggregate(Criteria programs) {
+        List<AggregationOperation> stages = List.of(
+                Aggregation.match(programs),
+                minutesStage(),
+                stage("$addFields", new Document("startDelay", startDelay())),
+                stage("$group", new Document("_id", new Document("organizationId", "$organizationId")
+                                // Zona ausente y zona null caen en el mismo documento
+                                .append("zoneId", new Document("$ifNull", Arrays.asList("$zoneId", null)))
+                                .append("day", "$programDate"))
+                        .append("total", new Document("$sum", 1))
+                        .append("planned", countStatus(ProgramStatus.PLANNED.name()))
+                        .append("inProgress", countStatus(ProgramStatus.IN_PROGRESS.name()))
+                        .append("completed", countStatus(ProgramStatus.COMPLETED.name()))
+                        .append("cancelled", countStatus(ProgramStatus.CANCELLED.name()))
+                        .append("startDelayMinutes", new Document("$sum", "$startDelay"))
+                        .append("startDelaySamples", new Document("$sum", present("$startDelay")))),
+                stage("$project", new Document("_id", 0)
+                        .append("organizationId", "$_id.organizationId")
+                        .append("zoneId", "$_id.zoneId")
+                        .append("day", "$_id.day")
+                        .append("total", 1).append("planned", 1).append("inProgress", 1)
+                        .append("completed", 1).append("cancelled", 1)
+                        .append("startDelayMinutes", 1).append("startDelaySamples", 1)));
+
+        Instant now = Instant.now();
+        return mongoTemplate.aggregate(Aggregation.newAggregation(DistributionProgram.class, stages), ProgramDailyRollup.class)
+                .doOnNext(rollup -> {
+                    rollup.setId(ProgramDailyRollup.key(rollup.getOrganizationId(), rollup.getZoneId(), rollup.getDay()));
+                    rollup.setUpdatedAt(now);
+                });
+    }
+
+    /**
+     * Reconstruye la ventana de días alrededor de hoy para todas las organizaciones
+     */
+    Mono<Void> rebuildRecent() {
+        LocalDate today = LocalDate.now(timeZone);
+        LocalDate from = today.minusDays(rebuildDays);
+        LocalDate to = today.plusDays(rebuildDays);
+        long started = System.currentTimeMillis();
+
+        // También las organizaciones que solo quedan en los resúmenes, para limpiarlas
+        return Flux.merge(
+                        mongoTemplate.findDistinct(new Query(), "organizationId", DistributionProgram.class, String.class),
+                        mongoTemplate.findDistinct(new Query(), "organizationId", ProgramDailyRollup.class, String.class))
+                .distinct()
+                .concatMap(organizationId -> rebuild(organizationId, from, to))
+                .reduce(0L, Long::sum)
+                .doOnNext(total -> log.info("Resúmenes diarios reconstruidos de {} a {}: {} documentos en {} ms",
+                        from, to, total, System.currentTimeMillis() - started))
+                .then();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void startJobs() {
+        Disposable flushing = Flux.interval(flushInterval, flushInterval)
+                .onBackpressureDrop()
+                .concatMap(tick -> flush(), 1)
+                .subscribe();
+
+        // Sin reconstrucción inmediata: un despliegue con varias instancias no recorre todas las organizaciones a la vez
+        Disposable rebuilding = Flux.interval(rebuildInitialDelay, rebuildInterval)
+                .onBackpressureDrop()
+                .concatMap(tick -> rebuildRecent().onErrorResume(e -> {
+                    log.warn("No se pudieron reconstruir los resúmenes diarios: {}", e.getMessage());
+                    return Mono.empty();
+                }), 1)
+                .subscribe();
+
+        jobs = Disposables.composite(flushing, rebuilding);
+    }
+
+    @PreDestroy
+    void stopJobs() {
+        Disposable disposable = jobs;
+        if (disposable != null) {
+            disposable.dispose();
+        }
+        // Lo pendiente se reconcilia con la siguiente reconstrucción
+    }
+
+    record Bucket(String organizationId, String zoneId, LocalDate day) {
+    }
+}
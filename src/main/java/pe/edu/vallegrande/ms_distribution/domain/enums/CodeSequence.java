@@ -0,0 +1,42 @@
+package pe.edu.vallegrande.ms_distribution.domain.enums;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import pe.edu.vallegrande.ms_distribution.domain.models.DistributionProgram;
+import pe.edu.vallegrande.ms_distribution.domain.models.DistributionRoute;
+import pe.edu.vallegrande.ms_distribution.domain.models.DistributionSchedule;
+import pe.edu.vallegrande.ms_distribution.domain.models.Fare;
+
+/**
+ * Secuencias de códigos correlativos por tipo de documento (PROG001, RUT001, ...)
+ */
+@Getter
+@RequiredArgsConstructor
+public enum CodeSequence {
+    PROGRAM("PROG", DistributionProgram.class, "programCode"),
+    ROUTE("RUT", DistributionRoute.class, "routeCode"),
+    SCHEDULE("HOR", DistributionSchedule.class, "scheduleCode"),
+    FARE("TAR", Fare.class, "fareCode");
+
+    private final String prefix;
+    private final Class<?> entityClass;
+    private final String codeField;
+
+    public String format(long number) {
+        return String.format("%s%03d", prefix, number);
+    }
+
+    /**
+     * Extrae la parte numérica de un código existente; 0 si no sigue el patrón.
+     */
+    public long parse(String code) {
+        if (code == null || !code.startsWith(prefix)) {
+            return 0;
+        }
+        try {
+            return Long.parseLong(code.substring(prefix.length()));
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package pe.edu.vallegrande.ms_distribution.domain.enums;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Eventos de ejecución que reportan las cuadrillas; cada tipo indica el estado al que
+ * pasa el programa y el campo de hora real que registra (null si no cambia ninguno)
+ */
+@Getter
+@RequiredArgsConstructor
+public enum ProgramEventType {
+    START(ProgramStatus.IN_PROGRESS, "actualStartTime"),
+    FINISH(ProgramStatus.COMPLETED, "actualEndTime"),
+    INCIDENT(null, null);
+
+    private final ProgramStatus programStatus;
+    private final String timeField;
+}
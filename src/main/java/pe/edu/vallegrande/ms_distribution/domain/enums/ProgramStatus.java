@@ -0,0 +1,14 @@
+package pe.edu.vallegrande.ms_distribution.domain.enums;
+
+import java.util.Arrays;
+
+/**
+ * Estados de un programa de distribución
+ */
+public enum ProgramStatus {
+    PLANNED, IN_PROGRESS, COMPLETED, CANCELLED;
+
+    public static boolean isValid(String status) {
+        return status != null && Arrays.stream(values()).anyMatch(value -> value.name().equals(status));
+    }
+}
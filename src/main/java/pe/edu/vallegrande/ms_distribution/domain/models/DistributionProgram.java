@@ -3,16 +3,30 @@ package pe.edu.vallegrande.ms_distribution.domain.models;
 import com.fasterxml.jackson.annotation.JsonFormat;
 import lombok.*;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
+import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 import java.time.Instant;
 import java.time.LocalDate;
+import java.util.List;
 
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 @Builder
 @Document(collection = "programs")
+@CompoundIndexes({
+        @CompoundIndex(name = "org_status_idx", def = "{'organizationId': 1, 'status': 1}"),
+        // Paginación por cursor filtrada por estado (findAllByStatusOrderByIdAsc / ...IdGreaterThan...)
+        @CompoundIndex(name = "status_id_idx", def = "{'status': 1, '_id': 1}"),
+        @CompoundIndex(name = "org_programDate_idx", def = "{'organizationId': 1, 'programDate': 1}"),
+        // Vistas por día/rango de una zona, ruta o responsable: igualdad primero y luego la fecha
+        @CompoundIndex(name = "org_zone_programDate_idx", def = "{'organizationId': 1, 'zoneId': 1, 'programDate': 1}"),
+        @CompoundIndex(name = "org_route_programDate_idx", def = "{'organizationId': 1, 'routeId': 1, 'programDate': 1}"),
+        @CompoundIndex(name = "org_responsible_programDate_idx", def = "{'organizationId': 1, 'responsibleUserId': 1, 'programDate': 1}")
+})
 public class DistributionProgram {
 
     @Id
@@ -35,4 +49,13 @@ public class DistributionProgram {
 
     @JsonFormat(shape = JsonFormat.Shape.STRING)
     private Instant createdAt;
+
+    private Long version;
+
+    // clientEventId de los últimos eventos de ejecución aplicados (acotado)
+    private List<String> appliedEventIds;
+
+    // Sólo en programas generados automáticamente: scheduleId|routeId|zoneId|programDate
+    @Indexed(name = "generation_key_idx", unique = true, sparse = true)
+    private String generationKey;
 }
@@ -3,6 +3,8 @@ package pe.edu.vallegrande.ms_distribution.domain.models;
 import com.fasterxml.jackson.annotation.JsonFormat;
 import lombok.*;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 import java.math.BigDecimal;
@@ -13,6 +15,10 @@ import java.time.Instant;
 @AllArgsConstructor
 @Builder 
 @Document(collection = "fare")
+@CompoundIndexes({
+        @CompoundIndex(name = "org_status_idx", def = "{'organizationId': 1, 'status': 1}"),
+        @CompoundIndex(name = "status_id_idx", def = "{'status': 1, '_id': 1}")
+})
 public class Fare {
 
     @Id
@@ -28,4 +34,6 @@ public class Fare {
     private String status;
     @JsonFormat(shape = JsonFormat.Shape.STRING)
     private Instant createdAt;
+
+    private Long version;
 }
@@ -0,0 +1,52 @@
+package pe.edu.vallegrande.ms_distribution.domain.models;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import lombok.*;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.Instant;
+import java.time.LocalDate;
+
+/**
+ * Resumen diario de programas por organización y zona. Se recalcula a partir de los
+ * programas del día (nunca con incrementos sueltos), por lo que reescribirlo es idempotente.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Document(collection = "program_daily_rollups")
+@CompoundIndexes({
+        @CompoundIndex(name = "org_day_idx", def = "{'organizationId': 1, 'day': 1}"),
+        @CompoundIndex(name = "org_zone_day_idx", def = "{'organizationId': 1, 'zoneId': 1, 'day': 1}")
+})
+public class ProgramDailyRollup {
+
+    // organizationId|zoneId|yyyy-MM-dd
+    @Id
+    private String id;
+    private String organizationId;
+    private String zoneId;
+    private LocalDate day;
+
+    private int total;
+    private int planned;
+    private int inProgress;
+    private int completed;
+    private int cancelled;
+
+    // Suma y cantidad de retrasos de inicio medidos, en minutos; el promedio se deriva
+    // al leer para poder combinar varios días o zonas sin promediar promedios
+    private long startDelayMinutes;
+    private int startDelaySamples;
+
+    @JsonFormat(shape = JsonFormat.Shape.STRING)
+    private Instant updatedAt;
+
+    public static String key(String organizationId, String zoneId, LocalDate day) {
+        return organizationId + "|" + (zoneId == null ? "" : zoneId) + "|" + day;
+    }
+}
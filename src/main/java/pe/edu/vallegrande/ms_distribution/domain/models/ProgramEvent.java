@@ -0,0 +1,45 @@
+package pe.edu.vallegrande.ms_distribution.domain.models;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import lombok.*;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.Instant;
+
+/**
+ * Entrada del registro de ejecución de un programa (solo se inserta, nunca se modifica)
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Document(collection = "program_events")
+@CompoundIndexes({
+        @CompoundIndex(name = "program_id_idx", def = "{'programId': 1, '_id': 1}"),
+        // Reintentos desde la app móvil: el mismo clientEventId no se registra dos veces
+        @CompoundIndex(name = "program_client_event_idx", def = "{'programId': 1, 'clientEventId': 1}",
+                unique = true, partialFilter = "{ 'clientEventId': { $exists: true } }")
+})
+public class ProgramEvent {
+
+    @Id
+    private String id;
+    private String programId;
+    private String organizationId;
+    private String zoneId;
+    private String type;            // START, FINISH, INCIDENT
+    private String time;            // HH:mm
+    private String note;
+    private String userId;
+    private String clientEventId;
+
+    // Estado del programa tras aplicar el evento
+    private String status;
+    private Long version;
+
+    @JsonFormat(shape = JsonFormat.Shape.STRING)
+    private Instant occurredAt;
+}
@@ -0,0 +1,17 @@
+package pe.edu.vallegrande.ms_distribution.domain.models;
+
+import lombok.*;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Document(collection = "counters")
+public class SequenceCounter {
+
+    @Id
+    private String id;   // prefijo del código: PROG, RUT, HOR, TAR
+    private long seq;    // último número asignado
+}
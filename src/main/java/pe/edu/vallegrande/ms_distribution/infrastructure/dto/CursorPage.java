@@ -0,0 +1,96 @@
+package pe.edu.vallegrande.ms_distribution.infrastructure.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.bson.types.ObjectId;
+import org.springframework.data.domain.Limit;
+import pe.edu.vallegrande.ms_distribution.infrastructure.exception.CustomException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+/**
+ * Página de resultados con paginación por cursor (keyset).
+ * El cursor es opaco para el cliente: codifica el último _id devuelto.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class CursorPage<T> {
+
+    public static final int DEFAULT_LIMIT = 50;
+    public static final int MAX_LIMIT = 500;
+
+    private List<T> items;
+    private String nextCursor;
+    private boolean hasMore;
+
+    /**
+     * Construye la página a partir de una consulta que pidió limit + 1 elementos;
+     * el elemento extra sólo indica que existe una página siguiente.
+     */
+    public static <T> CursorPage<T> of(List<T> fetched, int limit, Function<T, String> idExtractor) {
+        boolean hasMore = fetched.size() > limit;
+        List<T> items = hasMore ? fetched.subList(0, limit) : fetched;
+        String nextCursor = hasMore ? encodeCursor(idExtractor.apply(items.get(items.size() - 1))) : null;
+        return new CursorPage<>(items, nextCursor, hasMore);
+    }
+
+    /**
+     * Decodifica el cursor ?after=, normaliza el límite y pide a query (último _id, límite + 1)
+     * la página siguiente; un cursor inválido termina en error 400 dentro de la cadena
+     */
+    public static <T> Mono<CursorPage<T>> fetch(String after, Integer limit, Function<T, String> idExtractor,
+                                                BiFunction<String, Limit, Flux<T>> query) {
+        return Mono.defer(() -> {
+            int size = normalizeLimit(limit);
+            return query.apply(decodeCursor(after), Limit.of(size + 1))
+                    .collectList()
+                    .map(fetched -> of(fetched, size, idExtractor));
+        });
+    }
+
+    public static int normalizeLimit(Integer limit) {
+        if (limit == null || limit <= 0) {
+            return DEFAULT_LIMIT;
+        }
+        return Math.min(limit, MAX_LIMIT);
+    }
+
+    public static String encodeCursor(String id) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(id.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decodifica el cursor recibido en ?after=. Devuelve null si no se envió; si no es base64
+     * o no contiene un ObjectId es un 400, no una página vacía.
+     */
+    public static String decodeCursor(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        String id;
+        try {
+            id = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            throw invalidCursor(cursor);
+        }
+        if (!ObjectId.isValid(id)) {
+            throw invalidCursor(cursor);
+        }
+        return id;
+    }
+
+    private static CustomException invalidCursor(String cursor) {
+        return CustomException.badRequest("Invalid cursor", "The cursor " + cursor + " is not valid");
+    }
+}
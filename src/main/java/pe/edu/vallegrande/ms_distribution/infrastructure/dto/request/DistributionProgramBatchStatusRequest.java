@@ -0,0 +1,19 @@
+package pe.edu.vallegrande.ms_distribution.infrastructure.dto.request;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
+import lombok.*;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class DistributionProgramBatchStatusRequest {
+
+    @NotEmpty
+    private List<String> ids;
+    @NotBlank
+    private String status; // PLANNED, IN_PROGRESS, COMPLETED, CANCELLED
+}
@@ -0,0 +1,13 @@
+package pe.edu.vallegrande.ms_distribution.infrastructure.dto.request;
+
+import lombok.*;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class DistributionProgramBatchUpdateRequest {
+
+    private String id;
+    private DistributionProgramCreateRequest program;
+}
@@ -0,0 +1,18 @@
+package pe.edu.vallegrande.ms_distribution.infrastructure.dto.request;
+
+import lombok.*;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class DistributionProgramRangeQuery {
+
+    private String organizationId;
+    private String from;                // formato: yyyy-MM-dd
+    private String to;                  // formato: yyyy-MM-dd; por defecto igual a from
+    private String zoneId;
+    private String routeId;
+    private String status;
+    private String responsibleUserId;
+}
@@ -0,0 +1,15 @@
+package pe.edu.vallegrande.ms_distribution.infrastructure.dto.request;
+
+import lombok.*;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ProgramAnalyticsQuery {
+
+    private String organizationId;
+    private String from;                // formato: yyyy-MM-dd
+    private String to;                  // formato: yyyy-MM-dd
+    private String groupBy;             // zone, route, schedule, day, user
+}
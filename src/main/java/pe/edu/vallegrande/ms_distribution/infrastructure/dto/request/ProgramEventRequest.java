@@ -0,0 +1,16 @@
+package pe.edu.vallegrande.ms_distribution.infrastructure.dto.request;
+
+import lombok.*;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ProgramEventRequest {
+
+    private String type;            // START, FINISH, INCIDENT
+    private String time;            // HH:mm; por defecto la hora actual
+    private String note;
+    private String userId;
+    private String clientEventId;   // Opcional: hace idempotentes los reintentos
+}
@@ -0,0 +1,14 @@
+package pe.edu.vallegrande.ms_distribution.infrastructure.dto.request;
+
+import lombok.*;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ProgramGenerationRequest {
+
+    private String organizationId; // opcional: si es null se generan todas las organizaciones
+    private String fromDate;       // formato: yyyy-MM-dd
+    private String toDate;         // formato: yyyy-MM-dd (inclusive)
+}
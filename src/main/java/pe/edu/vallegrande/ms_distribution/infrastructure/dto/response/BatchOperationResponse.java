@@ -0,0 +1,52 @@
+package pe.edu.vallegrande.ms_distribution.infrastructure.dto.response;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import pe.edu.vallegrande.ms_distribution.infrastructure.dto.ErrorMessage;
+
+import java.util.List;
+
+/**
+ * Resultado de una operación por lotes: totales y un resultado por elemento,
+ * en el mismo orden en que se recibieron.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BatchOperationResponse {
+
+    private int total;
+    private int succeeded;
+    private int failed;
+    private List<ItemResult> items;
+
+    public static BatchOperationResponse of(List<ItemResult> items) {
+        int succeeded = (int) items.stream().filter(ItemResult::isSuccess).count();
+        return new BatchOperationResponse(items.size(), succeeded, items.size() - succeeded, items);
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Builder
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public static class ItemResult {
+        private int index;
+        private String id;
+        private String code;
+        private boolean success;
+        private ErrorMessage error;
+
+        public static ItemResult ok(int index, String id, String code) {
+            return new ItemResult(index, id, code, true, null);
+        }
+
+        public static ItemResult failed(int index, String id, ErrorMessage error) {
+            return new ItemResult(index, id, null, false, error);
+        }
+    }
+}
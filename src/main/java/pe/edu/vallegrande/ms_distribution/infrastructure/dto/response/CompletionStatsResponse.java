@@ -0,0 +1,21 @@
+package pe.edu.vallegrande.ms_distribution.infrastructure.dto.response;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.*;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class CompletionStatsResponse {
+
+    private String key;                 // zoneId, routeId, scheduleId, fecha o usuario según groupBy
+    private String label;               // Nombre de la ruta u horario cuando aplica
+    private Long total;
+    private Long planned;
+    private Long inProgress;
+    private Long completed;
+    private Long cancelled;
+    private Double completionRate;      // % de programas completados sobre el total
+}
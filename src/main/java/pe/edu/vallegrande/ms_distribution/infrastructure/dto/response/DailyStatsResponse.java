@@ -0,0 +1,23 @@
+package pe.edu.vallegrande.ms_distribution.infrastructure.dto.response;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.*;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class DailyStatsResponse {
+
+    private String day;                 // yyyy-MM-dd
+    private String zoneId;
+    private Integer total;
+    private Integer planned;
+    private Integer inProgress;
+    private Integer completed;
+    private Integer cancelled;
+    private Double completionRate;      // % de programas completados sobre el total
+    private Integer measured;           // Programas con retraso de inicio medible
+    private Double avgStartDelay;       // Minutos
+}
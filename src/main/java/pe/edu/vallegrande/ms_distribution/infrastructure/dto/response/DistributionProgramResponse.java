@@ -27,4 +27,5 @@ public class DistributionProgramResponse {
     private String responsibleUserId;
     private String observations;
     private String createdAt;           // Formato ISO
+    private Long version;               // Para comprobación optimista en cambios de estado
 }
@@ -0,0 +1,26 @@
+package pe.edu.vallegrande.ms_distribution.infrastructure.dto.response;
+
+import lombok.*;
+
+/**
+ * Vista reducida de un programa para tableros (sin observaciones ni datos de auditoría)
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class DistributionProgramSummaryResponse {
+
+    private String id;
+    private String programCode;
+    private String programDate;         // Formato: yyyy-MM-dd
+    private String zoneId;
+    private String routeId;
+    private String plannedStartTime;    // Formato: HH:mm
+    private String plannedEndTime;
+    private String actualStartTime;
+    private String actualEndTime;
+    private String status;
+    private String responsibleUserId;
+    private Long version;
+}
@@ -0,0 +1,24 @@
+package pe.edu.vallegrande.ms_distribution.infrastructure.dto.response;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.*;
+
+/**
+ * Desviaciones entre horas planificadas y reales, en minutos
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class DurationStatsResponse {
+
+    private String key;
+    private String label;
+    private Long measured;              // Programas con hora real de inicio válida
+    private Double avgStartDelay;       // actualStartTime - plannedStartTime
+    private Double maxStartDelay;
+    private Double avgPlannedDuration;
+    private Double avgActualDuration;
+    private Double avgDurationDelta;    // duración real - duración planificada
+}
@@ -0,0 +1,18 @@
+package pe.edu.vallegrande.ms_distribution.infrastructure.dto.response;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.*;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class OnTimeStatsResponse {
+
+    private String key;
+    private String label;
+    private Long started;               // Programas con hora real de inicio válida
+    private Long onTime;                // Iniciados dentro de la tolerancia
+    private Double onTimeRate;          // % de inicios a tiempo
+}
@@ -0,0 +1,29 @@
+package pe.edu.vallegrande.ms_distribution.infrastructure.dto.response;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.*;
+
+/**
+ * Delta que se envía por SSE cuando cambia el estado o la hora real de un programa
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class ProgramChangeEvent {
+
+    public static final String CHANGE = "change";
+    // El cliente perdió eventos (reconexión tardía o consumidor lento): debe recargar la lista
+    public static final String RESET = "reset";
+
+    private String id;
+    private String type;
+    private String programId;
+    private String organizationId;
+    private String zoneId;
+    private String status;
+    private String actualStartTime;
+    private String actualEndTime;
+    private Long version;
+}
@@ -0,0 +1,19 @@
+package pe.edu.vallegrande.ms_distribution.infrastructure.dto.response;
+
+import lombok.*;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ProgramEventResponse {
+
+    private String id;
+    private String programId;
+    private String type;
+    private String time;                // Formato: HH:mm
+    private String note;
+    private String status;              // Estado del programa tras el evento
+    private Long version;
+    private String occurredAt;          // Formato ISO
+}
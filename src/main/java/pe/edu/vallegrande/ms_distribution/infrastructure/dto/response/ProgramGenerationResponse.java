@@ -0,0 +1,22 @@
+package pe.edu.vallegrande.ms_distribution.infrastructure.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ProgramGenerationResponse {
+
+    private String fromDate;
+    private String toDate;
+    private int organizations;
+    private int candidates;   // programas calculados a partir de horarios y rutas
+    private int created;      // programas nuevos insertados
+    private int skipped;      // ya existían (re-ejecución del mismo rango)
+    private int outOfWindow;  // no generados: cruzan medianoche o terminan después del endTime del horario
+    private long elapsedMillis;
+}
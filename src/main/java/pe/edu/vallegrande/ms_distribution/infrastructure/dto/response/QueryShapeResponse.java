@@ -0,0 +1,38 @@
+package pe.edu.vallegrande.ms_distribution.infrastructure.dto.response;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.*;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Estadísticas de una forma de consulta a MongoDB y, si ya se muestreó con explain, su plan
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class QueryShapeResponse {
+
+    private String shape;
+    private String collection;
+    private String command;
+    private Long count;
+    private Long failures;
+    private Long slow;                  // Ejecuciones por encima del umbral de lentitud
+    private Double avgMillis;
+    private Double maxMillis;
+
+    private Instant explainedAt;        // Último explain (executionStats) de la forma
+    private List<String> plan;          // Etapas del plan ganador (COLLSCAN, IXSCAN, SORT...)
+    private List<String> indexes;       // Índices usados por el plan
+    private Long docsExamined;
+    private Long keysExamined;
+    private Long docsReturned;
+    private Boolean collectionScan;
+    private Boolean inMemorySort;
+    private Boolean needsIndex;
+    private String suggestedIndex;      // Definición para @CompoundIndex(def = ...)
+}
@@ -1,22 +1,42 @@
 package pe.edu.vallegrande.ms_distribution.infrastructure.exception;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.bind.support.WebExchangeBindException;
 
 import pe.edu.vallegrande.ms_distribution.infrastructure.dto.ErrorMessage;
 import pe.edu.vallegrande.ms_distribution.infrastructure.dto.ResponseDto;
 
+import java.util.stream.Collectors;
+
 @RestControllerAdvice
+@RequiredArgsConstructor
 public class GlobalExceptionHandler {
 
+    private final MeterRegistry meterRegistry;
+
     @ExceptionHandler(CustomException.class)
     public ResponseEntity<ResponseDto<Object>> handleCustomException(CustomException ex) {
         ErrorMessage errorMessage = ex.getErrorMessage();
+        // El mensaje es el tipo de error (p. ej. "Invalid range"); el detalle variable va en details
+        meterRegistry.counter("app.errors",
+                "status", String.valueOf(errorMessage.getErrorCode()),
+                "type", String.valueOf(errorMessage.getMessage())).increment();
         ResponseDto<Object> response = new ResponseDto<>(false, errorMessage);
         return ResponseEntity.status(errorMessage.getErrorCode()).body(response);
     }
 
+    @ExceptionHandler(WebExchangeBindException.class)
+    public ResponseEntity<ResponseDto<Object>> handleValidationException(WebExchangeBindException ex) {
+        String details = ex.getFieldErrors().stream()
+                .map(error -> error.getField() + ": " + error.getDefaultMessage())
+                .collect(Collectors.joining("; "));
+        return handleCustomException(CustomException.badRequest("Validation failed", details));
+    }
+
     @ExceptionHandler(Exception.class)
     public ResponseEntity<ResponseDto<Object>> handleGenericException(Exception ex) {
         int statusCode = (ex instanceof RuntimeException) ? 500 : 400;
@@ -7,14 +7,22 @@ import pe.edu.vallegrande.ms_distribution.domain.models.DistributionProgram;
 import pe.edu.vallegrande.ms_distribution.infrastructure.dto.response.DistributionProgramResponse;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+
+import java.time.LocalDate;
+
 @Repository
-public interface DistributionProgramRepository extends ReactiveMongoRepository<DistributionProgram, String> {
+public interface DistributionProgramRepository extends ReactiveMongoRepository<DistributionProgram, String>, KeysetPagingRepository<DistributionProgram> {
 
     Flux<DistributionProgram> findAllByStatus(String status);
 
+    // Consultas por organización (índices org_status_idx / org_programDate_idx)
+    Flux<DistributionProgram> findAllByOrganizationId(String organizationId);
+
+    Flux<DistributionProgram> findAllByOrganizationIdAndStatus(String organizationId, String status);
+
+    Flux<DistributionProgram> findAllByOrganizationIdAndProgramDate(String organizationId, LocalDate programDate);
+
     Mono<DistributionProgram> findFirstByProgramCode(String programCode);
 
     Flux<DistributionProgramResponse> findByProgramCode(String programCode);
-
-    Mono<DistributionProgram> findTopByOrderByProgramCodeDesc(); // <- CORRECTO
 }
@@ -7,11 +7,14 @@ import pe.edu.vallegrande.ms_distribution.domain.models.DistributionRoute;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 @Repository
-public interface DistributionRouteRepository extends ReactiveMongoRepository<DistributionRoute, String> {
+public interface DistributionRouteRepository extends ReactiveMongoRepository<DistributionRoute, String>, KeysetPagingRepository<DistributionRoute> {
 
     Flux<DistributionRoute> findAllByStatus(String status);
 
-    Mono<Boolean> existsByRouteCode(String routeCode);
+    // Consultas por organización (índice org_status_idx)
+    Flux<DistributionRoute> findAllByOrganizationId(String organizationId);
+
+    Flux<DistributionRoute> findAllByOrganizationIdAndStatus(String organizationId, String status);
 
-    Mono<DistributionRoute> findTopByOrderByRouteCodeDesc();
+    Mono<Boolean> existsByRouteCode(String routeCode);
 }
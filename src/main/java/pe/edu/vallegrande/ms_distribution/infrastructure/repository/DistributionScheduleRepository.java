@@ -8,11 +8,14 @@ import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 @Repository
-public interface DistributionScheduleRepository extends ReactiveMongoRepository<DistributionSchedule, String> {
+public interface DistributionScheduleRepository extends ReactiveMongoRepository<DistributionSchedule, String>, KeysetPagingRepository<DistributionSchedule> {
 
     Flux<DistributionSchedule> findAllByStatus(String status);
 
-    Mono<Boolean> existsByScheduleCode(String scheduleCode);
+    // Consultas por organización (índice org_status_idx)
+    Flux<DistributionSchedule> findAllByOrganizationId(String organizationId);
+
+    Flux<DistributionSchedule> findAllByOrganizationIdAndStatus(String organizationId, String status);
 
-    Mono<DistributionSchedule> findTopByOrderByScheduleCodeDesc();
+    Mono<Boolean> existsByScheduleCode(String scheduleCode);
 }
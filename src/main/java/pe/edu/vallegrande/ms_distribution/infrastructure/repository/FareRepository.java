@@ -8,11 +8,14 @@ import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 @Repository
-public interface FareRepository extends ReactiveMongoRepository<Fare, String> {
+public interface FareRepository extends ReactiveMongoRepository<Fare, String>, KeysetPagingRepository<Fare> {
 
     Flux<Fare> findAllByStatus(String status);
 
-    Mono<Boolean> existsByFareCode(String fareCode);
+    // Consultas por organización (índice org_status_idx)
+    Flux<Fare> findAllByOrganizationId(String organizationId);
+
+    Flux<Fare> findAllByOrganizationIdAndStatus(String organizationId, String status);
 
-    Mono<Fare> findTopByOrderByFareCodeDesc(); // <- CORRECTO
+    Mono<Boolean> existsByFareCode(String fareCode);
 }
@@ -0,0 +1,35 @@
+package pe.edu.vallegrande.ms_distribution.infrastructure.repository;
+
+import org.springframework.data.domain.Limit;
+import org.springframework.data.repository.NoRepositoryBean;
+import reactor.core.publisher.Flux;
+
+/**
+ * Paginación por cursor (keyset) sobre _id, con filtro opcional por estado
+ * (índices _id y status_id_idx)
+ */
+@NoRepositoryBean
+public interface KeysetPagingRepository<T> {
+
+    Flux<T> findAllByOrderByIdAsc(Limit limit);
+
+    Flux<T> findByIdGreaterThanOrderByIdAsc(String id, Limit limit);
+
+    Flux<T> findAllByStatusOrderByIdAsc(String status, Limit limit);
+
+    Flux<T> findByStatusAndIdGreaterThanOrderByIdAsc(String status, String id, Limit limit);
+
+    /**
+     * Página que sigue a lastId (null para la primera); status vacío no filtra
+     */
+    default Flux<T> findPage(String status, String lastId, Limit limit) {
+        if (status == null || status.isBlank()) {
+            return lastId == null
+                    ? findAllByOrderByIdAsc(limit)
+                    : findByIdGreaterThanOrderByIdAsc(lastId, limit);
+        }
+        return lastId == null
+                ? findAllByStatusOrderByIdAsc(status, limit)
+                : findByStatusAndIdGreaterThanOrderByIdAsc(status, lastId, limit);
+    }
+}
@@ -0,0 +1,17 @@
+package pe.edu.vallegrande.ms_distribution.infrastructure.repository;
+
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+import org.springframework.stereotype.Repository;
+
+import pe.edu.vallegrande.ms_distribution.domain.models.ProgramEvent;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+@Repository
+public interface ProgramEventRepository extends ReactiveMongoRepository<ProgramEvent, String> {
+
+    // Registro de ejecución en orden de llegada (índice program_id_idx)
+    Flux<ProgramEvent> findAllByProgramIdOrderByIdAsc(String programId);
+
+    Mono<ProgramEvent> findFirstByProgramIdAndClientEventId(String programId, String clientEventId);
+}
@@ -0,0 +1,52 @@
+package pe.edu.vallegrande.ms_distribution.infrastructure.rest;
+
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import pe.edu.vallegrande.ms_distribution.infrastructure.service.ResponseBodyCache.CachedBody;
+
+/**
+ * Convierte un cuerpo de ResponseBodyCache en la respuesta HTTP: elige gzip según
+ * Accept-Encoding y publica el ETag; WebFlux responde 304 si coincide con If-None-Match.
+ */
+final class CachedJsonResponse {
+
+    private CachedJsonResponse() {
+    }
+
+    static ResponseEntity<byte[]> of(CachedBody body, ServerHttpRequest request) {
+        ResponseEntity.BodyBuilder builder = ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .cacheControl(CacheControl.noCache())
+                .varyBy(HttpHeaders.ACCEPT_ENCODING);
+
+        if (body.hasGzip() && acceptsGzip(request)) {
+            return builder
+                    .eTag(body.getGzipEtag())
+                    .header(HttpHeaders.CONTENT_ENCODING, "gzip")
+                    .body(body.getGzip());
+        }
+        return builder
+                .eTag(body.getEtag())
+                .body(body.getJson());
+    }
+
+    private static boolean acceptsGzip(ServerHttpRequest request) {
+        for (String header : request.getHeaders().getOrEmpty(HttpHeaders.ACCEPT_ENCODING)) {
+            for (String coding : header.split(",")) {
+                String[] parts = coding.trim().split(";");
+                String name = parts[0].trim();
+                if (!name.equalsIgnoreCase("gzip") && !name.equals("*")) {
+                    continue;
+                }
+                boolean rejected = parts.length > 1 && parts[1].trim().replace(" ", "").matches("q=0(\\.0*)?");
+                if (!rejected) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+}
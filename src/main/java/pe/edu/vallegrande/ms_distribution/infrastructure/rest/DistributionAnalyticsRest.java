@@ -0,0 +1,140 @@
+package pe.edu.vallegrande.ms_distribution.infrastructure.rest;
+
+import lombok.RequiredArgsConstructor;
+import pe.edu.vallegrande.ms_distribution.application.services.DistributionAnalyticsService;
+import pe.edu.vallegrande.ms_distribution.application.services.ProgramRollupService;
+import pe.edu.vallegrande.ms_distribution.infrastructure.dto.ResponseDto;
+import pe.edu.vallegrande.ms_distribution.infrastructure.dto.request.ProgramAnalyticsQuery;
+import pe.edu.vallegrande.ms_distribution.infrastructure.dto.response.CompletionStatsResponse;
+import pe.edu.vallegrande.ms_distribution.infrastructure.dto.response.DailyStatsResponse;
+import pe.edu.vallegrande.ms_distribution.infrastructure.dto.response.DurationStatsResponse;
+import pe.edu.vallegrande.ms_distribution.infrastructure.dto.response.OnTimeStatsResponse;
+
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.*;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Estadísticas de programas por organización y rango de fechas. groupBy admite
+ * zone, route, schedule, day y user; cada grupo llega como un elemento (NDJSON) o
+ * dentro de la lista de la respuesta JSON.
+ */
+@RestController
+@RequestMapping("/api/admin/analytics/organization/{organizationId}")
+@RequiredArgsConstructor
+public class DistributionAnalyticsRest {
+
+    private final DistributionAnalyticsService analyticsService;
+    private final ProgramRollupService rollupService;
+
+    // Programas por estado y tasa de completados; incluye los cancelados
+    @GetMapping(value = "/completion", produces = MediaType.APPLICATION_JSON_VALUE)
+    public Mono<ResponseDto<List<CompletionStatsResponse>>> completion(
+            @PathVariable String organizationId,
+            @RequestParam String from,
+            @RequestParam String to,
+            @RequestParam(required = false) String groupBy) {
+        return analyticsService.completion(query(organizationId, from, to, groupBy))
+                .collectList()
+                .map(list -> new ResponseDto<>(true, list));
+    }
+
+    @GetMapping(value = "/completion", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<CompletionStatsResponse> streamCompletion(
+            @PathVariable String organizationId,
+            @RequestParam String from,
+            @RequestParam String to,
+            @RequestParam(required = false) String groupBy) {
+        return analyticsService.completion(query(organizationId, from, to, groupBy));
+    }
+
+    // Retraso de inicio y diferencia entre duración planificada y real, en minutos
+    @GetMapping(value = "/durations", produces = MediaType.APPLICATION_JSON_VALUE)
+    public Mono<ResponseDto<List<DurationStatsResponse>>> durations(
+            @PathVariable String organizationId,
+            @RequestParam String from,
+            @RequestParam String to,
+            @RequestParam(required = false) String groupBy) {
+        return analyticsService.durations(query(organizationId, from, to, groupBy))
+                .collectList()
+                .map(list -> new ResponseDto<>(true, list));
+    }
+
+    @GetMapping(value = "/durations", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<DurationStatsResponse> streamDurations(
+            @PathVariable String organizationId,
+            @RequestParam String from,
+            @RequestParam String to,
+            @RequestParam(required = false) String groupBy) {
+        return analyticsService.durations(query(organizationId, from, to, groupBy));
+    }
+
+    // Porcentaje de inicios dentro de la tolerancia; por defecto agrupa por responsable
+    @GetMapping(value = "/on-time", produces = MediaType.APPLICATION_JSON_VALUE)
+    public Mono<ResponseDto<List<OnTimeStatsResponse>>> onTime(
+            @PathVariable String organizationId,
+            @RequestParam String from,
+            @RequestParam String to,
+            @RequestParam(required = false) String groupBy,
+            @RequestParam(defaultValue = "10") int toleranceMinutes) {
+        return analyticsService.onTime(query(organizationId, from, to, groupBy), toleranceMinutes)
+                .collectList()
+                .map(list -> new ResponseDto<>(true, list));
+    }
+
+    @GetMapping(value = "/on-time", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<OnTimeStatsResponse> streamOnTime(
+            @PathVariable String organizationId,
+            @RequestParam String from,
+            @RequestParam String to,
+            @RequestParam(required = false) String groupBy,
+            @RequestParam(defaultValue = "10") int toleranceMinutes) {
+        return analyticsService.onTime(query(organizationId, from, to, groupBy), toleranceMinutes);
+    }
+
+    // Resumen por día y zona leído de program_daily_rollups: un documento por día y zona
+    @GetMapping(value = "/daily", produces = MediaType.APPLICATION_JSON_VALUE)
+    public Mono<ResponseDto<List<DailyStatsResponse>>> daily(
+            @PathVariable String organizationId,
+            @RequestParam String from,
+            @RequestParam String to,
+            @RequestParam(required = false) String zoneId) {
+        return analyticsService.daily(query(organizationId, from, to, null), zoneId)
+                .collectList()
+                .map(list -> new ResponseDto<>(true, list));
+    }
+
+    @GetMapping(value = "/daily", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<DailyStatsResponse> streamDaily(
+            @PathVariable String organizationId,
+            @RequestParam String from,
+            @RequestParam String to,
+            @RequestParam(required = false) String zoneId) {
+        return analyticsService.daily(query(organizationId, from, to, null), zoneId);
+    }
+
+    // Recalcula los resúmenes del rango desde los programas; devuelve los documentos escritos
+    @PostMapping("/daily/rebuild")
+    public Mono<ResponseDto<Long>> rebuildDaily(
+            @PathVariable String organizationId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        return rollupService.rebuild(organizationId, from, to)
+                .map(written -> new ResponseDto<>(true, written));
+    }
+
+    private static ProgramAnalyticsQuery query(String organizationId, String from, String to, String groupBy) {
+        return ProgramAnalyticsQuery.builder()
+                .organizationId(organizationId)
+                .from(from)
+                .to(to)
+                .groupBy(groupBy)
+                .build();
+    }
+}
@@ -1,17 +1,37 @@
 package pe.edu.vallegrande.ms_distribution.infrastructure.rest;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import pe.edu.vallegrande.ms_distribution.application.services.DistributionProgramService;
+import pe.edu.vallegrande.ms_distribution.application.services.ProgramExecutionService;
+import pe.edu.vallegrande.ms_distribution.application.services.ProgramGenerationService;
+import pe.edu.vallegrande.ms_distribution.infrastructure.dto.CursorPage;
 import pe.edu.vallegrande.ms_distribution.infrastructure.dto.ErrorMessage;
 import pe.edu.vallegrande.ms_distribution.infrastructure.dto.ResponseDto;
+import pe.edu.vallegrande.ms_distribution.infrastructure.dto.request.DistributionProgramBatchStatusRequest;
+import pe.edu.vallegrande.ms_distribution.infrastructure.dto.request.DistributionProgramBatchUpdateRequest;
 import pe.edu.vallegrande.ms_distribution.infrastructure.dto.request.DistributionProgramCreateRequest;
+import pe.edu.vallegrande.ms_distribution.infrastructure.dto.request.DistributionProgramRangeQuery;
+import pe.edu.vallegrande.ms_distribution.infrastructure.dto.request.ProgramEventRequest;
+import pe.edu.vallegrande.ms_distribution.infrastructure.dto.request.ProgramGenerationRequest;
+import pe.edu.vallegrande.ms_distribution.infrastructure.dto.response.BatchOperationResponse;
 import pe.edu.vallegrande.ms_distribution.infrastructure.dto.response.DistributionProgramResponse;
+import pe.edu.vallegrande.ms_distribution.infrastructure.dto.response.DistributionProgramSummaryResponse;
+import pe.edu.vallegrande.ms_distribution.infrastructure.dto.response.ProgramChangeEvent;
+import pe.edu.vallegrande.ms_distribution.infrastructure.dto.response.ProgramEventResponse;
+import pe.edu.vallegrande.ms_distribution.infrastructure.dto.response.ProgramGenerationResponse;
+import pe.edu.vallegrande.ms_distribution.infrastructure.service.ProgramChangeHub;
 
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.ServerSentEvent;
 import org.springframework.web.bind.annotation.*;
 
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.time.Duration;
 import java.util.List;
 
 @RestController
@@ -19,15 +39,98 @@ import java.util.List;
 @RequiredArgsConstructor
 public class DistributionProgramRest {
 
+    // Comentario periódico para que proxies y balanceadores no cierren el SSE inactivo
+    private static final Duration SSE_HEARTBEAT = Duration.ofSeconds(15);
+
     private final DistributionProgramService programService;
+    private final ProgramGenerationService programGenerationService;
+    private final ProgramExecutionService programExecutionService;
+    private final ProgramChangeHub programChangeHub;
 
-    @GetMapping
+    @GetMapping(produces = MediaType.APPLICATION_JSON_VALUE)
     public Mono<ResponseDto<List<DistributionProgramResponse>>> getAll() {
         return programService.getAll()
                 .collectList()
                 .map(list -> new ResponseDto<>(true, list));
     }
 
+    // Variante en streaming (NDJSON / SSE): emite cada programa según llega del cursor de Mongo
+    @GetMapping(produces = {MediaType.APPLICATION_NDJSON_VALUE, MediaType.TEXT_EVENT_STREAM_VALUE})
+    public Flux<DistributionProgramResponse> streamAll() {
+        return programService.getAll();
+    }
+
+    // Paginación por cursor: ?after=<nextCursor>&limit=N[&status=ACTIVE]
+    @GetMapping("/page")
+    public Mono<ResponseDto<CursorPage<DistributionProgramResponse>>> getPage(
+            @RequestParam(required = false) String after,
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) Integer limit) {
+        return programService.getPage(after, status, limit)
+                .map(page -> new ResponseDto<>(true, page));
+    }
+
+    @GetMapping(value = "/organization/{organizationId}", produces = MediaType.APPLICATION_JSON_VALUE)
+    public Mono<ResponseDto<List<DistributionProgramResponse>>> getAllByOrganization(
+            @PathVariable String organizationId,
+            @RequestParam(required = false) String status) {
+        return programService.getAllByOrganization(organizationId, status)
+                .collectList()
+                .map(list -> new ResponseDto<>(true, list));
+    }
+
+    @GetMapping(value = "/organization/{organizationId}/date/{programDate}", produces = MediaType.APPLICATION_JSON_VALUE)
+    public Mono<ResponseDto<List<DistributionProgramResponse>>> getAllByOrganizationAndDate(
+            @PathVariable String organizationId,
+            @PathVariable String programDate) {
+        return programService.getAllByOrganizationAndDate(organizationId, programDate)
+                .collectList()
+                .map(list -> new ResponseDto<>(true, list));
+    }
+
+    // Consulta por rango de fechas con filtros opcionales; devuelve solo los campos de tablero
+    @GetMapping(value = "/organization/{organizationId}/range", produces = MediaType.APPLICATION_JSON_VALUE)
+    public Mono<ResponseDto<List<DistributionProgramSummaryResponse>>> getByDateRange(
+            @PathVariable String organizationId,
+            @RequestParam String from,
+            @RequestParam(required = false) String to,
+            @RequestParam(required = false) String zoneId,
+            @RequestParam(required = false) String routeId,
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) String responsibleUserId) {
+        return programService.getByDateRange(rangeQuery(organizationId, from, to, zoneId, routeId, status, responsibleUserId))
+                .collectList()
+                .map(list -> new ResponseDto<>(true, list));
+    }
+
+    @GetMapping(value = "/organization/{organizationId}/range", produces = {MediaType.APPLICATION_NDJSON_VALUE, MediaType.TEXT_EVENT_STREAM_VALUE})
+    public Flux<DistributionProgramSummaryResponse> streamByDateRange(
+            @PathVariable String organizationId,
+            @RequestParam String from,
+            @RequestParam(required = false) String to,
+            @RequestParam(required = false) String zoneId,
+            @RequestParam(required = false) String routeId,
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) String responsibleUserId) {
+        return programService.getByDateRange(rangeQuery(organizationId, from, to, zoneId, routeId, status, responsibleUserId));
+    }
+
+    // Cambios de estado y hora real en tiempo real (SSE); al reconectar se reanuda con Last-Event-ID
+    @GetMapping(value = "/organization/{organizationId}/changes", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public Flux<ServerSentEvent<ProgramChangeEvent>> streamChanges(
+            @PathVariable String organizationId,
+            @RequestParam(required = false) String zoneId,
+            @RequestHeader(value = "Last-Event-ID", required = false) String lastEventId) {
+        Flux<ServerSentEvent<ProgramChangeEvent>> changes = programChangeHub.subscribe(organizationId, zoneId, lastEventId)
+                .map(event -> ServerSentEvent.builder(event)
+                        .id(event.getId())
+                        .event(event.getType())
+                        .build());
+        Flux<ServerSentEvent<ProgramChangeEvent>> heartbeats = Flux.interval(SSE_HEARTBEAT)
+                .map(tick -> ServerSentEvent.<ProgramChangeEvent>builder().comment("keepalive").build());
+        return Flux.merge(changes, heartbeats);
+    }
+
     @GetMapping("/{id}")
     public Mono<ResponseDto<DistributionProgramResponse>> getById(@PathVariable String id) {
         return programService.getById(id)
@@ -41,32 +144,99 @@ public class DistributionProgramRest {
                 .map(data -> new ResponseDto<>(true, data));
     }
 
+    @PostMapping("/batch")
+    @ResponseStatus(HttpStatus.CREATED)
+    public Mono<ResponseDto<BatchOperationResponse>> createBatch(@RequestBody List<DistributionProgramCreateRequest> requests) {
+        return programService.saveAll(requests)
+                .map(data -> new ResponseDto<>(true, data));
+    }
+
+    @PostMapping("/generate")
+    public Mono<ResponseDto<ProgramGenerationResponse>> generate(@RequestBody ProgramGenerationRequest request) {
+        return programGenerationService.generate(request)
+                .map(data -> new ResponseDto<>(true, data));
+    }
+
+    @PutMapping("/batch")
+    public Mono<ResponseDto<BatchOperationResponse>> updateBatch(@RequestBody List<DistributionProgramBatchUpdateRequest> requests) {
+        return programService.updateAll(requests)
+                .map(data -> new ResponseDto<>(true, data));
+    }
+
+    @PatchMapping("/batch/status")
+    public Mono<ResponseDto<BatchOperationResponse>> changeStatusBatch(@Valid @RequestBody DistributionProgramBatchStatusRequest request) {
+        return programService.changeStatusAll(request.getIds(), request.getStatus())
+                .map(data -> new ResponseDto<>(true, data));
+    }
+
     @PutMapping("/{id}")
-    public Mono<ResponseDto<DistributionProgramResponse>> update(@PathVariable String id, @RequestBody DistributionProgramCreateRequest request) {
-        return programService.update(id, request)
+    public Mono<ResponseDto<DistributionProgramResponse>> update(@PathVariable String id,
+            @RequestParam(required = false) Long version,
+            @RequestBody DistributionProgramCreateRequest request) {
+        return programService.update(id, request, version)
                 .map(data -> new ResponseDto<>(true, data));
     }
 
+    // JSON Merge Patch (RFC 7396): solo se escriben los campos enviados; null elimina el valor
+    @PatchMapping(value = "/{id}", consumes = {"application/merge-patch+json", MediaType.APPLICATION_JSON_VALUE})
+    public Mono<ResponseDto<DistributionProgramResponse>> patch(
+            @PathVariable String id,
+            @RequestParam(required = false) Long version,
+            @RequestBody JsonNode patch) {
+        return programService.patch(id, patch, version)
+                .map(data -> new ResponseDto<>(true, data));
+    }
+
+    // Eventos de ejecución de las cuadrillas (START, FINISH, INCIDENT)
+    @PostMapping("/{id}/events")
+    @ResponseStatus(HttpStatus.CREATED)
+    public Mono<ResponseDto<ProgramEventResponse>> recordEvent(@PathVariable String id, @RequestBody ProgramEventRequest request) {
+        return programExecutionService.recordEvent(id, request)
+                .map(data -> new ResponseDto<>(true, data));
+    }
+
+    @GetMapping("/{id}/events")
+    public Mono<ResponseDto<List<ProgramEventResponse>>> getEvents(@PathVariable String id) {
+        return programExecutionService.getEvents(id)
+                .collectList()
+                .map(list -> new ResponseDto<>(true, list));
+    }
+
     @DeleteMapping("/{id}")
-    public Mono<ResponseDto<Void>> delete(@PathVariable String id) {
-        return programService.delete(id)
+    public Mono<ResponseDto<Void>> delete(@PathVariable String id,
+            @RequestParam(required = false) Long version) {
+        return programService.delete(id, version)
                 .thenReturn(new ResponseDto<>(true, null));
     }
 
     @PatchMapping("/{id}/activate")
-    public Mono<ResponseDto<DistributionProgramResponse>> activate(@PathVariable String id) {
-        return programService.activate(id)
+    public Mono<ResponseDto<DistributionProgramResponse>> activate(@PathVariable String id,
+            @RequestParam(required = false) Long version) {
+        return programService.activate(id, version)
                 .map(programs -> new ResponseDto<>(true, programs))
                 .onErrorResume(e -> Mono.just(new ResponseDto<>(false,
                         new ErrorMessage(HttpStatus.BAD_REQUEST.value(), "Activation failed", e.getMessage()))));
     }
 
     @PatchMapping("/{id}/deactivate")
-    public Mono<ResponseDto<DistributionProgramResponse>> desactivate(@PathVariable String id) {
-        return programService.desactivate(id)
+    public Mono<ResponseDto<DistributionProgramResponse>> desactivate(@PathVariable String id,
+            @RequestParam(required = false) Long version) {
+        return programService.desactivate(id, version)
                 .map(programs -> new ResponseDto<>(true, programs))
                 .onErrorResume(e -> Mono.just(new ResponseDto<>(false,
                         new ErrorMessage(HttpStatus.BAD_REQUEST.value(), "Deactivation failed", e.getMessage()))));
     }
 
-}
\ No newline at end of file
+    private static DistributionProgramRangeQuery rangeQuery(String organizationId, String from, String to, String zoneId,
+                                                            String routeId, String status, String responsibleUserId) {
+        return DistributionProgramRangeQuery.builder()
+                .organizationId(organizationId)
+                .from(from)
+                .to(to)
+                .zoneId(zoneId)
+                .routeId(routeId)
+                .status(status)
+                .responsibleUserId(responsibleUserId)
+                .build();
+    }
+}
@@ -3,14 +3,20 @@ package pe.edu.vallegrande.ms_distribution.infrastructure.rest;
 import lombok.AllArgsConstructor;
 import pe.edu.vallegrande.ms_distribution.application.services.DistributionRouteService;
 import pe.edu.vallegrande.ms_distribution.domain.models.DistributionRoute;
+import pe.edu.vallegrande.ms_distribution.infrastructure.dto.CursorPage;
 import pe.edu.vallegrande.ms_distribution.infrastructure.dto.ErrorMessage;
 import pe.edu.vallegrande.ms_distribution.infrastructure.dto.ResponseDto;
 import pe.edu.vallegrande.ms_distribution.infrastructure.dto.request.DistributionRouteCreateRequest;
 import pe.edu.vallegrande.ms_distribution.infrastructure.dto.response.DistributionRouteResponse;
+import pe.edu.vallegrande.ms_distribution.infrastructure.service.ResponseBodyCache;
 
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.server.reactive.ServerHttpRequest;
 import org.springframework.web.bind.annotation.*;
 
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 import java.util.List;
@@ -22,27 +28,69 @@ public class DistributionRouteRest {
 
     private final DistributionRouteService routeService;
 
-    @GetMapping
-    public Mono<ResponseDto<List<DistributionRoute>>> getAll() {
-        return routeService.getAll()
-                .collectList()
-                .map(routes -> new ResponseDto<>(true, routes));
+    private final ResponseBodyCache responseCache;
+
+    @GetMapping(produces = MediaType.APPLICATION_JSON_VALUE)
+    public Mono<ResponseEntity<byte[]>> getAll(ServerHttpRequest request) {
+        return responseCache.get(ResponseBodyCache.ROUTES, "all", () -> routeService.getAll()
+                        .collectList()
+                        .map(routes -> new ResponseDto<>(true, routes)))
+                .map(body -> CachedJsonResponse.of(body, request));
     }
 
-    @GetMapping("/active")
-    public Mono<ResponseDto<List<DistributionRoute>>> getAllActive() {
-        return routeService.getAllActive()
-                .collectList()
-                .map(routes -> new ResponseDto<>(true, routes));
+    @GetMapping(produces = {MediaType.APPLICATION_NDJSON_VALUE, MediaType.TEXT_EVENT_STREAM_VALUE})
+    public Flux<DistributionRoute> streamAll() {
+        return routeService.getAll();
+    }
+
+    @GetMapping(value = "/active", produces = MediaType.APPLICATION_JSON_VALUE)
+    public Mono<ResponseEntity<byte[]>> getAllActive(ServerHttpRequest request) {
+        return responseCache.get(ResponseBodyCache.ROUTES, "active", () -> routeService.getAllActive()
+                        .collectList()
+                        .map(routes -> new ResponseDto<>(true, routes)))
+                .map(body -> CachedJsonResponse.of(body, request));
+    }
+
+    @GetMapping(value = "/active", produces = {MediaType.APPLICATION_NDJSON_VALUE, MediaType.TEXT_EVENT_STREAM_VALUE})
+    public Flux<DistributionRoute> streamAllActive() {
+        return routeService.getAllActive();
     }
 
-    @GetMapping("/inactive")
-    public Mono<ResponseDto<List<DistributionRoute>>> getAllInactive() {
-        return routeService.getAllInactive()
-                .collectList()
+    @GetMapping(value = "/inactive", produces = MediaType.APPLICATION_JSON_VALUE)
+    public Mono<ResponseEntity<byte[]>> getAllInactive(ServerHttpRequest request) {
+        return responseCache.get(ResponseBodyCache.ROUTES, "inactive", () -> routeService.getAllInactive()
+                        .collectList()
+                        .map(routes -> new ResponseDto<>(true, routes)))
+                .map(body -> CachedJsonResponse.of(body, request));
+    }
+
+    @GetMapping(value = "/inactive", produces = {MediaType.APPLICATION_NDJSON_VALUE, MediaType.TEXT_EVENT_STREAM_VALUE})
+    public Flux<DistributionRoute> streamAllInactive() {
+        return routeService.getAllInactive();
+    }
+
+    // Paginación por cursor: ?after=<nextCursor>&limit=N[&status=ACTIVE]
+    @GetMapping("/page")
+    public Mono<ResponseDto<CursorPage<DistributionRoute>>> getPage(
+            @RequestParam(required = false) String after,
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) Integer limit) {
+        return routeService.getPage(after, status, limit)
                 .map(routes -> new ResponseDto<>(true, routes));
     }
 
+    @GetMapping(value = "/organization/{organizationId}", produces = MediaType.APPLICATION_JSON_VALUE)
+    public Mono<ResponseEntity<byte[]>> getAllByOrganization(
+            @PathVariable String organizationId,
+            @RequestParam(required = false) String status,
+            ServerHttpRequest request) {
+        String key = "org:" + organizationId + ":" + (status == null ? "" : status);
+        return responseCache.get(ResponseBodyCache.ROUTES, key, () -> routeService.getAllByOrganization(organizationId, status)
+                        .collectList()
+                        .map(routes -> new ResponseDto<>(true, routes)))
+                .map(body -> CachedJsonResponse.of(body, request));
+    }
+
     @GetMapping("/{id}")
     public Mono<ResponseDto<DistributionRoute>> getById(@PathVariable String id) {
         return routeService.getById(id)
@@ -61,8 +109,10 @@ public class DistributionRouteRest {
     }
 
     @PutMapping("/{id}")
-    public Mono<ResponseDto<DistributionRoute>> update(@PathVariable String id, @RequestBody DistributionRoute route) {
-        return routeService.update(id, route)
+    public Mono<ResponseDto<DistributionRoute>> update(@PathVariable String id,
+            @RequestParam(required = false) Long version,
+            @RequestBody DistributionRoute route) {
+        return routeService.update(id, route, version)
                 .map(updated -> new ResponseDto<>(true, updated))
                 .onErrorResume(e -> Mono.just(new ResponseDto<>(false,
                         new ErrorMessage(HttpStatus.BAD_REQUEST.value(), "Update failed", e.getMessage()))));
@@ -70,24 +120,27 @@ public class DistributionRouteRest {
 
     @DeleteMapping("/{id}")
     @ResponseStatus(HttpStatus.NO_CONTENT)
-    public Mono<ResponseDto<Object>> delete(@PathVariable String id) {
-        return routeService.delete(id)
+    public Mono<ResponseDto<Object>> delete(@PathVariable String id,
+            @RequestParam(required = false) Long version) {
+        return routeService.delete(id, version)
                 .then(Mono.just(new ResponseDto<>(true, null)))
                 .onErrorResume(e -> Mono.just(new ResponseDto<>(false,
                         new ErrorMessage(HttpStatus.BAD_REQUEST.value(), "Delete failed", e.getMessage()))));
     }
 
     @PatchMapping("/{id}/activate")
-    public Mono<ResponseDto<DistributionRoute>> activate(@PathVariable String id) {
-        return routeService.activate(id)
+    public Mono<ResponseDto<DistributionRoute>> activate(@PathVariable String id,
+            @RequestParam(required = false) Long version) {
+        return routeService.activate(id, version)
                 .map(route -> new ResponseDto<>(true, route))
                 .onErrorResume(e -> Mono.just(new ResponseDto<>(false,
                         new ErrorMessage(HttpStatus.BAD_REQUEST.value(), "Activation failed", e.getMessage()))));
     }
 
     @PatchMapping("/{id}/deactivate")
-    public Mono<ResponseDto<DistributionRoute>> deactivate(@PathVariable String id) {
-        return routeService.deactivate(id)
+    public Mono<ResponseDto<DistributionRoute>> deactivate(@PathVariable String id,
+            @RequestParam(required = false) Long version) {
+        return routeService.deactivate(id, version)
                 .map(route -> new ResponseDto<>(true, route))
                 .onErrorResume(e -> Mono.just(new ResponseDto<>(false,
                         new ErrorMessage(HttpStatus.BAD_REQUEST.value(), "Deactivation failed", e.getMessage()))));
@@ -3,14 +3,20 @@ package pe.edu.vallegrande.ms_distribution.infrastructure.rest;
 import lombok.AllArgsConstructor;
 import pe.edu.vallegrande.ms_distribution.application.services.DistributionScheduleService;
 import pe.edu.vallegrande.ms_distribution.domain.models.DistributionSchedule;
+import pe.edu.vallegrande.ms_distribution.infrastructure.dto.CursorPage;
 import pe.edu.vallegrande.ms_distribution.infrastructure.dto.ErrorMessage;
 import pe.edu.vallegrande.ms_distribution.infrastructure.dto.ResponseDto;
 import pe.edu.vallegrande.ms_distribution.infrastructure.dto.request.DistributionScheduleCreateRequest;
 import pe.edu.vallegrande.ms_distribution.infrastructure.dto.response.DistributionScheduleResponse;
+import pe.edu.vallegrande.ms_distribution.infrastructure.service.ResponseBodyCache;
 
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.server.reactive.ServerHttpRequest;
 import org.springframework.web.bind.annotation.*;
 
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 import java.util.List;
@@ -22,27 +28,69 @@ public class DistributionScheduleRest {
 
     private final DistributionScheduleService service;
 
-    @GetMapping
-    public Mono<ResponseDto<List<DistributionSchedule>>> getAll() {
-        return service.getAll()
-                .collectList()
-                .map(result -> new ResponseDto<>(true, result));
+    private final ResponseBodyCache responseCache;
+
+    @GetMapping(produces = MediaType.APPLICATION_JSON_VALUE)
+    public Mono<ResponseEntity<byte[]>> getAll(ServerHttpRequest request) {
+        return responseCache.get(ResponseBodyCache.SCHEDULES, "all", () -> service.getAll()
+                        .collectList()
+                        .map(result -> new ResponseDto<>(true, result)))
+                .map(body -> CachedJsonResponse.of(body, request));
     }
 
-    @GetMapping("/active")
-    public Mono<ResponseDto<List<DistributionSchedule>>> getAllActive() {
-        return service.getAllActive()
-                .collectList()
-                .map(result -> new ResponseDto<>(true, result));
+    @GetMapping(produces = {MediaType.APPLICATION_NDJSON_VALUE, MediaType.TEXT_EVENT_STREAM_VALUE})
+    public Flux<DistributionSchedule> streamAll() {
+        return service.getAll();
+    }
+
+    @GetMapping(value = "/active", produces = MediaType.APPLICATION_JSON_VALUE)
+    public Mono<ResponseEntity<byte[]>> getAllActive(ServerHttpRequest request) {
+        return responseCache.get(ResponseBodyCache.SCHEDULES, "active", () -> service.getAllActive()
+                        .collectList()
+                        .map(result -> new ResponseDto<>(true, result)))
+                .map(body -> CachedJsonResponse.of(body, request));
+    }
+
+    @GetMapping(value = "/active", produces = {MediaType.APPLICATION_NDJSON_VALUE, MediaType.TEXT_EVENT_STREAM_VALUE})
+    public Flux<DistributionSchedule> streamAllActive() {
+        return service.getAllActive();
     }
 
-    @GetMapping("/inactive")
-    public Mono<ResponseDto<List<DistributionSchedule>>> getAllInactive() {
-        return service.getAllInactive()
-                .collectList()
+    @GetMapping(value = "/inactive", produces = MediaType.APPLICATION_JSON_VALUE)
+    public Mono<ResponseEntity<byte[]>> getAllInactive(ServerHttpRequest request) {
+        return responseCache.get(ResponseBodyCache.SCHEDULES, "inactive", () -> service.getAllInactive()
+                        .collectList()
+                        .map(result -> new ResponseDto<>(true, result)))
+                .map(body -> CachedJsonResponse.of(body, request));
+    }
+
+    @GetMapping(value = "/inactive", produces = {MediaType.APPLICATION_NDJSON_VALUE, MediaType.TEXT_EVENT_STREAM_VALUE})
+    public Flux<DistributionSchedule> streamAllInactive() {
+        return service.getAllInactive();
+    }
+
+    // Paginación por cursor: ?after=<nextCursor>&limit=N[&status=ACTIVE]
+    @GetMapping("/page")
+    public Mono<ResponseDto<CursorPage<DistributionSchedule>>> getPage(
+            @RequestParam(required = false) String after,
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) Integer limit) {
+        return service.getPage(after, status, limit)
                 .map(result -> new ResponseDto<>(true, result));
     }
 
+    @GetMapping(value = "/organization/{organizationId}", produces = MediaType.APPLICATION_JSON_VALUE)
+    public Mono<ResponseEntity<byte[]>> getAllByOrganization(
+            @PathVariable String organizationId,
+            @RequestParam(required = false) String status,
+            ServerHttpRequest request) {
+        String key = "org:" + organizationId + ":" + (status == null ? "" : status);
+        return responseCache.get(ResponseBodyCache.SCHEDULES, key, () -> service.getAllByOrganization(organizationId, status)
+                        .collectList()
+                        .map(result -> new ResponseDto<>(true, result)))
+                .map(body -> CachedJsonResponse.of(body, request));
+    }
+
     @GetMapping("/{id}")
     public Mono<ResponseDto<DistributionSchedule>> getById(@PathVariable String id) {
         return service.getById(id)
@@ -67,8 +115,10 @@ public class DistributionScheduleRest {
     }
 
     @PutMapping("/{id}")
-    public Mono<ResponseDto<DistributionSchedule>> update(@PathVariable String id, @RequestBody DistributionSchedule schedule) {
-        return service.update(id, schedule)
+    public Mono<ResponseDto<DistributionSchedule>> update(@PathVariable String id,
+            @RequestParam(required = false) Long version,
+            @RequestBody DistributionSchedule schedule) {
+        return service.update(id, schedule, version)
                 .map(updated -> new ResponseDto<>(true, updated))
                 .onErrorResume(e -> Mono.just(
                         new ResponseDto<>(false,
@@ -79,8 +129,9 @@ public class DistributionScheduleRest {
 
     @DeleteMapping("/{id}")
     @ResponseStatus(HttpStatus.NO_CONTENT)
-    public Mono<ResponseDto<Object>> delete(@PathVariable String id) {
-        return service.delete(id)
+    public Mono<ResponseDto<Object>> delete(@PathVariable String id,
+            @RequestParam(required = false) Long version) {
+        return service.delete(id, version)
                 .thenReturn(new ResponseDto<>(true, null))
                 .onErrorResume(e -> Mono.just(
                         new ResponseDto<>(false,
@@ -90,8 +141,9 @@ public class DistributionScheduleRest {
     }
 
     @PatchMapping("/{id}/activate")
-    public Mono<ResponseDto<DistributionSchedule>> activate(@PathVariable String id) {
-        return service.activate(id)
+    public Mono<ResponseDto<DistributionSchedule>> activate(@PathVariable String id,
+            @RequestParam(required = false) Long version) {
+        return service.activate(id, version)
                 .map(updated -> new ResponseDto<>(true, updated))
                 .onErrorResume(e -> Mono.just(
                         new ResponseDto<>(false,
@@ -101,8 +153,9 @@ public class DistributionScheduleRest {
     }
 
     @PatchMapping("/{id}/deactivate")
-    public Mono<ResponseDto<DistributionSchedule>> deactivate(@PathVariable String id) {
-        return service.deactivate(id)
+    public Mono<ResponseDto<DistributionSchedule>> deactivate(@PathVariable String id,
+            @RequestParam(required = false) Long version) {
+        return service.deactivate(id, version)
                 .map(updated -> new ResponseDto<>(true, updated))
                 .onErrorResume(e -> Mono.just(
                         new ResponseDto<>(false,
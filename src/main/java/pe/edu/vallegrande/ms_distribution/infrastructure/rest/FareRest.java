@@ -3,14 +3,20 @@ package pe.edu.vallegrande.ms_distribution.infrastructure.rest;
 import lombok.AllArgsConstructor;
 import pe.edu.vallegrande.ms_distribution.application.services.FareService;
 import pe.edu.vallegrande.ms_distribution.domain.models.Fare;
+import pe.edu.vallegrande.ms_distribution.infrastructure.dto.CursorPage;
 import pe.edu.vallegrande.ms_distribution.infrastructure.dto.ErrorMessage;
 import pe.edu.vallegrande.ms_distribution.infrastructure.dto.ResponseDto;
 import pe.edu.vallegrande.ms_distribution.infrastructure.dto.request.FareCreateRequest;
 import pe.edu.vallegrande.ms_distribution.infrastructure.dto.response.FareResponse;
+import pe.edu.vallegrande.ms_distribution.infrastructure.service.ResponseBodyCache;
 
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.server.reactive.ServerHttpRequest;
 import org.springframework.web.bind.annotation.*;
 
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 import java.util.List;
@@ -22,27 +28,70 @@ public class FareRest {
 
     private final FareService fareService;
 
-    @GetMapping
-    public Mono<ResponseDto<List<Fare>>> getAll() {
-        return fareService.getAllF()
-                .collectList()
-                .map(fares -> new ResponseDto<>(true, fares));
+    // Listados servidos como bytes ya serializados; las escrituras del servicio los invalidan
+    private final ResponseBodyCache responseCache;
+
+    @GetMapping(produces = MediaType.APPLICATION_JSON_VALUE)
+    public Mono<ResponseEntity<byte[]>> getAll(ServerHttpRequest request) {
+        return responseCache.get(ResponseBodyCache.FARES, "all", () -> fareService.getAllF()
+                        .collectList()
+                        .map(fares -> new ResponseDto<>(true, fares)))
+                .map(body -> CachedJsonResponse.of(body, request));
     }
 
-    @GetMapping("/active")
-    public Mono<ResponseDto<List<Fare>>> getAllActive() {
-        return fareService.getAllActiveF()
-                .collectList()
-                .map(fares -> new ResponseDto<>(true, fares));
+    @GetMapping(produces = {MediaType.APPLICATION_NDJSON_VALUE, MediaType.TEXT_EVENT_STREAM_VALUE})
+    public Flux<Fare> streamAll() {
+        return fareService.getAllF();
+    }
+
+    @GetMapping(value = "/active", produces = MediaType.APPLICATION_JSON_VALUE)
+    public Mono<ResponseEntity<byte[]>> getAllActive(ServerHttpRequest request) {
+        return responseCache.get(ResponseBodyCache.FARES, "active", () -> fareService.getAllActiveF()
+                        .collectList()
+                        .map(fares -> new ResponseDto<>(true, fares)))
+                .map(body -> CachedJsonResponse.of(body, request));
+    }
+
+    @GetMapping(value = "/active", produces = {MediaType.APPLICATION_NDJSON_VALUE, MediaType.TEXT_EVENT_STREAM_VALUE})
+    public Flux<Fare> streamAllActive() {
+        return fareService.getAllActiveF();
     }
 
-    @GetMapping("/inactive")
-    public Mono<ResponseDto<List<Fare>>> getAllInactive() {
-        return fareService.getAllInactiveF()
-                .collectList()
+    @GetMapping(value = "/inactive", produces = MediaType.APPLICATION_JSON_VALUE)
+    public Mono<ResponseEntity<byte[]>> getAllInactive(ServerHttpRequest request) {
+        return responseCache.get(ResponseBodyCache.FARES, "inactive", () -> fareService.getAllInactiveF()
+                        .collectList()
+                        .map(fares -> new ResponseDto<>(true, fares)))
+                .map(body -> CachedJsonResponse.of(body, request));
+    }
+
+    @GetMapping(value = "/inactive", produces = {MediaType.APPLICATION_NDJSON_VALUE, MediaType.TEXT_EVENT_STREAM_VALUE})
+    public Flux<Fare> streamAllInactive() {
+        return fareService.getAllInactiveF();
+    }
+
+    // Paginación por cursor: ?after=<nextCursor>&limit=N[&status=ACTIVE]
+    @GetMapping("/page")
+    public Mono<ResponseDto<CursorPage<Fare>>> getPage(
+            @RequestParam(required = false) String after,
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) Integer limit) {
+        return fareService.getPageF(after, status, limit)
                 .map(fares -> new ResponseDto<>(true, fares));
     }
 
+    @GetMapping(value = "/organization/{organizationId}", produces = MediaType.APPLICATION_JSON_VALUE)
+    public Mono<ResponseEntity<byte[]>> getAllByOrganization(
+            @PathVariable String organizationId,
+            @RequestParam(required = false) String status,
+            ServerHttpRequest request) {
+        String key = "org:" + organizationId + ":" + (status == null ? "" : status);
+        return responseCache.get(ResponseBodyCache.FARES, key, () -> fareService.getAllByOrganizationF(organizationId, status)
+                        .collectList()
+                        .map(fares -> new ResponseDto<>(true, fares)))
+                .map(body -> CachedJsonResponse.of(body, request));
+    }
+
     @GetMapping("/{id}")
     public Mono<ResponseDto<Fare>> getById(@PathVariable String id) {
         return fareService.getByIdFMono(id)
@@ -67,8 +116,10 @@ public class FareRest {
     }
 
     @PutMapping("/{id}")
-    public Mono<ResponseDto<Fare>> update(@PathVariable String id, @RequestBody Fare fare) {
-        return fareService.updateF(id, fare)
+    public Mono<ResponseDto<Fare>> update(@PathVariable String id,
+            @RequestParam(required = false) Long version,
+            @RequestBody Fare fare) {
+        return fareService.updateF(id, fare, version)
                 .map(updatedFare -> new ResponseDto<>(true, updatedFare))
                 .onErrorResume(e -> Mono.just(
                         new ResponseDto<>(false,
@@ -79,8 +130,9 @@ public class FareRest {
 
     @DeleteMapping("/{id}")
     @ResponseStatus(HttpStatus.NO_CONTENT)
-    public Mono<ResponseDto<Object>> delete(@PathVariable String id) {
-        return fareService.deleteF(id)
+    public Mono<ResponseDto<Object>> delete(@PathVariable String id,
+            @RequestParam(required = false) Long version) {
+        return fareService.deleteF(id, version)
                 .then(Mono.just(new ResponseDto<>(true, null)))
                 .onErrorResume(e -> Mono.just(
                         new ResponseDto<>(false,
@@ -90,8 +142,9 @@ public class FareRest {
     }
 
     @PatchMapping("/{id}/activate")
-    public Mono<ResponseDto<Fare>> activate(@PathVariable String id) {
-        return fareService.activateF(id)
+    public Mono<ResponseDto<Fare>> activate(@PathVariable String id,
+            @RequestParam(required = false) Long version) {
+        return fareService.activateF(id, version)
                 .map(fare -> new ResponseDto<>(true, fare))
                 .onErrorResume(e -> Mono.just(
                         new ResponseDto<>(false,
@@ -101,8 +154,9 @@ public class FareRest {
     }
 
     @PatchMapping("/{id}/deactivate")
-    public Mono<ResponseDto<Fare>> deactivate(@PathVariable String id) {
-        return fareService.deactivateF(id)
+    public Mono<ResponseDto<Fare>> deactivate(@PathVariable String id,
+            @RequestParam(required = false) Long version) {
+        return fareService.deactivateF(id, version)
                 .map(fare -> new ResponseDto<>(true, fare))
                 .onErrorResume(e -> Mono.just(
                         new ResponseDto<>(false,
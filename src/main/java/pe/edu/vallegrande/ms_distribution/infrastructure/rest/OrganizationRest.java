@@ -1,16 +1,24 @@
 package pe.edu.vallegrande.ms_distribution.infrastructure.rest;
 
+import com.fasterxml.jackson.databind.JsonNode;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.server.reactive.ServerHttpResponse;
 import org.springframework.web.bind.annotation.*;
 import pe.edu.vallegrande.ms_distribution.infrastructure.dto.external.AdminUserResponse;
+import pe.edu.vallegrande.ms_distribution.infrastructure.service.MsUsersStreamRelay;
 import pe.edu.vallegrande.ms_distribution.infrastructure.service.OrganizationService;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.util.List;
+import java.util.Map;
+
 /**
  * Controlador para gestión de organizaciones y validaciones
  */
@@ -43,6 +51,17 @@ public class OrganizationRest {
                 .map(ResponseEntity::ok);
     }
 
+    @Operation(summary = "Verificar administradores autorizados en lote", 
+               description = "Verifica en una sola petición qué usuarios son administradores autorizados de una organización")
+    @PostMapping("/{organizationId}/admins/authorized")
+    public Mono<ResponseEntity<Map<String, Boolean>>> areAuthorizedAdmins(
+            @Parameter(description = "ID de la organización") 
+            @PathVariable String organizationId,
+            @RequestBody List<String> userIds) {
+        return organizationService.areAuthorizedAdmins(organizationId, userIds)
+                .map(ResponseEntity::ok);
+    }
+
     @Operation(summary = "Obtener administrador específico", 
                description = "Obtiene un administrador específico por su ID y organización")
     @GetMapping("/{organizationId}/admins/{adminId}")
@@ -67,25 +86,77 @@ public class OrganizationRest {
     @Operation(summary = "Obtener usuarios de organización", 
                description = "Obtiene todos los usuarios de una organización")
     @GetMapping("/{organizationId}/users")
-    public Flux<Object> getOrganizationUsers(
+    public Flux<JsonNode> getOrganizationUsers(
             @Parameter(description = "ID de la organización") 
             @PathVariable String organizationId) {
         return organizationService.getOrganizationUsers(organizationId);
     }
 
+    @Operation(summary = "Reenviar usuarios de organización", 
+               description = "Reenvía por streaming la respuesta de MS-USERS con su sobre original; fields proyecta los campos de cada usuario")
+    @GetMapping(value = "/{organizationId}/users/passthrough", produces = MediaType.APPLICATION_JSON_VALUE)
+    public Flux<DataBuffer> relayOrganizationUsers(
+            @Parameter(description = "ID de la organización") 
+            @PathVariable String organizationId,
+            @Parameter(description = "Campos a conservar, separados por coma (ej. id,firstName)") 
+            @RequestParam(required = false) String fields,
+            ServerHttpResponse response) {
+        return organizationService.relayOrganizationUsers(organizationId,
+                MsUsersStreamRelay.parseFields(fields), false, response.bufferFactory());
+    }
+
+    @Operation(summary = "Reenviar usuarios de organización (NDJSON)", 
+               description = "Reenvía por streaming un usuario por línea; fields proyecta los campos de cada usuario")
+    @GetMapping(value = "/{organizationId}/users/passthrough", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<DataBuffer> relayOrganizationUsersNdjson(
+            @Parameter(description = "ID de la organización") 
+            @PathVariable String organizationId,
+            @Parameter(description = "Campos a conservar, separados por coma (ej. id,firstName)") 
+            @RequestParam(required = false) String fields,
+            ServerHttpResponse response) {
+        return organizationService.relayOrganizationUsers(organizationId,
+                MsUsersStreamRelay.parseFields(fields), true, response.bufferFactory());
+    }
+
     @Operation(summary = "Obtener clientes de organización", 
                description = "Obtiene todos los clientes de una organización")
     @GetMapping("/{organizationId}/clients")
-    public Flux<Object> getOrganizationClients(
+    public Flux<JsonNode> getOrganizationClients(
             @Parameter(description = "ID de la organización") 
             @PathVariable String organizationId) {
         return organizationService.getOrganizationClients(organizationId);
     }
 
+    @Operation(summary = "Reenviar clientes de organización", 
+               description = "Reenvía por streaming la respuesta de MS-USERS con su sobre original; fields proyecta los campos de cada cliente")
+    @GetMapping(value = "/{organizationId}/clients/passthrough", produces = MediaType.APPLICATION_JSON_VALUE)
+    public Flux<DataBuffer> relayOrganizationClients(
+            @Parameter(description = "ID de la organización") 
+            @PathVariable String organizationId,
+            @Parameter(description = "Campos a conservar, separados por coma (ej. id,firstName)") 
+            @RequestParam(required = false) String fields,
+            ServerHttpResponse response) {
+        return organizationService.relayOrganizationClients(organizationId,
+                MsUsersStreamRelay.parseFields(fields), false, response.bufferFactory());
+    }
+
+    @Operation(summary = "Reenviar clientes de organización (NDJSON)", 
+               description = "Reenvía por streaming un cliente por línea; fields proyecta los campos de cada cliente")
+    @GetMapping(value = "/{organizationId}/clients/passthrough", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<DataBuffer> relayOrganizationClientsNdjson(
+            @Parameter(description = "ID de la organización") 
+            @PathVariable String organizationId,
+            @Parameter(description = "Campos a conservar, separados por coma (ej. id,firstName)") 
+            @RequestParam(required = false) String fields,
+            ServerHttpResponse response) {
+        return organizationService.relayOrganizationClients(organizationId,
+                MsUsersStreamRelay.parseFields(fields), true, response.bufferFactory());
+    }
+
     @Operation(summary = "Obtener usuario por ID", 
                description = "Obtiene un usuario específico por su ID")
     @GetMapping("/users/{userId}")
-    public Mono<Object> getUserById(
+    public Mono<JsonNode> getUserById(
             @Parameter(description = "ID del usuario") 
             @PathVariable String userId) {
         return organizationService.getUserById(userId);
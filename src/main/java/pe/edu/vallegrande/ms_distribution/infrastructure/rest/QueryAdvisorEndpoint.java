@@ -0,0 +1,33 @@
+package pe.edu.vallegrande.ms_distribution.infrastructure.rest;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+import pe.edu.vallegrande.ms_distribution.infrastructure.dto.response.QueryShapeResponse;
+import pe.edu.vallegrande.ms_distribution.infrastructure.service.SlowQueryDetector;
+
+import java.util.List;
+
+/**
+ * /actuator/queryadvisor: formas de consulta observadas con su plan y el índice sugerido.
+ * DELETE reinicia las estadísticas (p. ej. después de crear los índices).
+ */
+@Component
+@Endpoint(id = "queryadvisor")
+@RequiredArgsConstructor
+public class QueryAdvisorEndpoint {
+
+    private final SlowQueryDetector slowQueryDetector;
+
+    @ReadOperation
+    public List<QueryShapeResponse> report() {
+        return slowQueryDetector.report();
+    }
+
+    @DeleteOperation
+    public void reset() {
+        slowQueryDetector.reset();
+    }
+}
@@ -0,0 +1,190 @@
+package pe.edu.vallegrande.ms_distribution.infrastructure.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.opentelemetry.api.common.AttributeKey;
+import io.opentelemetry.api.trace.SpanContext;
+import io.opentelemetry.api.trace.StatusCode;
+import io.opentelemetry.context.Context;
+import io.opentelemetry.sdk.common.CompletableResultCode;
+import io.opentelemetry.sdk.trace.ReadWriteSpan;
+import io.opentelemetry.sdk.trace.ReadableSpan;
+import io.opentelemetry.sdk.trace.SpanProcessor;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Muestreo adaptativo decidido al terminar la traza (tail sampling local): los spans hijos
+ * esperan en memoria hasta que termina la raíz local (la petición entrante) y entonces la
+ * traza completa se exporta si tuvo algún error, si la raíz superó el umbral de lentitud o,
+ * para las rápidas y correctas, con la probabilidad configurada. Lo descartado no llega al
+ * exportador, que es la parte costosa (serialización y red).
+ * <p>
+ * Las trazas cuya raíz no termina dentro de max-trace-duration (streams largos) o que
+ * exceden max-pending-traces se descartan sin exportar. La decisión de cada raíz se recuerda
+ * unos segundos para los spans que terminan después que ella (doFinally de Reactor corre
+ * cuando la señal final ya llegó a la petición).
+ */
+public class AdaptiveSamplingSpanProcessor implements SpanProcessor {
+
+    private static final String METRIC = "tracing.sampling.decisions";
+    private static final AttributeKey<String> OUTCOME = AttributeKey.stringKey("outcome");
+    private static final Duration DECISION_TTL = Duration.ofSeconds(30);
+    private static final String DROPPED = "dropped";
+
+    private final SpanProcessor delegate;
+    private final long slowThresholdNanos;
+    private final double fastRatio;
+    private final Map<String, Counter> decisions;
+
+    private final Cache<String, PendingTrace> pending;
+    private final Cache<String, Boolean> decided;
+
+    public AdaptiveSamplingSpanProcessor(SpanProcessor delegate, Duration slowThreshold, double fastRatio,
+                                         int maxPendingTraces, Duration maxTraceDuration, MeterRegistry meterRegistry) {
+        this.delegate = delegate;
+        this.slowThresholdNanos = slowThreshold.toNanos();
+        this.fastRatio = fastRatio;
+        this.decisions = Stream.of("error", "slow", "sampled", DROPPED)
+                .collect(Collectors.toUnmodifiableMap(decision -> decision,
+                        decision -> meterRegistry.counter(METRIC, "decision", decision)));
+        // Mantenimiento en el hilo que termina el span: con el pool común, cada escritura
+        // encola una tarea y en pocos núcleos compite con las propias peticiones
+        this.pending = Caffeine.newBuilder()
+                .executor(Runnable::run)
+                .maximumSize(maxPendingTraces)
+                .expireAfterWrite(maxTraceDuration)
+                .build();
+        this.decided = Caffeine.newBuilder()
+                .executor(Runnable::run)
+                .maximumSize(maxPendingTraces)
+                .expireAfterWrite(DECISION_TTL)
+                .build();
+    }
+
+    @Override
+    public void onStart(Context parentContext, ReadWriteSpan span) {
+    }
+
+    @Override
+    public boolean isStartRequired() {
+        return false;
+    }
+
+    @Override
+    public void onEnd(ReadableSpan span) {
+        String traceId = span.getSpanContext().getTraceId();
+        boolean root = isLocalRoot(span);
+        if (!root) {
+            Boolean kept = decided.getIfPresent(traceId);
+            if (kept != null) {
+                if (kept) {
+                    delegate.onEnd(span);
+                }
+                return;
+            }
+        }
+
+        // La raíz decide dentro del mismo compute con el que los hijos se encolan: un hijo
+        // ve la decisión ya publicada o queda en la traza que la raíz drena, nunca en medio
+        Outcome outcome = new Outcome();
+        pending.asMap().compute(traceId, (id, trace) -> {
+            if (root) {
+                outcome.decision = decide(span, trace);
+                outcome.trace = trace;
+                decided.put(id, !DROPPED.equals(outcome.decision));
+                return null;
+            }
+            outcome.kept = decided.getIfPresent(id);
+            if (outcome.kept != null) {
+                return trace;
+            }
+            PendingTrace current = trace == null ? new PendingTrace() : trace;
+            current.spans.add(span);
+            return current;
+        });
+
+        if (!root) {
+            // Hijo que terminó mientras la raíz decidía
+            if (Boolean.TRUE.equals(outcome.kept)) {
+                delegate.onEnd(span);
+            }
+            return;
+        }
+        decisions.get(outcome.decision).increment();
+        if (DROPPED.equals(outcome.decision)) {
+            return;
+        }
+        if (outcome.trace != null) {
+            outcome.trace.spans.forEach(delegate::onEnd);
+        }
+        delegate.onEnd(span);
+    }
+
+    @Override
+    public boolean isEndRequired() {
+        return true;
+    }
+
+    @Override
+    public CompletableResultCode forceFlush() {
+        return delegate.forceFlush();
+    }
+
+    @Override
+    public CompletableResultCode shutdown() {
+        pending.invalidateAll();
+        decided.invalidateAll();
+        return delegate.shutdown();
+    }
+
+    /**
+     * Los hijos sólo se revisan si la raíz no decide por sí sola (error o lentitud)
+     */
+    String decide(ReadableSpan root, PendingTrace trace) {
+        if (root.getLatencyNanos() >= slowThresholdNanos) {
+            return failed(root) ? "error" : "slow";
+        }
+        if (failed(root) || (trace != null && trace.spans.stream().anyMatch(AdaptiveSamplingSpanProcessor::failed))) {
+            return "error";
+        }
+        return ThreadLocalRandom.current().nextDouble() < fastRatio ? "sampled" : DROPPED;
+    }
+
+    /**
+     * Raíz dentro de este servicio: sin padre o con el padre propagado por otro servicio
+     */
+    private static boolean isLocalRoot(ReadableSpan span) {
+        SpanContext parent = span.getParentSpanContext();
+        return !parent.isValid() || parent.isRemote();
+    }
+
+    /**
+     * Span con outcome SERVER_ERROR (la petición entrante responde 5xx sin marcar error
+     * cuando lo resuelve el manejador de excepciones) o con estado de error; ReadableSpan no
+     * expone el estado y toSpanData copia los atributos, por eso va en segundo lugar
+     */
+    private static boolean failed(ReadableSpan span) {
+        return "SERVER_ERROR".equalsIgnoreCase(span.getAttribute(OUTCOME))
+                || span.toSpanData().getStatus().getStatusCode() == StatusCode.ERROR;
+    }
+
+    static final class PendingTrace {
+        // Sólo se modifica dentro de compute, que serializa los accesos por traza
+        private final List<ReadableSpan> spans = new ArrayList<>(8);
+    }
+
+    private static final class Outcome {
+        private String decision;
+        private PendingTrace trace;
+        private Boolean kept;
+    }
+}
@@ -0,0 +1,80 @@
+package pe.edu.vallegrande.ms_distribution.infrastructure.service;
+
+import pe.edu.vallegrande.ms_distribution.infrastructure.dto.external.AdminUserResponse;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Índice inmutable de los administradores de una organización.
+ * Se construye una vez por consulta a MS-USERS y responde pertenencia en O(1).
+ */
+public final class AdminDirectory {
+
+    private static final AdminDirectory EMPTY = new AdminDirectory(Map.of(), Map.of());
+
+    private final Map<String, AdminUserResponse> adminsById;
+    private final Map<String, Set<String>> adminIdsByRole;
+
+    private AdminDirectory(Map<String, AdminUserResponse> adminsById, Map<String, Set<String>> adminIdsByRole) {
+        this.adminsById = adminsById;
+        this.adminIdsByRole = adminIdsByRole;
+    }
+
+    public static AdminDirectory of(List<AdminUserResponse> admins) {
+        if (admins.isEmpty()) {
+            return EMPTY;
+        }
+        // LinkedHashMap conserva el orden en que MS-USERS devolvió la lista
+        Map<String, AdminUserResponse> byId = new LinkedHashMap<>();
+        Map<String, Set<String>> byRole = new HashMap<>();
+        for (AdminUserResponse admin : admins) {
+            if (admin.getId() == null) {
+                continue;
+            }
+            byId.putIfAbsent(admin.getId(), admin);
+            if (admin.getRoles() != null) {
+                for (String role : admin.getRoles()) {
+                    byRole.computeIfAbsent(role, key -> new HashSet<>()).add(admin.getId());
+                }
+            }
+        }
+        Map<String, Set<String>> immutableByRole = byRole.entrySet().stream()
+                .collect(Collectors.toUnmodifiableMap(Map.Entry::getKey, entry -> Set.copyOf(entry.getValue())));
+        return new AdminDirectory(Collections.unmodifiableMap(byId), immutableByRole);
+    }
+
+    public boolean contains(String adminId) {
+        return adminId != null && adminsById.containsKey(adminId);
+    }
+
+    public AdminUserResponse get(String adminId) {
+        return adminId != null ? adminsById.get(adminId) : null;
+    }
+
+    public boolean hasRole(String adminId, String role) {
+        return adminIdsByRole.getOrDefault(role, Set.of()).contains(adminId);
+    }
+
+    public Set<String> roles() {
+        return adminIdsByRole.keySet();
+    }
+
+    public Iterable<AdminUserResponse> admins() {
+        return adminsById.values();
+    }
+
+    public boolean isEmpty() {
+        return adminsById.isEmpty();
+    }
+
+    public int size() {
+        return adminsById.size();
+    }
+}
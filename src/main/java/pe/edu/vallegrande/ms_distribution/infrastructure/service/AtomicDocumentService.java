@@ -0,0 +1,89 @@
+package pe.edu.vallegrande.ms_distribution.infrastructure.service;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import pe.edu.vallegrande.ms_distribution.infrastructure.exception.CustomException;
+import reactor.core.publisher.Mono;
+
+/**
+ * Escrituras de un solo documento en una única operación atómica: findAndModify con $set
+ * de los campos cambiados o findAndRemove. El campo "version" se incrementa en cada cambio
+ * y, si se indica la versión esperada, la operación solo se aplica si coincide.
+ */
+@Service
+@RequiredArgsConstructor
+public class AtomicDocumentService {
+
+    public static final String VERSION = "version";
+
+    private final ReactiveMongoTemplate mongoTemplate;
+
+    /**
+     * Aplica el update y devuelve el documento ya actualizado
+     *
+     * @param expectedVersion versión que el cliente leyó; null omite la comprobación
+     * @param entity          nombre de la entidad para los mensajes de error
+     */
+    public <T> Mono<T> update(Class<T> type, String id, Long expectedVersion, Update update, String entity) {
+        return mongoTemplate.findAndModify(byId(id, expectedVersion), update.inc(VERSION, 1),
+                        FindAndModifyOptions.options().returnNew(true), type)
+                .switchIfEmpty(Mono.defer(() -> notFoundOrConflict(type, id, expectedVersion, entity)));
+    }
+
+    /**
+     * Atajo para el cambio de estado, la transición más frecuente
+     */
+    public <T> Mono<T> changeStatus(Class<T> type, String id, Long expectedVersion, String status, String entity) {
+        return update(type, id, expectedVersion, Update.update("status", status), entity);
+    }
+
+    /**
+     * Elimina el documento y lo devuelve tal como estaba
+     */
+    public <T> Mono<T> delete(Class<T> type, String id, Long expectedVersion, String entity) {
+        return mongoTemplate.findAndRemove(byId(id, expectedVersion), type)
+                .switchIfEmpty(Mono.defer(() -> notFoundOrConflict(type, id, expectedVersion, entity)));
+    }
+
+    /**
+     * Versión que condiciona un reemplazo (PUT): la que envió el cliente o, si no envió
+     * ninguna, la del documento leído, para que un cambio intermedio dé 409 en lugar de perderse
+     */
+    public static long expectedVersion(Long requested, Long read) {
+        if (requested != null) {
+            return requested;
+        }
+        return read == null ? 0L : read;
+    }
+
+    private static Query byId(String id, Long expectedVersion) {
+        Criteria criteria = Criteria.where("_id").is(id);
+        if (expectedVersion != null) {
+            // Los documentos anteriores a este campo equivalen a la versión 0
+            criteria = expectedVersion == 0
+                    ? criteria.orOperator(Criteria.where(VERSION).is(0L), Criteria.where(VERSION).exists(false))
+                    : criteria.and(VERSION).is(expectedVersion);
+        }
+        return Query.query(criteria);
+    }
+
+    /**
+     * Solo en el camino de error: distingue un id inexistente de una versión desactualizada
+     */
+    private <T> Mono<T> notFoundOrConflict(Class<?> type, String id, Long expectedVersion, String entity) {
+        if (expectedVersion == null) {
+            return Mono.error(CustomException.notFound(entity, id));
+        }
+        return mongoTemplate.exists(Query.query(Criteria.where("_id").is(id)), type)
+                .flatMap(exists -> Mono.error(exists
+                        ? new CustomException(HttpStatus.CONFLICT.value(), "Version conflict",
+                                entity + " " + id + " was modified by another request (expected version " + expectedVersion + ")")
+                        : CustomException.notFound(entity, id)));
+    }
+}
@@ -0,0 +1,42 @@
+package pe.edu.vallegrande.ms_distribution.infrastructure.service;
+
+import com.mongodb.MongoCommandException;
+import lombok.extern.slf4j.Slf4j;
+import reactor.util.retry.Retry;
+
+import java.time.Duration;
+
+/**
+ * Política común de los change streams: reintento con backoff ante cortes, salvo cuando el
+ * servidor no los soporta (standalone), que no se arregla reintentando
+ */
+@Slf4j
+final class ChangeStreams {
+
+    // $changeStream sobre un servidor standalone
+    private static final int UNSUPPORTED = 40573;
+
+    private ChangeStreams() {
+    }
+
+    /**
+     * Reintenta indefinidamente (hasta un minuto entre intentos) los errores recuperables;
+     * uno de servidor sin soporte se propaga de inmediato
+     */
+    static Retry retry(String collection) {
+        return Retry.backoff(Long.MAX_VALUE, Duration.ofSeconds(1))
+                .maxBackoff(Duration.ofMinutes(1))
+                .filter(error -> !unsupported(error))
+                .doBeforeRetry(retry -> log.warn("Change stream de {} interrumpido ({}); reintentando",
+                        collection, retry.failure().getMessage()));
+    }
+
+    static boolean unsupported(Throwable error) {
+        for (Throwable cause = error; cause != null; cause = cause.getCause()) {
+            if (cause instanceof MongoCommandException command && command.getErrorCode() == UNSUPPORTED) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,99 @@
+package pe.edu.vallegrande.ms_distribution.infrastructure.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+import pe.edu.vallegrande.ms_distribution.domain.enums.CodeSequence;
+import pe.edu.vallegrande.ms_distribution.domain.models.SequenceCounter;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Generador atómico de códigos correlativos respaldado por la colección "counters".
+ * Cada reserva es un único findAndModify con $inc, por lo que dos inserciones
+ * concurrentes nunca reciben el mismo número.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class CodeSequenceService {
+
+    private final ReactiveMongoTemplate mongoTemplate;
+
+    // Inicialización del contador por prefijo, una sola vez por proceso
+    private final Map<CodeSequence, Mono<Void>> seeded = new ConcurrentHashMap<>();
+
+    /**
+     * Reserva el siguiente código de la secuencia (ej. PROG001)
+     */
+    public Mono<String> nextCode(CodeSequence sequence) {
+        return reserve(sequence, 1).map(sequence::format);
+    }
+
+    /**
+     * Reserva un bloque de códigos consecutivos en una sola operación
+     */
+    public Flux<String> nextCodes(CodeSequence sequence, int count) {
+        if (count <= 0) {
+            return Flux.empty();
+        }
+        return reserve(sequence, count)
+                .flatMapMany(last -> Flux.range(0, count)
+                        .map(offset -> sequence.format(last - count + 1 + offset)));
+    }
+
+    /**
+     * Incrementa el contador en count y devuelve el último número reservado
+     */
+    private Mono<Long> reserve(CodeSequence sequence, int count) {
+        return ensureSeeded(sequence)
+                .then(mongoTemplate.findAndModify(
+                        Query.query(Criteria.where("_id").is(sequence.getPrefix())),
+                        new Update().inc("seq", count),
+                        FindAndModifyOptions.options().returnNew(true).upsert(true),
+                        SequenceCounter.class))
+                .map(SequenceCounter::getSeq);
+    }
+
+    private Mono<Void> ensureSeeded(CodeSequence sequence) {
+        return seeded.computeIfAbsent(sequence, key -> seed(key)
+                .doOnError(e -> seeded.remove(key))
+                .cache());
+    }
+
+    /**
+     * Si el contador aún no existe, lo inicializa con el mayor número ya usado en la colección
+     * (comparación numérica, no lexicográfica). $max hace que la operación sea idempotente
+     * aunque varias instancias la ejecuten a la vez.
+     */
+    private Mono<Void> seed(CodeSequence sequence) {
+        Query counterQuery = Query.query(Criteria.where("_id").is(sequence.getPrefix()));
+
+        return mongoTemplate.exists(counterQuery, SequenceCounter.class)
+                .flatMap(exists -> {
+                    if (exists) {
+                        return Mono.empty();
+                    }
+                    Query codes = new Query();
+                    codes.fields().include(sequence.getCodeField()).exclude("_id");
+
+                    return mongoTemplate.find(codes, Document.class, mongoTemplate.getCollectionName(sequence.getEntityClass()))
+                            .map(doc -> sequence.parse(doc.getString(sequence.getCodeField())))
+                            .reduce(0L, Math::max)
+                            .flatMap(max -> {
+                                log.info("Inicializando contador {} en {}", sequence.getPrefix(), max);
+                                return mongoTemplate.upsert(counterQuery, new Update().max("seq", max), SequenceCounter.class);
+                            });
+                })
+                .then();
+    }
+}
@@ -0,0 +1,222 @@
+package pe.edu.vallegrande.ms_distribution.infrastructure.service;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.ChangeStreamOptions;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.stereotype.Component;
+import pe.edu.vallegrande.ms_distribution.domain.models.Fare;
+import pe.edu.vallegrande.ms_distribution.infrastructure.repository.FareRepository;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Modelo de lectura en memoria de las tarifas: una instantánea inmutable indexada por
+ * organización y estado. Se invalida en cada escritura local y, para las escrituras de
+ * otras instancias, mediante el change stream de la colección (o sondeo periódico si
+ * el servidor no soporta change streams).
+ */
+@Slf4j
+@Component
+public class FareReadModel {
+
+    private final FareRepository fareRepository;
+    private final ReactiveMongoTemplate mongoTemplate;
+    private final ResponseBodyCache responseCache;
+
+    @Value("${app.cache.fares.poll-interval:PT30S}")
+    private Duration pollInterval;
+
+    // Carga compartida de la instantánea vigente; invalidar la reemplaza por una nueva
+    private final AtomicReference<Load> current = new AtomicReference<>();
+
+    private volatile Disposable watcher;
+
+    public FareReadModel(FareRepository fareRepository, ReactiveMongoTemplate mongoTemplate,
+                         ResponseBodyCache responseCache) {
+        this.fareRepository = fareRepository;
+        this.mongoTemplate = mongoTemplate;
+        this.responseCache = responseCache;
+        this.current.set(new Load());
+    }
+
+    public Flux<Fare> getAll() {
+        return snapshot().flatMapIterable(FareSnapshot::all);
+    }
+
+    public Flux<Fare> getAllByStatus(String status) {
+        return snapshot().flatMapIterable(snapshot -> snapshot.byStatus(status));
+    }
+
+    public Flux<Fare> getAllByOrganization(String organizationId, String status) {
+        return snapshot().flatMapIterable(snapshot -> snapshot.byOrganization(organizationId, status));
+    }
+
+    public Mono<Fare> getById(String id) {
+        return snapshot().mapNotNull(snapshot -> snapshot.byId(id));
+    }
+
+    /**
+     * Descarta la instantánea; la siguiente lectura carga una nueva que ya incluye
+     * las escrituras completadas antes de esta llamada. La carga no se lanza aquí: si
+     * antes llega el evento del change stream de esta misma escritura, éste la reutiliza.
+     */
+    public void invalidate() {
+        current.set(new Load());
+        // Las respuestas serializadas se reconstruyen a partir de la nueva instantánea
+        responseCache.invalidate(ResponseBodyCache.FARES);
+    }
+
+    private Mono<FareSnapshot> snapshot() {
+        return current.get().snapshot;
+    }
+
+    /**
+     * Recarga tras un cambio externo. Una carga que aún no empezó ya verá el cambio y se
+     * reutiliza; una en curso o terminada pudo leer antes del cambio y se reemplaza.
+     */
+    private Mono<FareSnapshot> refresh() {
+        Load load = current.updateAndGet(existing -> existing.started ? new Load() : existing);
+        responseCache.invalidate(ResponseBodyCache.FARES);
+        return load.snapshot
+                .onErrorResume(e -> {
+                    log.warn("No se pudo cargar la instantánea de tarifas: {}", e.getMessage());
+                    return Mono.empty();
+                });
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void watchChanges() {
+        refresh().subscribe();
+        String collection = mongoTemplate.getCollectionName(Fare.class);
+        AtomicBoolean reconnecting = new AtomicBoolean();
+
+        Flux<Object> changes = Flux.defer(() -> {
+                    Flux<Object> events = mongoTemplate
+                            .changeStream(null, collection, ChangeStreamOptions.empty(), Fare.class)
+                            .cast(Object.class);
+                    // Los cambios ocurridos mientras el stream estuvo caído no llegan como eventos
+                    return reconnecting.getAndSet(true) ? events.startWith(collection) : events;
+                })
+                .doOnSubscribe(s -> log.info("Escuchando cambios de la colección {}", collection))
+                .retryWhen(ChangeStreams.retry(collection))
+                .onErrorResume(e -> {
+                    log.warn("Change stream no disponible en {} ({}); sondeo cada {}", collection, e.getMessage(), pollInterval);
+                    return Flux.interval(pollInterval, pollInterval);
+                });
+
+        // Una ráfaga de cambios (p. ej. una actualización masiva) se reduce a la carga en
+        // curso más una sola carga posterior con el último cambio
+        watcher = changes
+                .onBackpressureLatest()
+                .concatMap(change -> refresh(), 0)
+                .subscribe();
+    }
+
+    @PreDestroy
+    void stopWatching() {
+        Disposable disposable = watcher;
+        if (disposable != null) {
+            disposable.dispose();
+        }
+    }
+
+    /**
+     * Carga perezosa y compartida de una instantánea; started indica si ya consultó la colección
+     */
+    private final class Load {
+
+        private volatile boolean started;
+
+        private final Mono<FareSnapshot> snapshot = Mono.defer(() -> {
+                    started = true;
+                    return fareRepository.findAll().collectList();
+                })
+                .map(FareSnapshot::of)
+                .doOnNext(loaded -> log.debug("Instantánea de tarifas cargada: {} tarifas", loaded.all().size()))
+                // Los errores no se cachean: la siguiente lectura vuelve a intentar
+                .cache(loaded -> Duration.ofMillis(Long.MAX_VALUE), error -> Duration.ZERO, () -> Duration.ZERO);
+    }
+
+    /**
+     * Instantánea inmutable; las tarifas se comparten entre lecturas y no deben modificarse
+     */
+    static final class FareSnapshot {
+
+        private final List<Fare> all;
+        private final Map<String, Fare> byId;
+        private final Map<String, List<Fare>> byStatus;
+        private final Map<String, List<Fare>> byOrganization;
+        private final Map<String, Map<String, List<Fare>>> byOrganizationAndStatus;
+
+        private FareSnapshot(List<Fare> all, Map<String, Fare> byId, Map<String, List<Fare>> byStatus,
+                             Map<String, List<Fare>> byOrganization,
+                             Map<String, Map<String, List<Fare>>> byOrganizationAndStatus) {
+            this.all = all;
+            this.byId = byId;
+            this.byStatus = byStatus;
+            this.byOrganization = byOrganization;
+            this.byOrganizationAndStatus = byOrganizationAndStatus;
+        }
+
+        static FareSnapshot of(List<Fare> fares) {
+            Map<String, Fare> byId = new HashMap<>();
+            Map<String, List<Fare>> byStatus = new HashMap<>();
+            Map<String, List<Fare>> byOrganization = new HashMap<>();
+            Map<String, Map<String, List<Fare>>> byOrganizationAndStatus = new HashMap<>();
+
+            for (Fare fare : fares) {
+                byId.put(fare.getId(), fare);
+                byStatus.computeIfAbsent(fare.getStatus(), key -> new ArrayList<>()).add(fare);
+                byOrganization.computeIfAbsent(fare.getOrganizationId(), key -> new ArrayList<>()).add(fare);
+                byOrganizationAndStatus.computeIfAbsent(fare.getOrganizationId(), key -> new HashMap<>())
+                        .computeIfAbsent(fare.getStatus(), key -> new ArrayList<>()).add(fare);
+            }
+
+            Map<String, Map<String, List<Fare>>> nested = new LinkedHashMap<>();
+            byOrganizationAndStatus.forEach((organizationId, statuses) -> nested.put(organizationId, freeze(statuses)));
+
+            return new FareSnapshot(List.copyOf(fares), Collections.unmodifiableMap(byId), freeze(byStatus),
+                    freeze(byOrganization), Collections.unmodifiableMap(nested));
+        }
+
+        List<Fare> all() {
+            return all;
+        }
+
+        Fare byId(String id) {
+            return id != null ? byId.get(id) : null;
+        }
+
+        List<Fare> byStatus(String status) {
+            return byStatus.getOrDefault(status, List.of());
+        }
+
+        List<Fare> byOrganization(String organizationId, String status) {
+            if (status == null || status.isBlank()) {
+                return byOrganization.getOrDefault(organizationId, List.of());
+            }
+            return byOrganizationAndStatus.getOrDefault(organizationId, Map.of()).getOrDefault(status, List.of());
+        }
+
+        private static Map<String, List<Fare>> freeze(Map<String, List<Fare>> source) {
+            Map<String, List<Fare>> frozen = new HashMap<>();
+            source.forEach((key, value) -> frozen.put(key, List.copyOf(value)));
+            return Collections.unmodifiableMap(frozen);
+        }
+    }
+}
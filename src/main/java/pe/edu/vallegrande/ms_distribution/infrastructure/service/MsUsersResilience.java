@@ -0,0 +1,176 @@
+package pe.edu.vallegrande.ms_distribution.infrastructure.service;
+
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.reactor.bulkhead.operator.BulkheadOperator;
+import io.github.resilience4j.reactor.circuitbreaker.operator.CircuitBreakerOperator;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import pe.edu.vallegrande.ms_distribution.application.config.ExternalApiProperties;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Capa de resiliencia para las llamadas a MS-USERS:
+ * circuit breaker compartido (con half-open), bulkhead de concurrencia por endpoint
+ * y, opcionalmente, una segunda petición "hedged" tras un retardo derivado del p95.
+ * El estado del circuito y de los bulkheads se exporta a Micrometer desde resilience4j;
+ * cada llamada, incluidas las rechazadas por el circuito o el bulkhead, se mide en
+ * ms_users.client.requests por endpoint, resultado y organización.
+ */
+@Slf4j
+@Component
+public class MsUsersResilience {
+
+    public static final String CIRCUIT_BREAKER = "msUsers";
+    public static final String REQUESTS_METRIC = "ms_users.client.requests";
+
+    private final CircuitBreaker circuitBreaker;
+    private final BulkheadRegistry bulkheadRegistry;
+    private final MeterRegistry meterRegistry;
+    private final OrganizationTags organizationTags;
+    private final ExternalApiProperties.MsUsers.Hedging hedging;
+
+    private final Map<String, Timer> latencyTimers = new ConcurrentHashMap<>();
+    private final Map<String, Counter> hedgeCounters = new ConcurrentHashMap<>();
+
+    public MsUsersResilience(CircuitBreakerRegistry circuitBreakerRegistry,
+                             BulkheadRegistry bulkheadRegistry,
+                             MeterRegistry meterRegistry,
+                             OrganizationTags organizationTags,
+                             ExternalApiProperties externalApiProperties) {
+        this.circuitBreaker = circuitBreakerRegistry.circuitBreaker(CIRCUIT_BREAKER);
+        this.bulkheadRegistry = bulkheadRegistry;
+        this.meterRegistry = meterRegistry;
+        this.organizationTags = organizationTags;
+        this.hedging = externalApiProperties.getMsUsers().getHedging();
+    }
+
+    /**
+     * Ejecuta una llamada idempotente a MS-USERS protegida por bulkhead y circuit breaker.
+     *
+     * @param endpoint       nombre lógico del endpoint (admins, users, clients, user-by-id)
+     * @param organizationId organización consultada, o null si la llamada no es por organización
+     * @param call           fábrica de la llamada; se invoca una vez por intento
+     */
+    public <T> Mono<T> execute(String endpoint, String organizationId, Supplier<Mono<T>> call) {
+        Bulkhead bulkhead = bulkheadRegistry.bulkhead(bulkheadName(endpoint));
+
+        Mono<T> protectedCall = hedged(endpoint, bulkhead, () -> timed(endpoint, call.get()))
+                .transformDeferred(CircuitBreakerOperator.of(circuitBreaker));
+        return ReactiveTimings.timed(protectedCall, requestRecorder(endpoint, organizationId));
+    }
+
+    /**
+     * Variante para respuestas por streaming: sin hedging, ya que no se puede
+     * descartar un flujo que ya empezó a emitir elementos.
+     */
+    public <T> Flux<T> executeMany(String endpoint, String organizationId, Supplier<Flux<T>> call) {
+        Bulkhead bulkhead = bulkheadRegistry.bulkhead(bulkheadName(endpoint));
+
+        Flux<T> protectedCall = Flux.defer(call)
+                .transformDeferred(BulkheadOperator.of(bulkhead))
+                .transformDeferred(CircuitBreakerOperator.of(circuitBreaker));
+        return ReactiveTimings.timed(protectedCall, requestRecorder(endpoint, organizationId));
+    }
+
+    public CircuitBreaker.State circuitState() {
+        return circuitBreaker.getState();
+    }
+
+    /**
+     * Cada intento ocupa su propio permiso del bulkhead, así el límite de concurrencia cuenta
+     * también las peticiones hedged; si al vencer el retardo no queda permiso, el segundo
+     * intento no se lanza y se sigue esperando al primario
+     */
+    private <T> Mono<T> hedged(String endpoint, Bulkhead bulkhead, Supplier<Mono<T>> attempt) {
+        Mono<T> primary = Mono.defer(attempt).transformDeferred(BulkheadOperator.of(bulkhead));
+        if (!hedging.isEnabled()) {
+            return primary;
+        }
+        Duration delay = hedgeDelay(endpoint);
+        Mono<T> hedge = Mono.delay(delay)
+                .flatMap(tick -> {
+                    if (!bulkhead.tryAcquirePermission()) {
+                        return Mono.never();
+                    }
+                    hedgeCounter(endpoint).increment();
+                    // El permiso se libera antes de propagar la señal, como hace BulkheadOperator
+                    return Mono.defer(attempt)
+                            .doOnTerminate(bulkhead::onComplete)
+                            .doOnCancel(bulkhead::onComplete);
+                });
+
+        // Gana la primera señal: un error rápido del primario no espera al segundo intento
+        return Mono.firstWithSignal(primary, hedge);
+    }
+
+    /**
+     * Retardo antes del segundo intento: p95 observado, acotado a [minDelay, maxDelay]
+     */
+    Duration hedgeDelay(String endpoint) {
+        long p95Nanos = 0;
+        for (ValueAtPercentile value : latencyTimer(endpoint).takeSnapshot().percentileValues()) {
+            if (value.percentile() == 0.95) {
+                p95Nanos = (long) value.value(TimeUnit.NANOSECONDS);
+            }
+        }
+        Duration p95 = Duration.ofNanos(p95Nanos);
+        if (p95.compareTo(hedging.getMinDelay()) < 0) {
+            return hedging.getMinDelay();
+        }
+        return p95.compareTo(hedging.getMaxDelay()) > 0 ? hedging.getMaxDelay() : p95;
+    }
+
+    private <T> Mono<T> timed(String endpoint, Mono<T> call) {
+        return Mono.defer(() -> {
+            long start = System.nanoTime();
+            return call.doOnSuccess(value -> latencyTimer(endpoint).record(System.nanoTime() - start, TimeUnit.NANOSECONDS));
+        });
+    }
+
+    private Timer latencyTimer(String endpoint) {
+        return latencyTimers.computeIfAbsent(endpoint, key -> Timer.builder("ms_users.client.latency")
+                .description("Latencia de respuestas exitosas de MS-USERS")
+                .tag("endpoint", key)
+                .publishPercentiles(0.95)
+                .register(meterRegistry));
+    }
+
+    private ReactiveTimings.Recorder requestRecorder(String endpoint, String organizationId) {
+        String organization = organizationTags.of(organizationId);
+        return (nanos, outcome, error) -> Timer.builder(REQUESTS_METRIC)
+                .description("Duración de las llamadas a MS-USERS por resultado")
+                .tag("endpoint", endpoint)
+                .tag("outcome", outcome)
+                .tag(OrganizationTags.TAG, organization)
+                .publishPercentileHistogram()
+                .minimumExpectedValue(Duration.ofMillis(1))
+                .maximumExpectedValue(Duration.ofSeconds(30))
+                .register(meterRegistry)
+                .record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    private Counter hedgeCounter(String endpoint) {
+        return hedgeCounters.computeIfAbsent(endpoint, key -> Counter.builder("ms_users.client.hedged")
+                .description("Segundas peticiones lanzadas por hedging")
+                .tag("endpoint", key)
+                .register(meterRegistry));
+    }
+
+    private static String bulkheadName(String endpoint) {
+        return CIRCUIT_BREAKER + "-" + endpoint;
+    }
+}
@@ -0,0 +1,204 @@
+package pe.edu.vallegrande.ms_distribution.infrastructure.service;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.async.ByteBufferFeeder;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.util.TokenBuffer;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.stereotype.Component;
+import pe.edu.vallegrande.ms_distribution.infrastructure.exception.CustomException;
+import reactor.core.publisher.Flux;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Decodificador por streaming del sobre {"success", "message", "data": [...]} de MS-USERS.
+ * Lee los tokens directamente de los buffers de Netty y emite cada elemento de "data"
+ * en cuanto se completa, sin materializar la lista ni pasar por árboles intermedios.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class MsUsersResponseDecoder {
+
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Emite los elementos de "data" deserializados al tipo indicado. Sólo se emiten cuando el
+     * sobre indica success=true; si "data" llega antes que "success" se retienen hasta conocerlo
+     *
+     * @param body        cuerpo de la respuesta tal como llega de la red
+     * @param elementType tipo de cada elemento de "data"
+     */
+    public <T> Flux<T> decodeData(Flux<DataBuffer> body, Class<T> elementType) {
+        return Flux.defer(() -> {
+            EnvelopeParser<T> envelope = new EnvelopeParser<>(elementType);
+            return body
+                    .concatMapIterable(buffer -> {
+                        try {
+                            return envelope.feed(buffer);
+                        } finally {
+                            DataBufferUtils.release(buffer);
+                        }
+                    })
+                    .concatWith(Flux.defer(() -> Flux.fromIterable(envelope.endOfInput())))
+                    .doOnDiscard(DataBuffer.class, DataBufferUtils::release)
+                    .doFinally(signal -> envelope.close());
+        });
+    }
+
+    /**
+     * Estado del parseo de una respuesta; no es thread-safe, se crea uno por suscripción
+     */
+    private final class EnvelopeParser<T> {
+
+        private final ObjectReader reader;
+        private final JsonParser parser;
+        private final ByteBufferFeeder feeder;
+
+        private int depth;
+        private String field;
+        private boolean inData;
+        private TokenBuffer element;
+        private int elementDepth;
+        private Boolean success;
+        private String message;
+        private final List<T> pending = new ArrayList<>();
+
+        private EnvelopeParser(Class<T> elementType) {
+            this.reader = objectMapper.readerFor(elementType);
+            try {
+                this.parser = objectMapper.getFactory().createNonBlockingByteBufferParser();
+            } catch (IOException e) {
+                throw new IllegalStateException("No se pudo crear el parser de MS-USERS", e);
+            }
+            this.feeder = (ByteBufferFeeder) parser.getNonBlockingInputFeeder();
+        }
+
+        List<T> feed(DataBuffer buffer) {
+            List<T> decoded = new ArrayList<>();
+            try (DataBuffer.ByteBufferIterator iterator = buffer.readableByteBuffers()) {
+                while (iterator.hasNext()) {
+                    ByteBuffer chunk = iterator.next();
+                    feeder.feedInput(chunk);
+                    drain(decoded);
+                }
+            } catch (IOException e) {
+                throw invalidResponse(e);
+            }
+            return decoded;
+        }
+
+        List<T> endOfInput() {
+            List<T> decoded = new ArrayList<>();
+            feeder.endOfInput();
+            try {
+                drain(decoded);
+            } catch (IOException e) {
+                throw invalidResponse(e);
+            }
+            if (!Boolean.TRUE.equals(success)) {
+                log.warn("Respuesta de API sin éxito: {}", message);
+                pending.clear();
+            }
+            return decoded;
+        }
+
+        void close() {
+            try {
+                parser.close();
+            } catch (IOException e) {
+                log.debug("No se pudo cerrar el parser de MS-USERS: {}", e.getMessage());
+            }
+        }
+
+        private void drain(List<T> decoded) throws IOException {
+            JsonToken token;
+            while ((token = parser.nextToken()) != null && token != JsonToken.NOT_AVAILABLE) {
+                handle(token, decoded);
+            }
+        }
+
+        private void handle(JsonToken token, List<T> decoded) throws IOException {
+            if (element != null) {
+                element.copyCurrentEvent(parser);
+                if (token.isStructStart()) {
+                    elementDepth++;
+                } else if (token.isStructEnd()) {
+                    elementDepth--;
+                }
+                if (elementDepth == 0) {
+                    emit(decoded);
+                }
+                return;
+            }
+            if (inData) {
+                if (token == JsonToken.END_ARRAY) {
+                    inData = false;
+                    depth--;
+                    return;
+                }
+                element = new TokenBuffer(parser);
+                element.copyCurrentEvent(parser);
+                elementDepth = token.isStructStart() ? 1 : 0;
+                if (elementDepth == 0) {
+                    emit(decoded);
+                }
+                return;
+            }
+            if (token.isStructStart()) {
+                inData = depth == 1 && token == JsonToken.START_ARRAY && "data".equals(field);
+                depth++;
+                return;
+            }
+            if (token.isStructEnd()) {
+                depth--;
+                return;
+            }
+            if (depth != 1) {
+                return;
+            }
+            if (token == JsonToken.FIELD_NAME) {
+                field = parser.currentName();
+            } else if ("success".equals(field)) {
+                success = token == JsonToken.VALUE_TRUE;
+                if (success) {
+                    decoded.addAll(pending);
+                }
+                pending.clear();
+            } else if ("message".equals(field)) {
+                message = parser.getValueAsString();
+            }
+        }
+
+        private void emit(List<T> decoded) throws IOException {
+            // Con success=false los elementos se descartan sin deserializarlos
+            if (Boolean.FALSE.equals(success)) {
+                element = null;
+                return;
+            }
+            try (JsonParser elementParser = element.asParser()) {
+                T value = reader.readValue(elementParser);
+                if (value != null) {
+                    (success == null ? pending : decoded).add(value);
+                }
+            } finally {
+                element = null;
+            }
+        }
+
+        private CustomException invalidResponse(IOException e) {
+            log.error("Respuesta inválida de MS-USERS: {}", e.getMessage());
+            return new CustomException(502, "MS_USERS_INVALID_RESPONSE",
+                    "No se pudo leer la respuesta de MS-USERS: " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,258 @@
+package pe.edu.vallegrande.ms_distribution.infrastructure.service;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.async.ByteBufferFeeder;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.stereotype.Component;
+import pe.edu.vallegrande.ms_distribution.infrastructure.exception.CustomException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Reenvío por streaming de las respuestas de MS-USERS sin construir objetos Java.
+ * Sin proyección y en JSON, los buffers de la respuesta se reenvían tal cual (zero-copy);
+ * con proyección o en NDJSON, los tokens se copian del parser al generador uno a uno.
+ */
+@Slf4j
+@Component
+public class MsUsersStreamRelay {
+
+    private final JsonFactory jsonFactory;
+
+    public MsUsersStreamRelay(ObjectMapper objectMapper) {
+        this.jsonFactory = objectMapper.getFactory();
+    }
+
+    /**
+     * Convierte el parámetro fields ("id,firstName") en el conjunto de campos a conservar
+     */
+    public static Set<String> parseFields(String fields) {
+        if (fields == null || fields.isBlank()) {
+            return Set.of();
+        }
+        return Arrays.stream(fields.split(","))
+                .map(String::trim)
+                .filter(field -> !field.isEmpty())
+                .collect(Collectors.toUnmodifiableSet());
+    }
+
+    /**
+     * @param upstream      cuerpo de la respuesta de MS-USERS
+     * @param fields        campos a conservar de cada elemento de "data"; vacío conserva todos
+     * @param ndjson        true emite un elemento de "data" por línea; false conserva el sobre original
+     * @param bufferFactory fábrica de buffers de la respuesta de salida
+     */
+    public Flux<DataBuffer> relay(Flux<DataBuffer> upstream, Set<String> fields, boolean ndjson,
+                                  DataBufferFactory bufferFactory) {
+        if (!ndjson && fields.isEmpty()) {
+            return upstream;
+        }
+        return Flux.defer(() -> {
+            TokenRelay relay = new TokenRelay(fields, ndjson, bufferFactory);
+            return upstream
+                    .concatMap(buffer -> {
+                        try {
+                            return Mono.justOrEmpty(relay.feed(buffer));
+                        } finally {
+                            DataBufferUtils.release(buffer);
+                        }
+                    })
+                    .concatWith(Mono.defer(() -> Mono.justOrEmpty(relay.endOfInput())))
+                    .doOnDiscard(DataBuffer.class, DataBufferUtils::release);
+        });
+    }
+
+    /**
+     * Estado de un reenvío; se crea uno por suscripción
+     */
+    private final class TokenRelay {
+
+        private final Set<String> fields;
+        private final boolean ndjson;
+        private final DataBufferFactory bufferFactory;
+        private final JsonParser parser;
+        private final ByteBufferFeeder feeder;
+        private final BufferOutput output = new BufferOutput();
+        private final JsonGenerator generator;
+
+        private int depth;
+        private String field;
+        private boolean inData;
+        private int elementDepth;
+        private boolean skipping;
+        private int skipDepth;
+
+        private TokenRelay(Set<String> fields, boolean ndjson, DataBufferFactory bufferFactory) {
+            this.fields = fields;
+            this.ndjson = ndjson;
+            this.bufferFactory = bufferFactory;
+            try {
+                this.parser = jsonFactory.createNonBlockingByteBufferParser();
+                this.generator = jsonFactory.createGenerator(output);
+            } catch (IOException e) {
+                throw new IllegalStateException("No se pudo iniciar el reenvío de MS-USERS", e);
+            }
+            this.feeder = (ByteBufferFeeder) parser.getNonBlockingInputFeeder();
+            // En NDJSON cada elemento se termina con salto de línea; no se usa separador entre raíces
+            this.generator.setRootValueSeparator(null);
+        }
+
+        DataBuffer feed(DataBuffer buffer) {
+            output.target = bufferFactory.allocateBuffer(buffer.readableByteCount());
+            try (DataBuffer.ByteBufferIterator iterator = buffer.readableByteBuffers()) {
+                while (iterator.hasNext()) {
+                    ByteBuffer chunk = iterator.next();
+                    feeder.feedInput(chunk);
+                    drain();
+                }
+                generator.flush();
+            } catch (IOException e) {
+                DataBufferUtils.release(output.target);
+                throw invalidResponse(e);
+            }
+            return output.take();
+        }
+
+        DataBuffer endOfInput() {
+            output.target = bufferFactory.allocateBuffer(256);
+            feeder.endOfInput();
+            try {
+                drain();
+                generator.close();
+            } catch (IOException e) {
+                DataBufferUtils.release(output.target);
+                throw invalidResponse(e);
+            }
+            return output.take();
+        }
+
+        private void drain() throws IOException {
+            JsonToken token;
+            while ((token = parser.nextToken()) != null && token != JsonToken.NOT_AVAILABLE) {
+                handle(token);
+            }
+        }
+
+        private void handle(JsonToken token) throws IOException {
+            if (inData && elementDepth > 0) {
+                handleElementToken(token);
+                return;
+            }
+            if (inData) {
+                if (token == JsonToken.END_ARRAY) {
+                    inData = false;
+                    depth--;
+                    writeEnvelope();
+                    return;
+                }
+                // Inicio de un elemento de "data"
+                elementDepth = token.isStructStart() ? 1 : 0;
+                generator.copyCurrentEvent(parser);
+                if (elementDepth == 0) {
+                    endElement();
+                }
+                return;
+            }
+            if (token.isStructStart()) {
+                inData = depth == 1 && token == JsonToken.START_ARRAY && "data".equals(field);
+                depth++;
+            } else if (token.isStructEnd()) {
+                depth--;
+            } else if (token == JsonToken.FIELD_NAME && depth == 1) {
+                field = parser.currentName();
+            }
+            writeEnvelope();
+        }
+
+        private void handleElementToken(JsonToken token) throws IOException {
+            if (skipping) {
+                if (token.isStructStart()) {
+                    skipDepth++;
+                } else if (token.isStructEnd()) {
+                    skipDepth--;
+                }
+                skipping = skipDepth > 0;
+                return;
+            }
+            if (elementDepth == 1 && token == JsonToken.FIELD_NAME
+                    && !fields.isEmpty() && !fields.contains(parser.currentName())) {
+                // Se descarta el nombre y el valor que le sigue, sea escalar u objeto
+                skipping = true;
+                skipDepth = 0;
+                return;
+            }
+            if (token.isStructStart()) {
+                elementDepth++;
+            } else if (token.isStructEnd()) {
+                elementDepth--;
+            }
+            generator.copyCurrentEvent(parser);
+            if (elementDepth == 0) {
+                endElement();
+            }
+        }
+
+        private void endElement() throws IOException {
+            if (ndjson) {
+                generator.writeRaw('\n');
+            }
+        }
+
+        /**
+         * Tokens fuera de "data": solo forman parte de la salida cuando se conserva el sobre
+         */
+        private void writeEnvelope() throws IOException {
+            if (!ndjson) {
+                generator.copyCurrentEvent(parser);
+            }
+        }
+
+        private CustomException invalidResponse(IOException e) {
+            log.error("Respuesta inválida de MS-USERS: {}", e.getMessage());
+            return new CustomException(502, "MS_USERS_INVALID_RESPONSE",
+                    "No se pudo leer la respuesta de MS-USERS: " + e.getMessage());
+        }
+    }
+
+    /**
+     * OutputStream que escribe en el DataBuffer de salida del fragmento actual
+     */
+    private static final class BufferOutput extends OutputStream {
+
+        private DataBuffer target;
+
+        @Override
+        public void write(int b) {
+            target.write((byte) b);
+        }
+
+        @Override
+        public void write(byte[] bytes, int offset, int length) {
+            target.write(bytes, offset, length);
+        }
+
+        DataBuffer take() {
+            DataBuffer buffer = target;
+            target = null;
+            if (buffer.readableByteCount() == 0) {
+                DataBufferUtils.release(buffer);
+                return null;
+            }
+            return buffer;
+        }
+    }
+}
@@ -1,10 +1,19 @@
 package pe.edu.vallegrande.ms_distribution.infrastructure.service;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.github.benmanes.caffeine.cache.AsyncLoadingCache;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.web.reactive.function.client.WebClient;
@@ -17,8 +26,11 @@ import reactor.core.publisher.Mono;
 import reactor.util.retry.Retry;
 
 import java.time.Duration;
+import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 /**
  * Servicio para consultar información de organizaciones y usuarios
@@ -29,10 +41,19 @@ import java.util.Map;
 @RequiredArgsConstructor
 public class OrganizationService {
 
+    private static final ParameterizedTypeReference<MsUsersApiResponse<AdminUserResponse>> ADMINS_RESPONSE =
+            new ParameterizedTypeReference<>() {};
+
     @Qualifier("msUsersWebClient")
     private final WebClient msUsersWebClient;
-    
-    private final ObjectMapper objectMapper;
+
+    private final MsUsersResponseDecoder responseDecoder;
+
+    private final MsUsersStreamRelay streamRelay;
+
+    private final MeterRegistry meterRegistry;
+
+    private final MsUsersResilience resilience;
 
     @Value("${external.apis.ms-users.endpoints.admins}")
     private String adminsEndpoint;
@@ -46,32 +67,103 @@ public class OrganizationService {
     @Value("${external.apis.ms-users.endpoints.user-by-id}")
     private String userByIdEndpoint;
 
+    @Value("${external.apis.ms-users.cache.ttl:PT5M}")
+    private Duration cacheTtl;
+
+    @Value("${external.apis.ms-users.cache.refresh-after:PT1M}")
+    private Duration cacheRefreshAfter;
+
+    @Value("${external.apis.ms-users.cache.max-size:1000}")
+    private long cacheMaxSize;
+
+    @Value("${external.apis.ms-users.cache.stale-ttl:PT24H}")
+    private Duration cacheStaleTtl;
+
+    // Administradores por organización: TTL + tamaño máximo, refresco anticipado y
+    // una sola llamada a MS-USERS aunque lleguen N consultas concurrentes
+    private AsyncLoadingCache<String, AdminDirectory> adminsCache;
+
+    // Última respuesta válida por organización, servida si MS-USERS no está disponible
+    private Cache<String, AdminDirectory> staleAdmins;
+
+    @PostConstruct
+    void initAdminsCache() {
+        staleAdmins = Caffeine.newBuilder()
+                .maximumSize(cacheMaxSize)
+                .expireAfterWrite(cacheStaleTtl)
+                .build();
+        adminsCache = Caffeine.newBuilder()
+                .maximumSize(cacheMaxSize)
+                .expireAfterWrite(cacheTtl)
+                .refreshAfterWrite(cacheRefreshAfter)
+                .recordStats()
+                .buildAsync((organizationId, executor) -> loadAdminDirectory(organizationId).toFuture());
+        CaffeineCacheMetrics.monitor(meterRegistry, adminsCache, "ms-users.admins");
+    }
+
+    private Mono<AdminDirectory> loadAdminDirectory(String organizationId) {
+        return fetchAuthorizedAdmins(organizationId)
+                .collectList()
+                .map(AdminDirectory::of)
+                .doOnNext(directory -> staleAdmins.put(organizationId, directory))
+                .onErrorResume(error -> {
+                    // Los errores de negocio (404) se propagan; los de disponibilidad usan el último valor conocido
+                    AdminDirectory stale = error instanceof CustomException ? null : staleAdmins.getIfPresent(organizationId);
+                    if (stale == null) {
+                        return Mono.error(error);
+                    }
+                    log.warn("MS-USERS no disponible ({}), sirviendo administradores en caché para organización {}",
+                            error.getClass().getSimpleName(), organizationId);
+                    return Mono.just(stale);
+                });
+    }
+
     /**
-     * Obtiene la lista de administradores autorizados por organización
+     * Obtiene la lista de administradores autorizados por organización (cacheada)
      * 
      * @param organizationId ID de la organización
      * @return Flux de usuarios administradores
      */
     public Flux<AdminUserResponse> getAuthorizedAdminsByOrganization(String organizationId) {
+        return getAdminDirectory(organizationId)
+                .flatMapIterable(AdminDirectory::admins);
+    }
+
+    /**
+     * Índice de administradores de la organización (id → admin, rol → ids)
+     */
+    public Mono<AdminDirectory> getAdminDirectory(String organizationId) {
+        // suppressCancel: cancelar un suscriptor no debe cancelar la carga compartida.
+        // La carga lleva el contexto de Reactor de quien la dispara, para que la llamada a
+        // MS-USERS quede en su traza; los refrescos en segundo plano usan el cargador por defecto.
+        return Mono.deferContextual(context -> Mono.fromFuture(adminsCache.get(organizationId,
+                (key, executor) -> loadAdminDirectory(key).contextWrite(context).toFuture()), true));
+    }
+
+    /**
+     * Elimina de la caché los administradores de una organización
+     */
+    public void evictAuthorizedAdmins(String organizationId) {
+        adminsCache.synchronous().invalidate(organizationId);
+    }
+
+    private Flux<AdminUserResponse> fetchAuthorizedAdmins(String organizationId) {
         log.debug("Obteniendo administradores autorizados para organización: {}", organizationId);
         
-        var request = msUsersWebClient
-                .get()
-                .uri(adminsEndpoint, organizationId);
-                
-        return request
-                .retrieve()
-                .onStatus(HttpStatus.NOT_FOUND::equals, response -> {
-                    log.warn("Organización no encontrada: {}", organizationId);
-                    return Mono.error(new CustomException(404, "ORGANIZATION_NOT_FOUND", 
-                            "No se encontró la organización: " + organizationId));
-                })
-                .bodyToMono(MsUsersApiResponse.class)
+        return resilience.execute("admins", organizationId, () -> msUsersWebClient
+                        .get()
+                        .uri(adminsEndpoint, organizationId)
+                        .retrieve()
+                        .onStatus(HttpStatus.NOT_FOUND::equals, response -> {
+                            log.warn("Organización no encontrada: {}", organizationId);
+                            return Mono.error(new CustomException(404, "ORGANIZATION_NOT_FOUND", 
+                                    "No se encontró la organización: " + organizationId));
+                        })
+                        .bodyToMono(ADMINS_RESPONSE))
                 .flatMapMany(response -> {
-                    if (response.getSuccess() && response.getData() != null) {
-                        return Flux.fromIterable(response.getData())
-                                .cast(Map.class)
-                                .map(map -> mapToAdminUserResponse((Map<String, Object>) map));
+                    // El sobre se decodifica directamente al tipo final, sin mapas intermedios
+                    if (Boolean.TRUE.equals(response.getSuccess()) && response.getData() != null) {
+                        return Flux.fromIterable(response.getData());
                     } else {
                         log.warn("Respuesta de API sin éxito: {}", response.getMessage());
                         return Flux.empty();
@@ -93,13 +185,32 @@ public class OrganizationService {
     public Mono<Boolean> isAuthorizedAdmin(String organizationId, String userId) {
         log.debug("Verificando si usuario {} es admin autorizado de organización {}", userId, organizationId);
         
-        return getAuthorizedAdminsByOrganization(organizationId)
-                .any(admin -> userId.equals(admin.getId()))
+        return getAdminDirectory(organizationId)
+                .map(directory -> directory.contains(userId))
                 .doOnNext(isAuthorized -> log.debug("Usuario {} {} autorizado para organización {}", 
                         userId, isAuthorized ? "es" : "no es", organizationId))
                 .onErrorReturn(false);
     }
 
+    /**
+     * Verifica en una sola consulta qué usuarios son administradores autorizados
+     * 
+     * @param organizationId ID de la organización
+     * @param userIds IDs de los usuarios a verificar
+     * @return Mono con el resultado por usuario
+     */
+    public Mono<Map<String, Boolean>> areAuthorizedAdmins(String organizationId, Collection<String> userIds) {
+        log.debug("Verificando {} usuarios como admins autorizados de organización {}", userIds.size(), organizationId);
+
+        return getAdminDirectory(organizationId)
+                .onErrorReturn(AdminDirectory.of(List.of()))
+                .map(directory -> {
+                    Map<String, Boolean> result = new LinkedHashMap<>();
+                    userIds.forEach(userId -> result.put(userId, directory.contains(userId)));
+                    return result;
+                });
+    }
+
     /**
      * Obtiene un administrador específico por su ID y organización
      * 
@@ -110,9 +221,8 @@ public class OrganizationService {
     public Mono<AdminUserResponse> getAdminById(String organizationId, String adminId) {
         log.debug("Buscando administrador {} en organización {}", adminId, organizationId);
         
-        return getAuthorizedAdminsByOrganization(organizationId)
-                .filter(admin -> adminId.equals(admin.getId()))
-                .next()
+        return getAdminDirectory(organizationId)
+                .mapNotNull(directory -> directory.get(adminId))
                 .switchIfEmpty(Mono.error(new CustomException(404, "ADMIN_NOT_FOUND", 
                         "Administrador no encontrado o no autorizado")));
     }
@@ -126,8 +236,8 @@ public class OrganizationService {
     public Mono<Boolean> organizationExists(String organizationId) {
         log.debug("Verificando existencia de organización: {}", organizationId);
         
-        return getAuthorizedAdminsByOrganization(organizationId)
-                .hasElements()
+        return getAdminDirectory(organizationId)
+                .map(directory -> !directory.isEmpty())
                 .doOnNext(exists -> log.debug("Organización {} {}", organizationId, 
                         exists ? "existe" : "no existe"))
                 .onErrorReturn(false);
@@ -136,77 +246,76 @@ public class OrganizationService {
     /**
      * Obtiene usuarios de una organización desde /internal/organizations/{organizationId}/users
      */
-    public Flux<Object> getOrganizationUsers(String organizationId) {
+    public Flux<JsonNode> getOrganizationUsers(String organizationId) {
         log.debug("Obteniendo usuarios de organización: {}", organizationId);
         
-        var request = msUsersWebClient
-                .get()
-                .uri(usersEndpoint, organizationId);
-                
-        return request
-                .retrieve()
-                .bodyToMono(MsUsersApiResponse.class)
-                .flatMapMany(response -> {
-                    if (response.getSuccess() && response.getData() != null) {
-                        return Flux.fromIterable(response.getData());
-                    } else {
-                        log.warn("Respuesta de API sin éxito: {}", response.getMessage());
-                        return Flux.empty();
-                    }
-                })
+        return resilience.executeMany("users", organizationId, () -> responseDecoder.decodeData(msUsersWebClient
+                        .get()
+                        .uri(usersEndpoint, organizationId)
+                        .retrieve()
+                        .bodyToFlux(DataBuffer.class), JsonNode.class))
                 .doOnError(error -> log.error("Error al obtener usuarios: {}", error instanceof Throwable ? ((Throwable)error).getMessage() : error.toString()));
     }
 
     /**
      * Obtiene clientes de una organización desde /internal/organizations/{organizationId}/clients
      */
-    public Flux<Object> getOrganizationClients(String organizationId) {
+    public Flux<JsonNode> getOrganizationClients(String organizationId) {
         log.debug("Obteniendo clientes de organización: {}", organizationId);
         
-        var request = msUsersWebClient
-                .get()
-                .uri(clientsEndpoint, organizationId);
-                
-        return request
-                .retrieve()
-                .bodyToMono(MsUsersApiResponse.class)
-                .flatMapMany(response -> {
-                    if (response.getSuccess() && response.getData() != null) {
-                        return Flux.fromIterable(response.getData());
-                    } else {
-                        log.warn("Respuesta de API sin éxito: {}", response.getMessage());
-                        return Flux.empty();
-                    }
-                })
+        return resilience.executeMany("clients", organizationId, () -> responseDecoder.decodeData(msUsersWebClient
+                        .get()
+                        .uri(clientsEndpoint, organizationId)
+                        .retrieve()
+                        .bodyToFlux(DataBuffer.class), JsonNode.class))
                 .doOnError(error -> log.error("Error al obtener clientes: {}", error instanceof Throwable ? ((Throwable)error).getMessage() : error.toString()));
     }
 
+    /**
+     * Reenvía la respuesta de usuarios de MS-USERS sin deserializarla
+     *
+     * @param fields campos a conservar de cada usuario; vacío conserva todos
+     * @param ndjson true para emitir un usuario por línea en lugar del sobre original
+     */
+    public Flux<DataBuffer> relayOrganizationUsers(String organizationId, Set<String> fields, boolean ndjson,
+                                                   DataBufferFactory bufferFactory) {
+        return relay("users", usersEndpoint, organizationId, fields, ndjson, bufferFactory);
+    }
+
+    /**
+     * Reenvía la respuesta de clientes de MS-USERS sin deserializarla
+     *
+     * @param fields campos a conservar de cada cliente; vacío conserva todos
+     * @param ndjson true para emitir un cliente por línea en lugar del sobre original
+     */
+    public Flux<DataBuffer> relayOrganizationClients(String organizationId, Set<String> fields, boolean ndjson,
+                                                     DataBufferFactory bufferFactory) {
+        return relay("clients", clientsEndpoint, organizationId, fields, ndjson, bufferFactory);
+    }
+
+    private Flux<DataBuffer> relay(String endpoint, String uri, String organizationId, Set<String> fields,
+                                   boolean ndjson, DataBufferFactory bufferFactory) {
+        log.debug("Reenviando {} de organización {} (campos: {}, ndjson: {})", endpoint, organizationId, fields, ndjson);
+
+        return resilience.executeMany(endpoint, organizationId, () -> streamRelay.relay(msUsersWebClient
+                        .get()
+                        .uri(uri, organizationId)
+                        .retrieve()
+                        .bodyToFlux(DataBuffer.class), fields, ndjson, bufferFactory))
+                .doOnError(error -> log.error("Error al reenviar {}: {}", endpoint, error.getMessage()));
+    }
+
     /**
      * Obtiene un usuario por su ID desde /internal/users/{userId}
      */
-    public Mono<Object> getUserById(String userId) {
+    public Mono<JsonNode> getUserById(String userId) {
         log.debug("Obteniendo usuario por ID: {}", userId);
         
-        var request = msUsersWebClient
-                .get()
-                .uri(userByIdEndpoint, userId);
-                
-        return request
-                .retrieve()
-                .bodyToMono(Object.class)
+        return resilience.execute("user-by-id", null, () -> msUsersWebClient
+                        .get()
+                        .uri(userByIdEndpoint, userId)
+                        .retrieve()
+                        .bodyToMono(JsonNode.class))
                 .doOnError(error -> log.error("Error al obtener usuario por ID: {}", error instanceof Throwable ? ((Throwable)error).getMessage() : error.toString()));
     }
-    
-    /**
-     * Mapea un Map (LinkedHashMap) a AdminUserResponse
-     */
-    private AdminUserResponse mapToAdminUserResponse(Map<String, Object> map) {
-        try {
-            return objectMapper.convertValue(map, AdminUserResponse.class);
-        } catch (Exception e) {
-            log.error("Error al mapear AdminUserResponse: {}", e.getMessage());
-            throw new CustomException(500, "MAPPING_ERROR", 
-                    "Error al mapear datos de administrador: " + e.getMessage());
-        }
-    }
 }
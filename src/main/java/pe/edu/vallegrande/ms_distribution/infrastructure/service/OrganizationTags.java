@@ -0,0 +1,43 @@
+package pe.edu.vallegrande.ms_distribution.infrastructure.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Set;
+
+/**
+ * Valor del tag "organization" de las métricas con cardinalidad acotada: las organizaciones
+ * configuradas conservan su id y el resto se reparte en "org-&lt;n&gt;" según un hash estable
+ * del id, así cada organización cae siempre en la misma serie (también tras reiniciar) y
+ * una organización nueva por petición no crea series sin límite en Prometheus.
+ */
+@Component
+public class OrganizationTags {
+
+    public static final String TAG = "organization";
+    public static final String NONE = "none";
+    public static final String BUCKET_PREFIX = "org-";
+
+    private final Set<String> tracked;
+    private final int buckets;
+
+    public OrganizationTags(@Value("${app.metrics.organizations.tracked:}") Set<String> tracked,
+                            @Value("${app.metrics.organizations.buckets:16}") int buckets) {
+        if (buckets < 1) {
+            throw new IllegalArgumentException("app.metrics.organizations.buckets must be at least 1");
+        }
+        this.tracked = Set.copyOf(tracked);
+        this.buckets = buckets;
+    }
+
+    public String of(String organizationId) {
+        if (organizationId == null || organizationId.isBlank()) {
+            return NONE;
+        }
+        if (tracked.contains(organizationId)) {
+            return organizationId;
+        }
+        // String.hashCode está definido por la especificación: igual en todas las instancias
+        return BUCKET_PREFIX + Math.floorMod(organizationId.hashCode(), buckets);
+    }
+}
@@ -0,0 +1,258 @@
+package pe.edu.vallegrande.ms_distribution.infrastructure.service;
+
+import com.mongodb.client.model.changestream.FullDocument;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.BsonValue;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.ChangeStreamEvent;
+import org.springframework.data.mongodb.core.ChangeStreamOptions;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import pe.edu.vallegrande.ms_distribution.domain.models.DistributionProgram;
+import pe.edu.vallegrande.ms_distribution.infrastructure.dto.response.ProgramChangeEvent;
+import pe.edu.vallegrande.ms_distribution.infrastructure.exception.CustomException;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Predicate;
+
+/**
+ * Difunde en tiempo real los cambios de estado y hora real de los programas.
+ * <p>
+ * Un único change stream sobre "programs" alimenta un búfer circular compartido con los
+ * últimos eventos. Cada suscriptor lleva su propio cursor sobre ese búfer y solo recibe
+ * avisos de que hay eventos nuevos (conflados), así que un consumidor lento no acumula
+ * memoria: si se queda por detrás del búfer recibe un evento "reset" y debe recargar.
+ * El id de cada evento es el resume token del change stream, igual en todas las
+ * instancias, por lo que Last-Event-ID sirve al reconectar a cualquiera de ellas.
+ */
+@Slf4j
+@Component
+public class ProgramChangeHub {
+
+    private static final List<String> TRACKED_FIELDS = List.of("status", "actualStartTime", "actualEndTime");
+
+    private final ReactiveMongoTemplate mongoTemplate;
+    private final int replaySize;
+    private final AtomicInteger subscribers = new AtomicInteger();
+    private final Counter resets;
+
+    // Avisos de "hay eventos hasta la secuencia N"; solo los emite el hilo del change stream
+    private final Sinks.Many<Long> signals = Sinks.many().multicast().directBestEffort();
+
+    // Búfer circular protegido por su propio monitor
+    private final ArrayDeque<Entry> recent = new ArrayDeque<>();
+    private long sequence;
+
+    private volatile BsonValue resumeToken;
+    private volatile boolean unavailable;
+    private volatile Disposable watcher;
+
+    public ProgramChangeHub(ReactiveMongoTemplate mongoTemplate, MeterRegistry meterRegistry,
+                            @Value("${app.programs.events.replay-size:1000}") int replaySize) {
+        this.mongoTemplate = mongoTemplate;
+        this.replaySize = replaySize;
+        this.resets = Counter.builder("programs.changes.resets")
+                .description("Suscriptores que perdieron eventos y deben recargar")
+                .register(meterRegistry);
+        Gauge.builder("programs.changes.subscribers", subscribers, AtomicInteger::get)
+                .description("Suscripciones SSE abiertas a cambios de programas")
+                .register(meterRegistry);
+    }
+
+    /**
+     * @param organizationId organización a la que se suscribe el cliente
+     * @param zoneId         zona concreta; null recibe todas las de la organización
+     * @param lastEventId    último id recibido antes de reconectar; null empieza por los eventos nuevos
+     */
+    public Flux<ProgramChangeEvent> subscribe(String organizationId, String zoneId, String lastEventId) {
+        Predicate<ProgramChangeEvent> filter = event -> organizationId.equals(event.getOrganizationId())
+                && (zoneId == null || zoneId.equals(event.getZoneId()));
+
+        return Flux.defer(() -> {
+                    if (unavailable) {
+                        return Flux.error(new CustomException(HttpStatus.SERVICE_UNAVAILABLE.value(), "Change stream unavailable",
+                                "Real-time program changes require a MongoDB replica set"));
+                    }
+                    Cursor cursor = new Cursor(lastEventId);
+                    // Primero se escuchan los avisos y luego se drena: no se pierde nada entre ambos
+                    return Flux.merge(signals.asFlux().onBackpressureLatest(), Mono.just(0L))
+                            .concatMapIterable(signal -> drain(cursor, filter), 1);
+                })
+                .doOnSubscribe(s -> subscribers.incrementAndGet())
+                .doFinally(signal -> subscribers.decrementAndGet());
+    }
+
+    /**
+     * Publica un cambio; el change stream lo llama de forma secuencial
+     */
+    void publish(ProgramChangeEvent event) {
+        long published;
+        synchronized (recent) {
+            published = ++sequence;
+            recent.addLast(new Entry(published, event));
+            while (recent.size() > replaySize) {
+                recent.removeFirst();
+            }
+        }
+        signals.tryEmitNext(published);
+    }
+
+    private List<ProgramChangeEvent> drain(Cursor cursor, Predicate<ProgramChangeEvent> filter) {
+        synchronized (recent) {
+            if (cursor.position < 0) {
+                cursor.position = resolve(cursor.lastEventId);
+                if (cursor.position < 0) {
+                    return reset(cursor);
+                }
+            }
+            if (!recent.isEmpty() && cursor.position < recent.peekFirst().sequence - 1) {
+                return reset(cursor);
+            }
+            List<ProgramChangeEvent> pending = new ArrayList<>();
+            Iterator<Entry> entries = recent.descendingIterator();
+            // Se recorre desde el final hasta la posición del cursor
+            while (entries.hasNext()) {
+                Entry entry = entries.next();
+                if (entry.sequence <= cursor.position) {
+                    break;
+                }
+                if (filter.test(entry.event)) {
+                    pending.add(entry.event);
+                }
+            }
+            cursor.position = sequence;
+            Collections.reverse(pending);
+            return pending;
+        }
+    }
+
+    /**
+     * Secuencia a partir de la cual continuar; -1 si el id ya no está en el búfer
+     */
+    private long resolve(String lastEventId) {
+        if (lastEventId == null || lastEventId.isBlank()) {
+            return sequence;
+        }
+        for (Entry entry : recent) {
+            if (lastEventId.equals(entry.event.getId())) {
+                return entry.sequence;
+            }
+        }
+        return -1;
+    }
+
+    private List<ProgramChangeEvent> reset(Cursor cursor) {
+        resets.increment();
+        cursor.position = sequence;
+        String latestId = recent.isEmpty() ? null : recent.peekLast().event.getId();
+        return List.of(ProgramChangeEvent.builder().id(latestId).type(ProgramChangeEvent.RESET).build());
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void watchChanges() {
+        String collection = mongoTemplate.getCollectionName(DistributionProgram.class);
+
+        watcher = Flux.defer(() -> mongoTemplate.changeStream(null, collection, options(), DistributionProgram.class))
+                .doOnSubscribe(s -> log.info("Escuchando cambios de programas en {}", collection))
+                .doOnNext(event -> {
+                    resumeToken = event.getResumeToken();
+                    ProgramChangeEvent change = toChange(event);
+                    if (change != null) {
+                        publish(change);
+                    }
+                })
+                // Al reconectar se retoma desde el último token visto
+                .retryWhen(ChangeStreams.retry(collection))
+                .onErrorResume(error -> {
+                    // Sin change streams no hay de dónde sacar los eventos: se avisa una vez y
+                    // las suscripciones nuevas se rechazan en lugar de quedar abiertas sin datos
+                    unavailable = true;
+                    log.error("Change stream no disponible en {} ({}); cambios en tiempo real desactivados",
+                            collection, error.getMessage());
+                    return Flux.empty();
+                })
+                .subscribe();
+    }
+
+    @PreDestroy
+    void stopWatching() {
+        Disposable disposable = watcher;
+        if (disposable != null) {
+            disposable.dispose();
+        }
+    }
+
+    private ChangeStreamOptions options() {
+        List<Document> tracked = new ArrayList<>();
+        tracked.add(new Document("operationType", "replace"));
+        for (String field : TRACKED_FIELDS) {
+            tracked.add(new Document("updateDescription.updatedFields." + field, new Document("$exists", true)));
+        }
+        tracked.add(new Document("updateDescription.removedFields", new Document("$in", TRACKED_FIELDS)));
+
+        ChangeStreamOptions.ChangeStreamOptionsBuilder builder = ChangeStreamOptions.builder()
+                .filter(new Document("$match", new Document("$or", tracked)))
+                .fullDocumentLookup(FullDocument.UPDATE_LOOKUP);
+        BsonValue token = resumeToken;
+        if (token != null) {
+            builder.resumeAfter(token);
+        }
+        return builder.build();
+    }
+
+    private static ProgramChangeEvent toChange(ChangeStreamEvent<DistributionProgram> event) {
+        DistributionProgram program = event.getBody();
+        BsonValue token = event.getResumeToken();
+        if (program == null || token == null) {
+            // Documento eliminado antes de la consulta de updateLookup
+            return null;
+        }
+        String id = token.isDocument() && token.asDocument().isString("_data")
+                ? token.asDocument().getString("_data").getValue()
+                : token.toString();
+        return ProgramChangeEvent.builder()
+                .id(id)
+                .type(ProgramChangeEvent.CHANGE)
+                .programId(program.getId())
+                .organizationId(program.getOrganizationId())
+                .zoneId(program.getZoneId())
+                .status(program.getStatus())
+                .actualStartTime(program.getActualStartTime())
+                .actualEndTime(program.getActualEndTime())
+                .version(program.getVersion())
+                .build();
+    }
+
+    private record Entry(long sequence, ProgramChangeEvent event) {
+    }
+
+    /**
+     * Posición de un suscriptor en el búfer; -1 hasta resolver Last-Event-ID
+     */
+    private static final class Cursor {
+
+        private final String lastEventId;
+        private long position = -1;
+
+        private Cursor(String lastEventId) {
+            this.lastEventId = lastEventId;
+        }
+    }
+}
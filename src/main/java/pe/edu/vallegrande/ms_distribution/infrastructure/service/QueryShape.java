@@ -0,0 +1,172 @@
+package pe.edu.vallegrande.ms_distribution.infrastructure.service;
+
+import org.bson.BsonArray;
+import org.bson.BsonDocument;
+import org.bson.BsonValue;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Forma de una consulta: colección, comando y campos del filtro clasificados en igualdad o
+ * rango, más el orden pedido. No guarda valores, así dos consultas que sólo difieren en
+ * los parámetros comparten forma (y estadísticas).
+ */
+final class QueryShape {
+
+    private static final Set<String> TRACKED = Set.of("find", "aggregate", "count", "distinct", "findAndModify", "update", "delete");
+    private static final Set<String> EQUALITY_OPERATORS = Set.of("$eq", "$in");
+
+    private final String command;
+    private final String collection;
+    private final Set<String> equality = new LinkedHashSet<>();
+    private final Set<String> range = new LinkedHashSet<>();
+    private final Map<String, Integer> sort = new LinkedHashMap<>();
+    // $or, $expr, $text...: el índice adecuado no se deduce sólo de los campos
+    private final Set<String> operators = new LinkedHashSet<>();
+    private final String key;
+
+    private QueryShape(String command, String collection, BsonDocument filter, BsonDocument sort) {
+        this.command = command;
+        this.collection = collection;
+        if (filter != null) {
+            classify(filter);
+        }
+        if (sort != null) {
+            sort.forEach((field, direction) -> this.sort.put(field, direction.isNumber() && direction.asNumber().intValue() < 0 ? -1 : 1));
+        }
+        this.key = collection + "." + command + " filter=" + describeFilter() + (this.sort.isEmpty() ? "" : " sort=" + describe(this.sort));
+    }
+
+    /**
+     * Forma del comando, o null si no es una lectura/escritura con filtro sobre una colección
+     */
+    static QueryShape of(String commandName, BsonDocument command) {
+        if (!TRACKED.contains(commandName) || !command.isString(commandName)) {
+            return null;
+        }
+        String collection = command.getString(commandName).getValue();
+        return switch (commandName) {
+            case "find", "findAndModify" -> new QueryShape(commandName, collection,
+                    document(command, commandName.equals("find") ? "filter" : "query"), document(command, "sort"));
+            case "count", "distinct" -> new QueryShape(commandName, collection, document(command, "query"), null);
+            case "update", "delete" -> statement(commandName, collection, command);
+            default -> pipeline(collection, command);
+        };
+    }
+
+    private static QueryShape statement(String commandName, String collection, BsonDocument command) {
+        BsonArray statements = command.getArray(commandName.equals("update") ? "updates" : "deletes", new BsonArray());
+        // Varias sentencias en un comando (bulk) no tienen una única forma
+        if (statements.size() != 1 || !statements.get(0).isDocument()) {
+            return null;
+        }
+        return new QueryShape(commandName, collection, document(statements.get(0).asDocument(), "q"), null);
+    }
+
+    /**
+     * Sólo el $match inicial y el $sort que lo sigue pueden usar índices
+     */
+    private static QueryShape pipeline(String collection, BsonDocument command) {
+        List<BsonDocument> stages = command.getArray("pipeline", new BsonArray()).stream()
+                .filter(BsonValue::isDocument).map(BsonValue::asDocument).toList();
+        if (!stages.isEmpty() && stages.get(0).containsKey("$changeStream")) {
+            return null;
+        }
+        BsonDocument match = null;
+        BsonDocument sort = null;
+        int next = 0;
+        if (next < stages.size() && stages.get(next).isDocument("$match")) {
+            match = stages.get(next++).getDocument("$match");
+        }
+        if (next < stages.size() && stages.get(next).isDocument("$sort")) {
+            sort = stages.get(next).getDocument("$sort");
+        }
+        return new QueryShape("aggregate", collection, match, sort);
+    }
+
+    private static BsonDocument document(BsonDocument command, String field) {
+        return command.isDocument(field) ? command.getDocument(field) : null;
+    }
+
+    private void classify(BsonDocument filter) {
+        filter.forEach((field, value) -> {
+            if (field.equals("$and") && value.isArray()) {
+                value.asArray().stream().filter(BsonValue::isDocument).forEach(clause -> classify(clause.asDocument()));
+            } else if (field.startsWith("$")) {
+                operators.add(field);
+            } else if (isEquality(value)) {
+                equality.add(field);
+            } else {
+                range.add(field);
+            }
+        });
+    }
+
+    private static boolean isEquality(BsonValue value) {
+        if (value.isRegularExpression()) {
+            return false;
+        }
+        if (!value.isDocument() || value.asDocument().isEmpty()
+                || !value.asDocument().getFirstKey().startsWith("$")) {
+            return true;
+        }
+        return EQUALITY_OPERATORS.containsAll(value.asDocument().keySet());
+    }
+
+    /**
+     * Índice según la regla ESR (igualdad, orden, rango) en el formato de @CompoundIndex, o
+     * null si la consulta no tiene campos indexables
+     */
+    String suggestedIndex() {
+        if (!operators.isEmpty()) {
+            return null;
+        }
+        Map<String, Integer> fields = new LinkedHashMap<>();
+        equality.forEach(field -> fields.put(field, 1));
+        sort.forEach(fields::putIfAbsent);
+        range.forEach(field -> fields.putIfAbsent(field, 1));
+        if (fields.isEmpty() || fields.keySet().equals(Set.of("_id"))) {
+            return null;
+        }
+        return fields.entrySet().stream()
+                .map(entry -> "'" + entry.getKey() + "': " + entry.getValue())
+                .collect(Collectors.joining(", ", "{", "}"));
+    }
+
+    private String describeFilter() {
+        List<String> parts = new ArrayList<>();
+        equality.forEach(field -> parts.add(field + ": eq"));
+        range.forEach(field -> parts.add(field + ": range"));
+        operators.forEach(operator -> parts.add(operator));
+        return parts.stream().collect(Collectors.joining(", ", "{", "}"));
+    }
+
+    private static String describe(Map<String, Integer> sort) {
+        return sort.entrySet().stream()
+                .map(entry -> entry.getKey() + ": " + entry.getValue())
+                .collect(Collectors.joining(", ", "{", "}"));
+    }
+
+    String command() {
+        return command;
+    }
+
+    String collection() {
+        return collection;
+    }
+
+    String key() {
+        return key;
+    }
+
+    @Override
+    public String toString() {
+        return key;
+    }
+}
@@ -0,0 +1,91 @@
+package pe.edu.vallegrande.ms_distribution.infrastructure.service;
+
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import org.springframework.web.reactive.function.client.WebClientRequestException;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import pe.edu.vallegrande.ms_distribution.infrastructure.exception.CustomException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Mide la duración de un Mono/Flux desde la suscripción hasta su señal final
+ * (éxito, error o cancelación), no desde que se arma la cadena
+ */
+final class ReactiveTimings {
+
+    static final String SUCCESS = "success";
+    static final String CANCELLED = "cancelled";
+
+    @FunctionalInterface
+    interface Recorder {
+        void record(long nanos, String outcome, Throwable error);
+    }
+
+    private ReactiveTimings() {
+    }
+
+    static <T> Mono<T> timed(Mono<T> source, Recorder recorder) {
+        return Mono.defer(() -> {
+            long start = System.nanoTime();
+            Throwable[] failure = new Throwable[1];
+            return source
+                    .doOnError(error -> failure[0] = error)
+                    .doFinally(signal -> record(recorder, start, signal, failure[0]));
+        });
+    }
+
+    static <T> Flux<T> timed(Flux<T> source, Recorder recorder) {
+        return Flux.defer(() -> {
+            long start = System.nanoTime();
+            Throwable[] failure = new Throwable[1];
+            return source
+                    .doOnError(error -> failure[0] = error)
+                    .doFinally(signal -> record(recorder, start, signal, failure[0]));
+        });
+    }
+
+    private static void record(Recorder recorder, long start, SignalType signal, Throwable error) {
+        recorder.record(System.nanoTime() - start, outcome(signal, error), error);
+    }
+
+    /**
+     * Resultado a partir de la señal de doFinally, que se ejecuta una sola vez. Operadores como
+     * retryWhen cancelan la fuente mientras propagan su error, por lo que la señal puede llegar
+     * como CANCEL: manda el error capturado en doOnError.
+     */
+    static String outcome(SignalType signal, Throwable error) {
+        if (error != null) {
+            return outcome(error);
+        }
+        return signal == SignalType.CANCEL ? CANCELLED : SUCCESS;
+    }
+
+    /**
+     * Clasificación acotada del error para el tag "outcome"
+     */
+    static String outcome(Throwable error) {
+        if (error instanceof CustomException custom) {
+            return custom.getErrorMessage().getErrorCode() < 500 ? "client_error" : "server_error";
+        }
+        if (error instanceof WebClientResponseException response) {
+            return response.getStatusCode().is4xxClientError() ? "client_error" : "server_error";
+        }
+        if (error instanceof CallNotPermittedException) {
+            return "circuit_open";
+        }
+        if (error instanceof BulkheadFullException) {
+            return "rejected";
+        }
+        if (error instanceof TimeoutException || error.getCause() instanceof TimeoutException) {
+            return "timeout";
+        }
+        if (error instanceof WebClientRequestException) {
+            return "io_error";
+        }
+        return "error";
+    }
+}
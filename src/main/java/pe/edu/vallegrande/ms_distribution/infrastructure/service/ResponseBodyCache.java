@@ -0,0 +1,117 @@
+package pe.edu.vallegrande.ms_distribution.infrastructure.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.DigestUtils;
+import pe.edu.vallegrande.ms_distribution.infrastructure.exception.CustomException;
+import reactor.core.publisher.Mono;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.function.Supplier;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Caché de respuestas JSON ya serializadas (y comprimidas) para los listados más consultados.
+ * Las entradas se agrupan por espacio (tarifas, rutas, horarios) y las escrituras del
+ * servicio correspondiente invalidan su espacio completo; las de otras instancias llegan por
+ * change stream (FareReadModel y ResponseCacheInvalidator).
+ */
+@Slf4j
+@Component
+public class ResponseBodyCache {
+
+    public static final String FARES = "fares";
+    public static final String ROUTES = "routes";
+    public static final String SCHEDULES = "schedules";
+
+    // Por debajo de este tamaño gzip no compensa la cabecera adicional
+    private static final int GZIP_MIN_BYTES = 1024;
+
+    private final ObjectMapper objectMapper;
+    private final AsyncCache<String, CachedBody> cache;
+
+    public ResponseBodyCache(ObjectMapper objectMapper, MeterRegistry meterRegistry,
+                             @Value("${app.cache.responses.ttl:PT10M}") Duration ttl,
+                             @Value("${app.cache.responses.max-size:1000}") long maxSize) {
+        this.objectMapper = objectMapper;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .buildAsync();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "http.responses");
+    }
+
+    /**
+     * Devuelve la respuesta serializada; si no está en caché la construye una sola vez
+     * aunque lleguen varias peticiones a la vez
+     *
+     * @param namespace espacio que se invalida junto (FARES, ROUTES, SCHEDULES)
+     * @param key       endpoint y parámetros (p. ej. "active" u "org:{id}:ACTIVE")
+     * @param body      cuerpo a serializar
+     */
+    public Mono<CachedBody> get(String namespace, String key, Supplier<Mono<?>> body) {
+        return Mono.fromFuture(cache.get(namespace + "|" + key,
+                (cacheKey, executor) -> body.get().map(this::encode).toFuture()), true);
+    }
+
+    public void invalidate(String namespace) {
+        String prefix = namespace + "|";
+        // asMap incluye las cargas en curso: una carga iniciada antes de la escritura no queda en caché
+        cache.asMap().keySet().removeIf(key -> key.startsWith(prefix));
+    }
+
+    private CachedBody encode(Object value) {
+        try {
+            byte[] json = objectMapper.writeValueAsBytes(value);
+            byte[] gzip = json.length >= GZIP_MIN_BYTES ? gzip(json) : null;
+            return new CachedBody(json, gzip, DigestUtils.md5DigestAsHex(json));
+        } catch (JsonProcessingException e) {
+            throw CustomException.internalServerError("Serialization error", e.getMessage());
+        }
+    }
+
+    private static byte[] gzip(byte[] json) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(json.length / 4);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(json);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * Cuerpo inmutable; cada codificación tiene su propio ETag fuerte
+     */
+    @Getter
+    public static final class CachedBody {
+
+        private final byte[] json;
+        private final byte[] gzip;
+        private final String etag;
+        private final String gzipEtag;
+
+        CachedBody(byte[] json, byte[] gzip, String hash) {
+            this.json = json;
+            this.gzip = gzip;
+            this.etag = "\"" + hash + "\"";
+            this.gzipEtag = "\"" + hash + "-gzip\"";
+        }
+
+        public boolean hasGzip() {
+            return gzip != null;
+        }
+    }
+}
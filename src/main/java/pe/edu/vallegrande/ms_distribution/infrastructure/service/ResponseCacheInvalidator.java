@@ -0,0 +1,69 @@
+package pe.edu.vallegrande.ms_distribution.infrastructure.service;
+
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.ChangeStreamOptions;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.stereotype.Component;
+import pe.edu.vallegrande.ms_distribution.domain.models.DistributionRoute;
+import pe.edu.vallegrande.ms_distribution.domain.models.DistributionSchedule;
+import reactor.core.Disposable;
+import reactor.core.Disposables;
+import reactor.core.publisher.Flux;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Invalida en ResponseBodyCache los espacios de rutas y horarios cuando otra instancia escribe
+ * en sus colecciones. Las escrituras locales ya invalidan al momento; esto cubre las demás
+ * réplicas. Sin change streams (servidor standalone) la frescura entre instancias queda
+ * acotada por app.cache.responses.ttl.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ResponseCacheInvalidator {
+
+    private final ReactiveMongoTemplate mongoTemplate;
+    private final ResponseBodyCache responseCache;
+
+    private volatile Disposable watchers;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void watchChanges() {
+        watchers = Disposables.composite(
+                watch(mongoTemplate.getCollectionName(DistributionRoute.class), ResponseBodyCache.ROUTES),
+                watch(mongoTemplate.getCollectionName(DistributionSchedule.class), ResponseBodyCache.SCHEDULES));
+    }
+
+    private Disposable watch(String collection, String namespace) {
+        AtomicBoolean reconnecting = new AtomicBoolean();
+        return Flux.defer(() -> {
+                    Flux<Object> events = mongoTemplate
+                            .changeStream(null, collection, ChangeStreamOptions.empty(), Document.class)
+                            .cast(Object.class);
+                    // Lo escrito mientras el stream estuvo caído no llega como evento
+                    return reconnecting.getAndSet(true) ? events.startWith(collection) : events;
+                })
+                .doOnSubscribe(s -> log.info("Invalidando la caché de {} con los cambios de {}", namespace, collection))
+                .retryWhen(ChangeStreams.retry(collection))
+                .onErrorResume(e -> {
+                    log.warn("Change stream no disponible en {} ({}); la caché de {} se renueva solo por TTL",
+                            collection, e.getMessage(), namespace);
+                    return Flux.empty();
+                })
+                .subscribe(change -> responseCache.invalidate(namespace));
+    }
+
+    @PreDestroy
+    void stopWatching() {
+        Disposable disposable = watchers;
+        if (disposable != null) {
+            disposable.dispose();
+        }
+    }
+}
@@ -0,0 +1,191 @@
+package pe.edu.vallegrande.ms_distribution.infrastructure.service;
+
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
+import io.micrometer.observation.contextpropagation.ObservationThreadLocalAccessor;
+import lombok.extern.slf4j.Slf4j;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.reactivestreams.Publisher;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+import reactor.util.context.ContextView;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Parameter;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+
+/**
+ * Observación "app.service" para los métodos de los servicios de aplicación: el registro
+ * la convierte en timer (con histograma, ver application.yml) y, con trazas activas, en un
+ * span hijo del de la petición. En los métodos reactivos la observación empieza al
+ * suscribirse, termina con la señal final del Mono/Flux antes de entregarla (así el span
+ * cierra antes que el de la petición) y viaja en el contexto de Reactor,
+ * de modo que los comandos de MongoDB y las llamadas a MS-USERS quedan como spans hijos.
+ * <p>
+ * La organización se toma del parámetro organizationId o de un argumento con
+ * getOrganizationId() (requests y entidades).
+ */
+@Slf4j
+public class ServiceObservationInterceptor implements MethodInterceptor {
+
+    public static final String NAME = "app.service";
+
+    private final ObservationRegistry observationRegistry;
+    private final OrganizationTags organizationTags;
+
+    private final Map<Method, Function<Object[], String>> organizationLookups = new ConcurrentHashMap<>();
+
+    public ServiceObservationInterceptor(ObservationRegistry observationRegistry, OrganizationTags organizationTags) {
+        this.observationRegistry = observationRegistry;
+        this.organizationTags = organizationTags;
+    }
+
+    @Override
+    public Object invoke(MethodInvocation invocation) throws Throwable {
+        Method method = invocation.getMethod();
+        String service = serviceName(invocation);
+        String organization = organizationTags.of(organizationLookups
+                .computeIfAbsent(method, ServiceObservationInterceptor::organizationLookup)
+                .apply(invocation.getArguments()));
+
+        if (!Publisher.class.isAssignableFrom(method.getReturnType())) {
+            Observation observation = observation(service, method.getName(), organization)
+                    .parentObservation(observationRegistry.getCurrentObservation())
+                    .start();
+            try (Observation.Scope scope = observation.openScope()) {
+                Object result = invocation.proceed();
+                stop(observation, SignalType.ON_COMPLETE, null);
+                return result;
+            } catch (Throwable e) {
+                stop(observation, SignalType.ON_ERROR, e);
+                throw e;
+            }
+        }
+
+        Object result;
+        try {
+            result = invocation.proceed();
+        } catch (Throwable e) {
+            // Validaciones que lanzan antes de armar la cadena
+            stop(observation(service, method.getName(), organization)
+                    .parentObservation(observationRegistry.getCurrentObservation())
+                    .start(), SignalType.ON_ERROR, e);
+            throw e;
+        }
+        if (result instanceof Mono<?> mono) {
+            return Mono.deferContextual(context -> {
+                Stop stop = new Stop(start(service, method.getName(), organization, context));
+                return mono.doOnSuccess(value -> stop.on(SignalType.ON_COMPLETE, null))
+                        .doOnError(error -> stop.on(SignalType.ON_ERROR, error))
+                        .doOnCancel(() -> stop.on(SignalType.CANCEL, null))
+                        .contextWrite(ctx -> ctx.put(ObservationThreadLocalAccessor.KEY, stop.observation));
+            });
+        }
+        if (result instanceof Flux<?> flux) {
+            return Flux.deferContextual(context -> {
+                Stop stop = new Stop(start(service, method.getName(), organization, context));
+                return flux.doOnComplete(() -> stop.on(SignalType.ON_COMPLETE, null))
+                        .doOnError(error -> stop.on(SignalType.ON_ERROR, error))
+                        .doOnCancel(() -> stop.on(SignalType.CANCEL, null))
+                        .contextWrite(ctx -> ctx.put(ObservationThreadLocalAccessor.KEY, stop.observation));
+            });
+        }
+        return result;
+    }
+
+    private Observation start(String service, String method, String organization, ContextView context) {
+        Observation parent = context.getOrDefault(ObservationThreadLocalAccessor.KEY, null);
+        return observation(service, method, organization)
+                .parentObservation(parent)
+                .start();
+    }
+
+    private Observation observation(String service, String method, String organization) {
+        return Observation.createNotStarted(NAME, observationRegistry)
+                .contextualName(service + "." + method)
+                .lowCardinalityKeyValue("service", service)
+                .lowCardinalityKeyValue("method", method)
+                .lowCardinalityKeyValue(OrganizationTags.TAG, organization);
+    }
+
+    private static void stop(Observation observation, SignalType signal, Throwable error) {
+        observation.lowCardinalityKeyValue("outcome", ReactiveTimings.outcome(signal, error));
+        if (error != null) {
+            observation.error(error);
+        }
+        observation.stop();
+    }
+
+    /**
+     * Cierra la observación con la primera señal final; retryWhen, por ejemplo, cancela
+     * la fuente después de propagar el error
+     */
+    private static final class Stop {
+        private final Observation observation;
+        private final AtomicBoolean stopped = new AtomicBoolean();
+
+        Stop(Observation observation) {
+            this.observation = observation;
+        }
+
+        void on(SignalType signal, Throwable error) {
+            if (stopped.compareAndSet(false, true)) {
+                stop(observation, signal, error);
+            }
+        }
+    }
+
+    private static String serviceName(MethodInvocation invocation) {
+        Object target = invocation.getThis();
+        String name = target == null ? invocation.getMethod().getDeclaringClass().getSimpleName()
+                : target.getClass().getSimpleName();
+        return name.endsWith("Impl") ? name.substring(0, name.length() - 4) : name;
+    }
+
+    private static Function<Object[], String> organizationLookup(Method method) {
+        Parameter[] parameters = method.getParameters();
+        for (int i = 0; i < parameters.length; i++) {
+            if (parameters[i].getType() == String.class && "organizationId".equals(parameters[i].getName())) {
+                int index = i;
+                return args -> (String) args[index];
+            }
+        }
+        for (int i = 0; i < parameters.length; i++) {
+            Method getter = organizationGetter(parameters[i].getType());
+            if (getter != null) {
+                int index = i;
+                return args -> invoke(getter, args[index]);
+            }
+        }
+        return args -> null;
+    }
+
+    private static Method organizationGetter(Class<?> type) {
+        if (type.isPrimitive() || type.getName().startsWith("java.")) {
+            return null;
+        }
+        try {
+            Method getter = type.getMethod("getOrganizationId");
+            return getter.getReturnType() == String.class ? getter : null;
+        } catch (NoSuchMethodException e) {
+            return null;
+        }
+    }
+
+    private static String invoke(Method getter, Object target) {
+        if (target == null) {
+            return null;
+        }
+        try {
+            return (String) getter.invoke(target);
+        } catch (ReflectiveOperationException e) {
+            log.debug("No se pudo leer organizationId de {}: {}", target.getClass().getSimpleName(), e.getMessage());
+            return null;
+        }
+    }
+}
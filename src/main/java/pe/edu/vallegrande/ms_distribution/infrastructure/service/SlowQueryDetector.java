@@ -0,0 +1,301 @@
+package pe.edu.vallegrande.ms_distribution.infrastructure.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.mongodb.event.CommandFailedEvent;
+import com.mongodb.event.CommandListener;
+import com.mongodb.event.CommandStartedEvent;
+import com.mongodb.event.CommandSucceededEvent;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.BsonDocument;
+import org.bson.BsonString;
+import org.bson.Document;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.ReactiveMongoDatabaseFactory;
+import org.springframework.stereotype.Component;
+import pe.edu.vallegrande.ms_distribution.infrastructure.dto.response.QueryShapeResponse;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Detector de consultas lentas: escucha los comandos que el driver envía a MongoDB, los
+ * agrupa por forma (ver QueryShape) con su duración y, por muestreo, ejecuta explain con
+ * executionStats para conocer el plan: documentos examinados frente a devueltos, COLLSCAN
+ * y ordenamientos en memoria. Cada forma se explica la primera vez que aparece y después
+ * sólo si alguna ejecución superó slow-threshold, como mucho una vez por explain-interval.
+ * <p>
+ * El informe (endpoint de actuator queryadvisor) propone el índice que falta para las
+ * formas marcadas.
+ */
+@Slf4j
+@Component
+public class SlowQueryDetector implements CommandListener {
+
+    // Campos de sesión y transporte que explain no acepta dentro del comando explicado
+    private static final Set<String> NOT_EXPLAINABLE = Set.of("$db", "lsid", "$clusterTime", "txnNumber",
+            "startTransaction", "autocommit", "readConcern", "writeConcern", "$readPreference",
+            "apiVersion", "apiStrict", "apiDeprecationErrors");
+    private static final Set<String> SKIPPED_PLANS = Set.of("rejectedPlans", "allPlansExecution", "slotBasedPlan");
+    private static final Duration EXPLAIN_TIMEOUT = Duration.ofSeconds(10);
+    private static final int MAX_CONCURRENT_EXPLAINS = 2;
+    private static final long MIN_DOCS_EXAMINED = 100;
+
+    private final ObjectProvider<ReactiveMongoDatabaseFactory> databaseFactory;
+    private final long slowThresholdNanos;
+    private final long explainIntervalNanos;
+    private final double examinedRatio;
+
+    private final Cache<String, ShapeStats> shapes;
+    private final Map<Integer, Pending> running = new ConcurrentHashMap<>();
+    private final AtomicInteger explaining = new AtomicInteger();
+
+    public SlowQueryDetector(ObjectProvider<ReactiveMongoDatabaseFactory> databaseFactory,
+                             @Value("${app.mongo.query-advisor.slow-threshold:PT0.1S}") Duration slowThreshold,
+                             @Value("${app.mongo.query-advisor.explain-interval:PT10M}") Duration explainInterval,
+                             @Value("${app.mongo.query-advisor.examined-ratio:10}") double examinedRatio,
+                             @Value("${app.mongo.query-advisor.max-shapes:500}") int maxShapes) {
+        this.databaseFactory = databaseFactory;
+        this.slowThresholdNanos = slowThreshold.toNanos();
+        this.explainIntervalNanos = explainInterval.toNanos();
+        this.examinedRatio = examinedRatio;
+        this.shapes = Caffeine.newBuilder().maximumSize(maxShapes).build();
+    }
+
+    @Override
+    public void commandStarted(CommandStartedEvent event) {
+        QueryShape shape = QueryShape.of(event.getCommandName(), event.getCommand());
+        if (shape == null) {
+            return;
+        }
+        ShapeStats stats = shapes.get(shape.key(), key -> new ShapeStats(shape));
+        // El documento del evento sólo es válido durante la llamada: se copia si puede hacer falta explicarlo
+        BsonDocument explainable = stats.explainDue(System.nanoTime(), explainIntervalNanos)
+                ? explainable(event.getCommand()) : null;
+        running.put(event.getRequestId(), new Pending(stats, event.getDatabaseName(), explainable));
+    }
+
+    @Override
+    public void commandSucceeded(CommandSucceededEvent event) {
+        finished(event.getRequestId(), event.getElapsedTime(TimeUnit.NANOSECONDS), false);
+    }
+
+    @Override
+    public void commandFailed(CommandFailedEvent event) {
+        finished(event.getRequestId(), event.getElapsedTime(TimeUnit.NANOSECONDS), true);
+    }
+
+    private void finished(int requestId, long nanos, boolean failed) {
+        Pending pending = running.remove(requestId);
+        if (pending == null) {
+            return;
+        }
+        pending.stats.record(nanos, nanos >= slowThresholdNanos, failed);
+        if (!failed && pending.command != null) {
+            explain(pending);
+        }
+    }
+
+    private void explain(Pending pending) {
+        ShapeStats stats = pending.stats;
+        if (!stats.startExplain(System.nanoTime())) {
+            return;
+        }
+        if (explaining.incrementAndGet() > MAX_CONCURRENT_EXPLAINS) {
+            explaining.decrementAndGet();
+            stats.explaining.set(false);
+            return;
+        }
+        BsonDocument command = new BsonDocument("explain", pending.command)
+                .append("verbosity", new BsonString("executionStats"));
+        databaseFactory.getObject().getMongoDatabase(pending.database)
+                .flatMap(database -> Mono.from(database.runCommand(command)))
+                .timeout(EXPLAIN_TIMEOUT)
+                .doFinally(signal -> {
+                    explaining.decrementAndGet();
+                    stats.explaining.set(false);
+                })
+                .subscribe(result -> stats.explain = analyze(result),
+                        e -> log.debug("No se pudo explicar {}: {}", stats.shape, e.getMessage()));
+    }
+
+    private static BsonDocument explainable(BsonDocument command) {
+        BsonDocument copy = command.clone();
+        NOT_EXPLAINABLE.forEach(copy::remove);
+        return copy;
+    }
+
+    /**
+     * Resume la salida de explain: etapas e índices del plan ganador y executionStats
+     * (en las agregaciones vienen dentro de la etapa $cursor)
+     */
+    static Explain analyze(Document explain) {
+        Set<String> stages = new LinkedHashSet<>();
+        Set<String> indexes = new LinkedHashSet<>();
+        collectPlan(explain, false, stages, indexes);
+        Document stats = find(explain, "executionStats");
+        return new Explain(Instant.now(), List.copyOf(stages), List.copyOf(indexes),
+                number(stats, "totalDocsExamined"), number(stats, "totalKeysExamined"), number(stats, "nReturned"),
+                stages.contains("COLLSCAN"), stages.contains("SORT"));
+    }
+
+    private static void collectPlan(Object node, boolean winning, Set<String> stages, Set<String> indexes) {
+        if (node instanceof List<?> list) {
+            list.forEach(item -> collectPlan(item, winning, stages, indexes));
+        } else if (node instanceof Document document) {
+            document.forEach((key, value) -> {
+                if (SKIPPED_PLANS.contains(key)) {
+                    return;
+                }
+                if (winning && "stage".equals(key) && value instanceof String stage) {
+                    stages.add(stage);
+                } else if (winning && "indexName".equals(key) && value instanceof String index) {
+                    indexes.add(index);
+                } else {
+                    collectPlan(value, winning || "winningPlan".equals(key), stages, indexes);
+                }
+            });
+        }
+    }
+
+    private static Document find(Object node, String field) {
+        if (node instanceof List<?> list) {
+            for (Object item : list) {
+                Document found = find(item, field);
+                if (found != null) {
+                    return found;
+                }
+            }
+        } else if (node instanceof Document document) {
+            if (document.get(field) instanceof Document found) {
+                return found;
+            }
+            for (Map.Entry<String, Object> entry : document.entrySet()) {
+                Document found = SKIPPED_PLANS.contains(entry.getKey()) ? null : find(entry.getValue(), field);
+                if (found != null) {
+                    return found;
+                }
+            }
+        }
+        return null;
+    }
+
+    private static long number(Document document, String field) {
+        return document != null && document.get(field) instanceof Number value ? value.longValue() : 0L;
+    }
+
+    /**
+     * Formas registradas; primero las que necesitan índice y luego por tiempo total
+     */
+    public List<QueryShapeResponse> report() {
+        List<ShapeStats> all = new ArrayList<>(shapes.asMap().values());
+        all.sort(Comparator.comparing((ShapeStats stats) -> !needsIndex(stats.explain))
+                .thenComparing(stats -> -stats.totalNanos.sum()));
+        return all.stream().map(this::toResponse).toList();
+    }
+
+    public void reset() {
+        shapes.invalidateAll();
+    }
+
+    boolean needsIndex(Explain explain) {
+        return explain != null && (explain.collectionScan() || explain.inMemorySort()
+                || (explain.docsExamined() >= MIN_DOCS_EXAMINED
+                && explain.docsExamined() > examinedRatio * Math.max(explain.returned(), 1)));
+    }
+
+    private QueryShapeResponse toResponse(ShapeStats stats) {
+        long count = stats.count.sum();
+        QueryShapeResponse.QueryShapeResponseBuilder response = QueryShapeResponse.builder()
+                .shape(stats.shape.key())
+                .collection(stats.shape.collection())
+                .command(stats.shape.command())
+                .count(count)
+                .failures(stats.failures.sum())
+                .slow(stats.slow.sum())
+                .avgMillis(count == 0 ? 0.0 : stats.totalNanos.sum() / 1e6 / count)
+                .maxMillis(stats.maxNanos.get() / 1e6);
+        Explain explain = stats.explain;
+        if (explain != null) {
+            boolean needsIndex = needsIndex(explain);
+            response.explainedAt(explain.at())
+                    .plan(explain.plan())
+                    .indexes(explain.indexes())
+                    .docsExamined(explain.docsExamined())
+                    .keysExamined(explain.keysExamined())
+                    .docsReturned(explain.returned())
+                    .collectionScan(explain.collectionScan())
+                    .inMemorySort(explain.inMemorySort())
+                    .needsIndex(needsIndex)
+                    .suggestedIndex(needsIndex ? stats.shape.suggestedIndex() : null);
+        }
+        return response.build();
+    }
+
+    record Explain(Instant at, List<String> plan, List<String> indexes, long docsExamined, long keysExamined,
+                   long returned, boolean collectionScan, boolean inMemorySort) {
+    }
+
+    private record Pending(ShapeStats stats, String database, BsonDocument command) {
+    }
+
+    static final class ShapeStats {
+        private static final long NEVER = Long.MIN_VALUE;
+
+        private final QueryShape shape;
+        private final LongAdder count = new LongAdder();
+        private final LongAdder failures = new LongAdder();
+        private final LongAdder slow = new LongAdder();
+        private final LongAdder totalNanos = new LongAdder();
+        private final AtomicLong maxNanos = new AtomicLong();
+        private final AtomicBoolean explaining = new AtomicBoolean();
+        private volatile long lastExplain = NEVER;
+        private volatile boolean slowSinceExplain;
+        private volatile Explain explain;
+
+        ShapeStats(QueryShape shape) {
+            this.shape = shape;
+        }
+
+        void record(long nanos, boolean isSlow, boolean failed) {
+            count.increment();
+            totalNanos.add(nanos);
+            maxNanos.accumulateAndGet(nanos, Math::max);
+            if (isSlow) {
+                slow.increment();
+                slowSinceExplain = true;
+            }
+            if (failed) {
+                failures.increment();
+            }
+        }
+
+        boolean explainDue(long now, long interval) {
+            long last = lastExplain;
+            return !explaining.get() && (last == NEVER || (slowSinceExplain && now - last >= interval));
+        }
+
+        boolean startExplain(long now) {
+            if (!explaining.compareAndSet(false, true)) {
+                return false;
+            }
+            lastExplain = now;
+            slowSinceExplain = false;
+            return true;
+        }
+    }
+}
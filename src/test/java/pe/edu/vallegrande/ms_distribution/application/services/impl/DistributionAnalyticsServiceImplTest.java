@@ -0,0 +1,108 @@
+package pe.edu.vallegrande.ms_distribution.application.services.impl;
+
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.TypedAggregation;
+import pe.edu.vallegrande.ms_distribution.domain.models.DistributionProgram;
+import pe.edu.vallegrande.ms_distribution.domain.models.DistributionRoute;
+import pe.edu.vallegrande.ms_distribution.infrastructure.dto.request.ProgramAnalyticsQuery;
+import pe.edu.vallegrande.ms_distribution.infrastructure.dto.response.CompletionStatsResponse;
+import pe.edu.vallegrande.ms_distribution.infrastructure.dto.response.OnTimeStatsResponse;
+import pe.edu.vallegrande.ms_distribution.infrastructure.exception.CustomException;
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+public class DistributionAnalyticsServiceImplTest {
+
+    @Mock
+    private ReactiveMongoTemplate mongoTemplate;
+
+    @InjectMocks
+    private DistributionAnalyticsServiceImpl analyticsService;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        when(mongoTemplate.getCollectionName(DistributionRoute.class)).thenReturn("routes");
+    }
+
+    /**
+     * Por ruta: el pipeline filtra por organización y fechas, agrupa en Mongo y busca el
+     * nombre de la ruta después del $group (una vez por grupo).
+     */
+    @Test
+    void completion_ShouldGroupInDatabaseAndLookupRouteNames() {
+        when(mongoTemplate.aggregate(any(TypedAggregation.class), eq(CompletionStatsResponse.class)))
+                .thenReturn(Flux.just(CompletionStatsResponse.builder().key("r1").total(4L).completed(3L).build()));
+
+        ProgramAnalyticsQuery query = ProgramAnalyticsQuery.builder()
+                .organizationId("org-1").from("2025-01-01").to("2025-01-31").groupBy("route").build();
+
+        StepVerifier.create(analyticsService.completion(query))
+                .expectNextMatches(stats -> "r1".equals(stats.getKey()))
+                .verifyComplete();
+
+        List<Document> pipeline = capturePipeline(CompletionStatsResponse.class);
+        assertEquals(List.of("$match", "$group", "$lookup", "$project", "$sort"),
+                pipeline.stream().map(stage -> stage.keySet().iterator().next()).toList());
+        assertEquals("$routeId", pipeline.get(1).get("$group", Document.class).get("_id"));
+        assertEquals("routes", pipeline.get(2).get("$lookup", Document.class).get("from"));
+    }
+
+    /**
+     * Puntualidad por responsable: sin $lookup y con la tolerancia dentro del $group.
+     */
+    @Test
+    void onTime_ShouldUseToleranceInsideTheGroupStage() {
+        when(mongoTemplate.aggregate(any(TypedAggregation.class), eq(OnTimeStatsResponse.class)))
+                .thenReturn(Flux.empty());
+
+        ProgramAnalyticsQuery query = ProgramAnalyticsQuery.builder()
+                .organizationId("org-1").from("2025-01-01").to("2025-01-31").build();
+
+        StepVerifier.create(analyticsService.onTime(query, 15)).verifyComplete();
+
+        List<Document> pipeline = capturePipeline(OnTimeStatsResponse.class);
+        Document group = pipeline.get(2).get("$group", Document.class);
+        assertEquals("$responsibleUserId", group.get("_id"));
+        assertTrue(group.toJson().contains("15"));
+    }
+
+    /**
+     * Un groupBy desconocido se rechaza sin ejecutar la agregación.
+     */
+    @Test
+    void completion_ShouldRejectUnknownGroupBy() {
+        ProgramAnalyticsQuery query = ProgramAnalyticsQuery.builder()
+                .organizationId("org-1").from("2025-01-01").to("2025-01-31").groupBy("street").build();
+
+        StepVerifier.create(analyticsService.completion(query))
+                .expectErrorMatches(e -> e instanceof CustomException
+                        && ((CustomException) e).getErrorMessage().getErrorCode() == 400)
+                .verify();
+
+        verify(mongoTemplate, never()).aggregate(any(TypedAggregation.class), any(Class.class));
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<Document> capturePipeline(Class<?> output) {
+        ArgumentCaptor<TypedAggregation<DistributionProgram>> aggregation = ArgumentCaptor.forClass(TypedAggregation.class);
+        verify(mongoTemplate).aggregate(aggregation.capture(), eq(output));
+        return aggregation.getValue().toPipeline(Aggregation.DEFAULT_CONTEXT);
+    }
+}
@@ -1,18 +1,49 @@
 package pe.edu.vallegrande.ms_distribution.application.services.impl;
 
 import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.ValueSource;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mongodb.bulk.BulkWriteResult;
+import com.mongodb.client.result.UpdateResult;
+import org.bson.Document;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.mongodb.core.BulkOperations.BulkMode;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.ReactiveBulkOperations;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import pe.edu.vallegrande.ms_distribution.application.services.ProgramRollupService;
+import pe.edu.vallegrande.ms_distribution.domain.enums.CodeSequence;
+import pe.edu.vallegrande.ms_distribution.domain.models.DistributionProgram;
+import pe.edu.vallegrande.ms_distribution.infrastructure.dto.CursorPage;
+import pe.edu.vallegrande.ms_distribution.infrastructure.dto.request.DistributionProgramBatchUpdateRequest;
 import pe.edu.vallegrande.ms_distribution.infrastructure.dto.request.DistributionProgramCreateRequest;
+import pe.edu.vallegrande.ms_distribution.infrastructure.dto.request.DistributionProgramRangeQuery;
+import pe.edu.vallegrande.ms_distribution.infrastructure.exception.CustomException;
 import pe.edu.vallegrande.ms_distribution.infrastructure.repository.DistributionProgramRepository;
+import pe.edu.vallegrande.ms_distribution.infrastructure.service.AtomicDocumentService;
+import pe.edu.vallegrande.ms_distribution.infrastructure.service.CodeSequenceService;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import reactor.test.StepVerifier;
 import java.time.LocalDate;
+import java.util.Collections;
+import java.util.List;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.Mockito.*;
 
 public class DistributionProgramServiceImplTest {
@@ -20,6 +51,21 @@ public class DistributionProgramServiceImplTest {
     @Mock
     private DistributionProgramRepository programRepository;
 
+    @Mock
+    private CodeSequenceService codeSequenceService;
+
+    @Mock
+    private ReactiveMongoTemplate mongoTemplate;
+
+    @Mock
+    private ReactiveBulkOperations bulkOperations;
+
+    @Mock
+    private AtomicDocumentService atomicDocumentService;
+
+    @Mock
+    private ProgramRollupService rollupService;
+
     @InjectMocks
     private DistributionProgramServiceImpl distributionProgramService;
 
@@ -49,13 +95,13 @@ public class DistributionProgramServiceImplTest {
         request.setPlannedEndTime("10:00");
         request.setActualStartTime(null);
         request.setActualEndTime(null);
-        request.setStatus("PENDING");
+        request.setStatus("PLANNED");
         request.setResponsibleUserId(responsibleUserId);
         request.setObservations("Test observation");
 
         // Configuración del comportamiento simulado del repositorio.
-        // Cuando se busque el último código de programa, devuelve vacío (no hay programas previos).
-        when(programRepository.findTopByOrderByProgramCodeDesc()).thenReturn(Mono.empty());
+        // Cuando se reserve el siguiente código de programa, devuelve el primero de la secuencia.
+        when(codeSequenceService.nextCode(CodeSequence.PROGRAM)).thenReturn(Mono.just("PROG001"));
 
         // Cuando se guarde cualquier entidad, devuelve la misma entidad simulando guardado exitoso.
         when(programRepository.save(any())).thenAnswer(invocation -> Mono.just(invocation.getArgument(0)));
@@ -71,4 +117,387 @@ public class DistributionProgramServiceImplTest {
         System.out.println("✔️ Prueba completada para participante: " + responsibleUserId + "\n");
     }
 
+    /**
+     * La página pide limit + 1 documentos: si llega el extra, se devuelve
+     * un cursor que apunta al último elemento visible.
+     */
+    @Test
+    void getPage_ShouldReturnCursorWhenMoreDocumentsExist() {
+        String after = "65a000000000000000000000";
+        String first = "65a000000000000000000001";
+        String second = "65a000000000000000000002";
+        String third = "65a000000000000000000003";
+        when(programRepository.findPage(isNull(), eq(after), eq(Limit.of(3)))).thenCallRealMethod();
+        when(programRepository.findByIdGreaterThanOrderByIdAsc(eq(after), eq(Limit.of(3))))
+                .thenReturn(Flux.just(
+                        DistributionProgram.builder().id(first).build(),
+                        DistributionProgram.builder().id(second).build(),
+                        DistributionProgram.builder().id(third).build()));
+
+        StepVerifier.create(distributionProgramService.getPage(CursorPage.encodeCursor(after), null, 2))
+                .expectNextMatches(page -> page.isHasMore()
+                        && page.getItems().size() == 2
+                        && second.equals(CursorPage.decodeCursor(page.getNextCursor())))
+                .verifyComplete();
+    }
+
+    /**
+     * Un cursor que decodifica como base64 pero no contiene un ObjectId es un 400,
+     * no una última página vacía.
+     */
+    @Test
+    void getPage_ShouldRejectCursorWithoutObjectId() {
+        StepVerifier.create(distributionProgramService.getPage(CursorPage.encodeCursor("not-an-id"), null, 2))
+                .expectErrorMatches(e -> e instanceof CustomException
+                        && ((CustomException) e).getErrorMessage().getErrorCode() == 400)
+                .verify();
+
+        verifyNoInteractions(programRepository);
+    }
+
+    /**
+     * Sin estado se listan todos los programas de la organización; con estado se usa
+     * la consulta por organización y estado.
+     */
+    @Test
+    void getAllByOrganization_ShouldFilterByStatusWhenPresent() {
+        when(programRepository.findAllByOrganizationId("org-1"))
+                .thenReturn(Flux.just(DistributionProgram.builder().id("p1").organizationId("org-1").build(),
+                        DistributionProgram.builder().id("p2").organizationId("org-1").build()));
+        when(programRepository.findAllByOrganizationIdAndStatus("org-1", "PLANNED"))
+                .thenReturn(Flux.just(DistributionProgram.builder().id("p1").organizationId("org-1").status("PLANNED").build()));
+
+        StepVerifier.create(distributionProgramService.getAllByOrganization("org-1", " "))
+                .expectNextCount(2)
+                .verifyComplete();
+        StepVerifier.create(distributionProgramService.getAllByOrganization("org-1", "PLANNED"))
+                .expectNextMatches(response -> "p1".equals(response.getId()) && "PLANNED".equals(response.getStatus()))
+                .verifyComplete();
+    }
+
+    /**
+     * La fecha del path se convierte a LocalDate para la consulta por organización y día.
+     */
+    @Test
+    void getAllByOrganizationAndDate_ShouldQueryParsedDate() {
+        LocalDate day = LocalDate.of(2025, 3, 14);
+        when(programRepository.findAllByOrganizationIdAndProgramDate("org-1", day))
+                .thenReturn(Flux.just(DistributionProgram.builder().id("p1").organizationId("org-1").programDate(day).build()));
+
+        StepVerifier.create(distributionProgramService.getAllByOrganizationAndDate("org-1", "2025-03-14"))
+                .expectNextMatches(response -> "2025-03-14".equals(response.getProgramDate()))
+                .verifyComplete();
+    }
+
+    /**
+     * Una fecha mal formada termina en 400 dentro de la cadena, sin consultar MongoDB.
+     */
+    @Test
+    void getAllByOrganizationAndDate_ShouldRejectMalformedDate() {
+        StepVerifier.create(distributionProgramService.getAllByOrganizationAndDate("org-1", "14-03-2025"))
+                .expectErrorMatches(e -> e instanceof CustomException custom
+                        && custom.getErrorMessage().getErrorCode() == 400)
+                .verify();
+        verifyNoInteractions(programRepository);
+    }
+
+    /**
+     * En un lote, un elemento con fecha inválida se reporta como fallido
+     * sin impedir que el resto se inserte con códigos consecutivos.
+     */
+    @Test
+    void saveAll_ShouldReportResultPerItem() {
+        DistributionProgramCreateRequest valid = DistributionProgramCreateRequest.builder()
+                .organizationId("org-1").programDate("2025-01-10").status("PLANNED").build();
+        DistributionProgramCreateRequest invalid = DistributionProgramCreateRequest.builder()
+                .organizationId("org-1").programDate("10/01/2025").status("PLANNED").build();
+
+        when(codeSequenceService.nextCodes(CodeSequence.PROGRAM, 2)).thenReturn(Flux.just("PROG010", "PROG011"));
+        when(mongoTemplate.bulkOps(BulkMode.UNORDERED, DistributionProgram.class)).thenReturn(bulkOperations);
+        when(bulkOperations.insert(anyList())).thenReturn(bulkOperations);
+        when(bulkOperations.execute()).thenReturn(Mono.just(BulkWriteResult.unacknowledged()));
+
+        StepVerifier.create(distributionProgramService.saveAll(List.of(valid, invalid, valid)))
+                .expectNextMatches(result -> result.getSucceeded() == 2
+                        && result.getFailed() == 1
+                        && "PROG010".equals(result.getItems().get(0).getCode())
+                        && !result.getItems().get(1).isSuccess()
+                        && "PROG011".equals(result.getItems().get(2).getCode()))
+                .verifyComplete();
+
+        // Solo los insertados marcan su resumen diario
+        verify(rollupService, times(2)).markDirty(any(DistributionProgram.class));
+    }
+
+
+    /**
+     * En una actualización por lotes, un elemento sin programa es un error de la petición (400)
+     * y un id inexistente es 404; sólo el elemento válido llega al bulk.
+     */
+    @Test
+    void updateAll_ShouldSeparateInvalidItemsFromMissingPrograms() {
+        DistributionProgramCreateRequest program = DistributionProgramCreateRequest.builder()
+                .organizationId("org-1").zoneId("z1").status("PLANNED").build();
+        when(mongoTemplate.find(any(Query.class), eq(DistributionProgram.class)))
+                .thenReturn(Flux.just(DistributionProgram.builder().id("p1").organizationId("org-1")
+                                .programDate(LocalDate.of(2025, 1, 10)).build(),
+                        DistributionProgram.builder().id("p2").organizationId("org-1").build()));
+        when(mongoTemplate.bulkOps(BulkMode.UNORDERED, DistributionProgram.class)).thenReturn(bulkOperations);
+        when(bulkOperations.updateOne(any(Query.class), any(Update.class))).thenReturn(bulkOperations);
+        when(bulkOperations.execute()).thenReturn(Mono.just(BulkWriteResult.unacknowledged()));
+
+        StepVerifier.create(distributionProgramService.updateAll(List.of(
+                        new DistributionProgramBatchUpdateRequest("p1", program),
+                        new DistributionProgramBatchUpdateRequest("p2", null),
+                        new DistributionProgramBatchUpdateRequest("p3", program))))
+                .expectNextMatches(result -> result.getSucceeded() == 1
+                        && result.getItems().get(0).isSuccess()
+                        && result.getItems().get(1).getError().getErrorCode() == 400
+                        && result.getItems().get(2).getError().getErrorCode() == 404)
+                .verifyComplete();
+
+        verify(bulkOperations, times(1)).updateOne(any(Query.class), any(Update.class));
+    }
+
+    /**
+     * El cambio de estado masivo es un único updateMulti sobre los ids existentes; los
+     * demás se reportan como no encontrados.
+     */
+    @Test
+    void changeStatusAll_ShouldUpdateExistingProgramsInOneWrite() {
+        when(mongoTemplate.find(any(Query.class), eq(DistributionProgram.class)))
+                .thenReturn(Flux.just(DistributionProgram.builder().id("p1").organizationId("org-1").build()));
+        when(mongoTemplate.updateMulti(any(Query.class), any(Update.class), eq(DistributionProgram.class)))
+                .thenReturn(Mono.just(UpdateResult.acknowledged(1, 1L, null)));
+
+        StepVerifier.create(distributionProgramService.changeStatusAll(List.of("p1", "p9"), "COMPLETED"))
+                .expectNextMatches(result -> result.getSucceeded() == 1
+                        && result.getItems().get(1).getError().getErrorCode() == 404)
+                .verifyComplete();
+
+        ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate).updateMulti(any(Query.class), update.capture(), eq(DistributionProgram.class));
+        assertEquals(new Document("status", "COMPLETED"), update.getValue().getUpdateObject().get("$set"));
+    }
+
+    /**
+     * Un estado fuera de los permitidos o una lista de ids vacía se rechazan con 400
+     * antes de escribir.
+     */
+    @Test
+    void changeStatusAll_ShouldRejectInvalidStatusAndEmptyIds() {
+        StepVerifier.create(distributionProgramService.changeStatusAll(List.of("p1"), "DONE"))
+                .expectErrorMatches(e -> e instanceof CustomException custom
+                        && custom.getErrorMessage().getErrorCode() == 400)
+                .verify();
+        StepVerifier.create(distributionProgramService.changeStatusAll(List.of(), "COMPLETED"))
+                .expectErrorMatches(e -> e instanceof CustomException custom
+                        && custom.getErrorMessage().getErrorCode() == 400)
+                .verify();
+
+        verifyNoInteractions(mongoTemplate);
+    }
+
+    /**
+     * Merge patch: solo los campos enviados llegan al $set, null se traduce a $unset
+     * y la escritura es un único findAndModify con la versión esperada.
+     */
+    @Test
+    void patch_ShouldTranslateMergePatchToTargetedUpdate() throws Exception {
+        JsonNode patch = new ObjectMapper().readTree("{\"actualStartTime\":\"08:05\",\"observations\":null}");
+        when(atomicDocumentService.update(eq(DistributionProgram.class), eq("p1"), eq(2L), any(Update.class), eq("Program")))
+                .thenReturn(Mono.just(DistributionProgram.builder().id("p1").actualStartTime("08:05").version(3L).build()));
+
+        StepVerifier.create(distributionProgramService.patch("p1", patch, 2L))
+                .expectNextMatches(response -> "08:05".equals(response.getActualStartTime()) && response.getVersion() == 3L)
+                .verifyComplete();
+
+        ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+        verify(atomicDocumentService).update(eq(DistributionProgram.class), eq("p1"), eq(2L), update.capture(), eq("Program"));
+        assertEquals(new Document("actualStartTime", "08:05"), update.getValue().getUpdateObject().get("$set"));
+        assertEquals(new Document("observations", 1), update.getValue().getUpdateObject().get("$unset"));
+    }
+
+    /**
+     * Un patch que cambia la zona se condiciona a la versión leída y marca como pendientes
+     * tanto el día de la zona de origen como el de la zona de destino.
+     */
+    @Test
+    void patch_ShouldMarkOldAndNewZoneWhenZoneChanges() throws Exception {
+        JsonNode patch = new ObjectMapper().readTree("{\"zoneId\":\"z2\"}");
+        DistributionProgram existing = DistributionProgram.builder()
+                .id("p1").organizationId("org-1").zoneId("z1").programDate(LocalDate.of(2025, 3, 10)).version(5L).build();
+        DistributionProgram saved = DistributionProgram.builder()
+                .id("p1").organizationId("org-1").zoneId("z2").programDate(LocalDate.of(2025, 3, 10)).version(6L).build();
+        when(programRepository.findById("p1")).thenReturn(Mono.just(existing));
+        when(atomicDocumentService.update(eq(DistributionProgram.class), eq("p1"), eq(5L), any(Update.class), eq("Program")))
+                .thenReturn(Mono.just(saved));
+
+        StepVerifier.create(distributionProgramService.patch("p1", patch, null))
+                .expectNextMatches(response -> "z2".equals(response.getZoneId()))
+                .verifyComplete();
+
+        verify(rollupService).markDirty(existing);
+        verify(rollupService).markDirty(saved);
+    }
+
+    /**
+     * PUT sin versión: la escritura se condiciona a la versión leída. Si un cambio de estado
+     * llega entre la lectura y la escritura, el findAndModify no encuentra el documento con
+     * esa versión y la respuesta es 409 en lugar de sobrescribir el cambio.
+     */
+    @Test
+    void update_ShouldConflictWhenStatusChangesBetweenReadAndWrite() {
+        AtomicDocumentService atomic = new AtomicDocumentService(mongoTemplate);
+        DistributionProgramServiceImpl service = new DistributionProgramServiceImpl(
+                programRepository, codeSequenceService, mongoTemplate, atomic, rollupService);
+        when(programRepository.findById("p1")).thenReturn(Mono.just(DistributionProgram.builder()
+                .id("p1").organizationId("org-1").zoneId("z1").status("PLANNED").version(3L).build()));
+        // El cambio de estado concurrente ya dejó el documento en la versión 4
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class), eq(DistributionProgram.class)))
+                .thenReturn(Mono.empty());
+        when(mongoTemplate.exists(any(Query.class), eq(DistributionProgram.class))).thenReturn(Mono.just(true));
+
+        DistributionProgramCreateRequest request = new DistributionProgramCreateRequest();
+        request.setOrganizationId("org-1");
+        request.setZoneId("z1");
+        request.setStatus("PLANNED");
+
+        StepVerifier.create(service.update("p1", request, null))
+                .expectErrorMatches(e -> e instanceof CustomException
+                        && ((CustomException) e).getErrorMessage().getErrorCode() == 409)
+                .verify();
+
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate).findAndModify(query.capture(), any(Update.class), any(FindAndModifyOptions.class), eq(DistributionProgram.class));
+        assertEquals(3L, query.getValue().getQueryObject().get("version"));
+        verify(programRepository, never()).save(any(DistributionProgram.class));
+        verifyNoInteractions(rollupService);
+    }
+
+    /**
+     * Los campos fuera de la lista permitida se rechazan sin tocar la base de datos.
+     */
+    @Test
+    void patch_ShouldRejectNonPatchableFields() throws Exception {
+        JsonNode patch = new ObjectMapper().readTree("{\"programCode\":\"PROG999\"}");
+
+        StepVerifier.create(distributionProgramService.patch("p1", patch, null))
+                .expectErrorMatches(e -> e instanceof CustomException
+                        && ((CustomException) e).getErrorMessage().getErrorCode() == 400)
+                .verify();
+
+        verifyNoInteractions(atomicDocumentService);
+    }
+
+    /**
+     * El estado se valida igual en merge patch, PUT y cambio individual que en el lote:
+     * un valor fuera de ProgramStatus es un 400 sin tocar la base de datos.
+     */
+    @Test
+    void statusChanges_ShouldRejectUnknownStatus() throws Exception {
+        JsonNode patch = new ObjectMapper().readTree("{\"status\":\"ACTIVE\"}");
+        DistributionProgramCreateRequest request = DistributionProgramCreateRequest.builder()
+                .organizationId("org-1").zoneId("z1").status("DONE").build();
+
+        StepVerifier.create(distributionProgramService.patch("p1", patch, null))
+                .expectErrorMatches(e -> e instanceof CustomException
+                        && ((CustomException) e).getErrorMessage().getErrorCode() == 400)
+                .verify();
+        StepVerifier.create(distributionProgramService.update("p1", request, null))
+                .expectErrorMatches(e -> e instanceof CustomException
+                        && ((CustomException) e).getErrorMessage().getErrorCode() == 400)
+                .verify();
+        StepVerifier.create(distributionProgramService.changeStatus("p1", "INACTIVE", null))
+                .expectErrorMatches(e -> e instanceof CustomException
+                        && ((CustomException) e).getErrorMessage().getErrorCode() == 400)
+                .verify();
+
+        verifyNoInteractions(atomicDocumentService, programRepository);
+    }
+
+    /**
+     * Activar y desactivar un programa usan los estados de ProgramStatus que acepta el lote.
+     */
+    @Test
+    void activateAndDeactivate_ShouldUseProgramStatuses() {
+        when(atomicDocumentService.changeStatus(eq(DistributionProgram.class), eq("p1"), isNull(), any(String.class), eq("Program")))
+                .thenAnswer(invocation -> Mono.just(DistributionProgram.builder()
+                        .id("p1").status(invocation.getArgument(3)).build()));
+
+        StepVerifier.create(distributionProgramService.activate("p1", null))
+                .expectNextMatches(response -> "PLANNED".equals(response.getStatus()))
+                .verifyComplete();
+        StepVerifier.create(distributionProgramService.desactivate("p1", null))
+                .expectNextMatches(response -> "CANCELLED".equals(response.getStatus()))
+                .verifyComplete();
+    }
+
+    /**
+     * Los lotes vacíos o por encima del máximo se rechazan con 400 tanto al crear como al actualizar.
+     */
+    @Test
+    void batches_ShouldRejectEmptyAndOversizedLists() {
+        List<DistributionProgramCreateRequest> oversized = Collections.nCopies(
+                DistributionProgramServiceImpl.MAX_BATCH_SIZE + 1, new DistributionProgramCreateRequest());
+
+        StepVerifier.create(distributionProgramService.saveAll(List.of()))
+                .expectErrorMatches(e -> e instanceof CustomException
+                        && ((CustomException) e).getErrorMessage().getErrorCode() == 400)
+                .verify();
+        StepVerifier.create(distributionProgramService.saveAll(oversized))
+                .expectErrorMatches(e -> e instanceof CustomException
+                        && ((CustomException) e).getErrorMessage().getErrorCode() == 400)
+                .verify();
+        StepVerifier.create(distributionProgramService.updateAll(List.of()))
+                .expectErrorMatches(e -> e instanceof CustomException
+                        && ((CustomException) e).getErrorMessage().getErrorCode() == 400)
+                .verify();
+
+        verifyNoInteractions(codeSequenceService, mongoTemplate);
+    }
+
+    /**
+     * La vista de un día filtra por organización, zona y fecha exacta y solo
+     * proyecta los campos del resumen.
+     */
+    @Test
+    void getByDateRange_ShouldQueryOnlyTheRequestedDay() {
+        when(mongoTemplate.find(any(Query.class), eq(DistributionProgram.class)))
+                .thenReturn(Flux.just(DistributionProgram.builder()
+                        .id("p1").zoneId("zone-1").programDate(LocalDate.of(2025, 3, 10)).status("PLANNED").build()));
+
+        DistributionProgramRangeQuery filter = DistributionProgramRangeQuery.builder()
+                .organizationId("org-1").from("2025-03-10").zoneId("zone-1").build();
+
+        StepVerifier.create(distributionProgramService.getByDateRange(filter))
+                .expectNextMatches(summary -> "2025-03-10".equals(summary.getProgramDate()))
+                .verifyComplete();
+
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate).find(query.capture(), eq(DistributionProgram.class));
+        Document criteria = query.getValue().getQueryObject();
+        assertEquals("org-1", criteria.get("organizationId"));
+        assertEquals("zone-1", criteria.get("zoneId"));
+        assertEquals(new Document("$gte", LocalDate.of(2025, 3, 10)).append("$lte", LocalDate.of(2025, 3, 10)),
+                criteria.get("programDate"));
+        assertNull(query.getValue().getFieldsObject().get("observations"));
+        assertEquals(1, query.getValue().getFieldsObject().get("status"));
+    }
+
+    /**
+     * Un rango invertido se rechaza antes de consultar Mongo.
+     */
+    @Test
+    void getByDateRange_ShouldRejectInvertedRange() {
+        DistributionProgramRangeQuery filter = DistributionProgramRangeQuery.builder()
+                .organizationId("org-1").from("2025-03-10").to("2025-03-01").build();
+
+        StepVerifier.create(distributionProgramService.getByDateRange(filter))
+                .expectErrorMatches(e -> e instanceof CustomException
+                        && ((CustomException) e).getErrorMessage().getErrorCode() == 400)
+                .verify();
+
+        verifyNoInteractions(mongoTemplate);
+    }
 }
@@ -6,15 +6,18 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 import org.junit.jupiter.api.BeforeEach;
+import pe.edu.vallegrande.ms_distribution.domain.enums.CodeSequence;
 import pe.edu.vallegrande.ms_distribution.infrastructure.dto.request.FareCreateRequest;
 import pe.edu.vallegrande.ms_distribution.infrastructure.repository.FareRepository;
+import pe.edu.vallegrande.ms_distribution.infrastructure.service.AtomicDocumentService;
+import pe.edu.vallegrande.ms_distribution.infrastructure.service.CodeSequenceService;
+import pe.edu.vallegrande.ms_distribution.infrastructure.service.FareReadModel;
 import reactor.core.publisher.Mono;
 import reactor.test.StepVerifier;
 
 import java.math.BigDecimal;
 
 import static org.mockito.ArgumentMatchers.any;
-import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.*;
 
 public class FareServiceImplTest {
@@ -22,6 +25,15 @@ public class FareServiceImplTest {
     @Mock
     private FareRepository fareRepository;
 
+    @Mock
+    private CodeSequenceService codeSequenceService;
+
+    @Mock
+    private FareReadModel fareReadModel;
+
+    @Mock
+    private AtomicDocumentService atomicDocumentService;
+
     @InjectMocks
     private FareServiceImpl fareService;
 
@@ -49,13 +61,10 @@ public class FareServiceImplTest {
                 .build();
 
         // Configuramos los mocks para simular el comportamiento del repositorio:
-        // 1. Cuando se busque el último código de tarifa, devolver vacío (no hay registros previos).
-        when(fareRepository.findTopByOrderByFareCodeDesc()).thenReturn(Mono.empty());
-
-        // 2. Cuando se verifique si un código existe, devolver false (no existe).
-        when(fareRepository.existsByFareCode(anyString())).thenReturn(Mono.just(false));
+        // 1. Cuando se reserve el siguiente código de tarifa, devolver el primero de la secuencia.
+        when(codeSequenceService.nextCode(CodeSequence.FARE)).thenReturn(Mono.just("TAR001"));
 
-        // 3. Cuando se guarde una tarifa, devolver el mismo objeto que se envió.
+        // 2. Cuando se guarde una tarifa, devolver el mismo objeto que se envió.
         when(fareRepository.save(any())).thenAnswer(invocation -> Mono.just(invocation.getArgument(0)));
 
         // --- Act & Assert: Ejecutamos el método y validamos el resultado ---
@@ -0,0 +1,130 @@
+package pe.edu.vallegrande.ms_distribution.application.services.impl;
+
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import pe.edu.vallegrande.ms_distribution.application.services.ProgramRollupService;
+import pe.edu.vallegrande.ms_distribution.domain.models.DistributionProgram;
+import pe.edu.vallegrande.ms_distribution.domain.models.ProgramEvent;
+import pe.edu.vallegrande.ms_distribution.infrastructure.dto.request.ProgramEventRequest;
+import pe.edu.vallegrande.ms_distribution.infrastructure.repository.ProgramEventRepository;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+public class ProgramExecutionServiceImplTest {
+
+    @Mock
+    private ReactiveMongoTemplate mongoTemplate;
+
+    @Mock
+    private ProgramEventRepository eventRepository;
+
+    @Mock
+    private ProgramRollupService rollupService;
+
+    @InjectMocks
+    private ProgramExecutionServiceImpl programExecutionService;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+    }
+
+    /**
+     * START pasa el programa a IN_PROGRESS con la hora real en un solo findAndModify
+     * y deja la entrada en el registro con la organización y zona del programa.
+     */
+    @Test
+    void recordEvent_StartShouldSetStatusAndActualTime() {
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class), eq(DistributionProgram.class)))
+                .thenReturn(Mono.just(DistributionProgram.builder()
+                        .id("p1").organizationId("org-1").zoneId("zone-1").status("IN_PROGRESS").version(5L).build()));
+        when(eventRepository.insert(any(ProgramEvent.class)))
+                .thenAnswer(invocation -> Mono.just(invocation.getArgument(0)));
+
+        ProgramEventRequest request = ProgramEventRequest.builder().type("start").time("07:58").build();
+
+        StepVerifier.create(programExecutionService.recordEvent("p1", request))
+                .expectNextMatches(event -> "START".equals(event.getType())
+                        && "IN_PROGRESS".equals(event.getStatus())
+                        && event.getVersion() == 5L)
+                .verifyComplete();
+
+        ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate).findAndModify(any(Query.class), update.capture(), any(FindAndModifyOptions.class), eq(DistributionProgram.class));
+        assertEquals("07:58", update.getValue().getUpdateObject().get("$set", Document.class).get("actualStartTime"));
+
+        ArgumentCaptor<ProgramEvent> event = ArgumentCaptor.forClass(ProgramEvent.class);
+        verify(eventRepository).insert(event.capture());
+        assertEquals("zone-1", event.getValue().getZoneId());
+    }
+
+    /**
+     * Un reintento con el mismo clientEventId devuelve el evento ya registrado sin
+     * volver a modificar el programa.
+     */
+    @Test
+    void recordEvent_RetryShouldReturnRecordedEvent() {
+        ProgramEvent recorded = ProgramEvent.builder()
+                .id("e1").programId("p1").type("FINISH").status("COMPLETED").clientEventId("c-1").build();
+        when(eventRepository.findFirstByProgramIdAndClientEventId("p1", "c-1")).thenReturn(Mono.just(recorded));
+
+        ProgramEventRequest request = ProgramEventRequest.builder().type("FINISH").time("10:00").clientEventId("c-1").build();
+
+        StepVerifier.create(programExecutionService.recordEvent("p1", request))
+                .expectNextMatches(event -> "e1".equals(event.getId()) && "COMPLETED".equals(event.getStatus()))
+                .verifyComplete();
+
+        verifyNoInteractions(mongoTemplate);
+        verify(eventRepository, never()).insert(any(ProgramEvent.class));
+    }
+
+    /**
+     * Dos reintentos simultáneos del mismo evento: el findAndModify sólo aplica si el
+     * clientEventId no figura entre los aplicados, así el perdedor no incrementa la versión
+     * otra vez y devuelve el evento registrado por el ganador.
+     */
+    @Test
+    void recordEvent_ConcurrentRetryShouldNotApplyTwice() {
+        ProgramEvent recorded = ProgramEvent.builder()
+                .id("e1").programId("p1").type("START").status("IN_PROGRESS").version(6L).clientEventId("c-1").build();
+        when(eventRepository.findFirstByProgramIdAndClientEventId("p1", "c-1"))
+                .thenReturn(Mono.empty())
+                .thenReturn(Mono.just(recorded));
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class), eq(DistributionProgram.class)))
+                .thenReturn(Mono.empty());
+        when(mongoTemplate.findOne(any(Query.class), eq(DistributionProgram.class)))
+                .thenReturn(Mono.just(DistributionProgram.builder()
+                        .id("p1").organizationId("org-1").zoneId("zone-1").status("IN_PROGRESS").version(6L).build()));
+        when(eventRepository.insert(any(ProgramEvent.class)))
+                .thenReturn(Mono.error(new DuplicateKeyException("program_client_event_idx")));
+
+        ProgramEventRequest request = ProgramEventRequest.builder().type("START").time("08:00").clientEventId("c-1").build();
+
+        StepVerifier.create(programExecutionService.recordEvent("p1", request))
+                .expectNextMatches(event -> "e1".equals(event.getId()) && event.getVersion() == 6L)
+                .verifyComplete();
+
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate).findAndModify(query.capture(), update.capture(), any(FindAndModifyOptions.class), eq(DistributionProgram.class));
+        assertEquals(new Document("$ne", "c-1"), query.getValue().getQueryObject().get("appliedEventIds"));
+        assertTrue(update.getValue().modifies("appliedEventIds"));
+        verify(rollupService, never()).markDirty(any(DistributionProgram.class));
+    }
+}
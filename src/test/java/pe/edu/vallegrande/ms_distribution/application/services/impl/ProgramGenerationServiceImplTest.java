@@ -0,0 +1,197 @@
+package pe.edu.vallegrande.ms_distribution.application.services.impl;
+
+import com.mongodb.MongoBulkWriteException;
+import com.mongodb.ServerAddress;
+import com.mongodb.bulk.BulkWriteError;
+import com.mongodb.bulk.BulkWriteResult;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.bson.BsonDocument;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
+import org.springframework.data.mongodb.core.BulkOperations.BulkMode;
+import org.springframework.data.mongodb.core.ReactiveBulkOperations;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import pe.edu.vallegrande.ms_distribution.application.services.ProgramRollupService;
+import pe.edu.vallegrande.ms_distribution.domain.enums.CodeSequence;
+import pe.edu.vallegrande.ms_distribution.domain.models.DistributionProgram;
+import pe.edu.vallegrande.ms_distribution.domain.models.DistributionRoute;
+import pe.edu.vallegrande.ms_distribution.domain.models.DistributionSchedule;
+import pe.edu.vallegrande.ms_distribution.infrastructure.dto.request.ProgramGenerationRequest;
+import pe.edu.vallegrande.ms_distribution.infrastructure.repository.DistributionRouteRepository;
+import pe.edu.vallegrande.ms_distribution.infrastructure.repository.DistributionScheduleRepository;
+import pe.edu.vallegrande.ms_distribution.infrastructure.service.CodeSequenceService;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+public class ProgramGenerationServiceImplTest {
+
+    @Mock
+    private DistributionScheduleRepository scheduleRepository;
+
+    @Mock
+    private DistributionRouteRepository routeRepository;
+
+    @Mock
+    private CodeSequenceService codeSequenceService;
+
+    @Mock
+    private ReactiveMongoTemplate mongoTemplate;
+
+    @Mock
+    private ReactiveBulkOperations bulkOperations;
+
+    @Mock
+    private ProgramRollupService rollupService;
+
+    @Spy
+    private SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @InjectMocks
+    private ProgramGenerationServiceImpl generationService;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+    }
+
+    /**
+     * Un horario de lunes y miércoles sobre la segunda zona de una ruta genera
+     * dos programas en la semana; el del lunes ya existía y se omite.
+     */
+    @Test
+    @SuppressWarnings("unchecked")
+    void generate_ShouldExpandSchedulesAndSkipExistingPrograms() {
+        DistributionSchedule schedule = DistributionSchedule.builder()
+                .id("sch-1").organizationId("org-1").zoneId("zone-2")
+                .daysOfWeek(List.of("LUNES", "Miércoles")).startTime("06:00").build();
+        DistributionRoute route = DistributionRoute.builder()
+                .id("route-1").organizationId("org-1").responsibleUserId("user-1")
+                .zones(List.of(
+                        new DistributionRoute.ZoneOrder("zone-2", 2, 3),
+                        new DistributionRoute.ZoneOrder("zone-1", 1, 2)))
+                .build();
+
+        when(scheduleRepository.findAllByOrganizationIdAndStatus("org-1", "ACTIVE")).thenReturn(Flux.just(schedule));
+        when(routeRepository.findAllByOrganizationIdAndStatus("org-1", "ACTIVE")).thenReturn(Flux.just(route));
+        when(mongoTemplate.getCollectionName(DistributionProgram.class)).thenReturn("programs");
+        when(mongoTemplate.find(any(Query.class), eq(Document.class), anyString()))
+                .thenReturn(Flux.just(new Document("generationKey", "sch-1|route-1|zone-2|2025-01-06")));
+        when(codeSequenceService.nextCodes(CodeSequence.PROGRAM, 1)).thenReturn(Flux.just("PROG100"));
+        when(mongoTemplate.bulkOps(BulkMode.UNORDERED, DistributionProgram.class)).thenReturn(bulkOperations);
+        when(bulkOperations.insert(anyList())).thenReturn(bulkOperations);
+        when(bulkOperations.execute()).thenReturn(Mono.just(BulkWriteResult.acknowledged(1, 0, 0, 0, List.of(), List.of())));
+
+        ProgramGenerationRequest request = new ProgramGenerationRequest("org-1", "2025-01-06", "2025-01-12");
+
+        StepVerifier.create(generationService.generate(request))
+                .expectNextMatches(result -> result.getCandidates() == 2
+                        && result.getCreated() == 1
+                        && result.getSkipped() == 1)
+                .verifyComplete();
+
+        ArgumentCaptor<List<DistributionProgram>> inserted = ArgumentCaptor.forClass(List.class);
+        verify(bulkOperations).insert(inserted.capture());
+        DistributionProgram program = inserted.getValue().get(0);
+        assertEquals("PROG100", program.getProgramCode());
+        assertEquals("2025-01-08", program.getProgramDate().toString());
+        assertEquals("08:00", program.getPlannedStartTime());
+        assertEquals("11:00", program.getPlannedEndTime());
+        assertNull(meterRegistry.find("programs.generation.collisions").counter());
+    }
+
+    /**
+     * Los tramos que cruzan medianoche o terminan después del endTime del horario no se
+     * generan y se cuentan como fuera de horario.
+     */
+    @Test
+    void generate_ShouldCountSlotsOutsideScheduleWindow() {
+        DistributionSchedule schedule = DistributionSchedule.builder()
+                .id("sch-1").organizationId("org-1").zoneId("zone-1")
+                .daysOfWeek(List.of("LUNES")).startTime("20:00").endTime("23:00").build();
+        DistributionRoute pastEnd = DistributionRoute.builder()
+                .id("route-1").organizationId("org-1")
+                .zones(List.of(new DistributionRoute.ZoneOrder("zone-1", 1, 4)))
+                .build();
+        DistributionRoute pastMidnight = DistributionRoute.builder()
+                .id("route-2").organizationId("org-1")
+                .zones(List.of(new DistributionRoute.ZoneOrder("zone-0", 1, 3),
+                        new DistributionRoute.ZoneOrder("zone-1", 2, 2)))
+                .build();
+
+        when(scheduleRepository.findAllByOrganizationIdAndStatus("org-1", "ACTIVE")).thenReturn(Flux.just(schedule));
+        when(routeRepository.findAllByOrganizationIdAndStatus("org-1", "ACTIVE")).thenReturn(Flux.just(pastEnd, pastMidnight));
+
+        ProgramGenerationRequest request = new ProgramGenerationRequest("org-1", "2025-01-06", "2025-01-12");
+
+        StepVerifier.create(generationService.generate(request))
+                .expectNextMatches(result -> result.getCandidates() == 0
+                        && result.getCreated() == 0
+                        && result.getOutOfWindow() == 2)
+                .verifyComplete();
+
+        verifyNoInteractions(codeSequenceService);
+        verify(mongoTemplate, never()).bulkOps(any(BulkMode.class), eq(DistributionProgram.class));
+    }
+
+    /**
+     * Un lote con claves duplicadas cuenta sólo los insertados; un error de escritura
+     * distinto de 11000 se propaga en lugar de contarse como omitido.
+     */
+    @Test
+    void generate_ShouldAbsorbOnlyDuplicateKeyErrors() {
+        DistributionSchedule schedule = DistributionSchedule.builder()
+                .id("sch-1").organizationId("org-1").zoneId("zone-1")
+                .daysOfWeek(List.of("LUNES", "MARTES")).startTime("06:00").build();
+        DistributionRoute route = DistributionRoute.builder()
+                .id("route-1").organizationId("org-1")
+                .zones(List.of(new DistributionRoute.ZoneOrder("zone-1", 1, 2)))
+                .build();
+
+        when(scheduleRepository.findAllByOrganizationIdAndStatus("org-1", "ACTIVE")).thenReturn(Flux.just(schedule));
+        when(routeRepository.findAllByOrganizationIdAndStatus("org-1", "ACTIVE")).thenReturn(Flux.just(route));
+        when(mongoTemplate.getCollectionName(DistributionProgram.class)).thenReturn("programs");
+        when(mongoTemplate.find(any(Query.class), eq(Document.class), anyString())).thenReturn(Flux.empty());
+        when(codeSequenceService.nextCodes(CodeSequence.PROGRAM, 2)).thenReturn(Flux.just("PROG1", "PROG2"));
+        when(mongoTemplate.bulkOps(BulkMode.UNORDERED, DistributionProgram.class)).thenReturn(bulkOperations);
+        when(bulkOperations.insert(anyList())).thenReturn(bulkOperations);
+        BulkWriteResult partial = BulkWriteResult.acknowledged(1, 0, 0, 0, List.of(), List.of());
+        when(bulkOperations.execute())
+                .thenReturn(Mono.error(bulkException(partial, 11000)))
+                .thenReturn(Mono.error(bulkException(partial, 13)));
+
+        ProgramGenerationRequest request = new ProgramGenerationRequest("org-1", "2025-01-06", "2025-01-12");
+
+        StepVerifier.create(generationService.generate(request))
+                .expectNextMatches(result -> result.getCandidates() == 2 && result.getCreated() == 1 && result.getSkipped() == 1)
+                .verifyComplete();
+        assertEquals(1.0, meterRegistry.counter("programs.generation.collisions").count());
+
+        StepVerifier.create(generationService.generate(request))
+                .expectError(MongoBulkWriteException.class)
+                .verify();
+    }
+
+    private static MongoBulkWriteException bulkException(BulkWriteResult result, int code) {
+        return new MongoBulkWriteException(result,
+                List.of(new BulkWriteError(code, "write failed", new BsonDocument(), 1)),
+                null, new ServerAddress(), Set.of());
+    }
+}
@@ -0,0 +1,168 @@
+package pe.edu.vallegrande.ms_distribution.application.services.impl;
+
+import com.mongodb.client.result.DeleteResult;
+import com.mongodb.client.result.UpdateResult;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.TypedAggregation;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import pe.edu.vallegrande.ms_distribution.domain.models.DistributionProgram;
+import pe.edu.vallegrande.ms_distribution.domain.models.ProgramDailyRollup;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+public class ProgramRollupServiceImplTest {
+
+    private static final LocalDate DAY = LocalDate.of(2025, 1, 10);
+
+    @Mock
+    private ReactiveMongoTemplate mongoTemplate;
+
+    @InjectMocks
+    private ProgramRollupServiceImpl rollupService;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        when(mongoTemplate.save(any(ProgramDailyRollup.class)))
+                .thenAnswer(invocation -> Mono.just(invocation.getArgument(0)));
+        when(mongoTemplate.remove(any(Query.class), eq(ProgramDailyRollup.class)))
+                .thenReturn(Mono.just(DeleteResult.acknowledged(1)));
+        when(mongoTemplate.upsert(any(Query.class), any(Update.class), eq(ProgramDailyRollup.class)))
+                .thenReturn(Mono.just(UpdateResult.acknowledged(1, 1L, null)));
+    }
+
+    /**
+     * Varias escrituras del mismo día y zona se recalculan una sola vez y el resumen
+     * se guarda con la clave organización|zona|día.
+     */
+    @Test
+    void flush_ShouldRecalculateEachDirtyDayOnce() {
+        when(mongoTemplate.aggregate(any(TypedAggregation.class), eq(ProgramDailyRollup.class)))
+                .thenReturn(Flux.just(ProgramDailyRollup.builder()
+                        .organizationId("org-1").zoneId("z1").day(DAY).total(3).completed(2).build()));
+
+        rollupService.markDirty(program("z1"));
+        rollupService.markDirty(program("z1"));
+        rollupService.markDirty(DistributionProgram.builder().organizationId("org-1").build());
+
+        StepVerifier.create(rollupService.flush()).verifyComplete();
+
+        ArgumentCaptor<ProgramDailyRollup> saved = ArgumentCaptor.forClass(ProgramDailyRollup.class);
+        verify(mongoTemplate, times(1)).aggregate(any(TypedAggregation.class), eq(ProgramDailyRollup.class));
+        verify(mongoTemplate).save(saved.capture());
+        assertEquals("org-1|z1|2025-01-10", saved.getValue().getId());
+
+        // Sin nuevas escrituras el siguiente ciclo no consulta nada
+        StepVerifier.create(rollupService.flush()).verifyComplete();
+        verify(mongoTemplate, times(1)).aggregate(any(TypedAggregation.class), eq(ProgramDailyRollup.class));
+    }
+
+    /**
+     * Si el día ya no tiene programas (se eliminaron o cambiaron de zona) se borra su resumen.
+     */
+    @Test
+    void flush_ShouldRemoveRollupOfEmptyDay() {
+        when(mongoTemplate.aggregate(any(TypedAggregation.class), eq(ProgramDailyRollup.class)))
+                .thenReturn(Flux.empty());
+
+        rollupService.markDirty(program(null));
+
+        StepVerifier.create(rollupService.flush()).verifyComplete();
+
+        ArgumentCaptor<Query> removed = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate).remove(removed.capture(), eq(ProgramDailyRollup.class));
+        verify(mongoTemplate, never()).save(any(ProgramDailyRollup.class));
+        assertEquals("org-1||2025-01-10", removed.getValue().getQueryObject().get("_id"));
+    }
+
+    /**
+     * Un fallo deja el día pendiente y el siguiente ciclo vuelve a intentarlo.
+     */
+    @Test
+    void flush_ShouldRetryFailedDayOnNextCycle() {
+        when(mongoTemplate.aggregate(any(TypedAggregation.class), eq(ProgramDailyRollup.class)))
+                .thenReturn(Flux.error(new IllegalStateException("timeout")))
+                .thenReturn(Flux.empty());
+
+        rollupService.markDirty(program("z1"));
+
+        StepVerifier.create(rollupService.flush()).verifyComplete();
+        StepVerifier.create(rollupService.flush()).verifyComplete();
+
+        verify(mongoTemplate, times(2)).aggregate(any(TypedAggregation.class), eq(ProgramDailyRollup.class));
+        verify(mongoTemplate).remove(any(Query.class), eq(ProgramDailyRollup.class));
+    }
+
+    /**
+     * La reconstrucción sólo borra resúmenes sin programas que no se hayan actualizado
+     * después de empezar, para no perder lo que un flush recalculó mientras tanto.
+     */
+    @Test
+    void rebuild_ShouldOnlyRemoveRollupsOlderThanRebuildStart() {
+        when(mongoTemplate.aggregate(any(TypedAggregation.class), eq(ProgramDailyRollup.class)))
+                .thenReturn(Flux.just(ProgramDailyRollup.builder()
+                        .organizationId("org-1").zoneId("z1").day(DAY).total(1).build()));
+        Instant before = Instant.now();
+
+        StepVerifier.create(rollupService.rebuild("org-1", DAY, DAY.plusDays(6)))
+                .expectNext(1L)
+                .verifyComplete();
+
+        ArgumentCaptor<Query> removed = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate).remove(removed.capture(), eq(ProgramDailyRollup.class));
+        Document filter = removed.getValue().getQueryObject();
+        assertEquals(new Document("$nin", List.of("org-1|z1|2025-01-10")), filter.get("_id"));
+        Instant started = (Instant) filter.get("updatedAt", Document.class).get("$lt");
+        assertFalse(started.isBefore(before));
+    }
+
+    /**
+     * La reconstrucción escribe con un upsert condicionado a updatedAt anterior a su inicio;
+     * si un flush ya dejó un resumen más nuevo, el choque de _id se ignora y ese resumen se conserva.
+     */
+    @Test
+    void rebuild_ShouldNotOverwriteRollupRefreshedByFlush() {
+        when(mongoTemplate.aggregate(any(TypedAggregation.class), eq(ProgramDailyRollup.class)))
+                .thenReturn(Flux.just(ProgramDailyRollup.builder()
+                        .organizationId("org-1").zoneId("z1").day(DAY).total(1).build()));
+        when(mongoTemplate.upsert(any(Query.class), any(Update.class), eq(ProgramDailyRollup.class)))
+                .thenReturn(Mono.error(new DuplicateKeyException("E11000 duplicate key error")));
+        Instant before = Instant.now();
+
+        StepVerifier.create(rollupService.rebuild("org-1", DAY, DAY))
+                .expectNext(1L)
+                .verifyComplete();
+
+        ArgumentCaptor<Query> upserted = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate).upsert(upserted.capture(), any(Update.class), eq(ProgramDailyRollup.class));
+        verify(mongoTemplate, never()).save(any(ProgramDailyRollup.class));
+        Document filter = upserted.getValue().getQueryObject();
+        assertEquals("org-1|z1|2025-01-10", filter.get("_id"));
+        Document olderThanStart = filter.getList("$or", Document.class).get(0);
+        assertFalse(((Instant) olderThanStart.get("updatedAt", Document.class).get("$lt")).isBefore(before));
+    }
+
+    private static DistributionProgram program(String zoneId) {
+        return DistributionProgram.builder().organizationId("org-1").zoneId(zoneId).programDate(DAY).build();
+    }
+}
@@ -0,0 +1,107 @@
+package pe.edu.vallegrande.ms_distribution.infrastructure.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.StatusCode;
+import io.opentelemetry.api.trace.Tracer;
+import io.opentelemetry.context.Context;
+import io.opentelemetry.sdk.common.CompletableResultCode;
+import io.opentelemetry.sdk.trace.ReadableSpan;
+import io.opentelemetry.sdk.trace.SdkTracerProvider;
+import io.opentelemetry.sdk.trace.SpanProcessor;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.time.Duration;
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+public class AdaptiveSamplingSpanProcessorTest {
+
+    private SpanProcessor exporter;
+    private SimpleMeterRegistry meterRegistry;
+    private SdkTracerProvider tracerProvider;
+    private Tracer tracer;
+
+    @BeforeEach
+    void setUp() {
+        exporter = mock(SpanProcessor.class);
+        when(exporter.isEndRequired()).thenReturn(true);
+        when(exporter.shutdown()).thenReturn(CompletableResultCode.ofSuccess());
+        meterRegistry = new SimpleMeterRegistry();
+        // fast-ratio 0: sólo se exportan errores y lentas
+        tracerProvider = SdkTracerProvider.builder()
+                .addSpanProcessor(new AdaptiveSamplingSpanProcessor(exporter, Duration.ofMillis(500), 0.0,
+                        100, Duration.ofMinutes(1), meterRegistry))
+                .build();
+        tracer = tracerProvider.get("test");
+    }
+
+    @AfterEach
+    void tearDown() {
+        tracerProvider.close();
+    }
+
+    /**
+     * Una petición rápida y correcta se descarta completa; con un error en un span hijo
+     * se exporta la traza entera, hijos incluidos.
+     */
+    @Test
+    void onEnd_ShouldKeepWholeTraceWhenAnyChildFailed() {
+        trace(Duration.ofMillis(20), false);
+        verify(exporter, never()).onEnd(any());
+
+        trace(Duration.ofMillis(20), true);
+        ArgumentCaptor<ReadableSpan> exported = ArgumentCaptor.forClass(ReadableSpan.class);
+        verify(exporter, times(2)).onEnd(exported.capture());
+        assertEquals("mongo.find", exported.getAllValues().get(0).getName());
+        assertEquals("http.request", exported.getAllValues().get(1).getName());
+        assertEquals(1.0, meterRegistry.get("tracing.sampling.decisions").tag("decision", "dropped").counter().count());
+        assertEquals(1.0, meterRegistry.get("tracing.sampling.decisions").tag("decision", "error").counter().count());
+    }
+
+    /**
+     * Una petición que supera el umbral se exporta aunque no tenga errores.
+     */
+    @Test
+    void onEnd_ShouldKeepSlowTrace() {
+        trace(Duration.ofMillis(800), false);
+
+        verify(exporter, times(2)).onEnd(any());
+        assertEquals(1.0, meterRegistry.get("tracing.sampling.decisions").tag("decision", "slow").counter().count());
+    }
+
+    /**
+     * Un span que termina después de su raíz sigue la decisión ya tomada para la traza.
+     */
+    @Test
+    void onEnd_ShouldApplyDecisionToSpansEndingAfterRoot() {
+        Instant start = Instant.now();
+        Span root = tracer.spanBuilder("http.request").setStartTimestamp(start).startSpan();
+        Span late = tracer.spanBuilder("app.service").setParent(Context.current().with(root))
+                .setStartTimestamp(start).startSpan();
+        root.end(start.plusMillis(800));
+        late.end(start.plusMillis(801));
+
+        ArgumentCaptor<ReadableSpan> exported = ArgumentCaptor.forClass(ReadableSpan.class);
+        verify(exporter, times(2)).onEnd(exported.capture());
+        assertEquals("app.service", exported.getAllValues().get(1).getName());
+    }
+
+    private void trace(Duration duration, boolean childFails) {
+        Instant start = Instant.now();
+        Span root = tracer.spanBuilder("http.request").setStartTimestamp(start).startSpan();
+        Span child = tracer.spanBuilder("mongo.find").setParent(Context.current().with(root))
+                .setStartTimestamp(start).startSpan();
+        if (childFails) {
+            child.setStatus(StatusCode.ERROR);
+        }
+        child.end(start.plusMillis(5));
+        root.end(start.plus(duration));
+    }
+}
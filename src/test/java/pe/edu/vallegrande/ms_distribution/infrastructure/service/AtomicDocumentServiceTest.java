@@ -0,0 +1,92 @@
+package pe.edu.vallegrande.ms_distribution.infrastructure.service;
+
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import pe.edu.vallegrande.ms_distribution.domain.models.Fare;
+import pe.edu.vallegrande.ms_distribution.infrastructure.exception.CustomException;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+public class AtomicDocumentServiceTest {
+
+    @Mock
+    private ReactiveMongoTemplate mongoTemplate;
+
+    @InjectMocks
+    private AtomicDocumentService atomicDocumentService;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+    }
+
+    /**
+     * El cambio de estado es un solo findAndModify: $set del estado, $inc de la versión
+     * y la versión esperada como parte del filtro; no se consulta el documento antes.
+     */
+    @Test
+    void changeStatus_ShouldUpdateInSingleRoundTrip() {
+        Fare updated = Fare.builder().id("f1").status("INACTIVE").version(4L).build();
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class), eq(Fare.class)))
+                .thenReturn(Mono.just(updated));
+
+        StepVerifier.create(atomicDocumentService.changeStatus(Fare.class, "f1", 3L, "INACTIVE", "Fare"))
+                .expectNext(updated)
+                .verifyComplete();
+
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate).findAndModify(query.capture(), update.capture(), any(FindAndModifyOptions.class), eq(Fare.class));
+        verify(mongoTemplate, never()).exists(any(Query.class), any(Class.class));
+
+        assertEquals(3L, query.getValue().getQueryObject().get("version"));
+        Document set = (Document) update.getValue().getUpdateObject().get("$set");
+        Document inc = (Document) update.getValue().getUpdateObject().get("$inc");
+        assertEquals(new Document("status", "INACTIVE"), set);
+        assertEquals(1, inc.get("version"));
+    }
+
+    /**
+     * Si el documento existe pero su versión cambió, se responde 409 en lugar de sobrescribir.
+     */
+    @Test
+    void changeStatus_ShouldFailWithConflictWhenVersionIsStale() {
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class), eq(Fare.class)))
+                .thenReturn(Mono.empty());
+        when(mongoTemplate.exists(any(Query.class), eq(Fare.class))).thenReturn(Mono.just(true));
+
+        StepVerifier.create(atomicDocumentService.changeStatus(Fare.class, "f1", 3L, "ACTIVE", "Fare"))
+                .expectErrorMatches(e -> e instanceof CustomException
+                        && ((CustomException) e).getErrorMessage().getErrorCode() == 409)
+                .verify();
+    }
+
+    /**
+     * Sin versión esperada, un documento inexistente da 404 sin consultas adicionales.
+     */
+    @Test
+    void delete_ShouldFailWithNotFoundWhenDocumentIsMissing() {
+        when(mongoTemplate.findAndRemove(any(Query.class), eq(Fare.class))).thenReturn(Mono.empty());
+
+        StepVerifier.create(atomicDocumentService.delete(Fare.class, "missing", null, "Fare"))
+                .expectErrorMatches(e -> e instanceof CustomException
+                        && ((CustomException) e).getErrorMessage().getErrorCode() == 404)
+                .verify();
+
+        verify(mongoTemplate, never()).exists(any(Query.class), any(Class.class));
+    }
+}
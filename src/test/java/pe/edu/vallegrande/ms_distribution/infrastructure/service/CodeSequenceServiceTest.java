@@ -0,0 +1,104 @@
+package pe.edu.vallegrande.ms_distribution.infrastructure.service;
+
+import com.mongodb.client.result.UpdateResult;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import pe.edu.vallegrande.ms_distribution.domain.enums.CodeSequence;
+import pe.edu.vallegrande.ms_distribution.domain.models.DistributionProgram;
+import pe.edu.vallegrande.ms_distribution.domain.models.SequenceCounter;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+public class CodeSequenceServiceTest {
+
+    @Mock
+    private ReactiveMongoTemplate mongoTemplate;
+
+    @InjectMocks
+    private CodeSequenceService codeSequenceService;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        when(mongoTemplate.getCollectionName(DistributionProgram.class)).thenReturn("programs");
+        when(mongoTemplate.upsert(any(Query.class), any(Update.class), eq(SequenceCounter.class)))
+                .thenReturn(Mono.just(UpdateResult.acknowledged(0, 0L, null)));
+    }
+
+    /**
+     * Sin contador, se inicializa con el mayor número usado comparando numéricamente
+     * (PROG1000 va después de PROG999) mediante un upsert con $max, y sólo una vez por proceso.
+     */
+    @Test
+    void nextCode_ShouldSeedFromNumericMaxWithIdempotentUpsert() {
+        when(mongoTemplate.exists(any(Query.class), eq(SequenceCounter.class))).thenReturn(Mono.just(false));
+        when(mongoTemplate.find(any(Query.class), eq(Document.class), eq("programs")))
+                .thenReturn(Flux.just(new Document("programCode", "PROG999"),
+                        new Document("programCode", "PROG1000"),
+                        new Document("programCode", "PROG010"),
+                        new Document("programCode", "LEGACY-7")));
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class), eq(SequenceCounter.class)))
+                .thenReturn(Mono.just(new SequenceCounter("PROG", 1001)))
+                .thenReturn(Mono.just(new SequenceCounter("PROG", 1002)));
+
+        StepVerifier.create(codeSequenceService.nextCode(CodeSequence.PROGRAM))
+                .expectNext("PROG1001")
+                .verifyComplete();
+        StepVerifier.create(codeSequenceService.nextCode(CodeSequence.PROGRAM))
+                .expectNext("PROG1002")
+                .verifyComplete();
+
+        ArgumentCaptor<Update> seed = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate, times(1)).upsert(any(Query.class), seed.capture(), eq(SequenceCounter.class));
+        assertEquals(new Document("seq", 1000L), seed.getValue().getUpdateObject().get("$max"));
+        verify(mongoTemplate, times(1)).exists(any(Query.class), eq(SequenceCounter.class));
+    }
+
+    /**
+     * Un bloque de n códigos es un solo $inc de n; los códigos van de last - n + 1 a last.
+     * Con el contador ya existente no se recorre la colección.
+     */
+    @Test
+    void nextCodes_ShouldReserveConsecutiveBlock() {
+        when(mongoTemplate.exists(any(Query.class), eq(SequenceCounter.class))).thenReturn(Mono.just(true));
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class), eq(SequenceCounter.class)))
+                .thenReturn(Mono.just(new SequenceCounter("PROG", 12)));
+
+        StepVerifier.create(codeSequenceService.nextCodes(CodeSequence.PROGRAM, 3))
+                .expectNext("PROG010", "PROG011", "PROG012")
+                .verifyComplete();
+
+        ArgumentCaptor<Update> increment = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate).findAndModify(any(Query.class), increment.capture(), any(FindAndModifyOptions.class), eq(SequenceCounter.class));
+        assertEquals(new Document("seq", 3), increment.getValue().getUpdateObject().get("$inc"));
+        verify(mongoTemplate, never()).find(any(Query.class), eq(Document.class), any(String.class));
+        verify(mongoTemplate, never()).upsert(any(Query.class), any(Update.class), eq(SequenceCounter.class));
+    }
+
+    /**
+     * Pedir cero o menos códigos no reserva nada ni consulta MongoDB.
+     */
+    @Test
+    void nextCodes_ShouldReturnEmptyForNonPositiveCount() {
+        StepVerifier.create(codeSequenceService.nextCodes(CodeSequence.PROGRAM, 0)).verifyComplete();
+        StepVerifier.create(codeSequenceService.nextCodes(CodeSequence.PROGRAM, -2)).verifyComplete();
+
+        verify(mongoTemplate, never()).exists(any(Query.class), eq(SequenceCounter.class));
+        verify(mongoTemplate, never()).findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class), eq(SequenceCounter.class));
+    }
+}
@@ -0,0 +1,140 @@
+package pe.edu.vallegrande.ms_distribution.infrastructure.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.data.mongodb.core.ChangeStreamEvent;
+import org.springframework.data.mongodb.core.ChangeStreamOptions;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import pe.edu.vallegrande.ms_distribution.domain.models.Fare;
+import pe.edu.vallegrande.ms_distribution.infrastructure.repository.FareRepository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Sinks;
+import reactor.test.StepVerifier;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.*;
+
+public class FareReadModelTest {
+
+    @Mock
+    private FareRepository fareRepository;
+
+    @Mock
+    private ReactiveMongoTemplate mongoTemplate;
+
+    @Mock
+    private ResponseBodyCache responseCache;
+
+    @InjectMocks
+    private FareReadModel fareReadModel;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+    }
+
+    /**
+     * Las lecturas repetidas se sirven de la misma instantánea; tras invalidar,
+     * la siguiente lectura ya refleja la escritura.
+     */
+    @Test
+    void reads_ShouldUseSnapshotUntilInvalidated() {
+        Fare active = Fare.builder().id("f-1").organizationId("org-1").status("ACTIVE").build();
+        Fare inactive = Fare.builder().id("f-1").organizationId("org-1").status("INACTIVE").build();
+        when(fareRepository.findAll()).thenReturn(Flux.just(active), Flux.just(inactive));
+
+        StepVerifier.create(fareReadModel.getAllByOrganization("org-1", "ACTIVE")).expectNext(active).verifyComplete();
+        StepVerifier.create(fareReadModel.getAllByStatus("ACTIVE")).expectNext(active).verifyComplete();
+        verify(fareRepository, times(1)).findAll();
+
+        fareReadModel.invalidate();
+
+        StepVerifier.create(fareReadModel.getAllByOrganization("org-1", "ACTIVE")).verifyComplete();
+        StepVerifier.create(fareReadModel.getById("f-1")).expectNext(inactive).verifyComplete();
+        verify(fareRepository, times(2)).findAll();
+    }
+
+    /**
+     * Una ráfaga de eventos del change stream no recarga una vez por evento: mientras
+     * una carga está en curso los eventos se reducen a una sola carga posterior.
+     */
+    @Test
+    void changeStream_ShouldCoalesceBurstIntoSingleReload() {
+        List<Sinks.Empty<Void>> loads = gatedLoads();
+        Sinks.Many<ChangeStreamEvent<Fare>> events = watch();
+
+        fareReadModel.watchChanges();
+        assertEquals(1, loads.size());
+        loads.get(0).tryEmitEmpty();
+
+        for (int i = 0; i < 100; i++) {
+            events.tryEmitNext(event());
+        }
+        assertEquals(2, loads.size());
+        loads.get(1).tryEmitEmpty();
+        assertEquals(3, loads.size());
+        loads.get(2).tryEmitEmpty();
+
+        assertEquals(3, loads.size());
+        verify(fareRepository, times(3)).findAll();
+    }
+
+    /**
+     * El evento de una escritura local reutiliza la carga pendiente que dejó invalidate(),
+     * en lugar de recargar dos veces.
+     */
+    @Test
+    void changeStream_ShouldReusePendingLoadAfterLocalWrite() {
+        List<Sinks.Empty<Void>> loads = gatedLoads();
+        Sinks.Many<ChangeStreamEvent<Fare>> events = watch();
+
+        fareReadModel.watchChanges();
+        loads.get(0).tryEmitEmpty();
+
+        fareReadModel.invalidate();
+        assertEquals(1, loads.size());
+        events.tryEmitNext(event());
+        assertEquals(2, loads.size());
+        loads.get(1).tryEmitEmpty();
+
+        StepVerifier.create(fareReadModel.getById("f-1")).expectNextCount(1).verifyComplete();
+        verify(fareRepository, times(2)).findAll();
+    }
+
+    /**
+     * Cada findAll queda retenido hasta que el test lo libera.
+     */
+    private List<Sinks.Empty<Void>> gatedLoads() {
+        Fare fare = Fare.builder().id("f-1").organizationId("org-1").status("ACTIVE").build();
+        List<Sinks.Empty<Void>> loads = new ArrayList<>();
+        when(fareRepository.findAll()).thenAnswer(invocation -> {
+            Sinks.Empty<Void> gate = Sinks.empty();
+            loads.add(gate);
+            return gate.asMono().thenMany(Flux.just(fare));
+        });
+        return loads;
+    }
+
+    @SuppressWarnings("unchecked")
+    private Sinks.Many<ChangeStreamEvent<Fare>> watch() {
+        Sinks.Many<ChangeStreamEvent<Fare>> events = Sinks.many().unicast().onBackpressureBuffer();
+        when(mongoTemplate.getCollectionName(Fare.class)).thenReturn("fares");
+        when(mongoTemplate.changeStream(isNull(), eq("fares"), any(ChangeStreamOptions.class), eq(Fare.class)))
+                .thenReturn(events.asFlux());
+        return events;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static ChangeStreamEvent<Fare> event() {
+        return mock(ChangeStreamEvent.class);
+    }
+}
@@ -0,0 +1,78 @@
+package pe.edu.vallegrande.ms_distribution.infrastructure.service;
+
+import io.github.resilience4j.bulkhead.BulkheadConfig;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import pe.edu.vallegrande.ms_distribution.application.config.ExternalApiProperties;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class MsUsersResilienceTest {
+
+    private final AtomicInteger attempts = new AtomicInteger();
+
+    /**
+     * Sin permisos libres en el bulkhead el segundo intento no se lanza: la respuesta es la
+     * del primario y el permiso vuelve al bulkhead al terminar.
+     */
+    @Test
+    void execute_ShouldSkipHedgeWhenBulkheadIsFull() {
+        BulkheadRegistry bulkheads = bulkheads(1);
+        MsUsersResilience resilience = resilience(bulkheads);
+
+        StepVerifier.create(resilience.execute("admins", "org-1", slowPrimary()))
+                .expectNext("primary")
+                .verifyComplete();
+
+        assertEquals(1, attempts.get());
+        assertEquals(1, bulkheads.bulkhead("msUsers-admins").getMetrics().getAvailableConcurrentCalls());
+    }
+
+    /**
+     * Con permisos libres el hedge ocupa el suyo; gana el más rápido y el intento cancelado
+     * también devuelve su permiso.
+     */
+    @Test
+    void execute_ShouldTakeOnePermitPerHedgedAttempt() {
+        BulkheadRegistry bulkheads = bulkheads(2);
+        MsUsersResilience resilience = resilience(bulkheads);
+
+        StepVerifier.create(resilience.execute("admins", "org-1", slowPrimary()))
+                .expectNext("hedge")
+                .verifyComplete();
+
+        assertEquals(2, attempts.get());
+        assertEquals(2, bulkheads.bulkhead("msUsers-admins").getMetrics().getAvailableConcurrentCalls());
+    }
+
+    private Supplier<Mono<String>> slowPrimary() {
+        return () -> attempts.incrementAndGet() == 1
+                ? Mono.delay(Duration.ofMillis(400)).thenReturn("primary")
+                : Mono.delay(Duration.ofMillis(10)).thenReturn("hedge");
+    }
+
+    private static BulkheadRegistry bulkheads(int maxConcurrentCalls) {
+        return BulkheadRegistry.of(BulkheadConfig.custom()
+                .maxConcurrentCalls(maxConcurrentCalls)
+                .maxWaitDuration(Duration.ZERO)
+                .build());
+    }
+
+    private static MsUsersResilience resilience(BulkheadRegistry bulkheads) {
+        ExternalApiProperties properties = new ExternalApiProperties();
+        properties.getMsUsers().getHedging().setEnabled(true);
+        properties.getMsUsers().getHedging().setMinDelay(Duration.ofMillis(50));
+        properties.getMsUsers().getHedging().setMaxDelay(Duration.ofMillis(50));
+        return new MsUsersResilience(CircuitBreakerRegistry.ofDefaults(), bulkheads, new SimpleMeterRegistry(),
+                new OrganizationTags(Set.of(), 16), properties);
+    }
+}
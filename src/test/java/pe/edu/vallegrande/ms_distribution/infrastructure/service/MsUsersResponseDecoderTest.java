@@ -0,0 +1,110 @@
+package pe.edu.vallegrande.ms_distribution.infrastructure.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.ResolvableType;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.json.Jackson2JsonDecoder;
+import pe.edu.vallegrande.ms_distribution.infrastructure.dto.external.AdminUserResponse;
+import pe.edu.vallegrande.ms_distribution.infrastructure.dto.external.MsUsersApiResponse;
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+
+public class MsUsersResponseDecoderTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final MsUsersResponseDecoder decoder = new MsUsersResponseDecoder(objectMapper);
+
+    /**
+     * Los elementos de "data" se reconstruyen aunque los tokens queden partidos entre buffers,
+     * y los campos fuera de "data" no se emiten.
+     */
+    @Test
+    void decodeData_ShouldEmitElementsAcrossBufferBoundaries() {
+        String body = """
+                {"meta": {"data": [{"id": "ignored"}]}, "data": [
+                  {"id": "admin-1", "firstName": "Ana", "roles": ["ADMIN"], "zone": {"zoneId": "z-1"}},
+                  null,
+                  {"id": "admin-2", "firstName": "Luis", "roles": []}
+                ], "success": true, "message": "ok"}""";
+
+        StepVerifier.create(decoder.decodeData(chunks(body, 7), AdminUserResponse.class))
+                .expectNextMatches(admin -> "Ana".equals(admin.getFirstName()) && "z-1".equals(admin.getZone().getZoneId()))
+                .expectNextMatches(admin -> "admin-2".equals(admin.getId()) && admin.getRoles().isEmpty())
+                .verifyComplete();
+    }
+
+    /**
+     * Un sobre con success=false no emite los elementos de "data", tanto si "success" llega
+     * antes como después del arreglo.
+     */
+    @Test
+    void decodeData_ShouldNotEmitElementsWhenSuccessIsFalse() {
+        String successFirst = """
+                {"success": false, "message": "forbidden", "data": [{"id": "admin-1"}]}""";
+        String dataFirst = """
+                {"data": [{"id": "admin-1"}, {"id": "admin-2"}], "message": "forbidden", "success": false}""";
+
+        StepVerifier.create(decoder.decodeData(chunks(successFirst, 5), AdminUserResponse.class))
+                .verifyComplete();
+        StepVerifier.create(decoder.decodeData(chunks(dataFirst, 5), AdminUserResponse.class))
+                .verifyComplete();
+    }
+
+    /**
+     * El sobre tipado decodifica directamente a AdminUserResponse el mismo cuerpo que
+     * decodeData, sin pasar por mapas intermedios.
+     */
+    @Test
+    @SuppressWarnings("unchecked")
+    void typedEnvelope_ShouldDecodeSameAdminsAsStreaming() {
+        String body = adminsBody(200);
+        ResolvableType typedEnvelope = ResolvableType.forClassWithGenerics(MsUsersApiResponse.class, AdminUserResponse.class);
+
+        MsUsersApiResponse<AdminUserResponse> response = (MsUsersApiResponse<AdminUserResponse>) new Jackson2JsonDecoder(objectMapper)
+                .decodeToMono(chunks(body, 8192), typedEnvelope, MediaType.APPLICATION_JSON, Map.of())
+                .block();
+        List<AdminUserResponse> streamed = decoder.decodeData(chunks(body, 8192), AdminUserResponse.class).collectList().block();
+
+        assertEquals(200, response.getData().size());
+        assertInstanceOf(AdminUserResponse.class, response.getData().get(199));
+        assertEquals("admin-199", response.getData().get(199).getId());
+        assertEquals(streamed.stream().map(AdminUserResponse::getId).toList(),
+                response.getData().stream().map(AdminUserResponse::getId).toList());
+    }
+
+    private static String adminsBody(int count) {
+        StringBuilder body = new StringBuilder("{\"success\": true, \"message\": \"ok\", \"data\": [");
+        for (int i = 0; i < count; i++) {
+            if (i > 0) {
+                body.append(',');
+            }
+            body.append("""
+                    {"id": "admin-%1$d", "userCode": "USR%1$03d", "firstName": "Nombre", "lastName": "Apellido",
+                     "documentType": "DNI", "documentNumber": "7000%1$04d", "email": "admin%1$d@jass.pe",
+                     "phone": "999000111", "address": "Av. Principal 123", "roles": ["ADMIN", "USER"],
+                     "status": "ACTIVE", "createdAt": "2025-01-01T00:00:00Z", "updatedAt": "2025-01-01T00:00:00Z",
+                     "organization": {"organizationId": "org-1", "organizationCode": "ORG001", "organizationName": "JASS"},
+                     "zone": {"zoneId": "z-1", "zoneCode": "ZN001", "zoneName": "Centro", "status": "ACTIVE"}}"""
+                    .formatted(i));
+        }
+        return body.append("]}").toString();
+    }
+
+    private static Flux<DataBuffer> chunks(String body, int size) {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        return Flux.range(0, (bytes.length + size - 1) / size)
+                .map(i -> DefaultDataBufferFactory.sharedInstance
+                        .wrap(Arrays.copyOfRange(bytes, i * size, Math.min(bytes.length, (i + 1) * size))));
+    }
+}
@@ -0,0 +1,69 @@
+package pe.edu.vallegrande.ms_distribution.infrastructure.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+public class MsUsersStreamRelayTest {
+
+    private static final String BODY = """
+            {"success": true, "data": [
+              {"id": "c-1", "firstName": "Ana", "zone": {"zoneId": "z-1", "tags": [1, 2]}, "roles": ["CLIENT"]},
+              {"firstName": "Luis", "id": "c-2", "address": null}
+            ], "message": "ok"}""";
+
+    private final MsUsersStreamRelay relay = new MsUsersStreamRelay(new ObjectMapper());
+
+    /**
+     * En NDJSON cada elemento de "data" sale en su propia línea con solo los campos pedidos,
+     * aunque los tokens lleguen partidos entre buffers.
+     */
+    @Test
+    void relay_ShouldReframeAsNdjsonAndProjectFields() {
+        Flux<DataBuffer> output = relay.relay(chunks(BODY, 5), Set.of("id", "firstName"), true,
+                DefaultDataBufferFactory.sharedInstance);
+
+        StepVerifier.create(join(output))
+                .expectNext("{\"id\":\"c-1\",\"firstName\":\"Ana\"}\n{\"firstName\":\"Luis\",\"id\":\"c-2\"}\n")
+                .verifyComplete();
+    }
+
+    /**
+     * Sin proyección el cuerpo se reenvía sin tocar; con proyección se conserva el sobre.
+     */
+    @Test
+    void relay_ShouldPassThroughUntouchedOrKeepEnvelopeWhenProjecting() {
+        Flux<DataBuffer> upstream = chunks(BODY, 64);
+        assertSame(upstream, relay.relay(upstream, Set.of(), false, DefaultDataBufferFactory.sharedInstance));
+
+        StepVerifier.create(join(relay.relay(chunks(BODY, 3), Set.of("zone"), false, DefaultDataBufferFactory.sharedInstance)))
+                .expectNext("{\"success\":true,\"data\":[{\"zone\":{\"zoneId\":\"z-1\",\"tags\":[1,2]}},{}],\"message\":\"ok\"}")
+                .verifyComplete();
+    }
+
+    private static Mono<String> join(Flux<DataBuffer> buffers) {
+        return DataBufferUtils.join(buffers).map(buffer -> {
+            String text = buffer.toString(StandardCharsets.UTF_8);
+            DataBufferUtils.release(buffer);
+            return text;
+        });
+    }
+
+    private static Flux<DataBuffer> chunks(String body, int size) {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        return Flux.range(0, (bytes.length + size - 1) / size)
+                .map(i -> DefaultDataBufferFactory.sharedInstance
+                        .wrap(Arrays.copyOfRange(bytes, i * size, Math.min(bytes.length, (i + 1) * size))));
+    }
+}
@@ -0,0 +1,164 @@
+package pe.edu.vallegrande.ms_distribution.infrastructure.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.reactive.function.client.WebClient;
+import pe.edu.vallegrande.ms_distribution.application.config.ExternalApiProperties;
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class OrganizationServiceTest {
+
+    private static final String ADMINS_BODY = """
+            {"success": true, "message": "ok", "data": [
+              {"id": "admin-1", "firstName": "Ana", "roles": ["ADMIN"]},
+              {"id": "admin-2", "firstName": "Luis", "roles": ["ADMIN"]}
+            ]}""";
+
+    private MockWebServer server;
+    private SimpleMeterRegistry meterRegistry;
+    private MsUsersResilience resilience;
+    private OrganizationService organizationService;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = new MockWebServer();
+        server.start();
+        meterRegistry = new SimpleMeterRegistry();
+
+        WebClient webClient = WebClient.builder().baseUrl(server.url("/").toString()).build();
+        CircuitBreakerRegistry circuitBreakers = CircuitBreakerRegistry.of(CircuitBreakerConfig.custom()
+                .slidingWindowSize(2)
+                .minimumNumberOfCalls(2)
+                .failureRateThreshold(50)
+                .waitDurationInOpenState(Duration.ofMinutes(1))
+                .build());
+        resilience = new MsUsersResilience(circuitBreakers, BulkheadRegistry.ofDefaults(), meterRegistry,
+                new OrganizationTags(Set.of("org-1"), 16), new ExternalApiProperties());
+        organizationService = new OrganizationService(webClient, new MsUsersResponseDecoder(new ObjectMapper()),
+                new MsUsersStreamRelay(new ObjectMapper()), meterRegistry, resilience);
+        ReflectionTestUtils.setField(organizationService, "adminsEndpoint", "/internal/organizations/{organizationId}/admins");
+        ReflectionTestUtils.setField(organizationService, "clientsEndpoint", "/internal/organizations/{organizationId}/clients");
+        ReflectionTestUtils.setField(organizationService, "cacheTtl", Duration.ofMinutes(5));
+        ReflectionTestUtils.setField(organizationService, "cacheRefreshAfter", Duration.ofMinutes(1));
+        ReflectionTestUtils.setField(organizationService, "cacheMaxSize", 100L);
+        ReflectionTestUtils.setField(organizationService, "cacheStaleTtl", Duration.ofHours(1));
+        organizationService.initAdminsCache();
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        server.shutdown();
+    }
+
+    /**
+     * Varias verificaciones concurrentes para la misma organización
+     * se resuelven con una sola llamada a MS-USERS.
+     */
+    @Test
+    void isAuthorizedAdmin_ShouldCoalesceConcurrentLookups() {
+        server.enqueue(new MockResponse()
+                .setHeader("Content-Type", "application/json")
+                .setBody(ADMINS_BODY)
+                .setBodyDelay(200, TimeUnit.MILLISECONDS));
+
+        StepVerifier.create(Flux.range(0, 20)
+                        .flatMap(i -> organizationService.isAuthorizedAdmin("org-1", i % 2 == 0 ? "admin-1" : "other"))
+                        .filter(Boolean::booleanValue)
+                        .count())
+                .expectNext(10L)
+                .verifyComplete();
+
+        StepVerifier.create(organizationService.getAdminById("org-1", "admin-2"))
+                .expectNextMatches(admin -> "Luis".equals(admin.getFirstName()))
+                .verifyComplete();
+
+        assertEquals(1, server.getRequestCount());
+        assertTrue(meterRegistry.get("cache.gets").tag("cache", "ms-users.admins").tag("result", "hit")
+                .functionCounter().count() > 0);
+    }
+
+    /**
+     * La verificación en lote responde por cada usuario usando el índice de la organización.
+     */
+    @Test
+    void areAuthorizedAdmins_ShouldAnswerEveryUserFromOneLookup() {
+        server.enqueue(new MockResponse()
+                .setHeader("Content-Type", "application/json")
+                .setBody(ADMINS_BODY));
+
+        StepVerifier.create(organizationService.areAuthorizedAdmins("org-1", List.of("admin-2", "ghost", "admin-1")))
+                .expectNext(Map.of("admin-2", true, "ghost", false, "admin-1", true))
+                .verifyComplete();
+
+        assertEquals(1, server.getRequestCount());
+    }
+
+    /**
+     * Con MS-USERS caído se sirve el último directorio válido; tras abrirse el circuito
+     * ya no se realizan llamadas remotas. Cada llamada queda medida con su resultado.
+     */
+    @Test
+    void isAuthorizedAdmin_ShouldServeStaleDataWhenCircuitOpens() {
+        server.enqueue(new MockResponse()
+                .setHeader("Content-Type", "application/json")
+                .setBody(ADMINS_BODY));
+        server.enqueue(new MockResponse().setResponseCode(503));
+
+        for (int i = 0; i < 3; i++) {
+            StepVerifier.create(organizationService.isAuthorizedAdmin("org-1", "admin-1"))
+                    .expectNext(true)
+                    .verifyComplete();
+            organizationService.evictAuthorizedAdmins("org-1");
+        }
+
+        assertEquals(CircuitBreaker.State.OPEN, resilience.circuitState());
+        assertEquals(2, server.getRequestCount());
+        for (String outcome : List.of("success", "server_error", "circuit_open")) {
+            assertEquals(1, meterRegistry.get(MsUsersResilience.REQUESTS_METRIC)
+                    .tags("endpoint", "admins", "outcome", outcome, OrganizationTags.TAG, "org-1")
+                    .timer().count(), outcome);
+        }
+    }
+
+    /**
+     * Los clientes se emiten uno a uno aunque la respuesta llegue fragmentada en la red.
+     */
+    @Test
+    void getOrganizationClients_ShouldStreamEachElementOfData() {
+        server.enqueue(new MockResponse()
+                .setHeader("Content-Type", "application/json")
+                .setBody("""
+                        {"data": [
+                          {"id": "c-1", "zone": {"zoneId": "z-1"}},
+                          {"id": "c-2", "tags": ["a", "b"]}
+                        ], "success": true, "message": "ok"}""")
+                .throttleBody(16, 5, TimeUnit.MILLISECONDS));
+
+        StepVerifier.create(organizationService.getOrganizationClients("org-1"))
+                .expectNextMatches(client -> "c-1".equals(client.get("id").asText())
+                        && "z-1".equals(client.path("zone").path("zoneId").asText()))
+                .expectNextMatches(client -> client.get("tags").size() == 2)
+                .verifyComplete();
+    }
+}
@@ -0,0 +1,137 @@
+package pe.edu.vallegrande.ms_distribution.infrastructure.service;
+
+import com.mongodb.MongoCommandException;
+import com.mongodb.ServerAddress;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.bson.BsonDocument;
+import org.bson.BsonInt32;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.ChangeStreamOptions;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import pe.edu.vallegrande.ms_distribution.domain.models.DistributionProgram;
+import pe.edu.vallegrande.ms_distribution.infrastructure.dto.response.ProgramChangeEvent;
+import pe.edu.vallegrande.ms_distribution.infrastructure.exception.CustomException;
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.*;
+
+public class ProgramChangeHubTest {
+
+    private ProgramChangeHub hub;
+
+    @BeforeEach
+    void setUp() {
+        hub = new ProgramChangeHub(mock(ReactiveMongoTemplate.class), new SimpleMeterRegistry(), 3);
+    }
+
+    /**
+     * En un servidor standalone (código 40573) el change stream no se reintenta: se abre una
+     * sola vez y las suscripciones posteriores fallan con 503 en lugar de quedar sin eventos.
+     */
+    @Test
+    void watchChanges_ShouldStopRetryingWhenChangeStreamsAreUnsupported() {
+        ReactiveMongoTemplate mongoTemplate = mock(ReactiveMongoTemplate.class);
+        ProgramChangeHub standalone = new ProgramChangeHub(mongoTemplate, new SimpleMeterRegistry(), 3);
+        when(mongoTemplate.getCollectionName(DistributionProgram.class)).thenReturn("programs");
+        when(mongoTemplate.changeStream(isNull(), eq("programs"), any(ChangeStreamOptions.class), eq(DistributionProgram.class)))
+                .thenReturn(Flux.error(new MongoCommandException(
+                        new BsonDocument("code", new BsonInt32(40573)), new ServerAddress())));
+
+        standalone.watchChanges();
+
+        verify(mongoTemplate, times(1)).changeStream(isNull(), eq("programs"), any(ChangeStreamOptions.class), eq(DistributionProgram.class));
+        StepVerifier.create(standalone.subscribe("org-1", null, null))
+                .expectErrorMatches(e -> e instanceof CustomException
+                        && ((CustomException) e).getErrorMessage().getErrorCode() == 503)
+                .verify();
+    }
+
+    /**
+     * Solo llegan los cambios de la organización y zona suscritas, en orden de publicación.
+     */
+    @Test
+    void subscribe_ShouldFilterByOrganizationAndZone() {
+        StepVerifier.create(hub.subscribe("org-1", "zone-1", null))
+                .then(() -> {
+                    hub.publish(change("e1", "org-1", "zone-1"));
+                    hub.publish(change("e2", "org-1", "zone-2"));
+                    hub.publish(change("e3", "org-2", "zone-1"));
+                    hub.publish(change("e4", "org-1", "zone-1"));
+                })
+                .expectNextMatches(event -> "e1".equals(event.getId()))
+                .expectNextMatches(event -> "e4".equals(event.getId()))
+                .thenCancel()
+                .verify();
+    }
+
+    /**
+     * Al reconectar con Last-Event-ID se reenvían los eventos posteriores que siguen en el búfer.
+     */
+    @Test
+    void subscribe_ShouldResumeAfterLastEventId() {
+        hub.publish(change("e1", "org-1", "zone-1"));
+        hub.publish(change("e2", "org-1", "zone-1"));
+        hub.publish(change("e3", "org-1", "zone-1"));
+
+        StepVerifier.create(hub.subscribe("org-1", null, "e1"))
+                .expectNextMatches(event -> "e2".equals(event.getId()))
+                .expectNextMatches(event -> "e3".equals(event.getId()))
+                .thenCancel()
+                .verify();
+    }
+
+    /**
+     * Si el id ya salió del búfer, el cliente recibe un reset con el último id para recargar y continuar.
+     */
+    @Test
+    void subscribe_ShouldResetWhenLastEventIdIsGone() {
+        for (int i = 1; i <= 5; i++) {
+            hub.publish(change("e" + i, "org-1", "zone-1"));
+        }
+
+        StepVerifier.create(hub.subscribe("org-1", null, "e1"))
+                .expectNextMatches(event -> ProgramChangeEvent.RESET.equals(event.getType()) && "e5".equals(event.getId()))
+                .then(() -> hub.publish(change("e6", "org-1", "zone-1")))
+                .expectNextMatches(event -> "e6".equals(event.getId()))
+                .thenCancel()
+                .verify();
+    }
+
+    /**
+     * Un consumidor sin demanda no bloquea la publicación: retiene como mucho el lote ya drenado
+     * y, al haberse quedado por detrás del búfer, recibe un reset en lugar de una cola sin límite.
+     */
+    @Test
+    void subscribe_ShouldResetSlowConsumer() {
+        StepVerifier.create(hub.subscribe("org-1", null, null), 1)
+                .then(() -> hub.publish(change("e1", "org-1", "zone-1")))
+                .expectNextMatches(event -> "e1".equals(event.getId()))
+                .then(() -> {
+                    for (int i = 2; i <= 8; i++) {
+                        hub.publish(change("e" + i, "org-1", "zone-1"));
+                    }
+                })
+                .thenRequest(1)
+                .expectNextMatches(event -> "e2".equals(event.getId()))
+                .thenRequest(1)
+                .expectNextMatches(event -> ProgramChangeEvent.RESET.equals(event.getType()))
+                .thenCancel()
+                .verify();
+    }
+
+    private static ProgramChangeEvent change(String id, String organizationId, String zoneId) {
+        return ProgramChangeEvent.builder()
+                .id(id)
+                .type(ProgramChangeEvent.CHANGE)
+                .programId("p-" + id)
+                .organizationId(organizationId)
+                .zoneId(zoneId)
+                .status("IN_PROGRESS")
+                .build();
+    }
+}
@@ -0,0 +1,48 @@
+package pe.edu.vallegrande.ms_distribution.infrastructure.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ResponseBodyCacheTest {
+
+    private final ResponseBodyCache cache =
+            new ResponseBodyCache(new ObjectMapper(), new SimpleMeterRegistry(), Duration.ofMinutes(5), 100);
+
+    /**
+     * El cuerpo se serializa una vez y solo se reconstruye al invalidar su propio espacio.
+     */
+    @Test
+    void get_ShouldSerializeOnceUntilNamespaceIsInvalidated() {
+        AtomicInteger loads = new AtomicInteger();
+        List<String> names = IntStream.range(0, 200).mapToObj(i -> "Tarifa " + i).toList();
+
+        ResponseBodyCache.CachedBody first = cache.get(ResponseBodyCache.FARES, "active",
+                () -> Mono.fromSupplier(() -> { loads.incrementAndGet(); return names; })).block();
+        ResponseBodyCache.CachedBody second = cache.get(ResponseBodyCache.FARES, "active",
+                () -> Mono.fromSupplier(() -> { loads.incrementAndGet(); return names; })).block();
+
+        assertSame(first, second);
+        assertTrue(first.hasGzip());
+        assertTrue(first.getGzip().length < first.getJson().length);
+        assertNotEquals(first.getEtag(), first.getGzipEtag());
+
+        cache.invalidate(ResponseBodyCache.ROUTES);
+        cache.get(ResponseBodyCache.FARES, "active", () -> Mono.fromSupplier(() -> { loads.incrementAndGet(); return names; })).block();
+        assertEquals(1, loads.get());
+
+        cache.invalidate(ResponseBodyCache.FARES);
+        ResponseBodyCache.CachedBody reloaded = cache.get(ResponseBodyCache.FARES, "active",
+                () -> Mono.fromSupplier(() -> { loads.incrementAndGet(); return names; })).block();
+        assertEquals(2, loads.get());
+        assertEquals(first.getEtag(), reloaded.getEtag());
+    }
+}
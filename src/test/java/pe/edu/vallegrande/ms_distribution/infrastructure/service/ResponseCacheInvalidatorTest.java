@@ -0,0 +1,69 @@
+package pe.edu.vallegrande.ms_distribution.infrastructure.service;
+
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.data.mongodb.core.ChangeStreamEvent;
+import org.springframework.data.mongodb.core.ChangeStreamOptions;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import pe.edu.vallegrande.ms_distribution.domain.models.DistributionRoute;
+import pe.edu.vallegrande.ms_distribution.domain.models.DistributionSchedule;
+import reactor.core.publisher.Sinks;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.*;
+
+public class ResponseCacheInvalidatorTest {
+
+    @Mock
+    private ReactiveMongoTemplate mongoTemplate;
+
+    @Mock
+    private ResponseBodyCache responseCache;
+
+    @InjectMocks
+    private ResponseCacheInvalidator invalidator;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+    }
+
+    /**
+     * Un cambio en la colección de rutas escrito por otra instancia invalida solo el espacio
+     * de rutas; los horarios siguen en caché hasta que cambie su propia colección.
+     */
+    @Test
+    void changeStream_ShouldInvalidateOnlyTheChangedNamespace() {
+        Sinks.Many<ChangeStreamEvent<Document>> routes = watch(DistributionRoute.class, "routes");
+        Sinks.Many<ChangeStreamEvent<Document>> schedules = watch(DistributionSchedule.class, "schedules");
+
+        invalidator.watchChanges();
+        routes.tryEmitNext(event());
+
+        verify(responseCache).invalidate(ResponseBodyCache.ROUTES);
+        verify(responseCache, never()).invalidate(ResponseBodyCache.SCHEDULES);
+
+        schedules.tryEmitNext(event());
+        verify(responseCache).invalidate(ResponseBodyCache.SCHEDULES);
+        invalidator.stopWatching();
+    }
+
+    private Sinks.Many<ChangeStreamEvent<Document>> watch(Class<?> type, String collection) {
+        Sinks.Many<ChangeStreamEvent<Document>> events = Sinks.many().unicast().onBackpressureBuffer();
+        when(mongoTemplate.getCollectionName(type)).thenReturn(collection);
+        when(mongoTemplate.changeStream(isNull(), eq(collection), any(ChangeStreamOptions.class), eq(Document.class)))
+                .thenReturn(events.asFlux());
+        return events;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static ChangeStreamEvent<Document> event() {
+        return mock(ChangeStreamEvent.class);
+    }
+}
@@ -0,0 +1,95 @@
+package pe.edu.vallegrande.ms_distribution.infrastructure.service;
+
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.observation.DefaultMeterObservationHandler;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
+import io.micrometer.observation.contextpropagation.ObservationThreadLocalAccessor;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.framework.ProxyFactory;
+import pe.edu.vallegrande.ms_distribution.infrastructure.dto.request.ProgramGenerationRequest;
+import pe.edu.vallegrande.ms_distribution.infrastructure.exception.CustomException;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ServiceObservationInterceptorTest {
+
+    interface SampleService {
+        Mono<String> byOrganization(String organizationId);
+        Mono<String> generate(ProgramGenerationRequest request);
+    }
+
+    static class SampleServiceImpl implements SampleService {
+        @Override
+        public Mono<String> byOrganization(String organizationId) {
+            // Devuelve el nombre de la observación visible para los operadores internos
+            return Mono.deferContextual(context -> Mono.just(context
+                            .<Observation>get(ObservationThreadLocalAccessor.KEY).getContext().getContextualName()))
+                    .delayElement(Duration.ofMillis(50));
+        }
+
+        @Override
+        public Mono<String> generate(ProgramGenerationRequest request) {
+            return Mono.error(CustomException.badRequest("Invalid range", "'to' must not be before 'from'"));
+        }
+    }
+
+    private SimpleMeterRegistry meterRegistry;
+    private SampleService service;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        ObservationRegistry observationRegistry = ObservationRegistry.create();
+        observationRegistry.observationConfig().observationHandler(new DefaultMeterObservationHandler(meterRegistry));
+
+        ProxyFactory proxyFactory = new ProxyFactory(new SampleServiceImpl());
+        proxyFactory.setProxyTargetClass(true);
+        proxyFactory.addAdvice(new ServiceObservationInterceptor(observationRegistry, new OrganizationTags(Set.of("org-1"), 16)));
+        service = (SampleService) proxyFactory.getProxy();
+    }
+
+    /**
+     * La observación va en el contexto de Reactor (para los spans hijos) y el tiempo se mide
+     * hasta que el Mono emite, no hasta que el método devuelve la cadena.
+     */
+    @Test
+    void invoke_ShouldObserveUntilTheMonoCompletes() {
+        StepVerifier.create(service.byOrganization("org-1"))
+                .expectNext("SampleService.byOrganization")
+                .verifyComplete();
+
+        Timer timer = meterRegistry.get(ServiceObservationInterceptor.NAME)
+                .tags("service", "SampleService", "method", "byOrganization", "outcome", "success",
+                        OrganizationTags.TAG, "org-1")
+                .timer();
+        assertEquals(1, timer.count());
+        assertTrue(timer.totalTime(TimeUnit.MILLISECONDS) >= 50);
+    }
+
+    /**
+     * Las organizaciones no configuradas van a su bucket por hash ("org-2" cae en org-9 de 16);
+     * la organización también se toma de los requests con getOrganizationId().
+     */
+    @Test
+    void invoke_ShouldBucketUntrackedOrganizationsByHash() {
+        StepVerifier.create(service.byOrganization("org-1")).expectNextCount(1).verifyComplete();
+        StepVerifier.create(service.generate(new ProgramGenerationRequest("org-2", "2025-01-10", "2025-01-01")))
+                .expectError(CustomException.class)
+                .verify();
+
+        assertEquals(1, meterRegistry.get(ServiceObservationInterceptor.NAME)
+                .tags("method", "generate", "outcome", "client_error", "error", "CustomException",
+                        OrganizationTags.TAG, "org-9")
+                .timer().count());
+    }
+}
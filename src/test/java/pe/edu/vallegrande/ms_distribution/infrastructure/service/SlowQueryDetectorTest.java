@@ -0,0 +1,125 @@
+package pe.edu.vallegrande.ms_distribution.infrastructure.service;
+
+import com.mongodb.ServerAddress;
+import com.mongodb.connection.ClusterId;
+import com.mongodb.connection.ConnectionDescription;
+import com.mongodb.connection.ServerId;
+import com.mongodb.event.CommandStartedEvent;
+import com.mongodb.event.CommandSucceededEvent;
+import com.mongodb.reactivestreams.client.MongoDatabase;
+import org.bson.BsonDocument;
+import org.bson.Document;
+import org.bson.conversions.Bson;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.data.mongodb.ReactiveMongoDatabaseFactory;
+import pe.edu.vallegrande.ms_distribution.infrastructure.dto.response.QueryShapeResponse;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+public class SlowQueryDetectorTest {
+
+    private static final ConnectionDescription CONNECTION =
+            new ConnectionDescription(new ServerId(new ClusterId(), new ServerAddress()));
+
+    @Mock
+    private ObjectProvider<ReactiveMongoDatabaseFactory> databaseFactoryProvider;
+
+    @Mock
+    private ReactiveMongoDatabaseFactory databaseFactory;
+
+    @Mock
+    private MongoDatabase database;
+
+    private SlowQueryDetector detector;
+
+    private int requestId;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        when(databaseFactoryProvider.getObject()).thenReturn(databaseFactory);
+        when(databaseFactory.getMongoDatabase("jass")).thenReturn(Mono.just(database));
+        detector = new SlowQueryDetector(databaseFactoryProvider, Duration.ofMillis(100), Duration.ofMinutes(10), 10, 100);
+    }
+
+    /**
+     * Consultas que sólo difieren en los valores comparten forma; el primer explain muestra
+     * un COLLSCAN con orden en memoria y se sugiere el índice igualdad-orden-rango.
+     */
+    @Test
+    void report_ShouldSuggestIndexForCollectionScan() {
+        when(database.runCommand(any(Bson.class))).thenReturn(Mono.just(Document.parse("""
+                {"queryPlanner": {"winningPlan": {"stage": "SORT", "inputStage": {"stage": "COLLSCAN"}},
+                                  "rejectedPlans": [{"stage": "IXSCAN", "indexName": "org_status_idx"}]},
+                 "executionStats": {"nReturned": 3, "totalKeysExamined": 0, "totalDocsExamined": 5000}}""")));
+
+        execute("find", """
+                {"find": "programs", "filter": {"status": "PLANNED", "programDate": {"$gte": "2025-01-01"}},
+                 "sort": {"programCode": -1}, "$db": "jass", "lsid": {"id": 1}}""", 30);
+        execute("find", """
+                {"find": "programs", "filter": {"status": "COMPLETED", "programDate": {"$gte": "2025-02-01"}},
+                 "sort": {"programCode": -1}, "$db": "jass"}""", 250);
+
+        List<QueryShapeResponse> report = detector.report();
+        assertEquals(1, report.size());
+        QueryShapeResponse shape = report.get(0);
+        assertEquals("programs.find filter={status: eq, programDate: range} sort={programCode: -1}", shape.getShape());
+        assertEquals(2L, shape.getCount());
+        assertEquals(1L, shape.getSlow());
+        assertEquals(List.of("SORT", "COLLSCAN"), shape.getPlan());
+        assertTrue(shape.getIndexes().isEmpty());
+        assertTrue(shape.getNeedsIndex());
+        assertEquals("{'status': 1, 'programCode': -1, 'programDate': 1}", shape.getSuggestedIndex());
+
+        // Un solo explain, sin los campos de sesión del comando original
+        ArgumentCaptor<Bson> explain = ArgumentCaptor.forClass(Bson.class);
+        verify(database, times(1)).runCommand(explain.capture());
+        BsonDocument explained = ((BsonDocument) explain.getValue()).getDocument("explain");
+        assertFalse(explained.containsKey("$db"));
+        assertFalse(explained.containsKey("lsid"));
+    }
+
+    /**
+     * Una consulta resuelta con índice no se marca; los change streams no se registran.
+     */
+    @Test
+    void report_ShouldNotFlagIndexedQuery() {
+        when(database.runCommand(any(Bson.class))).thenReturn(Mono.just(Document.parse("""
+                {"stages": [{"$cursor": {"queryPlanner": {"winningPlan": {"stage": "FETCH",
+                                 "inputStage": {"stage": "IXSCAN", "indexName": "org_zone_day_idx"}}},
+                             "executionStats": {"nReturned": 30, "totalKeysExamined": 30, "totalDocsExamined": 30}}},
+                            {"$group": {"_id": "$zoneId"}}]}""")));
+
+        execute("aggregate", """
+                {"aggregate": "program_daily_rollups", "pipeline": [
+                    {"$match": {"organizationId": "org-1", "day": {"$gte": "2025-01-01", "$lte": "2025-01-31"}}},
+                    {"$group": {"_id": "$zoneId"}}], "cursor": {}, "$db": "jass"}""", 5);
+        execute("aggregate", """
+                {"aggregate": "programs", "pipeline": [{"$changeStream": {}}], "cursor": {}, "$db": "jass"}""", 5);
+
+        List<QueryShapeResponse> report = detector.report();
+        assertEquals(1, report.size());
+        assertEquals(List.of("org_zone_day_idx"), report.get(0).getIndexes());
+        assertFalse(report.get(0).getNeedsIndex());
+        assertNull(report.get(0).getSuggestedIndex());
+    }
+
+    private void execute(String commandName, String command, long millis) {
+        int id = ++requestId;
+        detector.commandStarted(new CommandStartedEvent(null, id, id, CONNECTION, "jass", commandName,
+                BsonDocument.parse(command)));
+        detector.commandSucceeded(new CommandSucceededEvent(null, id, id, CONNECTION, "jass", commandName,
+                new BsonDocument(), Duration.ofMillis(millis).toNanos()));
+    }
+}